@@ -17,6 +17,7 @@ import com.wynvers.quantum.placeholderapi.PlaceholderAPIManager;
 import com.wynvers.quantum.worldguard.ZoneManager;
 import com.wynvers.quantum.levels.PlayerLevelListener;
 import com.wynvers.quantum.levels.PlayerLevelManager;
+import com.wynvers.quantum.session.PlayerSessionLoader;
 import com.wynvers.quantum.listeners.DoorSelectionListener;
 import com.wynvers.quantum.listeners.MenuListener;
 
@@ -44,6 +45,7 @@ import com.wynvers.quantum.commands.DungeonUtilCommand;
 import com.wynvers.quantum.commands.DungeonUtilTabCompleter;
 import com.wynvers.quantum.managers.*;
 import com.wynvers.quantum.menu.StorageSettingsMenuListener;
+import com.wynvers.quantum.menu.DisplayItemTemplates;
 import com.wynvers.quantum.orders.OrderAcceptanceHandler;
 import com.wynvers.quantum.orders.OrderButtonHandler;
 import com.wynvers.quantum.orders.OrderCreationManager;
@@ -51,6 +53,7 @@ import com.wynvers.quantum.sell.SellManager;
 import com.wynvers.quantum.statistics.StatisticsManager;
 import com.wynvers.quantum.statistics.StorageStatsManager;
 import com.wynvers.quantum.statistics.TradingStatisticsManager;
+import com.wynvers.quantum.storage.StorageFilterHandler;
 import com.wynvers.quantum.storage.upgrades.StorageUpgradeManager;
 import com.wynvers.quantum.tabcompleters.*;
 import com.wynvers.quantum.towers.*;
@@ -81,6 +84,7 @@ public final class Quantum extends JavaPlugin {
     private PlayerLevelManager playerLevelManager;
 
     private StorageManager storageManager;
+    private StorageFilterHandler storageFilterHandler;
     private MenuManager menuManager;
     private PlaceholderManager placeholderManager;
     private AnimationManager animationManager;
@@ -89,6 +93,7 @@ public final class Quantum extends JavaPlugin {
     private MessagesManager messagesManager;      // Legacy messages
     private EscrowManager escrowManager;          // NEW: Escrow system
     private PriceManager priceManager;
+    private DisplayItemTemplates displayItemTemplates;
     private VaultManager vaultManager;
     private SellManager sellManager;
     private OrderManager orderManager;
@@ -110,6 +115,7 @@ public final class Quantum extends JavaPlugin {
     private StorageUpgradeManager storageUpgradeManager;
     private StorageUpgradeManager towerStorageUpgradeManager;
     private com.wynvers.quantum.managers.TowerStorageManager towerStorageManager;
+    private PlayerSessionLoader sessionLoader;     // Préchargement des données joueur
     private com.wynvers.quantum.managers.QuantumItemAttributeManager quantumItemAttributeManager;
 
     // Web Interface for Menu Builder
@@ -173,7 +179,7 @@ public final class Quantum extends JavaPlugin {
         RuneType.init(this);
         this.armorManager = new ArmorManager(this, dungeonArmor);
         this.runeItem = new RuneItem(this);
-        this.armorGUI = new com.wynvers.quantum.armor.ArmorGUI(dungeonArmor, runeItem, placeholderManager);
+        this.armorGUI = new com.wynvers.quantum.armor.ArmorGUI(dungeonArmor, runeItem, placeholderManager, armorManager);
         logger.success("✓ Dungeon Armor & Rune system initialized! (9 runes with 3 levels)");
 
         // Tours
@@ -291,6 +297,12 @@ public final class Quantum extends JavaPlugin {
         );
         logger.success("✓ Tower Storage listeners registered!");
 
+        // Préchargement des données joueur à la pré-connexion (tous les managers sont prêts)
+        sessionLoader = new PlayerSessionLoader(this);
+        getServer().getPluginManager().registerEvents(sessionLoader, this);
+        sessionLoader.preloadOnlinePlayers();
+        logger.success("✓ Player session preloading enabled!");
+
         // Quantum Item Attributes Modifier
         quantumItemAttributeManager = new com.wynvers.quantum.managers.QuantumItemAttributeManager(this);
         getServer().getPluginManager().registerEvents(
@@ -415,7 +427,7 @@ public final class Quantum extends JavaPlugin {
         Bukkit.getPluginManager().registerEvents(new ArmorListener(this), this);
         logger.success("✓ Armor Listener (bonus system)");
 
-        Bukkit.getPluginManager().registerEvents(new RuneApplyListener(runeItem, dungeonArmor), this);
+        Bukkit.getPluginManager().registerEvents(new RuneApplyListener(runeItem, dungeonArmor, armorManager), this);
         logger.success("✓ Rune Apply Listener (drag & drop runes)");
 
         Bukkit.getPluginManager().registerEvents(new com.wynvers.quantum.armor.ArmorGUIListener(armorGUI), this);
@@ -431,11 +443,15 @@ public final class Quantum extends JavaPlugin {
         logger.success("✓ Database Manager");
 
         this.storageManager = new StorageManager(this);
+        this.storageFilterHandler = new StorageFilterHandler(this);
         logger.success("✓ Storage Manager");
 
         this.priceManager = new PriceManager(this);
         logger.success("✓ Price Manager");
 
+        this.displayItemTemplates = new DisplayItemTemplates(this);
+        getServer().getPluginManager().registerEvents(displayItemTemplates, this);
+
         this.vaultManager = new VaultManager(this);
         logger.success("✓ Vault Manager");
 
@@ -678,8 +694,12 @@ public final class Quantum extends JavaPlugin {
             logger.success("✓ Escrow data saved (" + escrowManager.getTotalEscrow() + "€)");
         }
 
+        if (doorManager != null) {
+            doorManager.shutdown();
+        }
+
         if (towerManager != null) {
-            towerManager.saveProgress();
+            towerManager.shutdown();
             logger.success("✓ Tower progress saved");
         }
 
@@ -692,14 +712,34 @@ public final class Quantum extends JavaPlugin {
             placeholderAPIManager.disable();
         }
 
+        if (orderManager != null) {
+            orderManager.shutdown();
+        }
+
+        if (transactionHistoryManager != null) {
+            transactionHistoryManager.shutdown();
+        }
+
         if (storageManager != null) {
-            storageManager.saveAll();
+            storageManager.shutdown();
+        }
+
+        if (vaultManager != null) {
+            vaultManager.shutdown();
         }
 
         if (towerStorageManager != null) {
             towerStorageManager.saveAll();
         }
 
+        if (towerInventoryManager != null) {
+            towerInventoryManager.flush();
+        }
+
+        if (customCropManager != null) {
+            customCropManager.shutdown();
+        }
+
         if (databaseManager != null) {
             databaseManager.close();
         }
@@ -712,6 +752,7 @@ public final class Quantum extends JavaPlugin {
 
         reloadConfig();
 
+        if (placeholderManager != null) placeholderManager.reloadCache();
         if (storageManager != null) storageManager.reload();
         if (towerStorageManager != null) towerStorageManager.reload();
         if (menuManager != null) menuManager.reload();
@@ -723,6 +764,7 @@ public final class Quantum extends JavaPlugin {
 
         if (escrowManager != null) escrowManager.reload();
         if (priceManager != null) priceManager.reload();
+        if (displayItemTemplates != null) displayItemTemplates.invalidateAll();
         if (orderManager != null) orderManager.loadItems();
 
         if (statisticsManager != null) statisticsManager.loadStatistics();
@@ -731,6 +773,7 @@ public final class Quantum extends JavaPlugin {
         if (towerManager != null) towerManager.reload();
 
         RuneType.init(this);
+        if (armorManager != null) armorManager.refreshOnlinePlayers();
         logger.success("✓ Dungeon armor & rune configs reloaded");
 
         logger.success("Quantum reloaded successfully!");
@@ -758,6 +801,10 @@ public final class Quantum extends JavaPlugin {
         return storageManager;
     }
 
+    public StorageFilterHandler getStorageFilterHandler() {
+        return storageFilterHandler;
+    }
+
     public MenuManager getMenuManager() {
         return menuManager;
     }
@@ -782,6 +829,10 @@ public final class Quantum extends JavaPlugin {
         return towerStorageManager;
     }
 
+    public PlayerSessionLoader getSessionLoader() {
+        return sessionLoader;
+    }
+
     @Deprecated
     public MessagesManager getMessagesManager() {
         return messagesManager;
@@ -803,6 +854,10 @@ public final class Quantum extends JavaPlugin {
         return priceManager;
     }
 
+    public DisplayItemTemplates getDisplayItemTemplates() {
+        return displayItemTemplates;
+    }
+
     public VaultManager getVaultManager() {
         return vaultManager;
     }
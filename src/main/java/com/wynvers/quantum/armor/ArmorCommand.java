@@ -1,5 +1,6 @@
 package com.wynvers.quantum.armor;
 
+import com.wynvers.quantum.Quantum;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -125,6 +126,9 @@ public class ArmorCommand implements CommandExecutor, TabCompleter {
                 
                 armorManager.reload();
                 RuneType.init(armorManager.plugin);
+                if (armorManager.plugin instanceof Quantum quantum && quantum.getArmorManager() != null) {
+                    quantum.getArmorManager().refreshOnlinePlayers();
+                }
                 player.sendMessage("§a✔ Configuration rechargée !");
                 break;
                 
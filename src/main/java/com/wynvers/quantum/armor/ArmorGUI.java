@@ -17,11 +17,14 @@ public class ArmorGUI {
     private final DungeonArmor armorManager;
     private final RuneItem runeItemManager;
     private final PlaceholderManager placeholderManager;
+    private final ArmorManager armorBonuses;
     
-    public ArmorGUI(DungeonArmor armorManager, RuneItem runeItemManager, PlaceholderManager placeholderManager) {
+    public ArmorGUI(DungeonArmor armorManager, RuneItem runeItemManager, PlaceholderManager placeholderManager,
+                    ArmorManager armorBonuses) {
         this.armorManager = armorManager;
         this.runeItemManager = runeItemManager;
         this.placeholderManager = placeholderManager;
+        this.armorBonuses = armorBonuses;
     }
     
     /**
@@ -194,6 +197,7 @@ public class ArmorGUI {
             boolean applied = armorManager.applyRune(armor, rune, level);
             
             if (applied) {
+                armorBonuses.scheduleUpdate(player);
                 player.sendMessage("");
                 player.sendMessage("§a§l✔ SUCCÈS !");
                 player.sendMessage("§7La rune " + rune.getDisplay() + " §7" + toRoman(level) + " a été appliquée !");
@@ -1,5 +1,6 @@
 package com.wynvers.quantum.armor;
 
+import com.destroystokyo.paper.event.player.PlayerArmorChangeEvent;
 import com.wynvers.quantum.Quantum;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -10,7 +11,6 @@ import org.bukkit.event.player.PlayerItemHeldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 
 /**
  * Écoute les changements d'armure pour appliquer/retirer les bonus
@@ -36,15 +36,8 @@ public class ArmorListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
-        Player player = event.getPlayer();
-        
         // Délai de 1 tick pour être sûr que l'inventaire est chargé
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                armorManager.applyArmorBonuses(player);
-            }
-        }.runTaskLater(plugin, 1L);
+        armorManager.scheduleUpdate(event.getPlayer());
     }
     
     /**
@@ -55,6 +48,14 @@ public class ArmorListener implements Listener {
         armorManager.clearArmorBonuses(event.getPlayer());
     }
     
+    /**
+     * Tout changement d'un slot d'armure (clic droit, dispenser, casse, /clear...)
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onArmorChange(PlayerArmorChangeEvent event) {
+        armorManager.scheduleUpdate(event.getPlayer());
+    }
+    
     /**
      * Détecte quand un joueur équipe/déséquipe une armure
      */
@@ -88,12 +89,7 @@ public class ArmorListener implements Listener {
      * Programme une mise à jour des bonus d'armure (1 tick après)
      */
     private void scheduleArmorUpdate(Player player) {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                armorManager.applyArmorBonuses(player);
-            }
-        }.runTaskLater(plugin, 1L);
+        armorManager.scheduleUpdate(player);
     }
     
     /**
@@ -2,6 +2,7 @@ package com.wynvers.quantum.armor;
 
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.potion.PotionEffect;
@@ -14,6 +15,10 @@ import java.util.*;
  * - Applique les bonus des runes aux joueurs
  * - Gère la régénération et les effets passifs
  * - Synchronise les bonuses avec l'armure équipée
+ *
+ * Les runes de l'armure portée sont lues une seule fois par changement d'équipement
+ * (connexion, slot d'armure, application de rune) et gardées en cache par joueur :
+ * les timers et les calculs de combat ne relisent jamais le PDC des pièces.
  * 
  * @author Kazotaruu_
  * @version 1.0
@@ -22,14 +27,78 @@ public class ArmorManager {
     
     private final JavaPlugin plugin;
     private final DungeonArmor dungeonArmor;
-    private final Map<Player, Map<RuneType, Integer>> playerRunes = new WeakHashMap<>();
+    // Uniquement les joueurs portant l'armure complète
+    private final Map<UUID, RuneEffects> playerRunes = new HashMap<>();
+    // Joueurs avec une rune de régénération active (seuls parcourus par le timer)
+    private final Set<UUID> regenPlayers = new HashSet<>();
+    // Recalculs déjà programmés pour le tick suivant
+    private final Set<UUID> pendingUpdates = new HashSet<>();
     
     public ArmorManager(JavaPlugin plugin, DungeonArmor dungeonArmor) {
         this.plugin = plugin;
         this.dungeonArmor = dungeonArmor;
         startRegenTickTimer();
     }
+
+    /**
+     * Effets cumulés des runes de l'armure portée
+     * - levels : niveau le plus élevé de chaque rune
+     * - totaux : somme des bonus de chaque pièce
+     */
+    private static final class RuneEffects {
+        final EnumMap<RuneType, Integer> levels = new EnumMap<>(RuneType.class);
+        double speedBonus = 1.0;
+        double damageBonus = 1.0;
+        double damageReduction;
+        double criticalChance;
+        double vampirismPercent;
+        double jumpBonus;
+        double regenPerSecond;
+
+        void add(RuneType rune, int level) {
+            levels.merge(rune, level, Math::max);
+            switch (rune) {
+                case SPEED -> speedBonus += rune.getSpeedBonus(level) - 1.0;
+                case FORCE -> damageBonus += rune.getDamageBonus(level) - 1.0;
+                case RESISTANCE -> damageReduction += rune.getDamageReduction(level);
+                case CRITICAL -> criticalChance += rune.getCriticalChance(level);
+                case VAMPIRISM -> vampirismPercent += rune.getVampirismPercent(level);
+                case AGILITY -> jumpBonus += rune.getJumpBonus(level);
+                case REGENERATION -> regenPerSecond += rune.getRegeneration(level);
+                default -> {
+                }
+            }
+        }
+    }
     
+    /**
+     * Recalcule les bonus au tick suivant (plusieurs demandes dans le même tick = un seul calcul)
+     */
+    public void scheduleUpdate(Player player) {
+        UUID uuid = player.getUniqueId();
+        if (!pendingUpdates.add(uuid)) {
+            return;
+        }
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                pendingUpdates.remove(uuid);
+                if (player.isOnline()) {
+                    applyArmorBonuses(player);
+                }
+            }
+        }.runTaskLater(plugin, 1L);
+    }
+
+    /**
+     * Recalcule les bonus de tous les joueurs connectés (valeurs des runes rechargées)
+     */
+    public void refreshOnlinePlayers() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            applyArmorBonuses(player);
+        }
+    }
+
     /**
      * Applique les bonus des runes au joueur (vitesse, régén, etc)
      */
@@ -41,54 +110,40 @@ public class ArmorManager {
         }
         
         // Fusionner les runes de toutes les pièces
-        Map<RuneType, Integer> combinedRunes = new HashMap<>();
+        RuneEffects effects = new RuneEffects();
+        PlayerInventory inventory = player.getInventory();
         ItemStack[] armor = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots()
+            inventory.getHelmet(),
+            inventory.getChestplate(),
+            inventory.getLeggings(),
+            inventory.getBoots()
         };
         
         for (ItemStack piece : armor) {
-            Map<RuneType, Integer> pieceRunes = dungeonArmor.getAppliedRunesWithLevels(piece);
-            for (Map.Entry<RuneType, Integer> entry : pieceRunes.entrySet()) {
-                // Prendre le niveau le plus élevé si la rune apparaît plusieurs fois
-                combinedRunes.put(entry.getKey(), Math.max(
-                    combinedRunes.getOrDefault(entry.getKey(), 0),
-                    entry.getValue()
-                ));
+            for (Map.Entry<RuneType, Integer> entry : dungeonArmor.getAppliedRunesWithLevels(piece).entrySet()) {
+                effects.add(entry.getKey(), entry.getValue());
             }
         }
         
-        playerRunes.put(player, combinedRunes);
+        UUID uuid = player.getUniqueId();
+        playerRunes.put(uuid, effects);
+        if (effects.regenPerSecond > 0) {
+            regenPlayers.add(uuid);
+        } else {
+            regenPlayers.remove(uuid);
+        }
         
         // Appliquer les bonus
-        applySpeedBonus(player, combinedRunes);
-        applyResistanceBonus(player, combinedRunes);
-        applyJumpEffect(player); // <- nouveau : rune AGILITY = saut
+        applySpeedBonus(player, effects);
+        applyJumpEffect(player, effects);
+        // Résistance, force, critique, vampirisme : lus via les getters au moment des dégâts
     }
     
     /**
-     * Applique le bonus de vitesse en additionnant les bonus de toutes les pièces
+     * Applique le bonus de vitesse (somme des bonus de toutes les pièces)
      */
-    private void applySpeedBonus(Player player, Map<RuneType, Integer> runes) {
-        // Calculer le bonus total de vitesse depuis toutes les pièces d'armure
-        double totalSpeedBonus = 1.0;
-        ItemStack[] armorPieces = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots()
-        };
-
-        for (ItemStack piece : armorPieces) {
-            Map<RuneType, Integer> pieceRunes = dungeonArmor.getAppliedRunesWithLevels(piece);
-            if (pieceRunes.containsKey(RuneType.SPEED)) {
-                double pieceBonus = RuneType.SPEED.getSpeedBonus(pieceRunes.get(RuneType.SPEED));
-                totalSpeedBonus += (pieceBonus - 1.0); // Ajouter le bonus (sans le multiplicateur de base 1.0)
-            }
-        }
-
+    private void applySpeedBonus(Player player, RuneEffects effects) {
+        double totalSpeedBonus = effects.speedBonus;
         if (totalSpeedBonus > 1.0) {
             // Appliquer une vitesse en fonction du bonus
             // Minecraft: valeur entre 0 et 1, défaut 0.2
@@ -96,24 +151,12 @@ public class ArmorManager {
             player.setWalkSpeed(newSpeed);
         }
     }
-    
-    /**
-     * Applique le bonus de résistance
-     */
-    private void applyResistanceBonus(Player player, Map<RuneType, Integer> runes) {
-        // Note: Les dommages sont appliqués dans le listener de dégâts
-        // Ici on stocke juste le bonus pour accès rapide
-        if (runes.containsKey(RuneType.RESISTANCE)) {
-            int level = runes.get(RuneType.RESISTANCE);
-            // Le bonus est récupéré via getDamageReduction() quand nécessaire
-        }
-    }
 
     /**
      * Applique le bonus de saut (rune AGILITY)
      */
-    private void applyJumpEffect(Player player) {
-        double jumpBonus = getJumpBonus(player);
+    private void applyJumpEffect(Player player, RuneEffects effects) {
+        double jumpBonus = effects.jumpBonus;
         if (jumpBonus > 0) {
             int amplifier = (int) Math.round(jumpBonus * 5); // à ajuster selon ta courbe
             amplifier = Math.max(0, amplifier - 1); // PotionEffect amplifier commence à 0
@@ -131,173 +174,80 @@ public class ArmorManager {
             player.removePotionEffect(PotionEffectType.JUMP_BOOST);
         }
     }
+
+    /**
+     * Runes actives du joueur (niveau le plus élevé par rune), vide sans armure complète
+     */
+    public Map<RuneType, Integer> getActiveRunes(Player player) {
+        RuneEffects effects = playerRunes.get(player.getUniqueId());
+        return effects != null ? Collections.unmodifiableMap(effects.levels) : Collections.emptyMap();
+    }
     
     /**
-     * Récupère le bonus de dégâts total pour un joueur en additionnant tous les bonus de chaque pièce
+     * Récupère le bonus de dégâts total pour un joueur (somme des bonus de chaque pièce)
      */
     public double getDamageBonus(Player player) {
-        if (!dungeonArmor.hasCompleteArmor(player)) {
-            return 1.0;
-        }
-
-        double totalBonus = 1.0;
-        ItemStack[] armorPieces = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots()
-        };
-
-        for (ItemStack piece : armorPieces) {
-            Map<RuneType, Integer> pieceRunes = dungeonArmor.getAppliedRunesWithLevels(piece);
-            if (pieceRunes.containsKey(RuneType.FORCE)) {
-                double pieceBonus = RuneType.FORCE.getDamageBonus(pieceRunes.get(RuneType.FORCE));
-                totalBonus += (pieceBonus - 1.0); // Ajouter le bonus (sans le multiplicateur de base 1.0)
-            }
-        }
-
-        return totalBonus;
+        RuneEffects effects = playerRunes.get(player.getUniqueId());
+        return effects != null ? effects.damageBonus : 1.0;
     }
     
     /**
-     * Récupère la réduction de dégâts pour un joueur en additionnant tous les bonus de chaque pièce
+     * Récupère la réduction de dégâts pour un joueur (somme des bonus de chaque pièce)
      */
     public double getDamageReduction(Player player) {
-        if (!dungeonArmor.hasCompleteArmor(player)) {
-            return 0.0;
-        }
-
-        double totalReduction = 0.0;
-        ItemStack[] armorPieces = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots()
-        };
-
-        for (ItemStack piece : armorPieces) {
-            Map<RuneType, Integer> pieceRunes = dungeonArmor.getAppliedRunesWithLevels(piece);
-            if (pieceRunes.containsKey(RuneType.RESISTANCE)) {
-                totalReduction += RuneType.RESISTANCE.getDamageReduction(pieceRunes.get(RuneType.RESISTANCE));
-            }
-        }
-
-        return totalReduction;
+        RuneEffects effects = playerRunes.get(player.getUniqueId());
+        return effects != null ? effects.damageReduction : 0.0;
     }
     
     /**
-     * Récupère la chance de critique pour un joueur en additionnant tous les bonus de chaque pièce
+     * Récupère la chance de critique pour un joueur (somme des bonus de chaque pièce)
      */
     public double getCriticalChance(Player player) {
-        if (!dungeonArmor.hasCompleteArmor(player)) {
-            return 0.0;
-        }
-
-        double totalChance = 0.0;
-        ItemStack[] armorPieces = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots()
-        };
-
-        for (ItemStack piece : armorPieces) {
-            Map<RuneType, Integer> pieceRunes = dungeonArmor.getAppliedRunesWithLevels(piece);
-            if (pieceRunes.containsKey(RuneType.CRITICAL)) {
-                totalChance += RuneType.CRITICAL.getCriticalChance(pieceRunes.get(RuneType.CRITICAL));
-            }
-        }
-
-        return totalChance;
+        RuneEffects effects = playerRunes.get(player.getUniqueId());
+        return effects != null ? effects.criticalChance : 0.0;
     }
     
     /**
-     * Récupère le pourcentage de vampirisme pour un joueur en additionnant tous les bonus de chaque pièce
+     * Récupère le pourcentage de vampirisme pour un joueur (somme des bonus de chaque pièce)
      */
     public double getVampirismPercent(Player player) {
-        if (!dungeonArmor.hasCompleteArmor(player)) {
-            return 0.0;
-        }
-
-        double totalVampirism = 0.0;
-        ItemStack[] armorPieces = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots()
-        };
-
-        for (ItemStack piece : armorPieces) {
-            Map<RuneType, Integer> pieceRunes = dungeonArmor.getAppliedRunesWithLevels(piece);
-            if (pieceRunes.containsKey(RuneType.VAMPIRISM)) {
-                totalVampirism += RuneType.VAMPIRISM.getVampirismPercent(pieceRunes.get(RuneType.VAMPIRISM));
-            }
-        }
-
-        return totalVampirism;
+        RuneEffects effects = playerRunes.get(player.getUniqueId());
+        return effects != null ? effects.vampirismPercent : 0.0;
     }
 
     /**
-     * Récupère le bonus de saut (AGILITY) pour un joueur en additionnant tous les bonus de chaque pièce
+     * Récupère le bonus de saut (AGILITY) pour un joueur (somme des bonus de chaque pièce)
      */
     public double getJumpBonus(Player player) {
-        if (!dungeonArmor.hasCompleteArmor(player)) {
-            return 0.0;
-        }
-
-        double totalJump = 0.0;
-        ItemStack[] armorPieces = {
-            player.getInventory().getHelmet(),
-            player.getInventory().getChestplate(),
-            player.getInventory().getLeggings(),
-            player.getInventory().getBoots()
-        };
-
-        for (ItemStack piece : armorPieces) {
-            Map<RuneType, Integer> pieceRunes = dungeonArmor.getAppliedRunesWithLevels(piece);
-            if (pieceRunes.containsKey(RuneType.AGILITY)) {
-                totalJump += RuneType.AGILITY.getJumpBonus(pieceRunes.get(RuneType.AGILITY));
-            }
-        }
-
-        return totalJump;
+        RuneEffects effects = playerRunes.get(player.getUniqueId());
+        return effects != null ? effects.jumpBonus : 0.0;
     }
     
     /**
      * Timer principal pour les effets passifs (régén, etc)
      * Optimisé pour exécuter toutes les 20 ticks (1 seconde) au lieu de chaque tick
+     * Ne parcourt que les joueurs ayant une rune de régénération active
      */
     private void startRegenTickTimer() {
         new BukkitRunnable() {
             @Override
             public void run() {
-                for (Player player : plugin.getServer().getOnlinePlayers()) {
-                    if (!dungeonArmor.hasCompleteArmor(player)) {
+                if (regenPlayers.isEmpty()) {
+                    return;
+                }
+                Iterator<UUID> it = regenPlayers.iterator();
+                while (it.hasNext()) {
+                    UUID uuid = it.next();
+                    Player player = plugin.getServer().getPlayer(uuid);
+                    RuneEffects effects = playerRunes.get(uuid);
+                    if (player == null || effects == null) {
+                        it.remove();
                         continue;
                     }
 
-                    // Calculer la régénération totale de toutes les pièces d'armure
-                    double totalRegenPerSecond = 0.0;
-                    ItemStack[] armorPieces = {
-                        player.getInventory().getHelmet(),
-                        player.getInventory().getChestplate(),
-                        player.getInventory().getLeggings(),
-                        player.getInventory().getBoots()
-                    };
-
-                    for (ItemStack piece : armorPieces) {
-                        Map<RuneType, Integer> pieceRunes = dungeonArmor.getAppliedRunesWithLevels(piece);
-                        if (pieceRunes.containsKey(RuneType.REGENERATION)) {
-                            int level = pieceRunes.get(RuneType.REGENERATION);
-                            totalRegenPerSecond += RuneType.REGENERATION.getRegeneration(level);
-                        }
-                    }
-
-                    if (totalRegenPerSecond > 0) {
-                        // Appliquer la régénération directement (tâche exécutée toutes les secondes)
-                        double newHealth = Math.min(player.getMaxHealth(), player.getHealth() + totalRegenPerSecond);
-                        player.setHealth(newHealth);
-                    }
+                    // Appliquer la régénération directement (tâche exécutée toutes les secondes)
+                    double newHealth = Math.min(player.getMaxHealth(), player.getHealth() + effects.regenPerSecond);
+                    player.setHealth(newHealth);
                 }
             }
         }.runTaskTimer(plugin, 20L, 20L); // Exécuter toutes les 20 ticks (1 seconde) au lieu de chaque tick
@@ -307,7 +257,9 @@ public class ArmorManager {
      * Efface les bonus d'armure pour un joueur
      */
     public void clearArmorBonuses(Player player) {
-        playerRunes.remove(player);
+        UUID uuid = player.getUniqueId();
+        playerRunes.remove(uuid);
+        regenPlayers.remove(uuid);
         player.setWalkSpeed(0.2f); // Vitesse par défaut
         player.removePotionEffect(PotionEffectType.JUMP_BOOST); // on retire aussi le jump
     }
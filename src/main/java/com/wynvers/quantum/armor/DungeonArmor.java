@@ -184,32 +184,41 @@ public class DungeonArmor {
     }
     
     public void addKillExperience(ItemStack armor) {
-        if (!isDungeonArmor(armor)) return;
+        addKillExperience(armor, 1);
+    }
+
+    /**
+     * Ajoute plusieurs points d'XP en une passe : les montées de niveau successives
+     * sont calculées sur la courbe, puis PDC et lore ne sont écrits qu'une fois.
+     * Même résultat que {@code amount} appels à {@link #addKillExperience(ItemStack)}.
+     */
+    public void addKillExperience(ItemStack armor, int amount) {
+        if (amount <= 0 || !isDungeonArmor(armor)) return;
 
         ItemMeta meta = armor.getItemMeta();
         if (meta == null) return;
 
         PersistentDataContainer data = meta.getPersistentDataContainer();
-        int currentExp = data.getOrDefault(armorExpKey, PersistentDataType.INTEGER, 0);
-        int currentLevel = data.getOrDefault(levelKey, PersistentDataType.INTEGER, 0);
-        int newExp = currentExp + 1;
-
-        // Check if we leveled up with the exponential curve
-        int expForNextLevel = getExpForLevel(currentLevel + 1);
+        int exp = data.getOrDefault(armorExpKey, PersistentDataType.INTEGER, 0);
+        int level = data.getOrDefault(levelKey, PersistentDataType.INTEGER, 0);
 
-        if (newExp >= expForNextLevel) {
-            // Level up! Reset XP to 0 and increment level
-            int newLevel = currentLevel + 1;
-            data.set(levelKey, PersistentDataType.INTEGER, newLevel);
-            data.set(armorExpKey, PersistentDataType.INTEGER, 0);
-            armor.setItemMeta(meta);
-            updateArmorLore(armor, newLevel);
-        } else {
-            // No level up yet, just add the XP
-            data.set(armorExpKey, PersistentDataType.INTEGER, newExp);
-            armor.setItemMeta(meta);
-            updateArmorLore(armor, currentLevel);
+        // Chaque montée de niveau remet l'XP à 0 (courbe exponentielle)
+        int remaining = amount;
+        while (remaining > 0) {
+            int needed = Math.max(1, getExpForNextLevel(level) - exp);
+            if (remaining < needed) {
+                exp += remaining;
+                break;
+            }
+            remaining -= needed;
+            level++;
+            exp = 0;
         }
+
+        data.set(levelKey, PersistentDataType.INTEGER, level);
+        data.set(armorExpKey, PersistentDataType.INTEGER, exp);
+        armor.setItemMeta(meta);
+        updateArmorLore(armor, level);
     }
     
     public int getArmorLevel(ItemStack armor) {
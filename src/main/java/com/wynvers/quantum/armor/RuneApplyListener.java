@@ -14,11 +14,13 @@ public class RuneApplyListener implements Listener {
 
     private final RuneItem runeItem;
     private final DungeonArmor dungeonArmor;
+    private final ArmorManager armorManager;
     private final Random random = new Random();
 
-    public RuneApplyListener(RuneItem runeItem, DungeonArmor dungeonArmor) {
+    public RuneApplyListener(RuneItem runeItem, DungeonArmor dungeonArmor, ArmorManager armorManager) {
         this.runeItem = runeItem;
         this.dungeonArmor = dungeonArmor;
+        this.armorManager = armorManager;
     }
 
     @EventHandler
@@ -87,6 +89,10 @@ public class RuneApplyListener implements Listener {
         }
 
         boolean applied = dungeonArmor.applyRune(current, runeType, level);
+        if (applied) {
+            // La pièce est peut-être portée : les bonus en cache doivent suivre
+            armorManager.scheduleUpdate(player);
+        }
 
         player.sendMessage("§aLa rune a été appliquée avec succès sur ton armure de donjon !");
         consumeOneRune(event, cursor);
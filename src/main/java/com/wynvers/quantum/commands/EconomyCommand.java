@@ -2,6 +2,7 @@ package com.wynvers.quantum.commands;
 
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.economy.QuantumEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
@@ -234,24 +235,12 @@ public class EconomyCommand {
                 return true;
             }
             
-            double currentBalance = eco.getBalance(target);
-            double difference = amount - currentBalance;
-            
-            boolean success;
-            if (difference > 0) {
-                success = eco.depositPlayer(target, difference).transactionSuccess();
-            } else if (difference < 0) {
-                success = eco.withdrawPlayer(target, Math.abs(difference)).transactionSuccess();
-            } else {
-                sender.sendMessage("§e⚠ Le solde est déjà à " + eco.format(amount));
-                return true;
-            }
-            
-            if (success) {
+            EconomyResponse response = eco.setBalance(target, amount);
+            if (response.transactionSuccess()) {
                 sender.sendMessage("§a§l✓ §aSolde de " + playerName + " défini à " + 
                     eco.format(amount) + " !");
             } else {
-                sender.sendMessage("§c⚠ Erreur lors de la modification du solde !");
+                sender.sendMessage("§c⚠ Erreur lors de la modification du solde : " + response.errorMessage);
             }
         } catch (NumberFormatException e) {
             sender.sendMessage("§cMontant invalide !");
@@ -1,7 +1,9 @@
 package com.wynvers.quantum.commands;
 
 import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.database.ConnectionPool;
 import com.wynvers.quantum.menu.Menu;
+import com.wynvers.quantum.placeholders.PlaceholderCache;
 import com.wynvers.quantum.storage.upgrades.StorageUpgradeManager;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -94,6 +96,16 @@ public class QuantumCommand implements CommandExecutor {
             return handleStorages(sender, args);
         }
 
+        // Database pool metrics
+        if (subCommand.equals("db") || subCommand.equals("database")) {
+            return handleDatabase(sender);
+        }
+
+        // Placeholder cache metrics
+        if (subCommand.equals("placeholders")) {
+            return handlePlaceholders(sender, args);
+        }
+
         switch (subCommand) {
             case "reload":
                 if (!sender.hasPermission("quantum.admin")) {
@@ -114,6 +126,7 @@ public class QuantumCommand implements CommandExecutor {
                         case "config":
                         case "config.yml":
                             plugin.reloadConfig();
+                            if (plugin.getPlaceholderManager() != null) plugin.getPlaceholderManager().reloadCache();
                             sender.sendMessage("§a§l✓ §aconfig.yml rechargé!");
                             break;
 
@@ -282,6 +295,7 @@ public class QuantumCommand implements CommandExecutor {
 
         plugin.reloadConfig();
 
+        if (plugin.getPlaceholderManager() != null) plugin.getPlaceholderManager().reloadCache();
         if (plugin.getDungeonArmor() != null) plugin.getDungeonArmor().reload();
         if (plugin.getPriceManager() != null) plugin.getPriceManager().reload();
         if (plugin.getMessageManager() != null) plugin.getMessageManager().reload();
@@ -462,6 +476,51 @@ public class QuantumCommand implements CommandExecutor {
         return true;
     }
 
+    private boolean handleDatabase(CommandSender sender) {
+        if (!sender.hasPermission("quantum.admin")) {
+            sender.sendMessage("§cVous n'avez pas la permission d'utiliser cette commande.");
+            return true;
+        }
+
+        ConnectionPool.PoolStats stats = plugin.getDatabaseManager().getPoolStats();
+        if (stats == null) {
+            sender.sendMessage("§c⚠ Base de données non connectée!");
+            return true;
+        }
+
+        sender.sendMessage("§6§lBASE DE DONNÉES");
+        sender.sendMessage("§7Connexions: §factives " + stats.active() + " §7| §finactives " + stats.idle()
+                + " §7| §fouvertes " + stats.total() + "/" + stats.maxSize());
+        sender.sendMessage("§7En attente: §f" + stats.waiting() + " §7threads | §f"
+                + plugin.getDatabaseManager().getQueuedTasks() + " §7requêtes en file");
+        sender.sendMessage("§7Attente: §fmoy. " + String.format("%.2f", stats.avgWaitMs()) + "ms §7| §fmax "
+                + String.format("%.2f", stats.maxWaitMs()) + "ms");
+        sender.sendMessage("§7Emprunts: §f" + stats.borrows() + " §7| Timeouts: §f" + stats.timeouts());
+        return true;
+    }
+
+    private boolean handlePlaceholders(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("quantum.admin")) {
+            sender.sendMessage("§cVous n'avez pas la permission d'utiliser cette commande.");
+            return true;
+        }
+
+        PlaceholderCache cache = plugin.getPlaceholderManager().getValueCache();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            cache.resetStats();
+            sender.sendMessage("§a§l✓ §aCompteurs du cache de placeholders remis à zéro");
+            return true;
+        }
+
+        sender.sendMessage("§6§lCACHE DES PLACEHOLDERS " + (cache.isEnabled() ? "§a(actif)" : "§c(désactivé)"));
+        sender.sendMessage("§7Hits: §f" + cache.getHits() + " §7| Misses: §f" + cache.getMisses()
+                + " §7| Taux: §f" + String.format("%.1f", cache.getHitRate()) + "%");
+        sender.sendMessage("§7Valeurs en cache: §f" + cache.getCachedValueCount()
+                + " §7| Invalidations: §f" + cache.getInvalidations());
+        sender.sendMessage("§7Templates compilés: §f" + plugin.getPlaceholderManager().getTemplateCount());
+        return true;
+    }
+
     private boolean handleMenu(CommandSender sender, String[] args) {
         // /quantum menu open <menu_name>
 
@@ -521,6 +580,8 @@ public class QuantumCommand implements CommandExecutor {
         if (sender.hasPermission("quantum.admin")) {
             sender.sendMessage("§e/quantum eco <create|delete|balance|give|take|set> §7- Gestion économie");
             sender.sendMessage("§e/quantum storages upgrade <classic|tower> <multiplicateur|stack|page> [joueur] §7- Upgrades de storage");
+            sender.sendMessage("§e/quantum db §7- État du pool de connexions MySQL");
+            sender.sendMessage("§e/quantum placeholders [reset] §7- Statistiques du cache de placeholders");
         }
         if (sender.hasPermission("quantum.tower.door.wand") || sender.hasPermission("quantum.admin")) {
             sender.sendMessage("§e/quantum wand door §7- Baguette de sélection");
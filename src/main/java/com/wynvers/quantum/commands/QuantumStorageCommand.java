@@ -3,6 +3,7 @@ package com.wynvers.quantum.commands;
 import com.nexomc.nexo.api.NexoItems;
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.menu.Menu;
+import com.wynvers.quantum.menu.MenuHolder;
 import com.wynvers.quantum.storage.PlayerStorage;
 import org.bukkit.Material;
 import org.bukkit.command.Command;
@@ -80,29 +81,25 @@ public class QuantumStorageCommand implements CommandExecutor {
         }
 
         PlayerStorage storage = plugin.getStorageManager().getStorage(player);
+        if (!storage.isAvailable()) {
+            player.sendMessage("§cVotre storage est en cours de chargement, réessayez dans un instant.");
+            return true;
+        }
         String itemArg = args[1].toLowerCase();
 
         // Transfer all items from inventory
         if (itemArg.equals("all")) {
-            int totalTransferred = 0;
-            for (ItemStack item : player.getInventory().getContents()) {
-                if (item != null && item.getType() != Material.AIR) {
-                    int amount = item.getAmount();
-                    
-                    String nexoId = NexoItems.idFromItem(item);
-                    if (nexoId != null) {
-                        storage.addNexoItem(nexoId, amount);
-                    } else {
-                        storage.addItem(item.getType(), amount);
-                    }
-                    
-                    totalTransferred += amount;
-                    item.setAmount(0);
-                }
+            PlayerStorage.DepositResult result = storage.depositAll(plugin, player);
+            if (!result.isEmpty()) {
+                refreshStorageGUI(player);
+                player.sendMessage("§a§l✓ §aTransferred §e" + result.deposited() + " §aitems (§e"
+                        + result.itemTypes() + " §atypes) to storage!");
+            } else if (result.limitedTypes() == 0) {
+                player.sendMessage("§cYou have no items to transfer!");
+            }
+            if (result.limitedTypes() > 0) {
+                player.sendMessage("§e" + result.limitedTypes() + " §citem type(s) reached the storage limit and stayed in your inventory.");
             }
-            storage.save(plugin);
-            refreshStorageGUI(player);
-            player.sendMessage("§a§l✓ §aTransferred §e" + totalTransferred + " §aitems to storage!");
             return true;
         }
 
@@ -310,7 +307,7 @@ public class QuantumStorageCommand implements CommandExecutor {
         }
 
         // No prefix - try storage to determine type
-        if (storage.getNexoItems().containsKey(itemArg)) {
+        if (storage.getNexoAmount(itemArg) > 0) {
             return withdrawNexoItem(sender, storage, target, itemArg, amount);
         }
 
@@ -374,11 +371,8 @@ public class QuantumStorageCommand implements CommandExecutor {
         Inventory openInv = player.getOpenInventory().getTopInventory();
         if (openInv == null) return;
         
-        String title = player.getOpenInventory().getTitle();
-        if (title == null) return;
-        
         // Check if it's the storage menu
-        Menu storageMenu = plugin.getMenuManager().getMenuByTitle(title);
+        Menu storageMenu = MenuHolder.menuOf(openInv);
         if (storageMenu != null && storageMenu.getId().equals("storage")) {
             // Re-open the menu to refresh it - pass plugin instance
             Bukkit.getScheduler().runTask(plugin, () -> storageMenu.open(player, plugin));
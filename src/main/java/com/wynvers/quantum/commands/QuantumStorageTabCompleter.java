@@ -220,7 +220,7 @@ public class QuantumStorageTabCompleter implements TabCompleter {
                     } catch (IllegalArgumentException ignored) {}
                 } else {
                     // Try without prefix
-                    if (storage.getNexoItems().containsKey(itemArg)) {
+                    if (storage.getNexoAmount(itemArg) > 0) {
                         maxAmount = storage.getNexoAmount(itemArg);
                     } else {
                         try {
@@ -2,6 +2,7 @@ package com.wynvers.quantum.commands;
 
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.statistics.StorageStatsManager;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -31,10 +32,23 @@ public class StorageStatsCommand implements CommandExecutor {
             return true;
         }
         
-        // Récupérer les statistiques
-        StorageStatsManager.StorageStats stats = statsManager.getStorageStats();
+        // Récupérer les statistiques hors du thread principal, puis afficher
+        statsManager.getStorageStatsAsync().whenComplete((stats, error) ->
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    sender.sendMessage("§c⚠ Impossible de récupérer les statistiques du storage!");
+                    return;
+                }
+                sendStats(sender, stats);
+            }));
         
-        // Afficher les statistiques
+        return true;
+    }
+    
+    /**
+     * Affiche les statistiques
+     */
+    private void sendStats(CommandSender sender, StorageStatsManager.StorageStats stats) {
         sender.sendMessage("");
         sender.sendMessage("§6§l┌──────────────────────────────────────────────┐");
         sender.sendMessage("§6§l│  §f§lSTATISTIQUES DU STORAGE  §6§l│");
@@ -56,8 +70,6 @@ public class StorageStatsCommand implements CommandExecutor {
         sender.sendMessage("§6§l└──────────────────────────────────────────────┘");
         sender.sendMessage("§7§oUtilise: /quantum stats pour les stats par catégorie");
         sender.sendMessage("");
-        
-        return true;
     }
     
     /**
@@ -6,6 +6,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.entity.Player;
 
 /**
@@ -36,6 +37,12 @@ public class CustomCropListener implements Listener {
         cropManager.harvestCrop(event.getClickedBlock().getLocation(), player);
     }
     
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // Les cultures ne poussent pas dans les chunks déchargés : rattrapage au chargement
+        cropManager.onChunkLoad(event.getChunk());
+    }
+    
     /**
      * Vérifie si l'item est une houe
      */
@@ -3,32 +3,47 @@ package com.wynvers.quantum.crops;
 import com.nexomc.nexo.api.NexoFurniture;
 import com.nexomc.nexo.api.NexoItems;
 import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.database.DatabaseManager;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.*;
 
 /**
  * Gestionnaire du système de cultures personnalisées
+ *
+ * Les cultures plantées sont rangées par chunk et sauvegardées dans MySQL (table
+ * quantum_custom_crops) en write-behind par {@link PlantedCropWriter}. La croissance est paresseuse : les stades écoulés sont calculés
+ * quand l'échéance du stade suivant arrive ou quand le chunk de la culture se charge.
  */
 public class CustomCropManager {
     
     private final Quantum plugin;
     private final Map<String, CustomCrop> cropsMap;
-    private final Map<Location, PlantedCrop> plantedCrops;
+    private final PlantedCropStore store;
+    private final PlantedCropWriter writer;
     private YamlConfiguration config;
     
+    // Borne le travail d'un tick si beaucoup d'échéances tombent en même temps
+    private static final int MAX_GROWTHS_PER_TICK = 200;
+    
     public CustomCropManager(Quantum plugin) {
         this.plugin = plugin;
         this.cropsMap = new HashMap<>();
-        this.plantedCrops = new HashMap<>();
+        this.store = new PlantedCropStore();
+        this.writer = new PlantedCropWriter(plugin);
         loadConfig();
+        loadPlantedCrops();
         startGrowthTask();
     }
     
@@ -110,6 +125,7 @@ public class CustomCropManager {
     
     public void reload() {
         loadConfig();
+        rescheduleAll();
     }
     
     public CustomCrop getCrop(String cropId) {
@@ -128,7 +144,7 @@ public class CustomCropManager {
         }
         
         // Vérifier si une culture est déjà plantée
-        if (plantedCrops.containsKey(location)) {
+        if (getPlanted(location) != null) {
             return false;
         }
         
@@ -138,8 +154,12 @@ public class CustomCropManager {
             try {
                 NexoFurniture.place(firstStage.getNexoId(), location, 0f, null);
                 
-                PlantedCrop planted = new PlantedCrop(cropId, location, System.currentTimeMillis());
-                plantedCrops.put(location, planted);
+                PlantedCrop planted = new PlantedCrop(cropId, location.getWorld().getName(),
+                        location.getBlockX(), location.getBlockY(), location.getBlockZ(),
+                        1, System.currentTimeMillis());
+                store.add(planted);
+                scheduleNextStage(planted, crop);
+                saveCrop(planted);
                 
                 String message = config.getString("messages.crop_planted", "&aVous avez planté: &e{crop_name}");
                 message = message.replace("{crop_name}", crop.getDisplayName());
@@ -159,12 +179,15 @@ public class CustomCropManager {
      * Récolte une culture avec une houe
      */
     public void harvestCrop(Location location, Player player) {
-        PlantedCrop planted = plantedCrops.get(location);
+        PlantedCrop planted = getPlanted(location);
         if (planted == null) return;
         
         CustomCrop crop = cropsMap.get(planted.getCropId());
         if (crop == null) return;
         
+        // Rattraper une échéance que la tâche de croissance n'a pas encore traitée
+        advance(planted, crop, System.currentTimeMillis());
+        
         // Vérifier si la culture est mature
         if (!crop.isMature(planted.getCurrentStage())) {
             String message = config.getString("messages.crop_not_mature", "&cCette culture n'est pas encore mature!");
@@ -187,13 +210,20 @@ public class CustomCropManager {
         location.getBlock().setType(Material.AIR);
         
         // Retirer de la liste des cultures plantées
-        plantedCrops.remove(location);
+        store.remove(planted);
+        deleteCrop(planted);
         
         String message = config.getString("messages.crop_harvested", "&aVous avez récolté: &e{crop_name}");
         message = message.replace("{crop_name}", crop.getDisplayName());
         player.sendMessage(message.replace('&', '§'));
     }
     
+    private PlantedCrop getPlanted(Location location) {
+        if (location.getWorld() == null) return null;
+        return store.get(location.getWorld().getName(),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
     /**
      * Donne les drops au joueur
      */
@@ -220,84 +250,173 @@ public class CustomCropManager {
         }
     }
     
+    // ==================== CROISSANCE ====================
+    
     /**
-     * Démarre la tâche de croissance des cultures
+     * Démarre la tâche de croissance : elle ne traite que les cultures dont l'échéance est passée
      */
     private void startGrowthTask() {
         Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            long currentTime = System.currentTimeMillis();
+            long now = System.currentTimeMillis();
+            int processed = 0;
+            PlantedCrop planted;
             
-            for (Map.Entry<Location, PlantedCrop> entry : new HashMap<>(plantedCrops).entrySet()) {
-                PlantedCrop planted = entry.getValue();
-                CustomCrop crop = cropsMap.get(planted.getCropId());
-                
-                if (crop == null) continue;
+            while (processed < MAX_GROWTHS_PER_TICK && (planted = store.pollDue(now)) != null) {
+                processed++;
+                // Chunk déchargé : la culture sera rattrapée au chargement du chunk
+                if (!isChunkLoaded(planted)) continue;
                 
-                int currentStage = planted.getCurrentStage();
-                if (currentStage >= crop.getMaxStage()) continue; // Déjà mature
-                
-                CustomCrop.GrowthStage stage = crop.getStage(currentStage);
-                if (stage == null) continue;
-                
-                // Vérifier si assez de temps s'est écoulé
-                long elapsedSeconds = (currentTime - planted.getLastGrowthTime()) / 1000;
-                if (elapsedSeconds >= stage.getDuration()) {
-                    // Passer au stade suivant
-                    int nextStage = currentStage + 1;
-                    CustomCrop.GrowthStage nextStageData = crop.getStage(nextStage);
-                    
-                    if (nextStageData != null) {
-                        // Retirer l'ancien modèle
-                        entry.getKey().getBlock().setType(Material.AIR);
-                        
-                        // Placer le nouveau modèle
-                        try {
-                            NexoFurniture.place(nextStageData.getNexoId(), entry.getKey(), 0f, null);
-                            planted.grow();
-                        } catch (Exception e) {
-                            plugin.getLogger().warning("Erreur lors de la croissance de " + crop.getCropId() + ": " + e.getMessage());
-                        }
-                    }
+                CustomCrop crop = cropsMap.get(planted.getCropId());
+                if (crop != null) {
+                    advance(planted, crop, now);
                 }
             }
-        }, 20L * 30, 20L * 30); // Vérifier toutes les 30 secondes
+        }, 20L, 20L);
     }
     
     /**
-     * Classe interne représentant une culture plantée
+     * Rattrape les cultures d'un chunk qui vient d'être chargé
      */
-    private static class PlantedCrop {
-        private final String cropId;
-        private final Location location;
-        private long lastGrowthTime;
-        private int currentStage;
+    public void onChunkLoad(Chunk chunk) {
+        String world = chunk.getWorld().getName();
+        Collection<PlantedCrop> crops = store.getChunkCrops(world, chunk.getX(), chunk.getZ());
+        if (crops.isEmpty()) return;
         
-        public PlantedCrop(String cropId, Location location, long plantTime) {
-            this.cropId = cropId;
-            this.location = location;
-            this.lastGrowthTime = plantTime;
-            this.currentStage = 1;
-        }
+        // Les furnitures ne peuvent pas être posés pendant le chargement du chunk
+        List<PlantedCrop> pending = new ArrayList<>(crops);
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            long now = System.currentTimeMillis();
+            for (PlantedCrop planted : pending) {
+                CustomCrop crop = cropsMap.get(planted.getCropId());
+                if (crop != null && isStored(planted) && isChunkLoaded(planted)) {
+                    advance(planted, crop, now);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Avance la culture de tous les stades écoulés depuis sa dernière croissance, puis planifie
+     * le stade suivant. Seul le modèle du stade final est posé.
+     */
+    private void advance(PlantedCrop planted, CustomCrop crop, long now) {
+        int stage = planted.getCurrentStage();
+        long reachedAt = planted.getLastGrowthTime();
         
-        public String getCropId() {
-            return cropId;
+        while (stage < crop.getMaxStage()) {
+            CustomCrop.GrowthStage current = crop.getStage(stage);
+            if (current == null) return; // Stade absent de la configuration
+            long next = reachedAt + current.getDuration() * 1000L;
+            if (next > now) break;
+            reachedAt = next;
+            stage++;
         }
         
-        public Location getLocation() {
-            return location;
+        if (stage != planted.getCurrentStage()) {
+            CustomCrop.GrowthStage reached = crop.getStage(stage);
+            Location location = planted.getLocation();
+            if (reached == null || location == null) return;
+            
+            // Retirer l'ancien modèle
+            location.getBlock().setType(Material.AIR);
+            
+            // Placer le nouveau modèle
+            try {
+                NexoFurniture.place(reached.getNexoId(), location, 0f, null);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Erreur lors de la croissance de " + crop.getCropId() + ": " + e.getMessage());
+                return;
+            }
+            planted.growTo(stage, reachedAt);
+            saveCrop(planted);
         }
         
-        public long getLastGrowthTime() {
-            return lastGrowthTime;
+        scheduleNextStage(planted, crop);
+    }
+    
+    private void scheduleNextStage(PlantedCrop planted, CustomCrop crop) {
+        if (crop.isMature(planted.getCurrentStage())) return;
+        CustomCrop.GrowthStage current = crop.getStage(planted.getCurrentStage());
+        if (current == null) return;
+        store.schedule(planted, planted.getLastGrowthTime() + current.getDuration() * 1000L);
+    }
+    
+    /**
+     * Recalcule toutes les échéances (durées modifiées au reload). Les cultures des chunks
+     * déchargés ne sont pas replanifiées : elles le seront à leur chargement.
+     */
+    private void rescheduleAll() {
+        store.clearSchedule();
+        long now = System.currentTimeMillis();
+        for (PlantedCrop planted : store.getAll()) {
+            CustomCrop crop = cropsMap.get(planted.getCropId());
+            if (crop != null && isChunkLoaded(planted)) {
+                advance(planted, crop, now);
+            }
         }
-        
-        public int getCurrentStage() {
-            return currentStage;
+    }
+    
+    private boolean isStored(PlantedCrop planted) {
+        return store.get(planted.getWorld(), planted.getX(), planted.getY(), planted.getZ()) == planted;
+    }
+    
+    private static boolean isChunkLoaded(PlantedCrop planted) {
+        World world = Bukkit.getWorld(planted.getWorld());
+        return world != null && world.isChunkLoaded(planted.getX() >> 4, planted.getZ() >> 4);
+    }
+    
+    // ==================== PERSISTANCE ====================
+    
+    /**
+     * Charge les cultures plantées depuis MySQL (lecture asynchrone, insertion sur le thread principal)
+     */
+    private void loadPlantedCrops() {
+        DatabaseManager database = plugin.getDatabaseManager();
+        if (database == null || !database.isConnected()) {
+            plugin.getLogger().warning("MySQL indisponible : les cultures plantées ne seront pas sauvegardées");
+            return;
         }
         
-        public void grow() {
-            this.currentStage++;
-            this.lastGrowthTime = System.currentTimeMillis();
-        }
+        database.query(conn -> {
+            List<PlantedCrop> loaded = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT world, x, y, z, crop_id, stage, last_growth FROM quantum_custom_crops");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    loaded.add(new PlantedCrop(rs.getString("crop_id"), rs.getString("world"),
+                            rs.getInt("x"), rs.getInt("y"), rs.getInt("z"),
+                            rs.getInt("stage"), rs.getLong("last_growth")));
+                }
+            }
+            return loaded;
+        }).whenComplete((loaded, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Erreur lors du chargement des cultures plantées: " + error.getMessage());
+                return;
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                int restored = 0;
+                for (PlantedCrop planted : loaded) {
+                    if (store.add(planted)) restored++;
+                }
+                rescheduleAll();
+                plugin.getLogger().info("✓ " + restored + " cultures plantées restaurées (" + store.getChunkCount() + " chunks)");
+            });
+        });
+    }
+    
+    private void saveCrop(PlantedCrop planted) {
+        writer.save(planted);
+    }
+    
+    private void deleteCrop(PlantedCrop planted) {
+        writer.delete(planted);
+    }
+    
+    /**
+     * Écrit les cultures encore en attente (arrêt du plugin)
+     */
+    public void shutdown() {
+        writer.shutdown();
     }
 }
@@ -0,0 +1,84 @@
+package com.wynvers.quantum.crops;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Culture plantée à une position de bloc
+ */
+final class PlantedCrop {
+
+    private final String cropId;
+    private final String world;
+    private final int x;
+    private final int y;
+    private final int z;
+    private int currentStage;
+    private long lastGrowthTime;
+
+    // Échéance actuellement en file dans le PlantedCropStore (0 = non planifiée)
+    private long deadline;
+
+    PlantedCrop(String cropId, String world, int x, int y, int z, int currentStage, long lastGrowthTime) {
+        this.cropId = cropId;
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.currentStage = currentStage;
+        this.lastGrowthTime = lastGrowthTime;
+    }
+
+    String getCropId() {
+        return cropId;
+    }
+
+    String getWorld() {
+        return world;
+    }
+
+    int getX() {
+        return x;
+    }
+
+    int getY() {
+        return y;
+    }
+
+    int getZ() {
+        return z;
+    }
+
+    /**
+     * Position du bloc, ou null si le monde n'est pas chargé
+     */
+    Location getLocation() {
+        World bukkitWorld = Bukkit.getWorld(world);
+        return bukkitWorld != null ? new Location(bukkitWorld, x, y, z) : null;
+    }
+
+    int getCurrentStage() {
+        return currentStage;
+    }
+
+    long getLastGrowthTime() {
+        return lastGrowthTime;
+    }
+
+    /**
+     * Passe au stade donné ; le temps de croissance repart de la date où ce stade a été atteint
+     */
+    void growTo(int stage, long reachedAt) {
+        this.currentStage = stage;
+        this.lastGrowthTime = reachedAt;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+}
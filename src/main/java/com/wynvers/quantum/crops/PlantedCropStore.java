@@ -0,0 +1,151 @@
+package com.wynvers.quantum.crops;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Cultures plantées, rangées par monde puis par chunk
+ *
+ * - Une recherche par position ne touche que la map du chunk concerné.
+ * - Les échéances de passage au stade suivant sont gardées dans une file triée par date :
+ *   la tâche de croissance ne regarde que la tête de file, quel que soit le nombre de cultures.
+ * - Les entrées de la file ne sont jamais retirées en place : une entrée dont l'échéance ne
+ *   correspond plus à celle de la culture (récoltée, replanifiée) est ignorée au moment du poll.
+ */
+final class PlantedCropStore {
+
+    private record Deadline(long time, PlantedCrop crop) {
+    }
+
+    private final Map<String, Map<Long, Map<Long, PlantedCrop>>> worlds = new HashMap<>();
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>((a, b) -> Long.compare(a.time, b.time));
+    private int size;
+
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    // x et z sur 26 bits, y sur 12 bits (même découpage que les positions de bloc vanilla)
+    static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    PlantedCrop get(String world, int x, int y, int z) {
+        Map<Long, PlantedCrop> chunk = getChunk(world, x >> 4, z >> 4);
+        return chunk != null ? chunk.get(blockKey(x, y, z)) : null;
+    }
+
+    /**
+     * @return false si une culture occupe déjà ce bloc
+     */
+    boolean add(PlantedCrop crop) {
+        Map<Long, PlantedCrop> chunk = worlds
+                .computeIfAbsent(crop.getWorld(), k -> new HashMap<>())
+                .computeIfAbsent(chunkKey(crop.getX() >> 4, crop.getZ() >> 4), k -> new HashMap<>());
+        if (chunk.putIfAbsent(blockKey(crop.getX(), crop.getY(), crop.getZ()), crop) != null) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    void remove(PlantedCrop crop) {
+        Map<Long, Map<Long, PlantedCrop>> chunks = worlds.get(crop.getWorld());
+        if (chunks == null) {
+            return;
+        }
+        long key = chunkKey(crop.getX() >> 4, crop.getZ() >> 4);
+        Map<Long, PlantedCrop> chunk = chunks.get(key);
+        if (chunk == null || !chunk.remove(blockKey(crop.getX(), crop.getY(), crop.getZ()), crop)) {
+            return;
+        }
+        size--;
+        crop.setDeadline(0);
+        if (chunk.isEmpty()) {
+            chunks.remove(key);
+            if (chunks.isEmpty()) {
+                worlds.remove(crop.getWorld());
+            }
+        }
+    }
+
+    /**
+     * Cultures d'un chunk (vue non modifiable, vide si aucune)
+     */
+    Collection<PlantedCrop> getChunkCrops(String world, int chunkX, int chunkZ) {
+        Map<Long, PlantedCrop> chunk = getChunk(world, chunkX, chunkZ);
+        return chunk != null ? Collections.unmodifiableCollection(chunk.values()) : Collections.emptyList();
+    }
+
+    private Map<Long, PlantedCrop> getChunk(String world, int chunkX, int chunkZ) {
+        Map<Long, Map<Long, PlantedCrop>> chunks = worlds.get(world);
+        return chunks != null ? chunks.get(chunkKey(chunkX, chunkZ)) : null;
+    }
+
+    List<PlantedCrop> getAll() {
+        List<PlantedCrop> all = new ArrayList<>(size);
+        for (Map<Long, Map<Long, PlantedCrop>> chunks : worlds.values()) {
+            for (Map<Long, PlantedCrop> chunk : chunks.values()) {
+                all.addAll(chunk.values());
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Planifie le prochain stade de la culture. Sans effet si cette échéance est déjà en file.
+     */
+    void schedule(PlantedCrop crop, long time) {
+        if (crop.getDeadline() == time) {
+            return;
+        }
+        crop.setDeadline(time);
+        deadlines.add(new Deadline(time, crop));
+    }
+
+    /**
+     * Retire la culture de la planification (elle sera replanifiée au chargement de son chunk)
+     */
+    void unschedule(PlantedCrop crop) {
+        crop.setDeadline(0);
+    }
+
+    /**
+     * Prochaine culture arrivée à échéance, ou null. La culture est retirée de la planification.
+     */
+    PlantedCrop pollDue(long now) {
+        Deadline head;
+        while ((head = deadlines.peek()) != null && head.time <= now) {
+            deadlines.poll();
+            if (head.crop.getDeadline() == head.time) {
+                head.crop.setDeadline(0);
+                return head.crop;
+            }
+        }
+        return null;
+    }
+
+    void clearSchedule() {
+        deadlines.clear();
+        for (PlantedCrop crop : getAll()) {
+            crop.setDeadline(0);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getChunkCount() {
+        int count = 0;
+        for (Map<Long, Map<Long, PlantedCrop>> chunks : worlds.values()) {
+            count += chunks.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,154 @@
+package com.wynvers.quantum.crops;
+
+import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.database.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Écritures des cultures plantées (table quantum_custom_crops) en write-behind
+ *
+ * Chaque position ne garde que sa dernière opération : un upsert (plantation, croissance)
+ * ou une suppression (récolte). Les flushs sont sérialisés par un verrou et écrivent l'état
+ * final de chaque position : un upsert plus ancien ne peut plus passer après la suppression
+ * et recréer une culture fantôme.
+ */
+final class PlantedCropWriter {
+
+    private static final String UPSERT_SQL = "INSERT INTO quantum_custom_crops (world, x, y, z, chunk_key, crop_id, stage, last_growth) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE crop_id = VALUES(crop_id), stage = VALUES(stage), last_growth = VALUES(last_growth)";
+    private static final String DELETE_SQL = "DELETE FROM quantum_custom_crops WHERE world = ? AND x = ? AND y = ? AND z = ?";
+
+    private record Position(String world, int x, int y, int z) {
+    }
+
+    /**
+     * Dernier état connu d'une position ; cropId null = supprimée
+     */
+    private record Write(String cropId, int stage, long lastGrowth) {
+
+        boolean isDelete() {
+            return cropId == null;
+        }
+    }
+
+    private final Quantum plugin;
+    private final Map<Position, Write> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    PlantedCropWriter(Quantum plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Planifie l'écriture de l'état actuel de la culture (thread principal)
+     */
+    void save(PlantedCrop planted) {
+        queue(planted, new Write(planted.getCropId(), planted.getCurrentStage(), planted.getLastGrowthTime()));
+    }
+
+    /**
+     * Planifie la suppression de la culture ; remplace tout upsert encore en attente
+     */
+    void delete(PlantedCrop planted) {
+        queue(planted, new Write(null, 0, 0L));
+    }
+
+    private void queue(PlantedCrop planted, Write write) {
+        if (!isDatabaseAvailable()) return;
+        pending.put(new Position(planted.getWorld(), planted.getX(), planted.getY(), planted.getZ()), write);
+        requestFlush();
+    }
+
+    /**
+     * Écrit tout ce qui reste sur le thread appelant (arrêt du plugin)
+     */
+    void shutdown() {
+        flushNow();
+    }
+
+    private void requestFlush() {
+        if (pending.isEmpty() || !flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        plugin.getDatabaseManager().runAsync(() -> {
+            flushQueued.set(false);
+            flushNow();
+        });
+    }
+
+    private void flushNow() {
+        synchronized (flushLock) {
+            if (pending.isEmpty() || !isDatabaseAvailable()) {
+                return;
+            }
+
+            List<Map.Entry<Position, Write>> batch = new ArrayList<>(pending.size());
+            for (Map.Entry<Position, Write> entry : new ArrayList<>(pending.entrySet())) {
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL);
+                     PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+                    for (Map.Entry<Position, Write> entry : batch) {
+                        Position pos = entry.getKey();
+                        Write write = entry.getValue();
+                        if (write.isDelete()) {
+                            delete.setString(1, pos.world());
+                            delete.setInt(2, pos.x());
+                            delete.setInt(3, pos.y());
+                            delete.setInt(4, pos.z());
+                            delete.addBatch();
+                        } else {
+                            upsert.setString(1, pos.world());
+                            upsert.setInt(2, pos.x());
+                            upsert.setInt(3, pos.y());
+                            upsert.setInt(4, pos.z());
+                            upsert.setLong(5, PlantedCropStore.chunkKey(pos.x() >> 4, pos.z() >> 4));
+                            upsert.setString(6, write.cropId());
+                            upsert.setInt(7, write.stage());
+                            upsert.setLong(8, write.lastGrowth());
+                            upsert.addBatch();
+                        }
+                    }
+                    // Une seule opération par position dans le lot : l'ordre entre les deux batchs est indifférent
+                    upsert.executeBatch();
+                    delete.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Erreur lors de la sauvegarde de " + batch.size() + " cultures plantées: " + e.getMessage());
+                // Rien n'a été commité : une opération plus récente sur la même position reste prioritaire
+                for (Map.Entry<Position, Write> entry : batch) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private boolean isDatabaseAvailable() {
+        DatabaseManager database = plugin.getDatabaseManager();
+        return database != null && database.isConnected();
+    }
+}
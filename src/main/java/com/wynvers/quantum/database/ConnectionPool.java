@@ -0,0 +1,274 @@
+package com.wynvers.quantum.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * <p>Connections handed out by {@link #borrow()} are proxies: calling {@code close()}
+ * returns the physical connection to the pool instead of closing it, so the
+ * usual try-with-resources pattern used across the plugin stays correct.
+ * At most {@code maxSize} physical connections exist at any time; callers
+ * block up to {@code timeoutMs} when the pool is exhausted.</p>
+ */
+public class ConnectionPool {
+
+    /** Idle connections older than this are validated before being handed out. */
+    private static final long VALIDATION_INTERVAL_MS = 30_000L;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final long timeoutMs;
+
+    private final BlockingQueue<PooledEntry> idle;
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String username, String password, int maxSize, long timeoutMs) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.timeoutMs = Math.max(0L, timeoutMs);
+        this.idle = new ArrayBlockingQueue<>(this.maxSize);
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /**
+     * Borrow a connection. The returned connection must be closed by the caller
+     * to give it back to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Timed out after " + timeoutMs + "ms waiting for a database connection");
+        }
+
+        try {
+            PooledEntry entry = takeIdle();
+            if (entry == null) {
+                entry = new PooledEntry(DriverManager.getConnection(url, username, password));
+                total.incrementAndGet();
+            }
+            active.incrementAndGet();
+            borrowCount.incrementAndGet();
+            return wrap(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Poll idle connections, discarding the ones that went stale.
+     */
+    private PooledEntry takeIdle() {
+        PooledEntry entry;
+        while ((entry = idle.poll()) != null) {
+            if (System.currentTimeMillis() - entry.lastUsed < VALIDATION_INTERVAL_MS) {
+                return entry;
+            }
+            try {
+                if (!entry.connection.isClosed() && entry.connection.isValid(1)) {
+                    return entry;
+                }
+            } catch (SQLException ignored) {
+                // Treated as a dead connection below
+            }
+            discard(entry);
+        }
+        return null;
+    }
+
+    private void release(PooledEntry entry, boolean broken) {
+        active.decrementAndGet();
+        try {
+            if (closed || broken || entry.connection.isClosed()) {
+                discard(entry);
+                return;
+            }
+            if (!entry.connection.getAutoCommit()) {
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+            entry.lastUsed = System.currentTimeMillis();
+            if (!idle.offer(entry)) {
+                discard(entry);
+            }
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        total.decrementAndGet();
+        try {
+            entry.connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledHandler(entry));
+    }
+
+    /**
+     * Close every idle connection and refuse new borrows. Connections still
+     * borrowed are closed as soon as they are returned.
+     */
+    public void close() {
+        closed = true;
+        PooledEntry entry;
+        while ((entry = idle.poll()) != null) {
+            discard(entry);
+        }
+    }
+
+    // ───────────────────── Metrics ─────────────────────
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        double avgWaitMs = borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+        return new PoolStats(
+                active.get(),
+                idle.size(),
+                total.get(),
+                maxSize,
+                permits.getQueueLength(),
+                borrows,
+                timeouts.get(),
+                avgWaitMs,
+                maxWaitNanos.get() / 1_000_000.0
+        );
+    }
+
+    /**
+     * Snapshot of the pool state.
+     *
+     * @param active      connections currently borrowed
+     * @param idle        open connections waiting in the pool
+     * @param total       physical connections currently open
+     * @param maxSize     pool capacity
+     * @param waiting     threads blocked waiting for a connection
+     * @param borrows     total successful borrows since startup
+     * @param timeouts    borrows that gave up after the configured timeout
+     * @param avgWaitMs   average time spent waiting for a connection
+     * @param maxWaitMs   longest time spent waiting for a connection
+     */
+    public record PoolStats(int active, int idle, int total, int maxSize, int waiting,
+                            long borrows, long timeouts, double avgWaitMs, double maxWaitMs) {}
+
+    // ───────────────────── Internals ─────────────────────
+
+    private static final class PooledEntry {
+        private final Connection connection;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private PooledEntry(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private final class PooledHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private final AtomicBoolean returned = new AtomicBoolean();
+        private volatile boolean broken;
+
+        private PooledHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(entry, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || entry.connection.isClosed();
+                case "unwrap":
+                    if (args != null && args[0] == Connection.class) {
+                        return proxy;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.connection + "]";
+                default:
+                    break;
+            }
+
+            if (returned.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sql && isFatal(sql)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        /** SQLState class 08 means the link to the server is gone. */
+        private boolean isFatal(SQLException e) {
+            String state = e.getSQLState();
+            return state != null && state.startsWith("08");
+        }
+    }
+}
@@ -1,20 +1,65 @@
 package com.wynvers.quantum.database;
 
 import com.wynvers.quantum.Quantum;
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Point d'entrée unique vers MySQL.
+ *
+ * <p>Les connexions viennent d'un {@link ConnectionPool} borné et les requêtes
+ * asynchrones passent par un exécuteur dédié (threads {@code Quantum-DB-n}) dont
+ * la file est elle aussi bornée. Les managers doivent utiliser {@link #query}
+ * et {@link #execute} plutôt que d'ouvrir une connexion sur le thread principal.</p>
+ */
 public class DatabaseManager {
 
+    /**
+     * Requête SQL qui produit une valeur à partir d'une connexion empruntée au pool.
+     */
+    @FunctionalInterface
+    public interface SqlFunction<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Requête SQL sans résultat (INSERT / UPDATE / DELETE).
+     */
+    @FunctionalInterface
+    public interface SqlConsumer {
+        void accept(Connection connection) throws SQLException;
+    }
+
+    private static final String THREAD_PREFIX = "Quantum-DB-";
+
     private final Quantum plugin;
-    private Connection connection;
+    private ConnectionPool pool;
+    private ThreadPoolExecutor executor;
     private boolean connected;
 
+    // Tâches refusées par la file pleine depuis le thread principal ou un thread DB :
+    // remises dans la file par les threads DB dès qu'une place se libère
+    private final Queue<Runnable> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean overflowWarned = new AtomicBoolean();
+
     public DatabaseManager(Quantum plugin) {
         this.plugin = plugin;
         connect();
@@ -54,13 +99,23 @@ public class DatabaseManager {
         String pass = config.getString("password");
 
         String url = "jdbc:mysql://" + host + ":" + port + "/" + db
-                + "?useSSL=false&autoReconnect=true&serverTimezone=UTC";
+                + "?useSSL=false&autoReconnect=true&serverTimezone=UTC&rewriteBatchedStatements=true";
+
+        int poolSize = Math.max(1, config.getInt("pool.max-size", 10));
+        long timeoutMs = config.getLong("pool.connection-timeout-ms", 5000L);
+        int queueSize = Math.max(16, config.getInt("pool.queue-size", 2048));
 
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
-            this.connection = DriverManager.getConnection(url, user, pass);
+            ConnectionPool candidate = new ConnectionPool(url, user, pass, poolSize, timeoutMs);
+            // Ouvre une première connexion pour valider les identifiants dès le démarrage
+            try (Connection ignored = candidate.borrow()) {
+                this.pool = candidate;
+            }
+            this.executor = createExecutor(poolSize, queueSize);
             if (!connected) {
-                plugin.getQuantumLogger().success("Connected to MySQL database '" + db + "'");
+                plugin.getQuantumLogger().success("Connected to MySQL database '" + db
+                        + "' (pool: " + poolSize + " connections)");
                 connected = true;
             }
         } catch (Exception e) {
@@ -69,20 +124,162 @@ public class DatabaseManager {
         }
     }
 
-    public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connect();
+    private ThreadPoolExecutor createExecutor(int threads, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor exec = new ThreadPoolExecutor(
+                threads, threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, THREAD_PREFIX + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, rejectedBy) -> onRejected(runnable, rejectedBy, queueSize)) {
+            @Override
+            protected void afterExecute(Runnable task, Throwable error) {
+                drainOverflow(this);
+            }
+        };
+        exec.allowCoreThreadTimeOut(true);
+        return exec;
+    }
+
+    /**
+     * File pleine : le SQL ne doit jamais partir sur le thread principal.
+     *
+     * - Thread principal ou thread DB : la tâche attend dans la file de débordement
+     *   (bloquer un thread DB sur sa propre file pourrait tout figer).
+     * - Autre thread (tâche async) : il attend qu'une place se libère.
+     * - Exécuteur arrêté : la tâche est refusée et journalisée ; le future de
+     *   {@link #query} échoue au lieu de ne jamais se terminer.
+     */
+    private void onRejected(Runnable runnable, ThreadPoolExecutor rejectedBy, int queueSize) {
+        if (rejectedBy.isShutdown()) {
+            plugin.getQuantumLogger().warning("Database executor is shut down, dropping task submitted from "
+                    + Thread.currentThread().getName());
+            throw new RejectedExecutionException("Database executor is shut down");
+        }
+
+        Thread current = Thread.currentThread();
+        if (Bukkit.isPrimaryThread() || current.getName().startsWith(THREAD_PREFIX)) {
+            overflow.add(runnable);
+            if (overflowWarned.compareAndSet(false, true)) {
+                plugin.getQuantumLogger().warning("Database queue full (" + queueSize
+                        + " tasks), deferring queries until it drains");
+            }
+            // Les threads DB ont pu finir leurs tâches entre-temps
+            drainOverflow(rejectedBy);
+            return;
         }
-        if (connection == null) {
+
+        try {
+            rejectedBy.getQueue().put(runnable);
+        } catch (InterruptedException e) {
+            current.interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the database queue", e);
+        }
+    }
+
+    private void drainOverflow(ThreadPoolExecutor exec) {
+        Runnable task;
+        while ((task = overflow.peek()) != null) {
+            if (!exec.getQueue().offer(task)) {
+                return;
+            }
+            overflow.remove(task);
+        }
+        overflowWarned.set(false);
+    }
+
+    /**
+     * Emprunte une connexion au pool. Le {@code close()} de la connexion la rend
+     * au pool : toujours l'utiliser dans un try-with-resources.
+     */
+    public Connection getConnection() throws SQLException {
+        if (pool == null) {
             throw new SQLException("Database connection is not available");
         }
-        return connection;
+        return pool.borrow();
+    }
+
+    public boolean isConnected() {
+        return pool != null;
+    }
+
+    /**
+     * Exécute une requête sur l'exécuteur DB et renvoie son résultat.
+     * Les {@link SQLException} sont propagées dans le future.
+     */
+    public <T> CompletableFuture<T> query(SqlFunction<T> function) {
+        if (executor == null) {
+            return CompletableFuture.failedFuture(new SQLException("Database connection is not available"));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try (Connection conn = getConnection()) {
+                    return function.apply(conn);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Exécute une écriture sur l'exécuteur DB. Les erreurs sont journalisées
+     * avec le contexte fourni et propagées dans le future.
+     */
+    public CompletableFuture<Void> execute(String context, SqlConsumer consumer) {
+        return this.<Void>query(conn -> {
+            consumer.accept(conn);
+            return null;
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                plugin.getQuantumLogger().error("Failed to " + context + ": " + cause.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Exécute une tâche bloquante (chargement, sauvegarde) sur l'exécuteur DB.
+     * Sans base configurée, la tâche part sur le pool commun pour ne jamais bloquer le thread principal.
+     */
+    public CompletableFuture<Void> runAsync(Runnable task) {
+        if (executor == null) {
+            return CompletableFuture.runAsync(task);
+        }
+        try {
+            return CompletableFuture.runAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Exécuteur dédié aux requêtes SQL, pour chaîner des traitements hors du thread principal.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public ConnectionPool.PoolStats getPoolStats() {
+        return pool != null ? pool.getStats() : null;
+    }
+
+    public int getQueuedTasks() {
+        return executor != null ? executor.getQueue().size() + overflow.size() : 0;
     }
 
     private void createTables() {
-        if (connection == null) return;
+        if (pool == null) return;
 
-        try (Statement st = connection.createStatement()) {
+        try (Connection connection = getConnection();
+             Statement st = connection.createStatement()) {
             st.executeUpdate("CREATE TABLE IF NOT EXISTS quantum_player_levels (" +
                     "uuid CHAR(36) NOT NULL PRIMARY KEY," +
                     "level INT NOT NULL DEFAULT 1," +
@@ -189,6 +386,35 @@ public class DatabaseManager {
                     "page_level INT NOT NULL DEFAULT 0" +
                     ")");
 
+            // Cultures plantées (CustomCropManager), chargées au démarrage
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS quantum_custom_crops (" +
+                    "world VARCHAR(64) NOT NULL, " +
+                    "x INT NOT NULL, " +
+                    "y INT NOT NULL, " +
+                    "z INT NOT NULL, " +
+                    "chunk_key BIGINT NOT NULL, " +
+                    "crop_id VARCHAR(64) NOT NULL, " +
+                    "stage INT NOT NULL DEFAULT 1, " +
+                    "last_growth BIGINT NOT NULL, " +
+                    "PRIMARY KEY (world, x, y, z), " +
+                    "INDEX idx_crops_chunk (world, chunk_key)" +
+                    ")");
+
+            // Ordres publiés sur le marché (OrderBook), chargés au démarrage
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS quantum_orders (" +
+                    "order_id VARCHAR(64) NOT NULL PRIMARY KEY, " +
+                    "category VARCHAR(64) NOT NULL, " +
+                    "type VARCHAR(16) NULL, " +
+                    "orderer VARCHAR(32) NOT NULL, " +
+                    "orderer_uuid VARCHAR(36) NULL, " +
+                    "item_id VARCHAR(128) NOT NULL, " +
+                    "quantity INT NOT NULL, " +
+                    "price_per_unit DOUBLE NOT NULL, " +
+                    "total_price DOUBLE NOT NULL, " +
+                    "created_at BIGINT NOT NULL, " +
+                    "status VARCHAR(16) NOT NULL" +
+                    ")");
+
             plugin.getQuantumLogger().success("✓ Database tables verified");
         } catch (SQLException e) {
             plugin.getQuantumLogger().error("Failed to create MySQL tables: " + e.getMessage());
@@ -196,9 +422,48 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Vide la file de l'exécuteur (écritures en attente) puis ferme le pool.
+     * Aucune écriture n'est abandonnée : ce qui reste en file après le délai est exécuté
+     * sur le thread appelant, quitte à retarder l'arrêt du serveur.
+     */
     public void close() {
-        if (connection != null) {
-            try { connection.close(); } catch (SQLException ignored) {}
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    // Les tâches en file sont reprises sans interrompre celles en cours (SQL en plein commit)
+                    List<Runnable> remaining = new ArrayList<>();
+                    executor.getQueue().drainTo(remaining);
+                    plugin.getQuantumLogger().warning("Database executor did not finish in time, running "
+                            + remaining.size() + " queued tasks on the shutdown thread");
+                    runAll(remaining);
+                    if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                        runAll(executor.shutdownNow());
+                    }
+                }
+            } catch (InterruptedException e) {
+                runAll(executor.shutdownNow());
+                Thread.currentThread().interrupt();
+            }
+            // Débordement restant : exécuté ici, l'arrêt du serveur peut bloquer
+            Runnable task;
+            while ((task = overflow.poll()) != null) {
+                task.run();
+            }
+        }
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private void runAll(List<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                plugin.getQuantumLogger().error("Queued database task failed during shutdown", e);
+            }
         }
     }
 }
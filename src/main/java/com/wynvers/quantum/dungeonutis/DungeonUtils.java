@@ -206,43 +206,46 @@ public class DungeonUtils {
      * Uses exponential curve with XP reset on level up
      */
     public void addKillExperience(ItemStack item) {
-        if (!isDungeonUtil(item)) return;
+        addKillExperience(item, 1);
+    }
+
+    /**
+     * Adds several points of kill experience in one pass.
+     * Successive level-ups are computed against the curve, then PDC and lore are
+     * written once. Same result as {@code amount} calls to {@link #addKillExperience(ItemStack)}.
+     */
+    public void addKillExperience(ItemStack item, int amount) {
+        if (amount <= 0 || !isDungeonUtil(item)) return;
 
         ItemMeta meta = item.getItemMeta();
         if (meta == null) return;
 
         PersistentDataContainer data = meta.getPersistentDataContainer();
-        int currentExp = data.getOrDefault(expKey, PersistentDataType.INTEGER, 0);
-        int currentLevel = data.getOrDefault(levelKey, PersistentDataType.INTEGER, 0);
-        int newExp = currentExp + 1;
-
-        // Check if we leveled up with the exponential curve
-        int expForNextLevel = getExpForLevel(currentLevel + 1);
-
-        if (newExp >= expForNextLevel) {
-            // Level up! Reset XP to 0 and increment level
-            int newLevel = currentLevel + 1;
-            data.set(levelKey, PersistentDataType.INTEGER, newLevel);
-            data.set(expKey, PersistentDataType.INTEGER, 0);
-            item.setItemMeta(meta);
-
-            // Update lore
-            DungeonUtilsType type = getType(item);
-            DungeonUtilsRarity rarity = getRarity(item);
-            if (type != null && rarity != null) {
-                updateLore(item, type, rarity, newLevel, 0);
+        int exp = data.getOrDefault(expKey, PersistentDataType.INTEGER, 0);
+        int level = data.getOrDefault(levelKey, PersistentDataType.INTEGER, 0);
+
+        // Each level-up resets XP to 0
+        int remaining = amount;
+        while (remaining > 0) {
+            int needed = Math.max(1, getExpForNextLevel(level) - exp);
+            if (remaining < needed) {
+                exp += remaining;
+                break;
             }
-        } else {
-            // No level up yet, just add the XP
-            data.set(expKey, PersistentDataType.INTEGER, newExp);
-            item.setItemMeta(meta);
+            remaining -= needed;
+            level++;
+            exp = 0;
+        }
 
-            // Update lore
-            DungeonUtilsType type = getType(item);
-            DungeonUtilsRarity rarity = getRarity(item);
-            if (type != null && rarity != null) {
-                updateLore(item, type, rarity, currentLevel, newExp);
-            }
+        data.set(levelKey, PersistentDataType.INTEGER, level);
+        data.set(expKey, PersistentDataType.INTEGER, exp);
+        item.setItemMeta(meta);
+
+        // Update lore
+        DungeonUtilsType type = getType(item);
+        DungeonUtilsRarity rarity = getRarity(item);
+        if (type != null && rarity != null) {
+            updateLore(item, type, rarity, level, exp);
         }
     }
 
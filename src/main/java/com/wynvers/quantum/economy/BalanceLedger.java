@@ -0,0 +1,554 @@
+package com.wynvers.quantum.economy;
+
+import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.managers.PlaceholderManager;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Soldes en mémoire pour toutes les monnaies Quantum.
+ *
+ * <p>Chaque compte (uuid, monnaie) est tenu en mémoire et modifié sous son propre verrou,
+ * sans aller-retour SQL sur le thread appelant. Chaque modification est ajoutée à un
+ * journal append-only, vidé périodiquement vers {@code quantum_player_balances} par lots
+ * sur l'exécuteur DB.</p>
+ *
+ * <p>Les comptes des joueurs en ligne sont préchargés à la connexion et restent en cache ;
+ * les comptes hors ligne sont chargés à la demande puis évincés après une période
+ * d'inactivité, une fois leurs écritures journalisées vidées. Le compte d'un joueur connecté
+ * absent du cache n'est jamais chargé sur le thread principal : le chargement part sur
+ * l'exécuteur DB et l'opération échoue en attendant (voir {@link #isLoaded}). Un compte hors
+ * ligne (commande admin, appel Vault d'un autre plugin) est chargé sur l'appelant.</p>
+ */
+public class BalanceLedger implements Listener {
+
+    private enum OpType { CREATE, DELTA, DELETE }
+
+    private record AccountKey(UUID uuid, String currencyId) {}
+
+    private record JournalEntry(AccountKey key, Account account, OpType type, double amount) {}
+
+    /**
+     * Compte en cache. Les écritures se font sous le moniteur du compte ; l'éviction
+     * prend le même moniteur et marque le compte, qui ne peut alors plus être modifié :
+     * l'appelant relit le cache et recharge le compte depuis la base.
+     */
+    static final class Account {
+        private volatile double balance;
+        private volatile boolean exists;
+        private volatile boolean pinned;
+        private volatile boolean evicted;
+        private volatile long lastAccess = System.currentTimeMillis();
+        // Opérations journalisées pas encore en base (protégé par le moniteur du compte)
+        private int unflushed;
+
+        double balance() {
+            return balance;
+        }
+
+        boolean exists() {
+            return exists;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        synchronized boolean evictIfIdle(long cutoff) {
+            if (pinned || lastAccess >= cutoff || unflushed > 0) {
+                return false;
+            }
+            evicted = true;
+            return true;
+        }
+
+        synchronized void flushed() {
+            unflushed--;
+        }
+    }
+
+    private final Quantum plugin;
+    private final Map<AccountKey, Account> accounts = new ConcurrentHashMap<>();
+    private final Set<AccountKey> loading = ConcurrentHashMap.newKeySet();
+    private final Queue<JournalEntry> journal = new ConcurrentLinkedQueue<>();
+    private final Collection<String> currencyIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final long evictAfterMs;
+    private BukkitTask flushTask;
+
+    public BalanceLedger(Quantum plugin) {
+        this.plugin = plugin;
+        this.evictAfterMs = plugin.getConfig().getLong("economy.offline-cache-seconds", 300L) * 1000L;
+
+        long interval = Math.max(1L, plugin.getConfig().getLong("economy.journal-flush-interval-ticks", 20L));
+        this.flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::requestFlush, interval, interval);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * Déclare une monnaie dont les comptes doivent être préchargés à la connexion
+     */
+    void registerCurrency(String currencyId) {
+        currencyIds.add(currencyId);
+    }
+
+    // ───────────────────── Lecture ─────────────────────
+
+    /**
+     * @return true si le compte est disponible. Pour un joueur connecté pas encore chargé, le
+     * chargement est lancé en arrière-plan (thread principal) et les opérations échouent
+     * jusqu'à ce qu'il soit terminé.
+     */
+    public boolean isLoaded(UUID uuid, String currencyId) {
+        return getAccount(new AccountKey(uuid, currencyId)) != null;
+    }
+
+    public boolean hasAccount(UUID uuid, String currencyId) {
+        Account account = getAccount(new AccountKey(uuid, currencyId));
+        return account != null && account.exists();
+    }
+
+    /**
+     * @return le solde, 0 si le compte n'existe pas ou n'est pas encore chargé
+     */
+    public double getBalance(UUID uuid, String currencyId) {
+        Account account = getAccount(new AccountKey(uuid, currencyId));
+        return account != null && account.exists() ? account.balance() : 0.0;
+    }
+
+    // ───────────────────── Écriture ─────────────────────
+
+    /**
+     * Crée le compte avec le solde de départ s'il n'existe pas
+     * @return false si le compte existait déjà ou n'est pas chargé
+     */
+    public boolean createAccount(UUID uuid, String currencyId, double startingBalance) {
+        AccountKey key = new AccountKey(uuid, currencyId);
+        while (true) {
+            Account account = getAccount(key);
+            if (account == null) {
+                return false;
+            }
+            synchronized (account) {
+                if (account.evicted) {
+                    continue;
+                }
+                if (account.exists) {
+                    return false;
+                }
+                account.balance = startingBalance;
+                account.exists = true;
+                append(key, account, OpType.CREATE, startingBalance);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Supprime le compte
+     * @return false si le compte n'existait pas ou n'est pas chargé
+     */
+    public boolean deleteAccount(UUID uuid, String currencyId) {
+        AccountKey key = new AccountKey(uuid, currencyId);
+        while (true) {
+            Account account = getAccount(key);
+            if (account == null) {
+                return false;
+            }
+            synchronized (account) {
+                if (account.evicted) {
+                    continue;
+                }
+                if (!account.exists) {
+                    return false;
+                }
+                account.exists = false;
+                account.balance = 0.0;
+                append(key, account, OpType.DELETE, 0.0);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Retire un montant si le solde est suffisant.
+     * @return le nouveau solde, ou NaN si le compte n'existe pas, n'est pas chargé
+     * ou si les fonds sont insuffisants
+     */
+    public double withdraw(UUID uuid, String currencyId, double amount) {
+        AccountKey key = new AccountKey(uuid, currencyId);
+        while (true) {
+            Account account = getAccount(key);
+            if (account == null) {
+                return Double.NaN;
+            }
+            synchronized (account) {
+                if (account.evicted) {
+                    continue;
+                }
+                if (!account.exists || account.balance < amount) {
+                    return Double.NaN;
+                }
+                account.balance -= amount;
+                append(key, account, OpType.DELTA, -amount);
+                return account.balance;
+            }
+        }
+    }
+
+    /**
+     * Ajoute un montant, en créant le compte au besoin.
+     * @return le nouveau solde, ou NaN si le compte n'est pas chargé
+     */
+    public double deposit(UUID uuid, String currencyId, double amount, double startingBalance) {
+        AccountKey key = new AccountKey(uuid, currencyId);
+        while (true) {
+            Account account = getAccount(key);
+            if (account == null) {
+                return Double.NaN;
+            }
+            synchronized (account) {
+                if (account.evicted) {
+                    continue;
+                }
+                if (!account.exists) {
+                    account.balance = startingBalance;
+                    account.exists = true;
+                    append(key, account, OpType.CREATE, startingBalance);
+                }
+                account.balance += amount;
+                append(key, account, OpType.DELTA, amount);
+                return account.balance;
+            }
+        }
+    }
+
+    /**
+     * Définit le solde exact, en créant le compte au besoin. Le delta journalisé est calculé
+     * sous le verrou du compte, contre le solde réellement chargé.
+     * @return le nouveau solde, ou NaN si le compte n'est pas chargé
+     */
+    public double setBalance(UUID uuid, String currencyId, double balance, double startingBalance) {
+        AccountKey key = new AccountKey(uuid, currencyId);
+        while (true) {
+            Account account = getAccount(key);
+            if (account == null) {
+                return Double.NaN;
+            }
+            synchronized (account) {
+                if (account.evicted) {
+                    continue;
+                }
+                if (!account.exists) {
+                    account.balance = startingBalance;
+                    account.exists = true;
+                    append(key, account, OpType.CREATE, startingBalance);
+                }
+                double delta = balance - account.balance;
+                if (delta != 0.0) {
+                    account.balance = balance;
+                    append(key, account, OpType.DELTA, delta);
+                }
+                return account.balance;
+            }
+        }
+    }
+
+    /**
+     * Journalise une opération (appelé sous le moniteur du compte, l'ordre du journal
+     * suit donc l'ordre des écritures sur le compte)
+     */
+    private void append(AccountKey key, Account account, OpType type, double amount) {
+        account.unflushed++;
+        journal.add(new JournalEntry(key, account, type, amount));
+        PlaceholderManager placeholders = plugin.getPlaceholderManager();
+        if (placeholders != null) {
+            placeholders.invalidate(key.uuid(), "eco_");
+        }
+    }
+
+    // ───────────────────── Cache ─────────────────────
+
+    /**
+     * Compte en cache, ou null s'il n'est pas disponible.
+     *
+     * Hors thread principal, ou pour un joueur hors ligne, un compte absent est chargé sur
+     * l'appelant. Pour un joueur connecté (normalement préchargé à la connexion), son
+     * chargement part sur l'exécuteur DB et null est renvoyé : l'opération échoue plutôt que
+     * de bloquer le tick ou d'agir sur un solde fictif.
+     */
+    private Account getAccount(AccountKey key) {
+        while (true) {
+            Account account = accounts.get(key);
+            if (account != null) {
+                if (account.evicted) {
+                    accounts.remove(key, account);
+                    continue;
+                }
+                account.touch();
+                return account;
+            }
+
+            if (Bukkit.isPrimaryThread() && Bukkit.getPlayer(key.uuid()) != null) {
+                loadAsync(key);
+                return null;
+            }
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                load(conn, key);
+            } catch (SQLException e) {
+                plugin.getQuantumLogger().error("Error loading balance for " + key.uuid() + ": " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Charge un compte sur l'exécuteur DB (un seul chargement en cours par compte).
+     * En cas d'erreur le compte n'est pas mis en cache ; le prochain accès relance le chargement.
+     */
+    private void loadAsync(AccountKey key) {
+        if (!loading.add(key)) {
+            return;
+        }
+        plugin.getDatabaseManager().query(conn -> load(conn, key)).whenComplete((account, error) -> {
+            loading.remove(key);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                plugin.getQuantumLogger().error("Error loading balance for " + key.uuid() + ": " + cause.getMessage());
+            }
+        });
+    }
+
+    private Account load(Connection conn, AccountKey key) throws SQLException {
+        Account loaded = new Account();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT balance FROM quantum_player_balances WHERE uuid = ? AND currency_id = ?")) {
+            ps.setString(1, key.uuid().toString());
+            ps.setString(2, key.currencyId());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    loaded.balance = rs.getDouble("balance");
+                    loaded.exists = true;
+                }
+            }
+        }
+        // Un compte n'est évincé qu'une fois ses écritures en base : la lecture est à jour
+        Account existing = accounts.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Précharge et épingle les comptes du joueur avant son arrivée
+     * (appelé par le PlayerSessionLoader, sur la connexion de la session)
+     */
+    public void preload(Connection conn, UUID uuid) throws SQLException {
+        for (String currencyId : currencyIds) {
+            AccountKey key = new AccountKey(uuid, currencyId);
+            while (true) {
+                Account account = accounts.get(key);
+                if (account == null) {
+                    load(conn, key);
+                    continue;
+                }
+                synchronized (account) {
+                    if (account.evicted) {
+                        accounts.remove(key, account);
+                        continue;
+                    }
+                    account.touch();
+                    account.pinned = true;
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Le compte redevient évinçable après la période d'inactivité
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        release(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Désépingle les comptes du joueur (déconnexion, ou session préchargée sans connexion)
+     */
+    public void release(UUID uuid) {
+        for (String currencyId : currencyIds) {
+            Account account = accounts.get(new AccountKey(uuid, currencyId));
+            if (account != null) {
+                account.pinned = false;
+                account.touch();
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - evictAfterMs;
+        // removeIf de ConcurrentHashMap retire par remove(clé, compte) : un compte rechargé entre-temps reste
+        accounts.entrySet().removeIf(entry -> entry.getValue().evictIfIdle(cutoff));
+    }
+
+    // ───────────────────── Journal ─────────────────────
+
+    private void requestFlush() {
+        if (!flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        plugin.getDatabaseManager().runAsync(() -> {
+            flushQueued.set(false);
+            flush();
+            evictIdle();
+        });
+    }
+
+    /**
+     * Vide le journal vers la base sur le thread appelant.
+     * Les opérations sont regroupées par compte : suppression, puis création, puis delta cumulé.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (journal.isEmpty()) {
+                return;
+            }
+
+            Map<AccountKey, PendingWrite> pending = new LinkedHashMap<>();
+            List<JournalEntry> drained = new ArrayList<>();
+            JournalEntry entry;
+            while ((entry = journal.poll()) != null) {
+                drained.add(entry);
+                pending.computeIfAbsent(entry.key(), k -> new PendingWrite()).apply(entry);
+            }
+
+            // Les deltas ne sont pas idempotents : un lot commité ne doit jamais être rejoué,
+            // même si la remise en autocommit ou la fermeture de la connexion échoue ensuite
+            boolean committed = false;
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement delete = conn.prepareStatement(
+                             "DELETE FROM quantum_player_balances WHERE uuid = ? AND currency_id = ?");
+                     PreparedStatement insert = conn.prepareStatement(
+                             "INSERT IGNORE INTO quantum_player_balances (uuid, currency_id, balance) VALUES (?, ?, ?)");
+                     PreparedStatement update = conn.prepareStatement(
+                             "UPDATE quantum_player_balances SET balance = balance + ? WHERE uuid = ? AND currency_id = ?")) {
+                    for (Map.Entry<AccountKey, PendingWrite> write : pending.entrySet()) {
+                        write.getValue().addToBatch(write.getKey(), delete, insert, update);
+                    }
+                    delete.executeBatch();
+                    insert.executeBatch();
+                    update.executeBatch();
+                    conn.commit();
+                    committed = true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                if (committed) {
+                    plugin.getQuantumLogger().warning("Balance operations flushed, but the connection failed afterwards: " + e.getMessage());
+                    for (JournalEntry flushed : drained) {
+                        flushed.account().flushed();
+                    }
+                    return;
+                }
+                plugin.getQuantumLogger().error("Failed to flush " + drained.size() + " balance operations: " + e.getMessage());
+                // Remis en tête de file au prochain flush (l'ordre relatif est conservé)
+                List<JournalEntry> retry = new ArrayList<>(drained);
+                while ((entry = journal.poll()) != null) {
+                    retry.add(entry);
+                }
+                journal.addAll(retry);
+                return;
+            }
+
+            for (JournalEntry flushed : drained) {
+                flushed.account().flushed();
+            }
+        }
+    }
+
+    /**
+     * Arrête le flush périodique et vide le journal
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    /**
+     * Opérations cumulées d'un compte sur un lot du journal
+     */
+    private static final class PendingWrite {
+        private boolean delete;
+        private boolean create;
+        private double createBalance;
+        private double delta;
+
+        void apply(JournalEntry entry) {
+            switch (entry.type()) {
+                case DELETE -> {
+                    delete = true;
+                    create = false;
+                    delta = 0.0;
+                }
+                case CREATE -> {
+                    create = true;
+                    createBalance = entry.amount();
+                    delta = 0.0;
+                }
+                case DELTA -> delta += entry.amount();
+            }
+        }
+
+        void addToBatch(AccountKey key, PreparedStatement delete, PreparedStatement insert,
+                        PreparedStatement update) throws SQLException {
+            String uuid = key.uuid().toString();
+            if (this.delete) {
+                delete.setString(1, uuid);
+                delete.setString(2, key.currencyId());
+                delete.addBatch();
+            }
+            if (create) {
+                insert.setString(1, uuid);
+                insert.setString(2, key.currencyId());
+                insert.setDouble(3, createBalance);
+                insert.addBatch();
+            }
+            if (delta != 0.0) {
+                update.setDouble(1, delta);
+                update.setString(2, uuid);
+                update.setString(3, key.currencyId());
+                update.addBatch();
+            }
+        }
+    }
+}
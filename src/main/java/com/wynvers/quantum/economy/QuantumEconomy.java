@@ -5,10 +5,6 @@ import net.milkbowl.vault.economy.Economy;
 import net.milkbowl.vault.economy.EconomyResponse;
 import org.bukkit.OfflinePlayer;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,10 +12,12 @@ import java.util.List;
  * Quantum's internal economy implementation for Vault
  * Supports multiple currencies with configurable symbols
  * The primary currency (first in config) is used for Vault integration
+ * Balances are served from the shared in-memory {@link BalanceLedger}
  */
 public class QuantumEconomy implements Economy {
     
     private final Quantum plugin;
+    private final BalanceLedger ledger;
     private final String currencyId;
     private final String currencyName;
     private final String currencyNamePlural;
@@ -27,16 +25,18 @@ public class QuantumEconomy implements Economy {
     private final double startingBalance;
     private final String formatPattern;
     
-    public QuantumEconomy(Quantum plugin, String currencyId, String currencyName, 
+    public QuantumEconomy(Quantum plugin, BalanceLedger ledger, String currencyId, String currencyName, 
                           String currencyNamePlural, String symbol, 
                           double startingBalance, String formatPattern) {
         this.plugin = plugin;
+        this.ledger = ledger;
         this.currencyId = currencyId;
         this.currencyName = currencyName;
         this.currencyNamePlural = currencyNamePlural;
         this.symbol = symbol;
         this.startingBalance = startingBalance;
         this.formatPattern = formatPattern;
+        ledger.registerCurrency(currencyId);
     }
     
     /**
@@ -95,18 +95,7 @@ public class QuantumEconomy implements Economy {
     
     @Override
     public boolean hasAccount(OfflinePlayer player) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "SELECT 1 FROM quantum_player_balances WHERE uuid = ? AND currency_id = ? LIMIT 1")) {
-            ps.setString(1, player.getUniqueId().toString());
-            ps.setString(2, currencyId);
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
-            }
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Error checking account existence: " + e.getMessage());
-            return false;
-        }
+        return ledger.hasAccount(player.getUniqueId(), currencyId);
     }
     
     @Override
@@ -126,20 +115,7 @@ public class QuantumEconomy implements Economy {
     
     @Override
     public double getBalance(OfflinePlayer player) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "SELECT balance FROM quantum_player_balances WHERE uuid = ? AND currency_id = ?")) {
-            ps.setString(1, player.getUniqueId().toString());
-            ps.setString(2, currencyId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getDouble("balance");
-                }
-            }
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Error getting balance: " + e.getMessage());
-        }
-        return 0.0;
+        return ledger.getBalance(player.getUniqueId(), currencyId);
     }
     
     @Override
@@ -183,29 +159,19 @@ public class QuantumEconomy implements Economy {
             return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Cannot withdraw negative amount");
         }
         
-        if (!hasAccount(player)) {
-            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Account does not exist");
+        if (!ledger.isLoaded(player.getUniqueId(), currencyId)) {
+            return accountLoading();
         }
         
-        double balance = getBalance(player);
-        if (balance < amount) {
-            return new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, "Insufficient funds");
+        if (!hasAccount(player)) {
+            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Account does not exist");
         }
         
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "UPDATE quantum_player_balances SET balance = balance - ? WHERE uuid = ? AND currency_id = ?")) {
-            ps.setDouble(1, amount);
-            ps.setString(2, player.getUniqueId().toString());
-            ps.setString(3, currencyId);
-            ps.executeUpdate();
-            
-            double newBalance = balance - amount;
-            return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Error withdrawing money: " + e.getMessage());
-            return new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, "Database error");
+        double newBalance = ledger.withdraw(player.getUniqueId(), currencyId, amount);
+        if (Double.isNaN(newBalance)) {
+            return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Insufficient funds");
         }
+        return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
     }
     
     @Override
@@ -229,28 +195,34 @@ public class QuantumEconomy implements Economy {
             return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Cannot deposit negative amount");
         }
         
-        if (!hasAccount(player)) {
-            createPlayerAccount(player);
+        double newBalance = ledger.deposit(player.getUniqueId(), currencyId, amount, startingBalance);
+        if (Double.isNaN(newBalance)) {
+            return accountLoading();
+        }
+        return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
+    }
+    
+    /**
+     * Définit le solde exact (commande admin). Le delta est calculé contre le solde chargé,
+     * jamais contre un solde par défaut.
+     */
+    public EconomyResponse setBalance(OfflinePlayer player, double balance) {
+        if (balance < 0) {
+            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Cannot set negative balance");
         }
         
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "UPDATE quantum_player_balances SET balance = balance + ? WHERE uuid = ? AND currency_id = ?")) {
-            ps.setDouble(1, amount);
-            ps.setString(2, player.getUniqueId().toString());
-            ps.setString(3, currencyId);
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected == 0) {
-                plugin.getQuantumLogger().error("Deposit failed: no account row found for " + player.getUniqueId() + " currency " + currencyId);
-                return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Account not found after creation");
-            }
-
-            double newBalance = getBalance(player);
-            return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Error depositing money: " + e.getMessage());
-            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Database error");
+        double newBalance = ledger.setBalance(player.getUniqueId(), currencyId, balance, startingBalance);
+        if (Double.isNaN(newBalance)) {
+            return accountLoading();
         }
+        return new EconomyResponse(balance, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
+    }
+    
+    /**
+     * Compte d'un joueur connecté pas encore en cache : son chargement est en cours sur l'exécuteur DB
+     */
+    private EconomyResponse accountLoading() {
+        return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Account is loading, try again");
     }
     
     @Override
@@ -270,22 +242,7 @@ public class QuantumEconomy implements Economy {
     
     @Override
     public boolean createPlayerAccount(OfflinePlayer player) {
-        if (hasAccount(player)) {
-            return false;
-        }
-        
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "INSERT INTO quantum_player_balances (uuid, currency_id, balance) VALUES (?, ?, ?)")) {
-            ps.setString(1, player.getUniqueId().toString());
-            ps.setString(2, currencyId);
-            ps.setDouble(3, startingBalance);
-            ps.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Error creating player account: " + e.getMessage());
-            return false;
-        }
+        return ledger.createAccount(player.getUniqueId(), currencyId, startingBalance);
     }
     
     @Override
@@ -297,21 +254,7 @@ public class QuantumEconomy implements Economy {
      * Supprime le compte économique d'un joueur pour cette monnaie
      */
     public boolean deletePlayerAccount(OfflinePlayer player) {
-        if (!hasAccount(player)) {
-            return false;
-        }
-        
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement ps = conn.prepareStatement(
-                     "DELETE FROM quantum_player_balances WHERE uuid = ? AND currency_id = ?")) {
-            ps.setString(1, player.getUniqueId().toString());
-            ps.setString(2, currencyId);
-            ps.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Error deleting player account: " + e.getMessage());
-            return false;
-        }
+        return ledger.deleteAccount(player.getUniqueId(), currencyId);
     }
     
     @Override
@@ -130,7 +130,7 @@ public class StorageInventory {
         if (meta != null) {
             meta.setDisplayName("§6§lStorage Info");
             List<String> lore = new ArrayList<>();
-            lore.add("§7Items uniques: §f" + (storage.getVanillaItems().size() + storage.getNexoItems().size()));
+            lore.add("§7Items uniques: §f" + storage.getUniqueItemCount());
             lore.add("§7Page: §f" + (page + 1));
             meta.setLore(lore);
             info.setItemMeta(meta);
@@ -138,7 +138,7 @@ public class StorageInventory {
         inventory.setItem(49, info);
         
         // Next page button
-        int totalItems = storage.getVanillaItems().size() + storage.getNexoItems().size();
+        int totalItems = storage.getUniqueItemCount();
         if ((page + 1) * ITEMS_PER_PAGE < totalItems) {
             ItemStack next = new ItemStack(Material.WRITTEN_BOOK);
             ItemMeta nextMeta = next.getItemMeta();
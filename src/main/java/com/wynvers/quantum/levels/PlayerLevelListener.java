@@ -26,10 +26,14 @@ public class PlayerLevelListener implements Listener {
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            levelManager.loadPlayer(uuid);
-            Bukkit.getScheduler().runTask(plugin, () -> levelManager.applyToBar(player));
-        });
+        // Données déjà préchargées à la pré-connexion
+        if (levelManager.isLoaded(uuid)) {
+            levelManager.applyToBar(player);
+            return;
+        }
+
+        levelManager.loadPlayerAsync(uuid).thenRun(() ->
+                Bukkit.getScheduler().runTask(plugin, () -> levelManager.applyToBar(player)));
     }
 
     @EventHandler
@@ -37,10 +41,7 @@ public class PlayerLevelListener implements Listener {
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            levelManager.savePlayer(uuid);
-            levelManager.unloadPlayer(uuid);
-        });
+        levelManager.saveAndUnloadAsync(uuid);
     }
 
     @EventHandler
@@ -9,16 +9,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PlayerLevelManager {
 
     private final Quantum plugin;
     private final DatabaseManager databaseManager;
     private final int maxLevel;
-    private final Map<UUID, PlayerLevelData> cache = new HashMap<>();
+    private final Map<UUID, PlayerLevelData> cache = new ConcurrentHashMap<>();
 
     public PlayerLevelManager(Quantum plugin, DatabaseManager databaseManager) {
         this.plugin = plugin;
@@ -56,48 +57,80 @@ public class PlayerLevelManager {
 
     /**
      * Charge (ou crée) les données dans le cache depuis MySQL.
-     * À appeler en ASYNC au join.
+     * À appeler en ASYNC (repli si le joueur n'a pas été préchargé à la pré-connexion).
      */
     public void loadPlayer(UUID uuid) {
         try (Connection conn = databaseManager.getConnection()) {
-
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "SELECT level, exp FROM quantum_player_levels WHERE uuid = ?")) {
-                ps.setString(1, uuid.toString());
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs != null && rs.next()) {
-                        try {
-                            int level = rs.getInt("level");
-                            int exp = rs.getInt("exp");
-                            cache.put(uuid, new PlayerLevelData(uuid, level, exp));
-                            return;
-                        } catch (SQLException e) {
-                            plugin.getQuantumLogger().error("Failed to read player level data from ResultSet for " + uuid + ": " + e.getMessage());
-                            // Fall through to create default entry
-                        }
-                    }
-                }
-            }
-
-            try (PreparedStatement insert = conn.prepareStatement(
-                    "INSERT INTO quantum_player_levels (uuid, level, exp) VALUES (?, ?, ?)")) {
-                insert.setString(1, uuid.toString());
-                insert.setInt(2, 1);
-                insert.setInt(3, 0);
-                insert.executeUpdate();
-            }
-
-            cache.put(uuid, new PlayerLevelData(uuid, 1, 0));
-
+            preload(conn, uuid);
         } catch (SQLException e) {
             plugin.getQuantumLogger().error("Failed to load player level for " + uuid + ": " + e.getMessage());
             e.printStackTrace();
 
             // En cas d'erreur DB, on initialise quand même les données en mémoire
-            if (!cache.containsKey(uuid)) {
-                cache.put(uuid, new PlayerLevelData(uuid, 1, 0));
+            cache.putIfAbsent(uuid, new PlayerLevelData(uuid, 1, 0));
+        }
+    }
+
+    /**
+     * Lit (ou crée en base) les données d'un joueur sur une connexion existante, sans toucher au cache.
+     */
+    public PlayerLevelData loadData(Connection conn, UUID uuid) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT level, exp FROM quantum_player_levels WHERE uuid = ?")) {
+            ps.setString(1, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new PlayerLevelData(uuid, rs.getInt("level"), rs.getInt("exp"));
+                }
             }
         }
+
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO quantum_player_levels (uuid, level, exp) VALUES (?, ?, ?)")) {
+            insert.setString(1, uuid.toString());
+            insert.setInt(2, 1);
+            insert.setInt(3, 0);
+            insert.executeUpdate();
+        }
+        return new PlayerLevelData(uuid, 1, 0);
+    }
+
+    /**
+     * Charge et publie les données d'un joueur (session de connexion, thread async).
+     * Des données en mémoire ne sont pas relues : elles ne sont retirées qu'après leur
+     * sauvegarde ({@link #saveAndUnloadAsync}), et ce retrait ne peut pas croiser la lecture.
+     * @return les données effectivement utilisées
+     */
+    public synchronized PlayerLevelData preload(Connection conn, UUID uuid) throws SQLException {
+        PlayerLevelData current = cache.get(uuid);
+        if (current != null) {
+            return current;
+        }
+        return install(loadData(conn, uuid));
+    }
+
+    /**
+     * Publie des données préchargées. Des données encore en mémoire
+     * (reconnexion avant la fin de la sauvegarde du quit) restent prioritaires.
+     * @return les données effectivement utilisées
+     */
+    public PlayerLevelData install(PlayerLevelData data) {
+        PlayerLevelData current = cache.putIfAbsent(data.getUuid(), data);
+        return current != null ? current : data;
+    }
+
+    /**
+     * true si les données du joueur sont en mémoire
+     */
+    public boolean isLoaded(UUID uuid) {
+        return cache.containsKey(uuid);
+    }
+
+    /**
+     * Charge les données du joueur sur l'exécuteur DB.
+     */
+    public CompletableFuture<Void> loadPlayerAsync(UUID uuid) {
+        return databaseManager.runAsync(() -> loadPlayer(uuid));
     }
 
     /**
@@ -143,10 +176,24 @@ public class PlayerLevelManager {
         }
     }
 
+    /**
+     * Sauvegarde puis décharge le joueur, sur l'exécuteur DB.
+     */
+    public CompletableFuture<Void> saveAndUnloadAsync(UUID uuid) {
+        return databaseManager.runAsync(() -> {
+            savePlayer(uuid);
+            unloadPlayer(uuid);
+        });
+    }
+
     /**
      * Supprime le joueur du cache après sauvegarde.
      */
-    public void unloadPlayer(UUID uuid) {
+    public synchronized void unloadPlayer(UUID uuid) {
+        // Le joueur s'est reconnecté (ou se connecte) entre-temps : ses données en mémoire restent la référence
+        if (plugin.getSessionLoader() != null && plugin.getSessionLoader().isActive(uuid)) {
+            return;
+        }
         cache.remove(uuid);
     }
 
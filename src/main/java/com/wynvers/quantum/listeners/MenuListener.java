@@ -3,11 +3,13 @@ package com.wynvers.quantum.listeners;
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.menu.ButtonType;
 import com.wynvers.quantum.menu.Menu;
+import com.wynvers.quantum.menu.MenuHolder;
 import com.wynvers.quantum.menu.MenuItem;
 import com.wynvers.quantum.menu.OrderButtonHandler;
 import com.wynvers.quantum.menu.StorageMenuHandler;
+import com.wynvers.quantum.orders.OrderBook;
+import com.wynvers.quantum.orders.OrderListing;
 import org.bukkit.NamespacedKey;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -24,7 +26,6 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.Material;
 import org.bukkit.Sound;
-import java.io.File;
 import java.util.List;
 import java.util.UUID;
 
@@ -55,31 +56,12 @@ public class MenuListener implements Listener {
     /**
      * NUCLEAR OPTION: Cancel ABSOLUTELY EVERYTHING when menu is open
      * Priority LOWEST means we run FIRST before any other plugin
-     * USES getActiveMenu() as primary detection - works with animated titles!
+     * Detection par le holder de l'inventaire (MenuHolder) - fonctionne avec les titres animés
      */
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = false)
     public void onInventoryClickNuclear(InventoryClickEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) return;
-        
-        Player player = (Player) event.getWhoClicked();
-
-        // Never interfere with the floor reward-selection menu
-        if (plugin.getFloorRewardMenuManager() != null
-                && plugin.getFloorRewardMenuManager().isRewardMenu(event.getView().getTopInventory())) {
-            return;
-        }
-        
-        Menu menu = plugin.getMenuManager().getActiveMenu(player);
-        
-        if (menu != null) {
+        if (MenuHolder.of(event.getView().getTopInventory()) != null) {
             event.setCancelled(true);
-        } else {
-            String title = event.getView().getTitle();
-            menu = plugin.getMenuManager().getMenuByTitle(title);
-            
-            if (menu != null) {
-                event.setCancelled(true);
-            }
         }
     }
     
@@ -89,19 +71,12 @@ public class MenuListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onInventoryClick(InventoryClickEvent event) {
+        Menu menu = MenuHolder.menuOf(event.getView().getTopInventory());
+        if (menu == null) return;
         if (!(event.getWhoClicked() instanceof Player)) return;
         
         Player player = (Player) event.getWhoClicked();
         
-        Menu menu = plugin.getMenuManager().getActiveMenu(player);
-        
-        if (menu == null) {
-            String title = event.getView().getTitle();
-            menu = plugin.getMenuManager().getMenuByTitle(title);
-        }
-        
-        if (menu == null) return;
-        
         Inventory clickedInv = event.getClickedInventory();
         Inventory topInv = event.getView().getTopInventory();
         
@@ -418,7 +393,7 @@ public class MenuListener implements Listener {
     
     /**
      * NOUVEAU: Extrait l'orderId depuis la lore d'un item d'ordre
-     * En cherchant dans orders.yml pour trouver l'ordre correspondant
+     * En cherchant dans le carnet d'ordres pour trouver l'ordre correspondant
      * PATCH: Utilise maintenant BUYER + QUANTITÉ + PRIX pour différencier les ordres
      * 
      * @param orderItem L'ItemStack de l'ordre
@@ -486,47 +461,22 @@ public class MenuListener implements Listener {
         
         plugin.getLogger().info("[EXTRACT_ORDER_ID] Recherche d'ordre pour: " + buyerName + ", Quantité: " + quantity + ", Prix: " + pricePerUnit + "$");
         
-        // Chercher dans orders.yml pour trouver l'ordre correspondant
-        try {
-            File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-            if (!ordersFile.exists()) {
-                plugin.getLogger().warning("[EXTRACT_ORDER_ID] Fichier orders.yml introuvable");
-                return null;
-            }
-            
-            YamlConfiguration ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
-            
-            // Parcourir tous les ordres de la catégorie
-            if (!ordersConfig.contains(category)) {
-                plugin.getLogger().warning("[EXTRACT_ORDER_ID] Catégorie " + category + " introuvable dans orders.yml");
-                return null;
-            }
-            
-            for (String orderId : ordersConfig.getConfigurationSection(category).getKeys(false)) {
-                String path = category + "." + orderId;
-                String storedBuyerName = ordersConfig.getString(path + ".orderer", "");
-                int storedQuantity = ordersConfig.getInt(path + ".quantity", 0);
-                double storedPrice = ordersConfig.getDouble(path + ".price_per_unit", 0.0);
-                
-                plugin.getLogger().info("[EXTRACT_ORDER_ID] Comparaison avec ordre " + orderId + ": " + storedBuyerName + ", " + storedQuantity + ", " + storedPrice + "$");
-                
-                // Comparer BUYER + QUANTITÉ + PRIX (avec tolérance de 0.01 pour le prix)
-                if (storedBuyerName.equalsIgnoreCase(buyerName) && 
-                    storedQuantity == quantity &&
-                    Math.abs(storedPrice - pricePerUnit) < 0.01) {
-                    
-                    plugin.getLogger().info("[EXTRACT_ORDER_ID] ✓ Ordre trouvé: " + orderId);
-                    return orderId;
-                }
-            }
-            
-            plugin.getLogger().warning("[EXTRACT_ORDER_ID] Aucun ordre trouvé correspondant aux critères");
-            
-        } catch (Exception e) {
-            plugin.getLogger().severe("[EXTRACT_ORDER_ID] Erreur lors de la lecture de orders.yml: " + e.getMessage());
-            e.printStackTrace();
+        // Chercher dans le carnet d'ordres l'ordre correspondant
+        // Comparer BUYER + QUANTITÉ + PRIX (avec tolérance de 0.01 pour le prix)
+        final String expectedBuyer = buyerName;
+        final int expectedQuantity = quantity;
+        final double expectedPrice = pricePerUnit;
+        OrderListing match = plugin.getOrderManager().getOrderBook().find(category, order ->
+            order.getOrderer().equalsIgnoreCase(expectedBuyer) &&
+            order.getQuantity() == expectedQuantity &&
+            Math.abs(order.getPricePerUnit() - expectedPrice) < 0.01);
+        
+        if (match != null) {
+            plugin.getLogger().info("[EXTRACT_ORDER_ID] ✓ Ordre trouvé: " + match.getOrderId());
+            return match.getOrderId();
         }
         
+        plugin.getLogger().warning("[EXTRACT_ORDER_ID] Aucun ordre trouvé correspondant aux critères");
         return null;
     }
     
@@ -613,7 +563,7 @@ public class MenuListener implements Listener {
         }
         
         // Supprimer l'ordre
-        boolean deleted = deleteOrderFromFile(category, orderer, null);
+        boolean deleted = deleteOrder(category, orderer, null);
         
         if (deleted) {
             admin.sendMessage("§8[§6Quantum§8] §aOrdre supprimé avec succès !");
@@ -663,7 +613,7 @@ public class MenuListener implements Listener {
         }
         
         // Supprimer l'ordre
-        boolean deleted = deleteOrderFromFile(category, orderer, player.getUniqueId());
+        boolean deleted = deleteOrder(category, orderer, player.getUniqueId());
         
         if (deleted) {
             player.sendMessage("§8[§6Quantum§8] §aVotre ordre a été supprimé avec succès !");
@@ -679,56 +629,26 @@ public class MenuListener implements Listener {
     }
     
     /**
-     * Supprime un ordre du fichier orders.yml
+     * Supprime un ordre du carnet d'ordres (écrit en base en asynchrone)
      * @param category Catégorie de l'ordre (ex: "autre", "minerais")
      * @param orderer Nom du joueur qui a créé l'ordre
      * @param ownerUuid UUID du propriétaire (optionnel, pour vérification)
      * @return true si supprimé avec succès, false sinon
      */
-    private boolean deleteOrderFromFile(String category, String orderer, UUID ownerUuid) {
-        try {
-            File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-            if (!ordersFile.exists()) {
-                return false;
-            }
-            
-            YamlConfiguration ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
-            
-            // Trouver l'ordre correspondant
-            String targetKey = null;
-            for (String key : ordersConfig.getConfigurationSection(category).getKeys(false)) {
-                String path = category + "." + key;
-                String orderName = ordersConfig.getString(path + ".orderer", "");
-                
-                if (orderName.equalsIgnoreCase(orderer)) {
-                    // Vérifier l'UUID si fourni
-                    if (ownerUuid != null) {
-                        String storedUuid = ordersConfig.getString(path + ".orderer_uuid", "");
-                        if (!storedUuid.equals(ownerUuid.toString())) {
-                            continue; // Pas le bon UUID
-                        }
-                    }
-                    
-                    targetKey = key;
-                    break;
-                }
-            }
-            
-            if (targetKey == null) {
-                return false;
-            }
-            
-            // Supprimer l'ordre
-            ordersConfig.set(category + "." + targetKey, null);
-            ordersConfig.save(ordersFile);
-            
-            return true;
-            
-        } catch (Exception e) {
-            plugin.getLogger().severe("Erreur lors de la suppression de l'ordre: " + e.getMessage());
-            e.printStackTrace();
+    private boolean deleteOrder(String category, String orderer, UUID ownerUuid) {
+        OrderBook orderBook = plugin.getOrderManager().getOrderBook();
+        
+        // Trouver l'ordre correspondant (en vérifiant l'UUID si fourni)
+        OrderListing target = orderBook.find(category, order ->
+            order.getOrderer().equalsIgnoreCase(orderer) &&
+            (ownerUuid == null || ownerUuid.toString().equals(order.getOrdererUuid())));
+        
+        if (target == null) {
             return false;
         }
+        
+        // Supprimer l'ordre
+        return orderBook.remove(target.getOrderId()) != null;
     }
     
     /**
@@ -790,52 +710,26 @@ public class MenuListener implements Listener {
     
     /**
      * Nuclear drag protection - priority LOWEST
-     * USES getActiveMenu() as primary detection
+     * Detection par le holder de l'inventaire (MenuHolder)
      */
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = false)
     public void onInventoryDragNuclear(InventoryDragEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) return;
-        
-        Player player = (Player) event.getWhoClicked();
-
-        // Never interfere with the floor reward-selection menu
-        if (plugin.getFloorRewardMenuManager() != null
-                && plugin.getFloorRewardMenuManager().isRewardMenu(event.getView().getTopInventory())) {
-            return;
-        }
-        
-        Menu menu = plugin.getMenuManager().getActiveMenu(player);
-        
-        if (menu != null) {
+        if (MenuHolder.of(event.getView().getTopInventory()) != null) {
             event.setCancelled(true);
-        } else {
-            String title = event.getView().getTitle();
-            menu = plugin.getMenuManager().getMenuByTitle(title);
-            
-            if (menu != null) {
-                event.setCancelled(true);
-            }
         }
     }
     
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onInventoryDrag(InventoryDragEvent event) {
+        Menu menu = MenuHolder.menuOf(event.getView().getTopInventory());
+        if (menu == null) return;
         if (!(event.getWhoClicked() instanceof Player)) return;
         
         Player player = (Player) event.getWhoClicked();
         
-        Menu menu = plugin.getMenuManager().getActiveMenu(player);
-        
-        if (menu == null) {
-            String title = event.getView().getTitle();
-            menu = plugin.getMenuManager().getMenuByTitle(title);
-        }
-        
-        if (menu != null) {
-            if (menu.getId().equals("storage")) {
-                if (!player.hasPermission("quantum.admin")) {
-                    player.sendMessage("§cStorage is view-only. Use /qstorage commands or contact an admin.");
-                }
+        if (menu.getId().equals("storage")) {
+            if (!player.hasPermission("quantum.admin")) {
+                player.sendMessage("§cStorage is view-only. Use /qstorage commands or contact an admin.");
             }
         }
     }
@@ -17,6 +17,7 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
@@ -101,6 +102,16 @@ public class StorageListener implements Listener {
         }
     }
     
+    /**
+     * Décharge le storage au départ du joueur ; ses modifications en attente
+     * sont écrites par le flush write-behind de StorageManager. Ses filtres et sa page sont oubliés.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        plugin.getStorageManager().unload(event.getPlayer().getUniqueId());
+        plugin.getStorageFilterHandler().clearCache(event.getPlayer());
+    }
+    
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onStorageDrag(InventoryDragEvent event) {
         String title = event.getView().getTitle();
@@ -152,11 +163,7 @@ public class StorageListener implements Listener {
         
         // Save and refresh GUI
         storage.save(plugin);
-        
-        player.closeInventory();
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            player.performCommand("storage");
-        }, 1L);
+        refreshStorage(player);
     }
     
     /**
@@ -251,7 +258,17 @@ public class StorageListener implements Listener {
         
         // Sauvegarder et rafraîchir
         storage.save(plugin);
-        
+        refreshStorage(player);
+    }
+    
+    /**
+     * Met à jour les slots du menu storage s'il est ouvert, sinon rouvre le storage
+     */
+    private void refreshStorage(Player player) {
+        Menu storageMenu = plugin.getMenuManager().getMenu("storage");
+        if (storageMenu != null && storageMenu.requestStorageUpdate(player)) {
+            return;
+        }
         player.closeInventory();
         Bukkit.getScheduler().runTaskLater(plugin, () -> {
             player.performCommand("storage");
@@ -130,14 +130,7 @@ public class TowerStorageListener implements Listener {
         plugin.getMessageManager().sendMessage(player, "storage-advanced.withdrawn", placeholders);
 
         storage.save(plugin);
-
-        player.closeInventory();
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            Menu towerStorageMenu = plugin.getMenuManager().getMenu("tower_storage");
-            if (towerStorageMenu != null) {
-                towerStorageMenu.open(player, plugin);
-            }
-        }, 1L);
+        refreshTowerStorage(player);
     }
 
     private void handleSell(Player player, ItemStack displayItem, boolean shiftClick, boolean rightClick) {
@@ -214,14 +207,19 @@ public class TowerStorageListener implements Listener {
         plugin.getMessageManager().sendMessage(player, "storage-advanced.sold", placeholders);
 
         storage.save(plugin);
+        refreshTowerStorage(player);
+    }
 
+    /**
+     * Met à jour les slots du menu tower storage s'il est ouvert, sinon le rouvre
+     */
+    private void refreshTowerStorage(Player player) {
+        Menu towerStorageMenu = plugin.getMenuManager().getMenu("tower_storage");
+        if (towerStorageMenu == null || towerStorageMenu.requestStorageUpdate(player)) {
+            return;
+        }
         player.closeInventory();
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            Menu towerStorageMenu = plugin.getMenuManager().getMenu("tower_storage");
-            if (towerStorageMenu != null) {
-                towerStorageMenu.open(player, plugin);
-            }
-        }, 1L);
+        Bukkit.getScheduler().runTaskLater(plugin, () -> towerStorageMenu.open(player, plugin), 1L);
     }
 
     private String formatItemName(String itemId) {
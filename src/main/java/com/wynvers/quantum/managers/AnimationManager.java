@@ -1,7 +1,7 @@
 package com.wynvers.quantum.managers;
 
 import com.wynvers.quantum.Quantum;
-import com.wynvers.quantum.menu.Menu;
+import com.wynvers.quantum.menu.MenuHolder;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
@@ -82,17 +82,12 @@ public class AnimationManager {
         Inventory topInventory = view.getTopInventory();
         if (topInventory == null) return;
         
-        // Déterminer quel menu est ouvert
-        Menu menu = plugin.getMenuManager().getMenuByTitle(view.getTitle());
-        if (menu == null) return;
+        // Seuls les menus Quantum sont animés
+        MenuHolder holder = MenuHolder.of(topInventory);
+        if (holder == null) return;
         
-        // Créer un nouvel inventaire avec le nouveau titre
-        Inventory newInventory = Bukkit.createInventory(null, topInventory.getSize(), newTitle);
-        
-        // Copier tous les items de l'ancien inventaire
-        for (int i = 0; i < topInventory.getSize(); i++) {
-            newInventory.setItem(i, topInventory.getItem(i));
-        }
+        // Créer un nouvel inventaire avec le nouveau titre (mêmes items, même session)
+        Inventory newInventory = holder.withTitle(newTitle);
         
         // Réouvrir l'inventaire avec le nouveau titre
         player.openInventory(newInventory);
@@ -56,6 +56,7 @@ public class MenuManager {
                 String menuId = file.getName().replace(".yml", "");
                 Menu menu = loadMenu(file);
                 if (menu != null) {
+                    precompileTemplates(menu);
                     menus.put(menu.getId(), menu);
 
                     if (menu.getOpenCommand() != null) {
@@ -133,6 +134,25 @@ public class MenuManager {
         return result;
     }
 
+    /**
+     * Compile une fois les textes du menu (titre, noms, lores) pour que l'affichage
+     * n'ait plus qu'à substituer les placeholders
+     */
+    private void precompileTemplates(Menu menu) {
+        PlaceholderManager placeholders = plugin.getPlaceholderManager();
+        if (placeholders == null) {
+            return;
+        }
+        placeholders.precompile(menu.getTitle());
+        placeholders.precompile(menu.getTitleFrames());
+        for (MenuItem item : menu.getItems().values()) {
+            placeholders.precompile(item.getDisplayName());
+            placeholders.precompile(item.getLore());
+            placeholders.precompile(item.getLoreAppend());
+            placeholders.precompile(item.getMaterialPlaceholder());
+        }
+    }
+
     private Menu loadMenu(File file) {
         YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
 
@@ -585,6 +605,11 @@ public class MenuManager {
         return commandMenus.get(command.toLowerCase());
     }
     
+    /**
+     * Recherche un menu par titre (parcourt tous les menus et leurs frames animées)
+     * @deprecated utiliser {@link MenuHolder#menuOf} sur l'inventaire ouvert
+     */
+    @Deprecated
     public Menu getMenuByTitle(String title) {
         if (title == null) return null;
         
@@ -612,15 +637,17 @@ public class MenuManager {
     public void setActiveMenu(Player player, Menu menu) {
         UUID uuid = player.getUniqueId();
         
-        if (menu == null) {
-            activeMenus.remove(uuid);
-        } else {
-            activeMenus.put(uuid, menu);
+        Menu previous = menu == null ? activeMenus.remove(uuid) : activeMenus.put(uuid, menu);
+        if (previous != null && previous != menu) {
+            previous.forgetViewer(uuid);
         }
     }
     
     public void clearActiveMenu(Player player) {
-        activeMenus.remove(player.getUniqueId());
+        Menu previous = activeMenus.remove(player.getUniqueId());
+        if (previous != null) {
+            previous.forgetViewer(player.getUniqueId());
+        }
     }
     
     public void openMenu(Player player, String menuId) {
@@ -663,6 +690,7 @@ public class MenuManager {
         menus.clear();
         commandMenus.clear();
         activeMenus.clear();
+        plugin.getPlaceholderManager().clearTemplates();
         loadMenus();
     }
 }
@@ -30,6 +30,7 @@ public class OrderManager {
     private final Map<String, String> itemToCategory; // itemId -> category
     private final Map<String, List<String>> categoryItems; // category -> list of items
     private final Map<UUID, Order> activeOrders;
+    private final OrderBook orderBook; // ordres publiés (quantum_orders)
     private LuckPerms luckPerms;
     private boolean luckPermsAvailable;
 
@@ -45,9 +46,26 @@ public class OrderManager {
         // Charger les items
         loadItems();
         
+        // Charger le carnet d'ordres une seule fois
+        this.orderBook = new OrderBook(plugin);
+        
         plugin.getQuantumLogger().success("✓ OrderManager initialized with " + itemToCategory.size() + " items");
     }
 
+    /**
+     * Carnet d'ordres en mémoire (remplace les lectures de orders.yml)
+     */
+    public OrderBook getOrderBook() {
+        return orderBook;
+    }
+
+    /**
+     * Écrit le carnet d'ordres avant l'arrêt
+     */
+    public void shutdown() {
+        orderBook.save();
+    }
+
     /**
      * Initialise LuckPerms si disponible
      */
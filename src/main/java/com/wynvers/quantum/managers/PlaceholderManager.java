@@ -8,65 +8,162 @@ import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 
+import com.wynvers.quantum.placeholders.PlaceholderCache;
+import com.wynvers.quantum.placeholders.PlaceholderResolver;
+import com.wynvers.quantum.placeholders.PlaceholderTemplate;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-
-import java.util.regex.Matcher;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 public class PlaceholderManager {
 
+    // Au-delà, le cache des chaînes dynamiques est vidé (les templates de menus ne sont pas concernés)
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+
+    private static final Pattern SPECIFIC_TOWER_PATTERN = Pattern.compile("tower_[a-z_]+_(progress|percentage|completed)");
+    private static final Pattern TOWER_PROGRESS_PATTERN = Pattern.compile("tower_[a-z_]+_progress");
+    private static final Pattern TOWER_PERCENTAGE_PATTERN = Pattern.compile("tower_[a-z_]+_percentage");
+    private static final Pattern TOWER_COMPLETED_PATTERN = Pattern.compile("tower_[a-z_]+_completed");
+    private static final Pattern TOWER_TOP_POS_PATTERN = Pattern.compile("tower_top_pos_\\d+");
+    private static final Pattern HISTORY_SLOT_PATTERN = Pattern.compile("history_\\d+_.*");
+
     private final Quantum plugin;
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("%([^%]+)%");
+
+    // Registre : nom exact -> resolver, puis famille ("tower_") -> resolver
+    private final Map<String, PlaceholderResolver> resolvers = new ConcurrentHashMap<>();
+    private final Map<String, PlaceholderResolver> prefixResolvers = new ConcurrentHashMap<>();
+
+    // Templates compilés au chargement des menus, et cache des autres chaînes
+    private final Map<String, PlaceholderTemplate> menuTemplates = new ConcurrentHashMap<>();
+    private final Map<String, PlaceholderTemplate> templateCache = new ConcurrentHashMap<>();
+
+    // Valeurs déjà calculées, par joueur (TTL par placeholder)
+    private final PlaceholderCache valueCache = new PlaceholderCache();
 
     public PlaceholderManager(Quantum plugin) {
         this.plugin = plugin;
+        registerDefaults();
+        reloadCache();
+        plugin.getServer().getPluginManager().registerEvents(valueCache, plugin);
     }
 
+    // ===== Cache des valeurs =====
+
     /**
-     * Parse placeholders in string
-     * Internal implementation - no external PlaceholderAPI dependency
+     * Relit placeholders.cache dans config.yml et vide le cache
      */
-    public String parse(Player player, String text) {
+    public void reloadCache() {
+        valueCache.load(plugin.getConfig().getConfigurationSection("placeholders.cache"));
+    }
+
+    /**
+     * À appeler par un sous-système qui modifie l'état d'un joueur
+     * (ex: invalidate(uuid, "eco_") après un changement de solde)
+     */
+    public void invalidate(UUID uuid, String... prefixes) {
+        valueCache.invalidate(uuid, prefixes);
+    }
+
+    /**
+     * Invalide une famille pour tous les joueurs (état partagé)
+     */
+    public void invalidateAll(String... prefixes) {
+        valueCache.invalidateAll(prefixes);
+    }
+
+    public PlaceholderCache getValueCache() {
+        return valueCache;
+    }
+
+    // ===== Registre =====
+
+    /**
+     * Enregistre un placeholder par nom exact (sans "quantum_" ni %)
+     */
+    public void register(String name, PlaceholderResolver resolver) {
+        resolvers.put(name, resolver);
+    }
+
+    /**
+     * Enregistre une famille de placeholders ("tower_", "eco_"...).
+     * Le préfixe doit être un seul mot suivi de '_' ; les noms exacts restent prioritaires.
+     */
+    public void registerPrefix(String prefix, PlaceholderResolver resolver) {
+        if (!prefix.endsWith("_") || prefix.indexOf('_') != prefix.length() - 1) {
+            throw new IllegalArgumentException("Invalid placeholder prefix: " + prefix);
+        }
+        prefixResolvers.put(prefix, resolver);
+    }
+
+    public void unregister(String name) {
+        resolvers.remove(name);
+        prefixResolvers.remove(name);
+    }
+
+    // ===== Templates =====
+
+    /**
+     * Compile une chaîne de menu et la garde jusqu'au prochain rechargement des menus
+     */
+    public PlaceholderTemplate precompile(String text) {
         if (text == null) {
-            return text;
+            return null;
         }
+        return menuTemplates.computeIfAbsent(text, PlaceholderTemplate::compile);
+    }
 
-        // CRITICAL FIX: Protect vanilla Java format strings from placeholder parsing
-        final String VANILLA_MARKER = "\u0001VF\u0001";
-        Map<String, String> vanillaFormats = new java.util.HashMap<>();
-        int idx = 0;
-        Pattern vanillaPattern = Pattern.compile("%(s|d|f|n|x|o|e|g|a|h|b|c)(?![a-zA-Z0-9_])");
-        Matcher vanillaMatcher = vanillaPattern.matcher(text);
-        StringBuffer tempText = new StringBuffer();
-        while (vanillaMatcher.find()) {
-            String marker = VANILLA_MARKER + idx++;
-            vanillaFormats.put(marker, vanillaMatcher.group());
-            vanillaMatcher.appendReplacement(tempText, Matcher.quoteReplacement(marker));
+    public void precompile(List<String> texts) {
+        if (texts == null) {
+            return;
         }
-        vanillaMatcher.appendTail(tempText);
-        text = tempText.toString();
+        for (String text : texts) {
+            precompile(text);
+        }
+    }
 
-        // Use regex to find and replace all placeholders
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(text);
-        StringBuilder result = new StringBuilder();
-        
-        while (matcher.find()) {
-            String placeholder = matcher.group(1);
-            String replacement = resolvePlaceholder(player, placeholder);
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement != null ? replacement : matcher.group(0)));
+    /**
+     * Oublie les templates de menus (rechargement des menus)
+     */
+    public void clearTemplates() {
+        menuTemplates.clear();
+        templateCache.clear();
+    }
+
+    public int getTemplateCount() {
+        return menuTemplates.size() + templateCache.size();
+    }
+
+    private PlaceholderTemplate template(String text) {
+        PlaceholderTemplate template = menuTemplates.get(text);
+        if (template != null) {
+            return template;
+        }
+        template = templateCache.get(text);
+        if (template == null) {
+            if (templateCache.size() >= MAX_CACHED_TEMPLATES) {
+                templateCache.clear();
+            }
+            template = PlaceholderTemplate.compile(text);
+            templateCache.put(text, template);
         }
-        matcher.appendTail(result);
-        
-        
-        // CRITICAL FIX: Restore vanilla format strings
-        String finalResult = result.toString();
-        for (Map.Entry<String, String> entry : vanillaFormats.entrySet()) {
-            finalResult = finalResult.replace(entry.getKey(), entry.getValue());
+        return template;
+    }
+
+    // ===== Parsing =====
+
+    /**
+     * Parse placeholders in string
+     * Internal implementation - no external PlaceholderAPI dependency
+     */
+    public String parse(Player player, String text) {
+        if (text == null) {
+            return text;
         }
-        
-        return finalResult;
+        return template(text).render(this, player, null);
     }
     
     /**
@@ -77,31 +174,14 @@ public class PlaceholderManager {
         if (text == null) {
             return text;
         }
-        
-        // D'abord remplacer les placeholders personnalisés
-        if (customPlaceholders != null) {
-            for (Map.Entry<String, String> entry : customPlaceholders.entrySet()) {
-                text = text.replace("%" + entry.getKey() + "%", entry.getValue() != null ? entry.getValue() : "");
-            }
-        }
-        
-        // Ensuite utiliser le parseur interne
-        return parse(player, text);
+        return template(text).render(this, player, customPlaceholders);
     }
 
     /**
      * Parse placeholders in list
      */
     public List<String> parse(Player player, List<String> texts) {
-        if (texts == null) {
-            return texts;
-        }
-
-        List<String> parsed = new ArrayList<>();
-        for (String text : texts) {
-            parsed.add(parse(player, text));
-        }
-        return parsed;
+        return parse(player, texts, null);
     }
     
     /**
@@ -112,9 +192,9 @@ public class PlaceholderManager {
             return texts;
         }
 
-        List<String> parsed = new ArrayList<>();
+        List<String> parsed = new ArrayList<>(texts.size());
         for (String text : texts) {
-            parsed.add(parse(player, text, customPlaceholders));
+            parsed.add(text == null ? null : template(text).render(this, player, customPlaceholders));
         }
         return parsed;
     }
@@ -128,222 +208,196 @@ public class PlaceholderManager {
     }
     
     /**
-     * Resolve a single placeholder
-     * Integrates all QuantumExpansion and QuantumPlaceholderExpansion logic
+     * Resolve a single placeholder through the registry
      * 
      * @param player The player for whom to resolve the placeholder
-     * @param placeholder The placeholder text without % signs (e.g., "quantum_mode" or "mode")
+     * @param params The placeholder name without % signs nor "quantum_" prefix (e.g., "mode")
      * @return The resolved value, or null to preserve the original placeholder syntax
      */
-    private String resolvePlaceholder(Player player, String placeholder) {
+    public String resolvePlaceholder(Player player, String params) {
         if (player == null) {
             return "0";
         }
-        
-        // Strip "quantum_" prefix if present to normalize placeholder names
-        // After this, 'params' contains the core placeholder name (e.g., "mode", "order_item_name")
-        String params = placeholder;
-        if (params.startsWith("quantum_")) {
-            params = params.substring(8); // Remove "quantum_" prefix
+
+        long ttl = valueCache.getTtl(params);
+        if (ttl <= 0) {
+            return resolveUncached(player, params);
         }
-    
+
+        UUID uuid = player.getUniqueId();
+        String cached = valueCache.get(uuid, params);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = valueCache.generation(uuid);
+        String value = resolveUncached(player, params);
+        if (value != null) {
+            valueCache.put(uuid, params, value, ttl, generation);
+        }
+        return value;
+    }
+
+    private String resolveUncached(Player player, String params) {
+        PlaceholderResolver resolver = resolvers.get(params);
+        if (resolver == null) {
+            int underscore = params.indexOf('_');
+            if (underscore > 0) {
+                resolver = prefixResolvers.get(params.substring(0, underscore + 1));
+            }
+        }
+        
+        // Default: return null to preserve the original placeholder syntax (e.g., %unknown_placeholder%)
+        return resolver != null ? resolver.resolve(player, params) : null;
+    }
+
+    /**
+     * Placeholders intégrés
+     */
+    private void registerDefaults() {
         // === PLAYER LEVEL / EXP ===
         // %quantum_level% ou %quantum_player_level%
-        if (params.equals("player_level") || params.equals("level")) {
+        PlaceholderResolver level = (player, params) -> {
             if (plugin.getPlayerLevelManager() == null) return "0";
-            return String.valueOf(plugin.getPlayerLevelManager()
-                    .getLevel(player.getUniqueId()));
-        }
+            return String.valueOf(plugin.getPlayerLevelManager().getLevel(player.getUniqueId()));
+        };
+        register("player_level", level);
+        register("level", level);
     
         // %quantum_exp% ou %quantum_player_exp%
-        if (params.equals("player_exp") || params.equals("exp")) {
+        PlaceholderResolver exp = (player, params) -> {
             if (plugin.getPlayerLevelManager() == null) return "0";
-            return String.valueOf(plugin.getPlayerLevelManager()
-                    .getExp(player.getUniqueId()));
-        }
+            return String.valueOf(plugin.getPlayerLevelManager().getExp(player.getUniqueId()));
+        };
+        register("player_exp", exp);
+        register("exp", exp);
 
+        // %quantum_exp_required% ou %quantum_player_exp_required%
+        PlaceholderResolver expRequired = (player, params) -> {
+            if (plugin.getPlayerLevelManager() == null) return "0";
+            int playerLevel = plugin.getPlayerLevelManager().getLevel(player.getUniqueId());
+            return String.valueOf(plugin.getPlayerLevelManager().getExpForLevel(playerLevel + 1));
+        };
+        register("player_exp_required", expRequired);
+        register("exp_required", expRequired);
 
-                // === SERVER INFO ===
+        // === SERVER INFO ===
         // %quantum_online% - Joueurs en ligne
-        if (params.equals("online")) {
-            return String.valueOf(org.bukkit.Bukkit.getOnlinePlayers().size());
-        }
-
+        register("online", (player, params) -> String.valueOf(org.bukkit.Bukkit.getOnlinePlayers().size()));
         // %quantum_max_players% - Maximum de joueurs
-        if (params.equals("max_players")) {
-            return String.valueOf(org.bukkit.Bukkit.getMaxPlayers());
-        }
-        // %quantum_exp_required% ou %quantum_player_exp_required%
-        if (params.equals("player_exp_required") || params.equals("exp_required")) {
-            if (plugin.getPlayerLevelManager() == null) return "0";
-            int level = plugin.getPlayerLevelManager().getLevel(player.getUniqueId());
-            return String.valueOf(plugin.getPlayerLevelManager()
-                    .getExpForLevel(level + 1));
-        }
+        register("max_players", (player, params) -> String.valueOf(org.bukkit.Bukkit.getMaxPlayers()));
         
         // === STORAGE MODE ===
-        if (params.equals("mode")) {
-            return StorageMode.getMode(player).name();
-        }
-        
-        if (params.equals("mode_display")) {
-            String modeDisplay = StorageMode.getModeDisplay(player);
-            return ChatColor.translateAlternateColorCodes('&', modeDisplay);
-        }
-        
-        if (params.equals("mode_simple")) {
-            return StorageMode.getSimpleModeDisplay(player);
-        }
+        register("mode", (player, params) -> StorageMode.getMode(player).name());
+        register("mode_display", (player, params) ->
+                ChatColor.translateAlternateColorCodes('&', StorageMode.getModeDisplay(player)));
+        register("mode_simple", (player, params) -> StorageMode.getSimpleModeDisplay(player));
 
         // === TOWER STORAGE MODE ===
-        if (params.equals("tower_mode") || params.equals("tower_mode_simple")) {
-            return TowerStorageMode.getSimpleModeDisplay(player);
-        }
-
-        if (params.equals("tower_mode_display")) {
-            String modeDisplay = TowerStorageMode.getModeDisplay(player);
-            return ChatColor.translateAlternateColorCodes('&', modeDisplay);
-        }
+        register("tower_mode", (player, params) -> TowerStorageMode.getSimpleModeDisplay(player));
+        register("tower_mode_simple", (player, params) -> TowerStorageMode.getSimpleModeDisplay(player));
+        register("tower_mode_display", (player, params) ->
+                ChatColor.translateAlternateColorCodes('&', TowerStorageMode.getModeDisplay(player)));
         
         // === STORAGE STATS ===
-        PlayerStorage storage = plugin.getStorageManager().getStorage(player);
-        
-        if (params.equals("storage_items")) {
-            return Integer.toString(storage.getUniqueItemCount());
-        }
-        
-        if (params.equals("storage_total")) {
-            return Integer.toString(storage.getTotalItemCount());
-        }
+        register("storage_items", (player, params) ->
+                Integer.toString(plugin.getStorageManager().getStorage(player).getUniqueItemCount()));
+        register("storage_total", (player, params) ->
+                Long.toString(plugin.getStorageManager().getStorage(player).getTotalItemCount()));
 
         // === STORAGE UPGRADE PLACEHOLDERS ===
-        if (params.equals("storage_multiplier_level")) {
-            return String.valueOf(plugin.getStorageUpgradeManager().getState(player).multiplierLevel);
-        }
-        if (params.equals("storage_multiplier")) {
-            return String.format("%.1f", plugin.getStorageUpgradeManager().getSellMultiplier(player));
-        }
-        if (params.equals("storage_stack_level")) {
-            return String.valueOf(plugin.getStorageUpgradeManager().getState(player).stackLevel);
-        }
-        if (params.equals("storage_stack_max")) {
-            return String.valueOf(plugin.getStorageUpgradeManager().getUpgradeStackMax(player));
-        }
-        if (params.equals("storage_page_level")) {
-            return String.valueOf(plugin.getStorageUpgradeManager().getState(player).pageLevel);
-        }
-        if (params.equals("storage_pages")) {
-            return String.valueOf(plugin.getStorageUpgradeManager().getPages(player));
-        }
-        if (params.equals("autovente_statut")) {
-            return plugin.getStorageUpgradeManager().getState(player).autoSellEnabled ? "§aON" : "§cOFF";
-        }
-        if (params.equals("autovente_limite")) {
-            return String.valueOf(plugin.getStorageUpgradeManager().getState(player).autoSellLimit);
-        }
+        register("storage_multiplier_level", (player, params) ->
+                String.valueOf(plugin.getStorageUpgradeManager().getState(player).multiplierLevel));
+        register("storage_multiplier", (player, params) ->
+                String.format("%.1f", plugin.getStorageUpgradeManager().getSellMultiplier(player)));
+        register("storage_stack_level", (player, params) ->
+                String.valueOf(plugin.getStorageUpgradeManager().getState(player).stackLevel));
+        register("storage_stack_max", (player, params) ->
+                String.valueOf(plugin.getStorageUpgradeManager().getUpgradeStackMax(player)));
+        register("storage_page_level", (player, params) ->
+                String.valueOf(plugin.getStorageUpgradeManager().getState(player).pageLevel));
+        register("storage_pages", (player, params) ->
+                String.valueOf(plugin.getStorageUpgradeManager().getPages(player)));
+        register("autovente_statut", (player, params) ->
+                plugin.getStorageUpgradeManager().getState(player).autoSellEnabled ? "§aON" : "§cOFF");
+        register("autovente_limite", (player, params) ->
+                String.valueOf(plugin.getStorageUpgradeManager().getState(player).autoSellLimit));
 
         // === TOWER STORAGE UPGRADE PLACEHOLDERS ===
-        if (params.equals("tower_storage_multiplier_level")) {
-            return String.valueOf(plugin.getTowerStorageUpgradeManager().getState(player).multiplierLevel);
-        }
-        if (params.equals("tower_storage_multiplier")) {
-            return String.format("%.1f", plugin.getTowerStorageUpgradeManager().getSellMultiplier(player));
-        }
-        if (params.equals("tower_storage_stack_level")) {
-            return String.valueOf(plugin.getTowerStorageUpgradeManager().getState(player).stackLevel);
-        }
-        if (params.equals("tower_storage_stack_max")) {
-            return String.valueOf(plugin.getTowerStorageUpgradeManager().getUpgradeStackMax(player));
-        }
-        if (params.equals("tower_storage_page_level")) {
-            return String.valueOf(plugin.getTowerStorageUpgradeManager().getState(player).pageLevel);
-        }
-        if (params.equals("tower_storage_pages")) {
-            return String.valueOf(plugin.getTowerStorageUpgradeManager().getPages(player));
-        }
-        if (params.equals("tower_autovente_statut")) {
-            return plugin.getTowerStorageUpgradeManager().getState(player).autoSellEnabled ? "§aON" : "§cOFF";
-        }
-        if (params.equals("tower_autovente_limite")) {
-            return String.valueOf(plugin.getTowerStorageUpgradeManager().getState(player).autoSellLimit);
+        register("tower_storage_multiplier_level", (player, params) ->
+                String.valueOf(plugin.getTowerStorageUpgradeManager().getState(player).multiplierLevel));
+        register("tower_storage_multiplier", (player, params) ->
+                String.format("%.1f", plugin.getTowerStorageUpgradeManager().getSellMultiplier(player)));
+        register("tower_storage_stack_level", (player, params) ->
+                String.valueOf(plugin.getTowerStorageUpgradeManager().getState(player).stackLevel));
+        register("tower_storage_stack_max", (player, params) ->
+                String.valueOf(plugin.getTowerStorageUpgradeManager().getUpgradeStackMax(player)));
+        register("tower_storage_page_level", (player, params) ->
+                String.valueOf(plugin.getTowerStorageUpgradeManager().getState(player).pageLevel));
+        register("tower_storage_pages", (player, params) ->
+                String.valueOf(plugin.getTowerStorageUpgradeManager().getPages(player)));
+        register("tower_autovente_statut", (player, params) ->
+                plugin.getTowerStorageUpgradeManager().getState(player).autoSellEnabled ? "§aON" : "§cOFF");
+        register("tower_autovente_limite", (player, params) ->
+                String.valueOf(plugin.getTowerStorageUpgradeManager().getState(player).autoSellLimit));
+        
+        // === COORDINATES ===
+        // %quantum_player_x% / %quantum_player_y% / %quantum_player_z%
+        register("player_x", (player, params) -> String.valueOf(player.getLocation().getBlockX()));
+        register("player_y", (player, params) -> String.valueOf(player.getLocation().getBlockY()));
+        register("player_z", (player, params) -> String.valueOf(player.getLocation().getBlockZ()));
+
+        // === FAMILLES ===
+        registerPrefix("amt_", this::handleAmountPlaceholder);
+        registerPrefix("tower_", this::handleTowerPlaceholder);
+        registerPrefix("towers_", this::handleTowerPlaceholder);
+        registerPrefix("eco_", this::handleEcoPlaceholder);
+        registerPrefix("order_", this::handleOrderPlaceholder);
+        registerPrefix("history_", this::handleHistoryPlaceholder);
+    }
+
+    /**
+     * Handle storage amount placeholders
+     * %quantum_amt_nexo-custom_sword% or %amt_nexo-custom_sword%
+     * %quantum_amt_minecraft-diamond% or %amt_minecraft-diamond%
+     */
+    private String handleAmountPlaceholder(Player player, String params) {
+        PlayerStorage storage = plugin.getStorageManager().getStorage(player);
+        String itemId = params.substring(4); // Remove "amt_"
+        
+        // Check if it's a Nexo item (nexo-id format)
+        if (itemId.startsWith("nexo-")) {
+            String nexoId = itemId.substring(5).replace("-", ":");
+            int amount = storage.getNexoAmount(nexoId);
+            return String.valueOf(amount);
         }
         
-        // === STORAGE AMOUNT PLACEHOLDERS ===
-        // %quantum_amt_nexo-custom_sword% or %amt_nexo-custom_sword%
-        // %quantum_amt_minecraft-diamond% or %amt_minecraft-diamond%
-        if (params.startsWith("amt_")) {
-            String itemId = params.substring(4); // Remove "amt_"
-            
-            // Check if it's a Nexo item (nexo-id format)
-            if (itemId.startsWith("nexo-")) {
-                String nexoId = itemId.substring(5).replace("-", ":");
-                int amount = storage.getNexoAmount(nexoId);
-                return String.valueOf(amount);
-            }
-            
-            // Check if it's a Minecraft item (minecraft-id format)
-            if (itemId.startsWith("minecraft-")) {
-                String materialName = itemId.substring(10).toUpperCase().replace("-", "_");
-                try {
-                    Material material = Material.valueOf(materialName);
-                    int amount = storage.getAmount(material);
-                    return String.valueOf(amount);
-                } catch (IllegalArgumentException e) {
-                    return "0";
-                }
-            }
-            
-            // No prefix - try both (priority to Nexo)
-            String normalizedId = itemId.replace("-", ":");
-            
-            // Try Nexo first
-            if (storage.getNexoItems().containsKey(normalizedId)) {
-                return String.valueOf(storage.getNexoAmount(normalizedId));
-            }
-            
-            // Try Minecraft
+        // Check if it's a Minecraft item (minecraft-id format)
+        if (itemId.startsWith("minecraft-")) {
+            String materialName = itemId.substring(10).toUpperCase().replace("-", "_");
             try {
-                Material material = Material.valueOf(itemId.toUpperCase().replace("-", "_"));
-                return String.valueOf(storage.getAmount(material));
+                Material material = Material.valueOf(materialName);
+                int amount = storage.getAmount(material);
+                return String.valueOf(amount);
             } catch (IllegalArgumentException e) {
                 return "0";
             }
         }
-
-        // === TOWER SYSTEM ===
-        if (params.startsWith("tower_") || params.startsWith("towers_")) {
-            return handleTowerPlaceholder(player, params);
-        }
         
-        // === ECONOMY ===
-        if (params.startsWith("eco_")) {
-            return handleEcoPlaceholder(player, params);
-        }
-        
-        // === ORDER CREATION SESSION ===
-        if (params.startsWith("order_")) {
-            return handleOrderPlaceholder(player, params);
-        }
+        // No prefix - try both (priority to Nexo)
+        String normalizedId = itemId.replace("-", ":");
         
-        // === TRANSACTION HISTORY ===
-        if (params.startsWith("history_")) {
-            return handleHistoryPlaceholder(player, params);
+        // Try Nexo first
+        if (storage.getNexoAmount(normalizedId) > 0) {
+            return String.valueOf(storage.getNexoAmount(normalizedId));
         }
         
-        // === COORDINATES ===
-        // %quantum_player_x% / %quantum_player_y% / %quantum_player_z%
-        if (params.equals("player_x")) {
-            return String.valueOf(player.getLocation().getBlockX());
-        }
-        if (params.equals("player_y")) {
-            return String.valueOf(player.getLocation().getBlockY());
-        }
-        if (params.equals("player_z")) {
-            return String.valueOf(player.getLocation().getBlockZ());
+        // Try Minecraft
+        try {
+            Material material = Material.valueOf(itemId.toUpperCase().replace("-", "_"));
+            return String.valueOf(storage.getAmount(material));
+        } catch (IllegalArgumentException e) {
+            return "0";
         }
-        
-        // Default: return null to preserve the original placeholder syntax (e.g., %unknown_placeholder%)
-        return null;
     }
 
     /**
@@ -486,7 +540,7 @@ public class PlaceholderManager {
         }
         
         // Specific tower placeholders
-        if (params.matches("tower_[a-z_]+_(progress|percentage|completed)")) {
+        if (SPECIFIC_TOWER_PATTERN.matcher(params).matches()) {
             return handleSpecificTowerPlaceholder(params, progress, towerManager);
         }
         
@@ -526,7 +580,7 @@ public class PlaceholderManager {
         }
         
         // Tower top position placeholder: tower_top_pos_<N>
-        if (params.matches("tower_top_pos_\\d+")) {
+        if (TOWER_TOP_POS_PATTERN.matcher(params).matches()) {
             int position;
             try {
                 position = Integer.parseInt(params.substring("tower_top_pos_".length()));
@@ -577,7 +631,7 @@ public class PlaceholderManager {
      */
     private String handleSpecificTowerPlaceholder(String params, com.wynvers.quantum.towers.TowerProgress progress, 
             com.wynvers.quantum.towers.TowerManager towerManager) {
-        if (params.matches("tower_[a-z_]+_progress")) {
+        if (TOWER_PROGRESS_PATTERN.matcher(params).matches()) {
             String towerId = params.substring(6, params.lastIndexOf("_progress"));
             com.wynvers.quantum.towers.TowerConfig tower = towerManager.getTower(towerId);
             if (tower == null) return "0/0";
@@ -585,7 +639,7 @@ public class PlaceholderManager {
             return completed + "/" + tower.getTotalFloors();
         }
         
-        if (params.matches("tower_[a-z_]+_percentage")) {
+        if (TOWER_PERCENTAGE_PATTERN.matcher(params).matches()) {
             String towerId = params.substring(6, params.lastIndexOf("_percentage"));
             com.wynvers.quantum.towers.TowerConfig tower = towerManager.getTower(towerId);
             if (tower == null) return "0";
@@ -596,7 +650,7 @@ public class PlaceholderManager {
             return String.format("%.1f", percentage);
         }
         
-        if (params.matches("tower_[a-z_]+_completed")) {
+        if (TOWER_COMPLETED_PATTERN.matcher(params).matches()) {
             String towerId = params.substring(6, params.lastIndexOf("_completed"));
             com.wynvers.quantum.towers.TowerConfig tower = towerManager.getTower(towerId);
             if (tower == null) return "false";
@@ -644,15 +698,11 @@ public class PlaceholderManager {
         }
         
         if (params.equals("history_buy_count")) {
-            List<com.wynvers.quantum.transactions.TransactionHistoryManager.Transaction> buyTransactions = 
-                historyManager.getPlayerHistory(player, "BUY", 0);
-            return String.valueOf(buyTransactions.size());
+            return String.valueOf(historyManager.getBuyCount(player));
         }
         
         if (params.equals("history_sell_count")) {
-            List<com.wynvers.quantum.transactions.TransactionHistoryManager.Transaction> sellTransactions = 
-                historyManager.getPlayerHistory(player, "SELL", 0);
-            return String.valueOf(sellTransactions.size());
+            return String.valueOf(historyManager.getSellCount(player));
         }
         
         if (params.equals("history_buy_total")) {
@@ -722,7 +772,7 @@ public class PlaceholderManager {
         
         // For slot-specific placeholders like history_{slot}_material, return a default
         // These should be handled via customPlaceholders in the menu rendering
-        if (params.matches("history_\\d+_.*") || params.contains("{slot}")) {
+        if (HISTORY_SLOT_PATTERN.matcher(params).matches() || params.contains("{slot}")) {
             return ""; // Empty to avoid showing unresolved placeholders
         }
         
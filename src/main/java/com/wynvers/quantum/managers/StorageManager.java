@@ -2,60 +2,190 @@ package com.wynvers.quantum.managers;
 
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.storage.PlayerStorage;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Storages des joueurs en mémoire + persistance write-behind.
+ *
+ * <p>Les modifications ne sont pas écrites immédiatement : {@link PlayerStorage#save}
+ * marque le storage comme modifié, puis un flush périodique (et au quit / à l'arrêt)
+ * upsert uniquement les lignes {@code (player_uuid, material, nexo_id)} qui ont changé,
+ * par lots, sur l'exécuteur DB.</p>
+ */
 public class StorageManager {
-    
+
+    private static final String UPSERT_SQL = "INSERT INTO player_storage (player_uuid, material, nexo_id, amount) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE amount = VALUES(amount)";
+    private static final String DELETE_SQL = "DELETE FROM player_storage "
+            + "WHERE player_uuid = ? AND material = ? AND nexo_id = ?";
+
     private final Quantum plugin;
     private final Map<UUID, PlayerStorage> storages;
-    
+
+    // Storages avec des modifications non écrites (y compris ceux déjà déchargés)
+    private final Map<UUID, PlayerStorage> dirty = new ConcurrentHashMap<>();
+    // Storages en cours d'écriture : un rechargement depuis la base les verrait périmés
+    private final Map<UUID, PlayerStorage> inFlight = new ConcurrentHashMap<>();
+    // Joueurs connectés dont le storage est chargé en arrière-plan, et leur storage de remplacement
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, PlayerStorage> placeholders = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private BukkitTask flushTask;
+
     public StorageManager(Quantum plugin) {
         this.plugin = plugin;
         this.storages = new ConcurrentHashMap<>();
+        startFlushTask();
+    }
+
+    private void startFlushTask() {
+        long interval = Math.max(1L, plugin.getConfig().getLong("storage.flush-interval-ticks", 40L));
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::requestFlush, interval, interval);
     }
-    
+
     /**
      * Get player storage (creates if doesn't exist)
      */
     public PlayerStorage getStorage(Player player) {
-        return storages.computeIfAbsent(player.getUniqueId(), uuid -> {
-            PlayerStorage storage = new PlayerStorage(uuid);
-            storage.load(plugin);
-            return storage;
-        });
+        return getStorage(player.getUniqueId());
     }
-    
+
     /**
      * Get storage by UUID
+     *
+     * Un joueur connecté a été préchargé par sa session. S'il ne l'est pas (rechargement du
+     * plugin, préchargement échoué), aucune requête n'est faite ici : son storage est chargé
+     * en arrière-plan et un storage de remplacement non persisté est renvoyé en attendant
+     * (voir {@link PlayerStorage#unavailable}). Un joueur hors ligne est chargé sur l'appelant.
      */
     public PlayerStorage getStorage(UUID uuid) {
-        return storages.computeIfAbsent(uuid, uuid2 -> {
-            PlayerStorage storage = new PlayerStorage(uuid2);
-            storage.load(plugin);
+        PlayerStorage storage = storages.get(uuid);
+        if (storage != null) {
             return storage;
+        }
+
+        PlayerStorage pending = pending(uuid);
+        if (pending != null) {
+            return install(pending);
+        }
+
+        if (Bukkit.getPlayer(uuid) != null) {
+            PlayerStorage placeholder = placeholders.computeIfAbsent(uuid, PlayerStorage::unavailable);
+            loadAsync(uuid);
+            return placeholder;
+        }
+
+        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+            return preload(conn, uuid);
+        } catch (SQLException e) {
+            plugin.getQuantumLogger().error("Failed to load storage for " + uuid + ": " + e.getMessage());
+            return PlayerStorage.unavailable(uuid);
+        }
+    }
+
+    /**
+     * Charge et publie le storage d'un joueur (session de connexion, thread async).
+     *
+     * La lecture se fait sous le verrou du flush : aucun flush ne peut commiter entre la
+     * vérification des storages en attente d'écriture et la lecture, qui ne voit donc jamais
+     * une base plus ancienne que la mémoire. Un storage encore en mémoire ou pas encore
+     * écrit reste la source de vérité et n'est pas relu.
+     *
+     * @return le storage effectivement utilisé
+     */
+    public PlayerStorage preload(Connection conn, UUID uuid) throws SQLException {
+        synchronized (flushLock) {
+            PlayerStorage current = storages.get(uuid);
+            if (current == null) {
+                current = pending(uuid);
+            }
+            if (current != null) {
+                return install(current);
+            }
+            PlayerStorage loaded = new PlayerStorage(uuid);
+            loaded.load(conn, plugin);
+            return install(loaded);
+        }
+    }
+
+    /**
+     * Publie un storage (session sans base de données) ; celui déjà en mémoire reste prioritaire
+     * @return le storage effectivement utilisé
+     */
+    public PlayerStorage install(PlayerStorage storage) {
+        return storages.computeIfAbsent(storage.getUuid(), uuid -> storage);
+    }
+
+    /**
+     * Storage déchargé mais pas encore écrit (il reste la source de vérité)
+     */
+    private PlayerStorage pending(UUID uuid) {
+        PlayerStorage pending = dirty.get(uuid);
+        return pending != null ? pending : inFlight.get(uuid);
+    }
+
+    private void loadAsync(UUID uuid) {
+        if (!loading.add(uuid)) {
+            return;
+        }
+        plugin.getDatabaseManager().runAsync(() -> {
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                PlayerStorage storage = preload(conn, uuid);
+                // Ajouts reçus pendant le chargement (le remplacement est gardé en cas d'échec : nouvel essai au prochain accès)
+                PlayerStorage placeholder = placeholders.remove(uuid);
+                if (placeholder != null) {
+                    placeholder.transferTo(storage);
+                    storage.save(plugin);
+                }
+            } catch (SQLException e) {
+                plugin.getQuantumLogger().error("Failed to load storage for " + uuid + ": " + e.getMessage());
+            } finally {
+                loading.remove(uuid);
+            }
         });
     }
-    
+
     /**
      * Alias for getStorage(UUID) for PlaceholderAPI compatibility
      */
     public PlayerStorage getPlayerStorage(UUID uuid) {
         return getStorage(uuid);
     }
-    
+
+    /**
+     * Marque un storage pour le prochain flush
+     */
+    public void markDirty(PlayerStorage storage) {
+        dirty.put(storage.getUuid(), storage);
+        PlaceholderManager placeholders = plugin.getPlaceholderManager();
+        if (placeholders != null) {
+            placeholders.invalidate(storage.getUuid(), "amt_", "storage_");
+        }
+    }
+
     /**
      * Save specific storage (alias for save)
      */
     public void saveStorage(UUID uuid) {
         save(uuid);
     }
-    
+
     /**
-     * Save specific storage
+     * Save specific storage (marks it for the next flush)
      */
     public void save(UUID uuid) {
         PlayerStorage storage = storages.get(uuid);
@@ -63,35 +193,138 @@ public class StorageManager {
             storage.save(plugin);
         }
     }
-    
+
     /**
-     * Save all storages
+     * Save all storages synchronously (shutdown / reload)
      */
     public void saveAll() {
         plugin.getQuantumLogger().info("Saving all player storages...");
-        int saved = 0;
-        
+
         for (PlayerStorage storage : storages.values()) {
             storage.save(plugin);
-            saved++;
         }
-        
-        plugin.getQuantumLogger().success("Saved " + saved + " player storages!");
+        int rows = flushNow();
+
+        plugin.getQuantumLogger().success("Saved " + storages.size() + " player storages! (" + rows + " rows written)");
     }
-    
+
     /**
-     * Unload player storage (saves first)
+     * Unload player storage (flushes its pending changes first)
      */
     public void unload(UUID uuid) {
-        save(uuid);
-        storages.remove(uuid);
+        PlayerStorage storage = storages.get(uuid);
+        if (storage == null) {
+            return;
+        }
+        // Marqué avant d'être retiré : un préchargement concurrent le trouve toujours quelque part
+        if (storage.hasPendingChanges()) {
+            markDirty(storage);
+            requestFlush();
+        }
+        storages.remove(uuid, storage);
     }
-    
+
     /**
      * Reload all storages
+     * Les storages des joueurs connectés restent en mémoire : ils ne seront pas rechargés depuis le thread principal
      */
     public void reload() {
         saveAll();
-        storages.clear();
+        // Une session en cours de préchargement garde aussi le sien
+        storages.keySet().removeIf(uuid -> Bukkit.getPlayer(uuid) == null && !hasSession(uuid));
+    }
+
+    private boolean hasSession(UUID uuid) {
+        return plugin.getSessionLoader() != null && plugin.getSessionLoader().isActive(uuid);
+    }
+
+    /**
+     * Arrête le flush périodique et écrit tout ce qui reste
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        saveAll();
+    }
+
+    // ===== Write-behind =====
+
+    /**
+     * Planifie un flush sur l'exécuteur DB s'il y a des modifications
+     * et qu'aucun flush n'est déjà en file.
+     */
+    private void requestFlush() {
+        if (dirty.isEmpty() || !flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        plugin.getDatabaseManager().runAsync(() -> {
+            flushQueued.set(false);
+            flushNow();
+        });
+    }
+
+    /**
+     * Écrit les modifications en attente sur le thread appelant.
+     * Sérialisé par un verrou pour qu'un flush plus ancien n'écrase jamais une valeur plus récente.
+     *
+     * @return nombre de lignes écrites ou supprimées
+     */
+    private int flushNow() {
+        synchronized (flushLock) {
+            if (dirty.isEmpty()) {
+                return 0;
+            }
+
+            List<PlayerStorage> batch = new ArrayList<>(dirty.size());
+            for (Map.Entry<UUID, PlayerStorage> entry : new ArrayList<>(dirty.entrySet())) {
+                inFlight.put(entry.getKey(), entry.getValue());
+                if (dirty.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                }
+            }
+
+            List<PlayerStorage.DirtyKeys> drained = new ArrayList<>(batch.size());
+            int rows = 0;
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL);
+                     PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+                    for (PlayerStorage storage : batch) {
+                        PlayerStorage.DirtyKeys keys = storage.drainDirtyKeys();
+                        drained.add(keys);
+                        storage.addToBatch(keys, upsert, delete);
+                        rows += keys.size();
+                    }
+                    upsert.executeBatch();
+                    delete.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                return rows;
+            } catch (SQLException e) {
+                plugin.getQuantumLogger().error("Failed to flush " + batch.size() + " player storages: " + e.getMessage());
+                // Rien n'a été commité : on remet les clés pour le prochain flush
+                for (int i = 0; i < batch.size(); i++) {
+                    PlayerStorage storage = batch.get(i);
+                    if (i < drained.size()) {
+                        storage.restoreDirtyKeys(drained.get(i));
+                    }
+                    if (storage.hasPendingChanges()) {
+                        dirty.putIfAbsent(storage.getUuid(), storage);
+                    }
+                }
+                return 0;
+            } finally {
+                for (PlayerStorage storage : batch) {
+                    inFlight.remove(storage.getUuid(), storage);
+                }
+            }
+        }
     }
 }
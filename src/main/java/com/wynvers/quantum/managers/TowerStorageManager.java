@@ -2,9 +2,13 @@ package com.wynvers.quantum.managers;
 
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.towers.storage.PlayerTowerStorage;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -13,6 +17,12 @@ public class TowerStorageManager {
     private final Quantum plugin;
     private final Map<UUID, PlayerTowerStorage> storages;
 
+    // Joueurs connectés dont le storage est chargé en arrière-plan, et leur storage de remplacement
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, PlayerTowerStorage> placeholders = new ConcurrentHashMap<>();
+    // Sérialise les lectures de préchargement avec la sauvegarde + éviction du reload
+    private final Object loadLock = new Object();
+
     public TowerStorageManager(Quantum plugin) {
         this.plugin = plugin;
         this.storages = new ConcurrentHashMap<>();
@@ -22,21 +32,80 @@ public class TowerStorageManager {
      * Get player tower storage (creates if doesn't exist)
      */
     public PlayerTowerStorage getStorage(Player player) {
-        return storages.computeIfAbsent(player.getUniqueId(), uuid -> {
-            PlayerTowerStorage storage = new PlayerTowerStorage(uuid);
-            storage.load(plugin);
-            return storage;
-        });
+        return getStorage(player.getUniqueId());
     }
 
     /**
      * Get tower storage by UUID
+     *
+     * Même règle que {@link StorageManager#getStorage(UUID)} : pas de requête pour un joueur
+     * connecté non préchargé, un storage de remplacement est renvoyé pendant le chargement.
      */
     public PlayerTowerStorage getStorage(UUID uuid) {
-        return storages.computeIfAbsent(uuid, uuid2 -> {
-            PlayerTowerStorage storage = new PlayerTowerStorage(uuid2);
-            storage.load(plugin);
+        PlayerTowerStorage storage = storages.get(uuid);
+        if (storage != null) {
             return storage;
+        }
+
+        if (Bukkit.getPlayer(uuid) != null) {
+            PlayerTowerStorage placeholder = placeholders.computeIfAbsent(uuid, PlayerTowerStorage::unavailable);
+            loadAsync(uuid);
+            return placeholder;
+        }
+
+        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+            return preload(conn, uuid);
+        } catch (SQLException e) {
+            plugin.getQuantumLogger().error("Failed to load tower storage for " + uuid + ": " + e.getMessage());
+            return PlayerTowerStorage.unavailable(uuid);
+        }
+    }
+
+    /**
+     * Charge et publie le storage de tour d'un joueur (session de connexion, thread async).
+     * Un storage déjà en mémoire reste la source de vérité et n'est pas relu ; la lecture ne
+     * peut pas croiser la sauvegarde du reload qui précède son éviction.
+     *
+     * @return le storage effectivement utilisé
+     */
+    public PlayerTowerStorage preload(Connection conn, UUID uuid) throws SQLException {
+        synchronized (loadLock) {
+            PlayerTowerStorage current = storages.get(uuid);
+            if (current != null) {
+                return current;
+            }
+            PlayerTowerStorage loaded = new PlayerTowerStorage(uuid);
+            loaded.load(conn, plugin);
+            return install(loaded);
+        }
+    }
+
+    /**
+     * Publie un storage (session sans base de données) ; celui déjà en mémoire reste prioritaire
+     * @return le storage effectivement utilisé
+     */
+    public PlayerTowerStorage install(PlayerTowerStorage loaded) {
+        PlayerTowerStorage current = storages.putIfAbsent(loaded.getUuid(), loaded);
+        return current != null ? current : loaded;
+    }
+
+    private void loadAsync(UUID uuid) {
+        if (!loading.add(uuid)) {
+            return;
+        }
+        plugin.getDatabaseManager().runAsync(() -> {
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                PlayerTowerStorage storage = preload(conn, uuid);
+                PlayerTowerStorage placeholder = placeholders.remove(uuid);
+                if (placeholder != null) {
+                    placeholder.transferTo(storage);
+                    storage.save(plugin);
+                }
+            } catch (SQLException e) {
+                plugin.getQuantumLogger().error("Failed to load tower storage for " + uuid + ": " + e.getMessage());
+            } finally {
+                loading.remove(uuid);
+            }
         });
     }
 
@@ -80,15 +149,24 @@ public class TowerStorageManager {
      * Unload player tower storage (saves first)
      */
     public void unload(UUID uuid) {
-        save(uuid);
-        storages.remove(uuid);
+        synchronized (loadLock) {
+            save(uuid);
+            storages.remove(uuid);
+        }
     }
 
     /**
      * Reload all tower storages
      */
     public void reload() {
-        saveAll();
-        storages.clear();
+        synchronized (loadLock) {
+            saveAll();
+            // Les joueurs connectés (ou en cours de connexion) gardent leur storage : pas de rechargement depuis le thread principal
+            storages.keySet().removeIf(uuid -> Bukkit.getPlayer(uuid) == null && !hasSession(uuid));
+        }
+    }
+
+    private boolean hasSession(UUID uuid) {
+        return plugin.getSessionLoader() != null && plugin.getSessionLoader().isActive(uuid);
     }
 }
@@ -1,6 +1,7 @@
 package com.wynvers.quantum.managers;
 
 import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.economy.BalanceLedger;
 import com.wynvers.quantum.economy.QuantumEconomy;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Bukkit;
@@ -20,6 +21,7 @@ public class VaultManager {
     private Economy economy;
     private boolean enabled;
     private QuantumEconomy quantumEconomy;
+    private BalanceLedger ledger;
     
     // Multi-currency support: currencyId -> QuantumEconomy instance
     private final Map<String, QuantumEconomy> currencies = new LinkedHashMap<>();
@@ -39,13 +41,16 @@ public class VaultManager {
             return;
         }
         
+        // Soldes en mémoire + journal vidé en base par lots
+        ledger = new BalanceLedger(plugin);
+        
         // Load currencies from config
         loadCurrencies();
         
         if (currencies.isEmpty()) {
             plugin.getQuantumLogger().warning("Aucune monnaie configurée ! Utilisation des valeurs par défaut.");
             // Fallback to default currency
-            quantumEconomy = new QuantumEconomy(plugin, "dollar", "Dollar", "Dollars", "$", 0.0, "%amount%%symbol%");
+            quantumEconomy = new QuantumEconomy(plugin, ledger, "dollar", "Dollar", "Dollars", "$", 0.0, "%amount%%symbol%");
             currencies.put("dollar", quantumEconomy);
         } else {
             // Primary currency is the first one defined
@@ -96,7 +101,7 @@ public class VaultManager {
             double startingBalance = currencyConfig.getDouble("starting-balance", 0.0);
             String format = currencyConfig.getString("format", "%amount%%symbol%");
             
-            QuantumEconomy eco = new QuantumEconomy(plugin, currencyId, name, namePlural, symbol, startingBalance, format);
+            QuantumEconomy eco = new QuantumEconomy(plugin, ledger, currencyId, name, namePlural, symbol, startingBalance, format);
             currencies.put(currencyId, eco);
         }
     }
@@ -249,6 +254,22 @@ public class VaultManager {
         return currencies.get(currencyId);
     }
     
+    /**
+     * Récupère le cache des soldes partagé par toutes les monnaies
+     */
+    public BalanceLedger getLedger() {
+        return ledger;
+    }
+    
+    /**
+     * Vide le journal des soldes en base (arrêt du plugin)
+     */
+    public void shutdown() {
+        if (ledger != null) {
+            ledger.shutdown();
+        }
+    }
+    
     /**
      * Récupère toutes les monnaies disponibles
      * @return Map non modifiable des monnaies (id -> QuantumEconomy)
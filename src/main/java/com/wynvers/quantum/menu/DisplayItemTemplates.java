@@ -0,0 +1,144 @@
+package com.wynvers.quantum.menu;
+
+import com.nexomc.nexo.api.NexoItems;
+import com.nexomc.nexo.api.events.NexoItemsLoadedEvent;
+import com.wynvers.quantum.Quantum;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Modèles d'items d'affichage des storages, partagés par tous les menus
+ *
+ * Un modèle est construit une fois par (clé PDC, item) : item Nexo construit ou item vanilla,
+ * avec l'id déjà écrit dans le PDC et le lore d'origine extrait. Un rendu clone le modèle et
+ * ne remplace que le lore. Les modèles Nexo sont vidés quand Nexo recharge ses items.
+ */
+public class DisplayItemTemplates implements Listener {
+
+    /**
+     * Item de base (jamais modifié, toujours cloné) et son lore d'origine
+     */
+    public record Template(ItemStack base, List<String> lore) {
+
+        /**
+         * Copie du modèle avec le lore d'origine suivi des lignes données
+         * (séparées par une ligne vide si le lore d'origine n'est pas vide)
+         */
+        public ItemStack create(List<String> appendedLore) {
+            ItemStack stack = base.clone();
+            if (appendedLore == null) {
+                return stack;
+            }
+            ItemMeta meta = stack.getItemMeta();
+            if (meta == null) {
+                return stack;
+            }
+            List<String> fullLore = new ArrayList<>(lore.size() + appendedLore.size() + 1);
+            fullLore.addAll(lore);
+            if (!lore.isEmpty()) {
+                fullLore.add("");
+            }
+            fullLore.addAll(appendedLore);
+            meta.setLore(fullLore);
+            stack.setItemMeta(meta);
+            return stack;
+        }
+    }
+
+    private final Quantum plugin;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    public DisplayItemTemplates(Quantum plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Modèle d'un item Nexo ou vanilla
+     *
+     * @param idKey    clé PDC où écrire l'id ("nexo:..." ou "minecraft:...")
+     * @param nexoId   id Nexo, ou null pour un item vanilla
+     * @param material matériau vanilla (ignoré si nexoId est donné)
+     * @return le modèle, ou null si l'item Nexo n'existe pas
+     */
+    public Template get(NamespacedKey idKey, String nexoId, Material material) {
+        String itemId;
+        if (nexoId != null) {
+            itemId = "nexo:" + nexoId;
+        } else if (material != null) {
+            itemId = "minecraft:" + material.name().toLowerCase();
+        } else {
+            return null;
+        }
+
+        String cacheKey = idKey.getKey() + '|' + itemId;
+        Template template = templates.get(cacheKey);
+        if (template == null) {
+            template = build(idKey, itemId, nexoId, material);
+            // Un item Nexo introuvable n'est pas mis en cache : il peut apparaître au prochain reload
+            if (template != null) {
+                templates.put(cacheKey, template);
+            }
+        }
+        return template;
+    }
+
+    private Template build(NamespacedKey idKey, String itemId, String nexoId, Material material) {
+        ItemStack stack;
+        if (nexoId != null) {
+            try {
+                com.nexomc.nexo.items.ItemBuilder itemBuilder = NexoItems.itemFromId(nexoId);
+                if (itemBuilder == null) {
+                    plugin.getQuantumLogger().warning("Nexo ItemBuilder is null for item: " + nexoId);
+                    return null;
+                }
+                stack = itemBuilder.build();
+                if (stack == null) {
+                    plugin.getQuantumLogger().warning("Failed to build Nexo item: " + nexoId);
+                    return null;
+                }
+            } catch (Exception e) {
+                plugin.getQuantumLogger().warning("Failed to create Nexo item: " + nexoId + " - " + e.getMessage());
+                return null;
+            }
+        } else {
+            stack = new ItemStack(material);
+        }
+
+        List<String> lore = List.of();
+        ItemMeta meta = stack.getItemMeta();
+        if (meta != null) {
+            meta.getPersistentDataContainer().set(idKey, PersistentDataType.STRING, itemId);
+            if (meta.hasLore()) {
+                lore = List.copyOf(meta.getLore());
+            }
+            stack.setItemMeta(meta);
+        }
+        return new Template(stack, lore);
+    }
+
+    /**
+     * Vide tous les modèles
+     */
+    public void invalidateAll() {
+        templates.clear();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    @EventHandler
+    public void onNexoItemsLoaded(NexoItemsLoadedEvent event) {
+        invalidateAll();
+    }
+}
@@ -1,13 +1,17 @@
 package com.wynvers.quantum.menu;
 
-import java.io.File;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.orders.OrderCreationSession;
+import com.wynvers.quantum.orders.OrderListing;
 import com.wynvers.quantum.sell.SellSession;
 import com.nexomc.nexo.api.NexoItems;
 import net.kyori.adventure.text.Component;
@@ -19,9 +23,7 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.ChatColor;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 
 public class Menu {
  
@@ -42,6 +44,14 @@ public class Menu {
     // Items
     private final Map<String, MenuItem> items;
 
+    // Index par slot et slots par type, reconstruits à chaque addItem (chargement du menu)
+    private static final int[] NO_SLOTS = new int[0];
+    private MenuItem[] itemsBySlot = new MenuItem[0];
+    private final Map<ButtonType, int[]> slotsByButtonType = new EnumMap<>(ButtonType.class);
+    private int[] storageSlots = NO_SLOTS;
+    private int[] towerStorageSlots = NO_SLOTS;
+    private int[] wheadsHeadSlots = NO_SLOTS;
+
     // Storage renderer pour slots quantum_storage
     private StorageRenderer storageRenderer;
 
@@ -50,6 +60,9 @@ public class Menu {
 
     // Wheads renderer pour slots wheads_player_head
     private com.wynvers.quantum.wheads.WheadsHeadsRenderer wheadsHeadsRenderer;
+
+    // Joueurs dont la mise à jour des slots de storage est déjà planifiée pour le prochain tick
+    private final Set<UUID> pendingStorageUpdates = new HashSet<>();
     
     // MiniMessage parser pour les titres modernes
     private static final MiniMessage miniMessage = MiniMessage.miniMessage();
@@ -116,12 +129,35 @@ public class Menu {
      * Get menu item at specific slot
      */
     public MenuItem getItemAt(int slot) {
-        for (MenuItem item : items.values()) {
-            if (item.getSlots().contains(slot)) {
-                return item;
-            }
-        }
-        return null;
+        return slot >= 0 && slot < itemsBySlot.length ? itemsBySlot[slot] : null;
+    }
+
+    /**
+     * Slots des items d'un type de bouton (ne pas modifier le tableau)
+     */
+    public int[] getSlots(ButtonType buttonType) {
+        return slotsByButtonType.getOrDefault(buttonType, NO_SLOTS);
+    }
+
+    /**
+     * Slots quantum_storage, dans l'ordre de remplissage (ne pas modifier le tableau)
+     */
+    public int[] getStorageSlots() {
+        return storageSlots;
+    }
+
+    /**
+     * Slots quantum_tower_storage, dans l'ordre de remplissage (ne pas modifier le tableau)
+     */
+    public int[] getTowerStorageSlots() {
+        return towerStorageSlots;
+    }
+
+    /**
+     * Slots wheads_player_head, dans l'ordre de remplissage (ne pas modifier le tableau)
+     */
+    public int[] getWheadsHeadSlots() {
+        return wheadsHeadSlots;
     }
  
     // === SETTERS ===
@@ -161,6 +197,66 @@ public class Menu {
 
     public void addItem(MenuItem item) {
         items.put(item.getId(), item);
+        rebuildSlotIndex();
+    }
+
+    /**
+     * Recalcule l'index par slot et les listes de slots par type.
+     * Même ordre de parcours que l'ancien scan des items à chaque clic / rendu.
+     */
+    private void rebuildSlotIndex() {
+        int maxSlot = -1;
+        for (MenuItem item : items.values()) {
+            for (int slot : item.getSlots()) {
+                maxSlot = Math.max(maxSlot, slot);
+            }
+        }
+
+        MenuItem[] bySlot = new MenuItem[maxSlot + 1];
+        Map<ButtonType, List<Integer>> byType = new EnumMap<>(ButtonType.class);
+        List<Integer> storage = new ArrayList<>();
+        List<Integer> towerStorage = new ArrayList<>();
+        List<Integer> wheadsHeads = new ArrayList<>();
+
+        for (MenuItem item : items.values()) {
+            for (int slot : item.getSlots()) {
+                if (slot >= 0 && bySlot[slot] == null) {
+                    bySlot[slot] = item;
+                }
+            }
+            if (item.getButtonType() != null) {
+                byType.computeIfAbsent(item.getButtonType(), k -> new ArrayList<>()).addAll(item.getSlots());
+            }
+            if (item.isQuantumStorage()) {
+                storage.addAll(item.getSlots());
+            }
+            if (item.isQuantumTowerStorage()) {
+                towerStorage.addAll(item.getSlots());
+            }
+            if (item.isWheadsPlayerHead()) {
+                wheadsHeads.addAll(item.getSlots());
+            }
+        }
+
+        slotsByButtonType.clear();
+        for (Map.Entry<ButtonType, List<Integer>> entry : byType.entrySet()) {
+            slotsByButtonType.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        storageSlots = toArray(storage);
+        towerStorageSlots = toArray(towerStorage);
+        wheadsHeadSlots = toArray(wheadsHeads);
+        itemsBySlot = bySlot;
+    }
+
+    private static int[] toArray(List<Integer> slots) {
+        if (slots.isEmpty()) {
+            return NO_SLOTS;
+        }
+        int[] array = new int[slots.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = slots.get(i);
+        }
+        return array;
     }
 
     /**
@@ -289,7 +385,8 @@ public class Menu {
         // PATCH: Appliquer MiniMessage + Legacy
         parsedTitle = parseTitle(parsedTitle);
 
-        Inventory inventory = Bukkit.createInventory(null, size, parsedTitle);
+        Inventory inventory = MenuHolder.createInventory(this, player.getUniqueId(), customPlaceholders,
+                size, parsedTitle);
 
         populateInventory(inventory, player, customPlaceholders);
 
@@ -322,24 +419,59 @@ public class Menu {
         Inventory currentInventory = player.getOpenInventory().getTopInventory();
         
         // Vérifier que c'est bien ce menu qui est ouvert
-        if (currentInventory == null || currentInventory.getSize() != size) {
+        MenuHolder holder = MenuHolder.of(currentInventory);
+        if (holder == null || !holder.getMenuId().equals(id)) {
             return;
         }
         
         // Repeupler l'inventaire avec les données à jour
         populateInventory(currentInventory, player, customPlaceholders);
     }
+
+    /**
+     * Met à jour uniquement les slots quantum_storage / quantum_tower_storage du joueur,
+     * sans repeupler le reste du menu ni reparser ses placeholders.
+     * Les demandes d'un même tick (dépôts en série, shift-clics) donnent une seule mise à jour
+     * au tick suivant, qui ne réécrit que les slots dont le contenu a changé.
+     *
+     * @return false si ce menu n'est pas celui ouvert par le joueur (rien n'est planifié)
+     */
+    public boolean requestStorageUpdate(Player player) {
+        if (MenuHolder.menuOf(player.getOpenInventory().getTopInventory()) != this) {
+            return false;
+        }
+        UUID uuid = player.getUniqueId();
+        if (pendingStorageUpdates.add(uuid)) {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                pendingStorageUpdates.remove(uuid);
+                Inventory inventory = player.getOpenInventory().getTopInventory();
+                if (!player.isOnline() || MenuHolder.menuOf(inventory) != this) {
+                    return;
+                }
+                if (hasQuantumStorageSlots()) {
+                    storageRenderer.updateStorageSlots(player, inventory, this, storageLoreConfig());
+                }
+                if (hasQuantumTowerStorageSlots()) {
+                    towerStorageRenderer.updateStorageSlots(player, inventory, this, towerStorageLoreConfig());
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Oublie l'état d'affichage gardé pour un joueur qui a quitté ce menu
+     */
+    public void forgetViewer(UUID viewer) {
+        pendingStorageUpdates.remove(viewer);
+        storageRenderer.forget(viewer);
+        towerStorageRenderer.forget(viewer);
+    }
     
     // Additional methods needed by MenuManager
  
     public MenuItem getMenuItem(int slot) {
-        // Find the MenuItem that contains this slot
-        for (MenuItem item : items.values()) {
-            if (item.getSlots().contains(slot)) {
-                return item;
-            }
-        }
-        return null;
+        return getItemAt(slot);
     }
  
     public List<String> getAnimatedTitles() {
@@ -371,60 +503,14 @@ public class Menu {
     }
     
     /**
-     * Récupère tous les ordres d'une catégorie depuis orders.yml
+     * Récupère les ordres d'une catégorie à afficher depuis le carnet d'ordres en mémoire
+     * (déjà triés par nom d'item, puis par prix total décroissant)
      * @param category Nom de la catégorie (ex: "autre", "minerais", etc.)
-     * @return Liste des ordres sous forme de Map
+     * @return Autant d'ordres que le menu a de slots quantum_orders_item
      */
-    private List<Map<String, Object>> getOrdersForCategory(String category) {
-        List<Map<String, Object>> orders = new ArrayList<>();
-        
-        File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-        if (!ordersFile.exists()) {
-            return orders;
-        }
-        
-        YamlConfiguration ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
-        
-        ConfigurationSection categorySection = ordersConfig.getConfigurationSection(category);
-        if (categorySection == null) {
-            return orders;
-        }
-        
-        // Parcourir tous les ordres de cette catégorie
-        for (String orderId : categorySection.getKeys(false)) {
-            String path = category + "." + orderId;
-            
-            Map<String, Object> orderData = new HashMap<>();
-            orderData.put("orderId", orderId);
-            orderData.put("orderer", ordersConfig.getString(path + ".orderer", "Unknown"));
-            orderData.put("orderer_uuid", ordersConfig.getString(path + ".orderer_uuid"));
-            orderData.put("item", ordersConfig.getString(path + ".item", "minecraft:stone"));
-            orderData.put("quantity", ordersConfig.getInt(path + ".quantity", 0));
-            orderData.put("price_per_unit", ordersConfig.getDouble(path + ".price_per_unit", 0.0));
-            orderData.put("total_price", ordersConfig.getDouble(path + ".total_price", 0.0));
-            orderData.put("created_at", ordersConfig.getLong(path + ".created_at", System.currentTimeMillis()));
-            
-            orders.add(orderData);
-        }
-        
-        // ✅ TRI PAR NOM D'ITEM (alphabétique), PUIS PAR PRIX (du plus cher au moins cher)
-        orders.sort((o1, o2) -> {
-            String item1 = (String) o1.get("item");
-            String item2 = (String) o2.get("item");
-            
-            // D'abord comparer les noms d'items
-            int itemComparison = item1.compareTo(item2);
-            if (itemComparison != 0) {
-                return itemComparison; // Items différents -> tri alphabétique
-            }
-            
-            // Même item -> trier par prix total (du plus cher au moins cher)
-            double price1 = (double) o1.get("total_price");
-            double price2 = (double) o2.get("total_price");
-            return Double.compare(price2, price1); // Ordre décroissant
-        });
-        
-        return orders;
+    private List<OrderListing> getOrdersForCategory(String category) {
+        int orderSlots = getSlots(ButtonType.QUANTUM_ORDERS_ITEM).length;
+        return plugin.getOrderManager().getOrderBook().getOrders(category, 0, orderSlots);
     }
     
     /**
@@ -441,12 +527,12 @@ public class Menu {
     /**
      * Crée un ItemStack pour un ordre
      */
-    private ItemStack createOrderItemStack(Map<String, Object> orderData, MenuItem menuItem, Player player) {
-        String itemId = (String) orderData.get("item");
-        int quantity = (int) orderData.get("quantity");
-        double pricePerUnit = (double) orderData.get("price_per_unit");
-        double totalPrice = (double) orderData.get("total_price");
-        String orderer = (String) orderData.get("orderer");
+    private ItemStack createOrderItemStack(OrderListing order, MenuItem menuItem, Player player) {
+        String itemId = order.getItemId();
+        int quantity = order.getQuantity();
+        double pricePerUnit = order.getPricePerUnit();
+        double totalPrice = order.getTotalPrice();
+        String orderer = order.getOrderer();
         
         ItemStack itemStack;
         String displayName;
@@ -532,7 +618,7 @@ public class Menu {
         
         // Détecter si c'est un menu d'ordres (orders_autre, orders_minerais, etc.)
         String category = getCategoryFromMenuId();
-        List<Map<String, Object>> categoryOrders = category != null ? getOrdersForCategory(category) : new ArrayList<>();
+        List<OrderListing> categoryOrders = category != null ? getOrdersForCategory(category) : new ArrayList<>();
         
         // Index pour parcourir les ordres
         int orderIndex = 0;
@@ -574,8 +660,8 @@ public class Menu {
                 // Pour chaque slot configuré, essayer de placer un ordre
                 for (int slot : item.getSlots()) {
                     if (slot >= 0 && slot < size && orderIndex < categoryOrders.size()) {
-                        Map<String, Object> orderData = categoryOrders.get(orderIndex);
-                        ItemStack orderItem = createOrderItemStack(orderData, item, player);
+                        OrderListing order = categoryOrders.get(orderIndex);
+                        ItemStack orderItem = createOrderItemStack(order, item, player);
                         inventory.setItem(slot, orderItem);
                         orderIndex++;
                     }
@@ -828,68 +914,53 @@ public class Menu {
      * Returns true if this menu has at least one quantum_storage type slot
      */
     private boolean hasQuantumStorageSlots() {
-        for (MenuItem item : items.values()) {
-            if (item.isQuantumStorage()) {
-                return true;
-            }
-        }
-        return false;
+        return storageSlots.length > 0;
     }
 
     /**
      * Returns true if this menu has at least one quantum_tower_storage type slot
      */
     private boolean hasQuantumTowerStorageSlots() {
-        for (MenuItem item : items.values()) {
-            if (item.isQuantumTowerStorage()) {
-                return true;
-            }
-        }
-        return false;
+        return towerStorageSlots.length > 0;
     }
 
     /**
      * Returns true if this menu has at least one wheads_player_head type slot
      */
     private boolean hasWheadsPlayerHeadSlots() {
-        for (MenuItem item : items.values()) {
-            if (item.isWheadsPlayerHead()) {
-                return true;
-            }
-        }
-        return false;
+        return wheadsHeadSlots.length > 0;
     }
 
     /**
      * Render storage slots for a player
      */
     private void renderStorageSlots(Player player, Inventory inventory) {
-        StorageRenderer.LoreAppendConfig loreConfig = null;
-        
+        storageRenderer.renderStorageSlots(player, inventory, this, storageLoreConfig());
+    }
+
+    private StorageRenderer.LoreAppendConfig storageLoreConfig() {
         for (MenuItem item : items.values()) {
             if (item.isQuantumStorage() && item.getLoreAppend() != null && !item.getLoreAppend().isEmpty()) {
-                loreConfig = new StorageRenderer.LoreAppendConfig(item.getLoreAppend());
-                break;
+                return new StorageRenderer.LoreAppendConfig(item.getLoreAppend());
             }
         }
-        
-        storageRenderer.renderStorageSlots(player, inventory, this, loreConfig);
+        return null;
     }
 
     /**
      * Render tower storage slots for a player
      */
     private void renderTowerStorageSlots(Player player, Inventory inventory) {
-        TowerStorageRenderer.LoreAppendConfig loreConfig = null;
+        towerStorageRenderer.renderStorageSlots(player, inventory, this, towerStorageLoreConfig());
+    }
 
+    private TowerStorageRenderer.LoreAppendConfig towerStorageLoreConfig() {
         for (MenuItem item : items.values()) {
             if (item.isQuantumTowerStorage() && item.getLoreAppend() != null && !item.getLoreAppend().isEmpty()) {
-                loreConfig = new TowerStorageRenderer.LoreAppendConfig(item.getLoreAppend());
-                break;
+                return new TowerStorageRenderer.LoreAppendConfig(item.getLoreAppend());
             }
         }
-
-        towerStorageRenderer.renderStorageSlots(player, inventory, this, loreConfig);
+        return null;
     }
 
     /**
@@ -0,0 +1,92 @@
+package com.wynvers.quantum.menu;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Holder des inventaires ouverts par un menu Quantum
+ *
+ * Permet aux listeners de reconnaître un menu par un simple instanceof sur le holder,
+ * sans comparer le titre de la vue aux titres (et frames animées) de tous les menus.
+ */
+public final class MenuHolder implements InventoryHolder {
+
+    private final Menu menu;
+    private final UUID viewer;
+    private final Map<String, String> customPlaceholders;
+    private Inventory inventory;
+
+    MenuHolder(Menu menu, UUID viewer, Map<String, String> customPlaceholders) {
+        this.menu = menu;
+        this.viewer = viewer;
+        this.customPlaceholders = customPlaceholders;
+    }
+
+    /**
+     * Holder Quantum d'un inventaire, ou null si ce n'est pas un menu Quantum
+     */
+    public static MenuHolder of(Inventory inventory) {
+        if (inventory == null) {
+            return null;
+        }
+        // Pas de snapshot de block state : seul le type du holder nous intéresse
+        return inventory.getHolder(false) instanceof MenuHolder holder ? holder : null;
+    }
+
+    /**
+     * Menu Quantum affiché dans cet inventaire, ou null
+     */
+    public static Menu menuOf(Inventory inventory) {
+        MenuHolder holder = of(inventory);
+        return holder != null ? holder.menu : null;
+    }
+
+    /**
+     * Crée l'inventaire d'un menu, rattaché à un nouveau holder
+     */
+    static Inventory createInventory(Menu menu, UUID viewer, Map<String, String> customPlaceholders,
+                                     int size, String title) {
+        MenuHolder holder = new MenuHolder(menu, viewer, customPlaceholders);
+        holder.inventory = Bukkit.createInventory(holder, size, title);
+        return holder.inventory;
+    }
+
+    /**
+     * Copie de l'inventaire sous un autre titre, pour le même menu et la même session
+     * (titres animés : Bukkit ne permet pas de renommer une vue ouverte)
+     */
+    public Inventory withTitle(String title) {
+        Inventory copy = createInventory(menu, viewer, customPlaceholders, inventory.getSize(), title);
+        copy.setContents(inventory.getContents());
+        return copy;
+    }
+
+    public Menu getMenu() {
+        return menu;
+    }
+
+    public String getMenuId() {
+        return menu.getId();
+    }
+
+    public UUID getViewer() {
+        return viewer;
+    }
+
+    /**
+     * Placeholders de session passés à l'ouverture (peut être null)
+     */
+    public Map<String, String> getCustomPlaceholders() {
+        return customPlaceholders;
+    }
+
+    @Override
+    public @NotNull Inventory getInventory() {
+        return inventory;
+    }
+}
@@ -463,6 +463,22 @@ public class MenuItem {
             return;
         }
 
+        // === QUANTUM_STORAGE_NEXT_PAGE / QUANTUM_STORAGE_PREV_PAGE ===
+        if (buttonType == ButtonType.QUANTUM_STORAGE_NEXT_PAGE || buttonType == ButtonType.QUANTUM_STORAGE_PREV_PAGE) {
+            Menu activeMenu = plugin.getMenuManager().getActiveMenu(player);
+            if (activeMenu == null) {
+                return;
+            }
+            int delta = buttonType == ButtonType.QUANTUM_STORAGE_NEXT_PAGE ? 1 : -1;
+            boolean changed = plugin.getStorageFilterHandler().changePage(
+                    plugin.getStorageManager().getStorage(player), player, activeMenu.getStorageSlots().length, delta);
+            // Seuls les slots de storage changent : pas besoin de rouvrir le menu
+            if (changed && !activeMenu.requestStorageUpdate(player)) {
+                refreshActiveMenu(player, plugin);
+            }
+            return;
+        }
+
         // === QUANTUM_TOWER_STORAGE_UPGRADE_MULTIPLIER ===
         if (buttonType == ButtonType.QUANTUM_TOWER_STORAGE_UPGRADE_MULTIPLIER) {
             plugin.getTowerStorageUpgradeManager().upgradeMultiplier(player, plugin);
@@ -2,14 +2,13 @@ package com.wynvers.quantum.menu;
 
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.orders.OrderAcceptanceHandler;
+import com.wynvers.quantum.orders.OrderListing;
 import com.wynvers.quantum.storage.PlayerStorage;
 import com.nexomc.nexo.api.NexoItems;
 import org.bukkit.Sound;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,30 +33,22 @@ public class OrderButtonHandler {
      * 
      * @param player Le joueur qui clique
      * @param category La catégorie de l'ordre (cultures, loots, items, etc.)
-     * @param orderId L'ID de l'ordre dans orders.yml
+     * @param orderId L'ID de l'ordre (UUID complet)
      */
     public void handleOrderClick(Player player, String category, String orderId) {
-        // Charger l'ordre depuis orders.yml
-        File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-        if (!ordersFile.exists()) {
-            player.sendMessage("§c⚠ Fichier orders.yml introuvable!");
-            return;
-        }
-        
-        YamlConfiguration ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
-        String orderPath = category + "." + orderId;
-        
-        if (!ordersConfig.contains(orderPath)) {
+        // Récupérer l'ordre depuis le carnet d'ordres en mémoire
+        OrderListing order = plugin.getOrderManager().getOrderBook().get(category, orderId);
+        if (order == null) {
             player.sendMessage("§c⚠ Cet ordre n'existe plus!");
             return;
         }
         
         // Récupérer les infos de l'ordre
-        String buyerName = ordersConfig.getString(orderPath + ".orderer");
-        String itemId = ordersConfig.getString(orderPath + ".item");
-        int quantity = ordersConfig.getInt(orderPath + ".quantity");
-        double pricePerUnit = ordersConfig.getDouble(orderPath + ".price_per_unit");
-        double totalPrice = ordersConfig.getDouble(orderPath + ".total_price");
+        String buyerName = order.getOrderer();
+        String itemId = order.getItemId();
+        int quantity = order.getQuantity();
+        double pricePerUnit = order.getPricePerUnit();
+        double totalPrice = order.getTotalPrice();
         
         // Récupérer le stock du vendeur
         PlayerStorage sellerStorage = plugin.getStorageManager().getStorage(player);
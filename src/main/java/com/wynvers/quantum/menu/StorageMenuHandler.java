@@ -418,7 +418,8 @@ public class StorageMenuHandler {
      */
     private void refreshMenu(Player player) {
         Menu storageMenu = plugin.getMenuManager().getMenu("storage");
-        if (storageMenu != null) {
+        // Menu déjà ouvert : seuls les slots modifiés sont renvoyés, sinon on le rouvre
+        if (storageMenu != null && !storageMenu.requestStorageUpdate(player)) {
             storageMenu.open(player, plugin);
         }
     }
@@ -1,17 +1,15 @@
 package com.wynvers.quantum.menu;
 
-import com.nexomc.nexo.api.NexoItems;
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.managers.PriceManager;
 import com.wynvers.quantum.storage.PlayerStorage;
+import com.wynvers.quantum.storage.StorageFilterHandler;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.persistence.PersistentDataType;
 
 import java.util.*;
 
@@ -23,6 +21,9 @@ public class StorageRenderer {
     private final Quantum plugin;
     private final PriceManager priceManager;
     private final NamespacedKey itemIdKey;
+
+    // Dernier rendu des slots quantum_storage, par joueur (thread principal uniquement)
+    private final Map<UUID, RenderState> viewers = new HashMap<>();
     
     public StorageRenderer(Quantum plugin) {
         this.plugin = plugin;
@@ -42,57 +43,80 @@ public class StorageRenderer {
      */
     public static class LoreAppendConfig {
         private final List<String> loreTemplate;
+        private final List<String> coloredLines;
+        private final boolean[] hasPlaceholders;
         
         public LoreAppendConfig(List<String> loreTemplate) {
             this.loreTemplate = loreTemplate;
+            int size = loreTemplate != null ? loreTemplate.size() : 0;
+            this.coloredLines = new ArrayList<>(size);
+            this.hasPlaceholders = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                String line = ChatColor.translateAlternateColorCodes('&', loreTemplate.get(i));
+                coloredLines.add(line);
+                hasPlaceholders[i] = line.indexOf('%') >= 0;
+            }
         }
         
         public List<String> getLoreTemplate() {
             return loreTemplate;
         }
+
+        /**
+         * Lignes déjà colorisées, et pour chacune si elle contient un placeholder
+         */
+        List<String> getColoredLines() {
+            return coloredLines;
+        }
+
+        boolean hasPlaceholders(int line) {
+            return hasPlaceholders[line];
+        }
     }
     
     /**
      * Remplit les slots quantum_storage avec les items du joueur
+     * (inventaire qui vient d'être vidé : les slots sans item sont déjà vides)
      */
     public void renderStorageSlots(Player player, Inventory inventory, Menu menu, LoreAppendConfig loreConfig) {
+        viewers.remove(player.getUniqueId());
+        render(player, inventory, menu, loreConfig, true);
+    }
+    
+    /**
+     * Met à jour les slots quantum_storage déjà affichés : seuls les slots dont l'item
+     * ou la quantité a changé depuis le dernier rendu sont réécrits
+     */
+    public void updateStorageSlots(Player player, Inventory inventory, Menu menu, LoreAppendConfig loreConfig) {
+        render(player, inventory, menu, loreConfig, false);
+    }
+    
+    /**
+     * Oublie ce qui est affiché au joueur (menu fermé ou changé)
+     */
+    public void forget(UUID viewer) {
+        viewers.remove(viewer);
+    }
+    
+    private void render(Player player, Inventory inventory, Menu menu, LoreAppendConfig loreConfig, boolean cleared) {
         // Récupérer le storage du joueur
         PlayerStorage storage = plugin.getStorageManager().getStorage(player.getUniqueId());
         if (storage == null) {
             return;
         }
         
-        // Collecter tous les items du storage
-        List<StorageItemDisplay> items = new ArrayList<>();
-        
-        // Items vanilla
-        for (Map.Entry<Material, Integer> entry : storage.getVanillaItems().entrySet()) {
-            items.add(new StorageItemDisplay(
-                entry.getKey(),
-                null,
-                entry.getValue()
-            ));
-        }
-        
-        // Items Nexo
-        for (Map.Entry<String, Integer> entry : storage.getNexoItems().entrySet()) {
-            items.add(new StorageItemDisplay(
-                null,
-                entry.getKey(),
-                entry.getValue()
-            ));
-        }
-        
         // Trouver les slots quantum_storage
-        List<Integer> quantumSlots = new ArrayList<>();
-        for (MenuItem menuItem : menu.getItems().values()) {
-            if (menuItem.isQuantumStorage()) {
-                quantumSlots.addAll(menuItem.getSlots());
-            }
+        int[] quantumSlots = menu.getStorageSlots();
+        
+        // Page courante du joueur, filtrée et triée par la vue du storage
+        List<StorageItemDisplay> items = new ArrayList<>(quantumSlots.length);
+        for (StorageFilterHandler.StorageEntry entry : plugin.getStorageFilterHandler().getPage(storage, player, quantumSlots.length)) {
+            items.add(new StorageItemDisplay(entry.material, entry.nexoId, entry.quantity));
         }
         
-        // Vérifier si le GUI est plein (tous les slots remplis)
-        if (items.size() >= quantumSlots.size() && quantumSlots.size() > 0) {
+        // Vérifier si le GUI est plein (tous les slots de toutes les pages débloquées remplis)
+        int capacity = quantumSlots.length * plugin.getStorageUpgradeManager().getPages(player);
+        if (quantumSlots.length > 0 && storage.getUniqueItemCount() >= capacity) {
             // Envoyer titre + sous-titre depuis messages.yml
             String title = plugin.getMessagesManager().get("storage.full-title", false);
             String subtitle = plugin.getMessagesManager().get("storage.full-subtitle", false);
@@ -101,91 +125,54 @@ public class StorageRenderer {
             player.sendTitle(title, subtitle, 10, 70, 20);
         }
         
-        // Remplir les slots avec les items
-        int index = 0;
-        for (int slot : quantumSlots) {
-            if (index >= items.size()) {
-                break; // Plus d'items à afficher
-            }
-            
-            StorageItemDisplay item = items.get(index);
-            ItemStack displayStack = createDisplayItem(player, item, loreConfig);
-            
-            if (displayStack != null) {
-                inventory.setItem(slot, displayStack);
+        // Multiplicateur de vente du joueur, identique pour tous les slots
+        double multiplier = plugin.getStorageUpgradeManager().getSellMultiplier(player);
+        List<String> loreTemplate = loreConfig != null ? loreConfig.getLoreTemplate() : null;
+        
+        // Le dernier rendu ne sert de référence que pour le même inventaire et le même lore
+        RenderState previous = viewers.get(player.getUniqueId());
+        if (previous != null && !previous.matches(inventory, quantumSlots.length, multiplier, loreTemplate)) {
+            previous = null;
+        }
+        
+        StorageItemDisplay[] shown = new StorageItemDisplay[quantumSlots.length];
+        for (int i = 0; i < quantumSlots.length; i++) {
+            StorageItemDisplay item = i < items.size() ? items.get(i) : null;
+            shown[i] = item;
+        
+            StorageItemDisplay before = previous != null ? previous.shown[i] : null;
+            boolean known = previous != null || cleared;
+            if (known && (item == null ? before == null : item.sameAs(before))) {
+                continue;
             }
-            
-            index++;
+        
+            inventory.setItem(quantumSlots[i], item != null ? createDisplayItem(item, loreConfig, multiplier) : null);
         }
+        
+        viewers.put(player.getUniqueId(), new RenderState(inventory, shown, multiplier, loreTemplate));
     }
     
     /**
      * Crée l'ItemStack d'affichage avec le lore personnalisé
      */
-    private ItemStack createDisplayItem(Player player, StorageItemDisplay item, LoreAppendConfig loreConfig) {
-        ItemStack stack;
-        String itemId;
-        
-        // Créer l'item (Nexo ou vanilla)
-        if (item.nexoId != null) {
-            // Utiliser l'API Nexo selon la documentation officielle
-            try {
-                // NexoItems.itemFromId retourne un ItemBuilder
-                com.nexomc.nexo.items.ItemBuilder itemBuilder = NexoItems.itemFromId(item.nexoId);
-                
-                if (itemBuilder == null) {
-                    plugin.getQuantumLogger().warning("Nexo ItemBuilder is null for item: " + item.nexoId);
-                    return null;
-                }
-                
-                // Construire l'ItemStack avec build()
-                stack = itemBuilder.build();
-                
-                if (stack == null) {
-                    plugin.getQuantumLogger().warning("Failed to build Nexo item: " + item.nexoId);
-                    return null;
-                }
-                
-                itemId = "nexo:" + item.nexoId;
-            } catch (Exception e) {
-                plugin.getQuantumLogger().warning("Failed to create Nexo item: " + item.nexoId + " - " + e.getMessage());
-                e.printStackTrace();
-                return null;
-            }
-        } else if (item.material != null) {
-            stack = new ItemStack(item.material);
-            itemId = "minecraft:" + item.material.name().toLowerCase();
-        } else {
+    private ItemStack createDisplayItem(StorageItemDisplay item, LoreAppendConfig loreConfig, double multiplier) {
+        // Le modèle porte déjà l'item Nexo construit et l'itemId dans le PDC : il ne reste que le lore
+        DisplayItemTemplates.Template template = plugin.getDisplayItemTemplates().get(itemIdKey, item.nexoId, item.material);
+        if (template == null) {
             return null;
         }
         
-        // Ajouter le lore personnalisé ET stocker l'itemId dans PersistentDataContainer
-        ItemMeta meta = stack.getItemMeta();
-        if (meta != null) {
-            // STOCKER L'ITEM ID DANS LE PDC
-            meta.getPersistentDataContainer().set(itemIdKey, PersistentDataType.STRING, itemId);
-            
-            // Ajouter le lore avec les placeholders remplacés
-            if (loreConfig != null && loreConfig.getLoreTemplate() != null) {
-                List<String> currentLore = meta.hasLore() ? meta.getLore() : new ArrayList<>();
-                
-                // Ajouter une ligne vide avant le nouveau lore
-                if (!currentLore.isEmpty()) {
-                    currentLore.add("");
-                }
-                
-                for (String loreLine : loreConfig.getLoreTemplate()) {
-                    String processedLine = replacePlaceholders(loreLine, item, player);
-                    currentLore.add(ChatColor.translateAlternateColorCodes('&', processedLine));
-                }
-                
-                meta.setLore(currentLore);
-            }
-            
-            stack.setItemMeta(meta);
+        if (loreConfig == null || loreConfig.getLoreTemplate() == null) {
+            return template.create(null);
         }
         
-        return stack;
+        List<String> coloredLines = loreConfig.getColoredLines();
+        List<String> lore = new ArrayList<>(coloredLines.size());
+        for (int i = 0; i < coloredLines.size(); i++) {
+            String line = coloredLines.get(i);
+            lore.add(loreConfig.hasPlaceholders(i) ? replacePlaceholders(line, item, multiplier) : line);
+        }
+        return template.create(lore);
     }
     
     /**
@@ -196,7 +183,7 @@ public class StorageRenderer {
      * - Nexo: "afzelia_bark" (PAS "nexo:afzelia_bark")
      * - Vanilla: "stone" (PAS "minecraft:stone")
      */
-    private String replacePlaceholders(String text, StorageItemDisplay item, Player player) {
+    private String replacePlaceholders(String text, StorageItemDisplay item, double multiplier) {
         String result = text;
         
         // %quantity% - Quantité formatée
@@ -212,9 +199,6 @@ public class StorageRenderer {
             priceKey = item.material.name().toLowerCase();
         }
         
-        // Appliquer le multiplicateur de vente du joueur
-        double multiplier = plugin.getStorageUpgradeManager().getSellMultiplier(player);
-        
         // %price% - Prix unitaire (avec multiplicateur)
         double price = priceManager.getPrice(priceKey) * multiplier;
         result = result.replace("%price%", priceManager.formatPrice(price));
@@ -241,18 +225,45 @@ public class StorageRenderer {
         }
     }
     
+    /**
+     * Items affichés dans chaque slot lors du dernier rendu
+     */
+    private static final class RenderState {
+        private final Inventory inventory;
+        private final StorageItemDisplay[] shown;
+        private final double multiplier;
+        private final List<String> loreTemplate;
+        
+        RenderState(Inventory inventory, StorageItemDisplay[] shown, double multiplier, List<String> loreTemplate) {
+            this.inventory = inventory;
+            this.shown = shown;
+            this.multiplier = multiplier;
+            this.loreTemplate = loreTemplate;
+        }
+        
+        boolean matches(Inventory inventory, int slots, double multiplier, List<String> loreTemplate) {
+            return this.inventory == inventory && shown.length == slots
+                    && this.multiplier == multiplier && Objects.equals(this.loreTemplate, loreTemplate);
+        }
+    }
+    
     /**
      * Classe interne pour représenter un item du storage à afficher
      */
     private static class StorageItemDisplay {
         private final Material material;
         private final String nexoId;
-        private final int quantity;
+        private final long quantity;
         
-        public StorageItemDisplay(Material material, String nexoId, int quantity) {
+        public StorageItemDisplay(Material material, String nexoId, long quantity) {
             this.material = material;
             this.nexoId = nexoId;
             this.quantity = quantity;
         }
+        
+        boolean sameAs(StorageItemDisplay other) {
+            return other != null && quantity == other.quantity && material == other.material
+                    && Objects.equals(nexoId, other.nexoId);
+        }
     }
 }
@@ -329,7 +329,8 @@ public class TowerStorageMenuHandler {
 
     private void refreshMenu(Player player) {
         Menu towerStorageMenu = plugin.getMenuManager().getMenu("tower_storage");
-        if (towerStorageMenu != null) {
+        // Menu déjà ouvert : seuls les slots modifiés sont renvoyés, sinon on le rouvre
+        if (towerStorageMenu != null && !towerStorageMenu.requestStorageUpdate(player)) {
             towerStorageMenu.open(player, plugin);
         }
     }
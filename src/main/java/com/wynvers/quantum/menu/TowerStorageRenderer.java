@@ -1,6 +1,5 @@
 package com.wynvers.quantum.menu;
 
-import com.nexomc.nexo.api.NexoItems;
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.managers.PriceManager;
 import com.wynvers.quantum.towers.storage.PlayerTowerStorage;
@@ -10,8 +9,6 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.persistence.PersistentDataType;
 
 import java.util.*;
 
@@ -24,6 +21,9 @@ public class TowerStorageRenderer {
     private final PriceManager priceManager;
     private final NamespacedKey itemIdKey;
 
+    // Dernier rendu des slots quantum_tower_storage, par joueur (thread principal uniquement)
+    private final Map<UUID, RenderState> viewers = new HashMap<>();
+
     public TowerStorageRenderer(Quantum plugin) {
         this.plugin = plugin;
         this.priceManager = plugin.getPriceManager();
@@ -39,20 +39,59 @@ public class TowerStorageRenderer {
      */
     public static class LoreAppendConfig {
         private final List<String> loreTemplate;
+        private final List<String> coloredLines;
+        private final boolean[] hasPlaceholders;
 
         public LoreAppendConfig(List<String> loreTemplate) {
             this.loreTemplate = loreTemplate;
+            int size = loreTemplate != null ? loreTemplate.size() : 0;
+            this.coloredLines = new ArrayList<>(size);
+            this.hasPlaceholders = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                String line = ChatColor.translateAlternateColorCodes('&', loreTemplate.get(i));
+                coloredLines.add(line);
+                hasPlaceholders[i] = line.indexOf('%') >= 0;
+            }
         }
 
         public List<String> getLoreTemplate() {
             return loreTemplate;
         }
+
+        List<String> getColoredLines() {
+            return coloredLines;
+        }
+
+        boolean hasPlaceholders(int line) {
+            return hasPlaceholders[line];
+        }
     }
 
     /**
      * Remplit les slots quantum_tower_storage avec les items du joueur
+     * (inventaire qui vient d'être vidé : les slots sans item sont déjà vides)
      */
     public void renderStorageSlots(Player player, Inventory inventory, Menu menu, LoreAppendConfig loreConfig) {
+        viewers.remove(player.getUniqueId());
+        render(player, inventory, menu, loreConfig, true);
+    }
+
+    /**
+     * Met à jour les slots quantum_tower_storage déjà affichés : seuls les slots dont l'item
+     * ou la quantité a changé depuis le dernier rendu sont réécrits
+     */
+    public void updateStorageSlots(Player player, Inventory inventory, Menu menu, LoreAppendConfig loreConfig) {
+        render(player, inventory, menu, loreConfig, false);
+    }
+
+    /**
+     * Oublie ce qui est affiché au joueur (menu fermé ou changé)
+     */
+    public void forget(UUID viewer) {
+        viewers.remove(viewer);
+    }
+
+    private void render(Player player, Inventory inventory, Menu menu, LoreAppendConfig loreConfig, boolean cleared) {
         PlayerTowerStorage storage = plugin.getTowerStorageManager().getStorage(player.getUniqueId());
         if (storage == null) {
             return;
@@ -68,88 +107,56 @@ public class TowerStorageRenderer {
             items.add(new TowerStorageItemDisplay(null, entry.getKey(), entry.getValue()));
         }
 
-        List<Integer> quantumSlots = new ArrayList<>();
-        for (MenuItem menuItem : menu.getItems().values()) {
-            if (menuItem.isQuantumTowerStorage()) {
-                quantumSlots.addAll(menuItem.getSlots());
-            }
-        }
-
-        int index = 0;
-        for (int slot : quantumSlots) {
-            if (index >= items.size()) {
-                break;
-            }
+        int[] quantumSlots = menu.getTowerStorageSlots();
 
-            TowerStorageItemDisplay item = items.get(index);
-            ItemStack displayStack = createDisplayItem(player, item, loreConfig);
-
-            if (displayStack != null) {
-                inventory.setItem(slot, displayStack);
-            }
+        // Multiplicateur de vente du joueur, identique pour tous les slots
+        double multiplier = plugin.getTowerStorageUpgradeManager().getSellMultiplier(player);
+        List<String> loreTemplate = loreConfig != null ? loreConfig.getLoreTemplate() : null;
 
-            index++;
+        // Le dernier rendu ne sert de référence que pour le même inventaire et le même lore
+        RenderState previous = viewers.get(player.getUniqueId());
+        if (previous != null && !previous.matches(inventory, quantumSlots.length, multiplier, loreTemplate)) {
+            previous = null;
         }
-    }
-
-    private ItemStack createDisplayItem(Player player, TowerStorageItemDisplay item, LoreAppendConfig loreConfig) {
-        ItemStack stack;
-        String itemId;
 
-        if (item.nexoId != null) {
-            try {
-                com.nexomc.nexo.items.ItemBuilder itemBuilder = NexoItems.itemFromId(item.nexoId);
+        TowerStorageItemDisplay[] shown = new TowerStorageItemDisplay[quantumSlots.length];
+        for (int i = 0; i < quantumSlots.length; i++) {
+            TowerStorageItemDisplay item = i < items.size() ? items.get(i) : null;
+            shown[i] = item;
 
-                if (itemBuilder == null) {
-                    plugin.getQuantumLogger().warning("Nexo ItemBuilder is null for tower storage item: " + item.nexoId);
-                    return null;
-                }
+            TowerStorageItemDisplay before = previous != null ? previous.shown[i] : null;
+            boolean known = previous != null || cleared;
+            if (known && (item == null ? before == null : item.sameAs(before))) {
+                continue;
+            }
 
-                stack = itemBuilder.build();
+            inventory.setItem(quantumSlots[i], item != null ? createDisplayItem(item, loreConfig, multiplier) : null);
+        }
 
-                if (stack == null) {
-                    plugin.getQuantumLogger().warning("Failed to build Nexo tower storage item: " + item.nexoId);
-                    return null;
-                }
+        viewers.put(player.getUniqueId(), new RenderState(inventory, shown, multiplier, loreTemplate));
+    }
 
-                itemId = "nexo:" + item.nexoId;
-            } catch (Exception e) {
-                plugin.getQuantumLogger().warning("Failed to create Nexo tower storage item: " + item.nexoId + " - " + e.getMessage());
-                return null;
-            }
-        } else if (item.material != null) {
-            stack = new ItemStack(item.material);
-            itemId = "minecraft:" + item.material.name().toLowerCase();
-        } else {
+    private ItemStack createDisplayItem(TowerStorageItemDisplay item, LoreAppendConfig loreConfig, double multiplier) {
+        // Le modèle porte déjà l'item Nexo construit et l'itemId dans le PDC : il ne reste que le lore
+        DisplayItemTemplates.Template template = plugin.getDisplayItemTemplates().get(itemIdKey, item.nexoId, item.material);
+        if (template == null) {
             return null;
         }
 
-        ItemMeta meta = stack.getItemMeta();
-        if (meta != null) {
-            meta.getPersistentDataContainer().set(itemIdKey, PersistentDataType.STRING, itemId);
-
-            if (loreConfig != null && loreConfig.getLoreTemplate() != null) {
-                List<String> currentLore = meta.hasLore() ? meta.getLore() : new ArrayList<>();
-
-                if (!currentLore.isEmpty()) {
-                    currentLore.add("");
-                }
-
-                for (String loreLine : loreConfig.getLoreTemplate()) {
-                    String processedLine = replacePlaceholders(loreLine, item, player);
-                    currentLore.add(ChatColor.translateAlternateColorCodes('&', processedLine));
-                }
-
-                meta.setLore(currentLore);
-            }
-
-            stack.setItemMeta(meta);
+        if (loreConfig == null || loreConfig.getLoreTemplate() == null) {
+            return template.create(null);
         }
 
-        return stack;
+        List<String> coloredLines = loreConfig.getColoredLines();
+        List<String> lore = new ArrayList<>(coloredLines.size());
+        for (int i = 0; i < coloredLines.size(); i++) {
+            String line = coloredLines.get(i);
+            lore.add(loreConfig.hasPlaceholders(i) ? replacePlaceholders(line, item, multiplier) : line);
+        }
+        return template.create(lore);
     }
 
-    private String replacePlaceholders(String text, TowerStorageItemDisplay item, Player player) {
+    private String replacePlaceholders(String text, TowerStorageItemDisplay item, double multiplier) {
         String result = text;
 
         result = result.replace("%quantity%", formatNumber(item.quantity));
@@ -161,9 +168,6 @@ public class TowerStorageRenderer {
             priceKey = item.material.name().toLowerCase();
         }
 
-        // Appliquer le multiplicateur de vente du joueur
-        double multiplier = plugin.getTowerStorageUpgradeManager().getSellMultiplier(player);
-
         double price = priceManager.getPrice(priceKey) * multiplier;
         result = result.replace("%price%", priceManager.formatPrice(price));
 
@@ -185,6 +189,28 @@ public class TowerStorageRenderer {
         }
     }
 
+    /**
+     * Items affichés dans chaque slot lors du dernier rendu
+     */
+    private static final class RenderState {
+        private final Inventory inventory;
+        private final TowerStorageItemDisplay[] shown;
+        private final double multiplier;
+        private final List<String> loreTemplate;
+
+        RenderState(Inventory inventory, TowerStorageItemDisplay[] shown, double multiplier, List<String> loreTemplate) {
+            this.inventory = inventory;
+            this.shown = shown;
+            this.multiplier = multiplier;
+            this.loreTemplate = loreTemplate;
+        }
+
+        boolean matches(Inventory inventory, int slots, double multiplier, List<String> loreTemplate) {
+            return this.inventory == inventory && shown.length == slots
+                    && this.multiplier == multiplier && Objects.equals(this.loreTemplate, loreTemplate);
+        }
+    }
+
     private static class TowerStorageItemDisplay {
         private final Material material;
         private final String nexoId;
@@ -195,5 +221,10 @@ public class TowerStorageRenderer {
             this.nexoId = nexoId;
             this.quantity = quantity;
         }
+
+        boolean sameAs(TowerStorageItemDisplay other) {
+            return other != null && quantity == other.quantity && material == other.material
+                    && Objects.equals(nexoId, other.nexoId);
+        }
     }
 }
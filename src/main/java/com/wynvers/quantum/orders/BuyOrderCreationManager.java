@@ -3,14 +3,11 @@ package com.wynvers.quantum.orders;
 import com.wynvers.quantum.Quantum;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -208,58 +205,36 @@ public class BuyOrderCreationManager implements Listener {
         // Déposer l'argent en escrow
         plugin.getEscrowManager().deposit(orderUUID, totalCost);
         
-        // Sauvegarder l'ordre dans orders.yml
-        File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-        YamlConfiguration ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
+        // Publier l'ordre dans le carnet d'ordres (persisté en asynchrone dans quantum_orders)
+        plugin.getOrderManager().getOrderBook().add(OrderListing.create(orderUUID, session.getCategory(), "BUY",
+                player.getName(), uuid, session.getItemId(), session.getQuantity(),
+                session.getPricePerUnit(), totalCost));
         
-        String path = session.getCategory() + "." + orderUUID.toString();
-        ordersConfig.set(path + ".type", "BUY");
-        ordersConfig.set(path + ".orderer", player.getName());
-        ordersConfig.set(path + ".orderer_uuid", uuid.toString());
-        ordersConfig.set(path + ".item", session.getItemId());
-        ordersConfig.set(path + ".quantity", session.getQuantity());
-        ordersConfig.set(path + ".price_per_unit", session.getPricePerUnit());
-        ordersConfig.set(path + ".total_price", totalCost);
-        ordersConfig.set(path + ".status", "ACTIVE");
-        ordersConfig.set(path + ".created_at", System.currentTimeMillis());
+        // Messages de succès
+        player.sendMessage("");
+        player.sendMessage(ChatColor.DARK_GRAY + "[≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈]");
+        player.sendMessage("");
+        player.sendMessage("  " + ChatColor.GREEN + ChatColor.BOLD + "✓ ORDRE D'ACHAT CRÉÉ !");
+        player.sendMessage("");
+        player.sendMessage("  " + ChatColor.GRAY + "Item: " + ChatColor.WHITE + formatItemName(session.getItemId()));
+        player.sendMessage("  " + ChatColor.GRAY + "Quantité: " + ChatColor.YELLOW + session.getQuantity() + "x");
+        player.sendMessage("  " + ChatColor.GRAY + "Prix/u: " + ChatColor.GOLD + String.format("%.2f", session.getPricePerUnit()) + "$");
+        player.sendMessage("  " + ChatColor.GRAY + "Coût total: " + ChatColor.GOLD + String.format("%.2f", totalCost) + "$");
+        player.sendMessage("");
+        player.sendMessage("  " + ChatColor.DARK_GRAY + "→ " + ChatColor.GRAY + "Votre argent est en sécurité (escrow)");
+        player.sendMessage("  " + ChatColor.DARK_GRAY + "→ " + ChatColor.GRAY + "Les vendeurs verront votre ordre");
+        player.sendMessage("  " + ChatColor.DARK_GRAY + "→ " + ChatColor.GRAY + "Tapez " + ChatColor.YELLOW + "/market " + ChatColor.GRAY + "pour gérer vos ordres");
+        player.sendMessage("");
+        player.sendMessage(ChatColor.DARK_GRAY + "[≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈]");
+        player.sendMessage("");
         
-        try {
-            ordersConfig.save(ordersFile);
-            
-            // Messages de succès
-            player.sendMessage("");
-            player.sendMessage(ChatColor.DARK_GRAY + "[≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈]");
-            player.sendMessage("");
-            player.sendMessage("  " + ChatColor.GREEN + ChatColor.BOLD + "✓ ORDRE D'ACHAT CRÉÉ !");
-            player.sendMessage("");
-            player.sendMessage("  " + ChatColor.GRAY + "Item: " + ChatColor.WHITE + formatItemName(session.getItemId()));
-            player.sendMessage("  " + ChatColor.GRAY + "Quantité: " + ChatColor.YELLOW + session.getQuantity() + "x");
-            player.sendMessage("  " + ChatColor.GRAY + "Prix/u: " + ChatColor.GOLD + String.format("%.2f", session.getPricePerUnit()) + "$");
-            player.sendMessage("  " + ChatColor.GRAY + "Coût total: " + ChatColor.GOLD + String.format("%.2f", totalCost) + "$");
-            player.sendMessage("");
-            player.sendMessage("  " + ChatColor.DARK_GRAY + "→ " + ChatColor.GRAY + "Votre argent est en sécurité (escrow)");
-            player.sendMessage("  " + ChatColor.DARK_GRAY + "→ " + ChatColor.GRAY + "Les vendeurs verront votre ordre");
-            player.sendMessage("  " + ChatColor.DARK_GRAY + "→ " + ChatColor.GRAY + "Tapez " + ChatColor.YELLOW + "/market " + ChatColor.GRAY + "pour gérer vos ordres");
-            player.sendMessage("");
-            player.sendMessage(ChatColor.DARK_GRAY + "[≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈≈]");
-            player.sendMessage("");
-            
-            // Logger
-            plugin.getQuantumLogger().info("[BUY_ORDER] Created by " + player.getName());
-            plugin.getQuantumLogger().info("  Item: " + session.getItemId());
-            plugin.getQuantumLogger().info("  Quantity: " + session.getQuantity() + "x");
-            plugin.getQuantumLogger().info("  Price: " + String.format("%.2f", session.getPricePerUnit()) + "$/u");
-            plugin.getQuantumLogger().info("  Total Cost: " + String.format("%.2f", totalCost) + "$");
-            plugin.getQuantumLogger().info("  UUID: " + orderUUID);
-            
-        } catch (IOException e) {
-            player.sendMessage(ChatColor.RED + "⚠ Erreur lors de la sauvegarde de l'ordre!");
-            plugin.getQuantumLogger().error("Failed to save buy order: " + e.getMessage());
-            
-            // Rembourser le joueur
-            plugin.getEscrowManager().withdraw(orderUUID);
-            plugin.getVaultManager().deposit(player, totalCost);
-        }
+        // Logger
+        plugin.getQuantumLogger().info("[BUY_ORDER] Created by " + player.getName());
+        plugin.getQuantumLogger().info("  Item: " + session.getItemId());
+        plugin.getQuantumLogger().info("  Quantity: " + session.getQuantity() + "x");
+        plugin.getQuantumLogger().info("  Price: " + String.format("%.2f", session.getPricePerUnit()) + "$/u");
+        plugin.getQuantumLogger().info("  Total Cost: " + String.format("%.2f", totalCost) + "$");
+        plugin.getQuantumLogger().info("  UUID: " + orderUUID);
         
         // Supprimer la session
         sessions.remove(uuid);
@@ -3,10 +3,8 @@ package com.wynvers.quantum.orders;
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.storage.PlayerStorage;
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
-import java.io.File;
 import java.util.UUID;
 
 /**
@@ -43,7 +41,7 @@ public class OrderAcceptanceHandler {
      * Traite l'acceptation d'un ordre par un vendeur
      * 
      * @param seller Vendeur qui accepte l'ordre
-     * @param orderId UUID COMPLET de l'ordre (clé dans orders.yml)
+     * @param orderId UUID COMPLET de l'ordre (clé dans le carnet d'ordres)
      * @param category Catégorie de l'ordre
      * @return true si l'ordre a été accepté avec succès
      */
@@ -53,35 +51,29 @@ public class OrderAcceptanceHandler {
         plugin.getLogger().info("  - OrderID: " + orderId);
         plugin.getLogger().info("  - Category: " + category);
         
-        // Charger l'ordre depuis orders.yml
-        File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-        if (!ordersFile.exists()) {
-            seller.sendMessage("§c⚠ Fichier orders.yml introuvable!");
-            return false;
-        }
+        // Récupérer l'ordre depuis le carnet d'ordres en mémoire
+        OrderBook orderBook = plugin.getOrderManager().getOrderBook();
         
-        YamlConfiguration ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
-        String path = category + "." + orderId;
-        
-        plugin.getLogger().info("[ORDER_ACCEPTANCE] Looking for order at path: " + path);
+        plugin.getLogger().info("[ORDER_ACCEPTANCE] Looking for order " + orderId + " in category " + category);
         
         // Vérifier que l'ordre existe
-        if (!ordersConfig.contains(path)) {
+        OrderListing order = orderBook.get(category, orderId);
+        if (order == null) {
             seller.sendMessage("§c⚠ Ordre introuvable!");
-            plugin.getLogger().warning("[ORDER_ACCEPTANCE] Order not found at path: " + path);
+            plugin.getLogger().warning("[ORDER_ACCEPTANCE] Order not found: " + category + "." + orderId);
             return false;
         }
         
         plugin.getLogger().info("[ORDER_ACCEPTANCE] Order found! Validating order data...");
         
         // Récupérer les infos de l'ordre
-        String buyerName = ordersConfig.getString(path + ".orderer");
-        String buyerUUIDStr = ordersConfig.getString(path + ".orderer_uuid");
-        String itemId = ordersConfig.getString(path + ".item");
-        int quantity = ordersConfig.getInt(path + ".quantity");
-        double pricePerUnit = ordersConfig.getDouble(path + ".price_per_unit");
-        double totalPrice = ordersConfig.getDouble(path + ".total_price");
-        String status = ordersConfig.getString(path + ".status", "ACTIVE");
+        String buyerName = order.getOrderer();
+        String buyerUUIDStr = order.getOrdererUuid();
+        String itemId = order.getItemId();
+        int quantity = order.getQuantity();
+        double pricePerUnit = order.getPricePerUnit();
+        double totalPrice = order.getTotalPrice();
+        String status = order.getStatus();
         
         plugin.getLogger().info("[ORDER_ACCEPTANCE] Order data:");
         plugin.getLogger().info("  - Buyer: " + buyerName);
@@ -137,12 +129,7 @@ public class OrderAcceptanceHandler {
             plugin.getLogger().warning("[ORDER_ACCEPTANCE] No escrow deposit found for UUID: " + orderUUID);
             
             // Marquer l'ordre comme invalide
-            ordersConfig.set(path + ".status", "INVALID");
-            try {
-                ordersConfig.save(ordersFile);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+            orderBook.setStatus(orderId, "INVALID");
             return false;
         }
         
@@ -270,19 +257,12 @@ public class OrderAcceptanceHandler {
         }
         
         // === ÉTAPE 8: SUPPRIMER L'ORDRE (FIX: Ne plus apparaître dans la liste) ===
-        plugin.getLogger().info("[ORDER_ACCEPTANCE] Deleting completed order from orders.yml...");
-        
-        // ANCIEN (bug): ordersConfig.set(path + ".status", "COMPLETED");
-        // NOUVEAU (fix): Supprimer complètement l'ordre
-        ordersConfig.set(path, null);
+        plugin.getLogger().info("[ORDER_ACCEPTANCE] Deleting completed order from the order book...");
         
-        try {
-            ordersConfig.save(ordersFile);
-            plugin.getLogger().info("[ORDER_ACCEPTANCE] Order deleted successfully from orders.yml");
-        } catch (Exception e) {
-            plugin.getQuantumLogger().error("Failed to delete completed order " + orderId);
-            e.printStackTrace();
-        }
+        // ANCIEN (bug): status = "COMPLETED"
+        // NOUVEAU (fix): Supprimer complètement l'ordre (écrit en base en asynchrone)
+        orderBook.remove(orderId);
+        plugin.getLogger().info("[ORDER_ACCEPTANCE] Order deleted successfully");
         
         // === ÉTAPE 9: ENREGISTRER LA TRANSACTION DANS L'HISTORIQUE ===
         if (buyer != null && plugin.getTransactionHistoryManager() != null) {
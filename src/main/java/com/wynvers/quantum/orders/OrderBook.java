@@ -0,0 +1,508 @@
+package com.wynvers.quantum.orders;
+
+import com.wynvers.quantum.Quantum;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Carnet d'ordres en mémoire
+ *
+ * La table quantum_orders est lue une seule fois au démarrage ; ensuite toutes les lectures
+ * (menus, pagination, clics) passent par les index ci-dessous :
+ * - par id : accès direct
+ * - par catégorie : trié par item puis prix total décroissant (ordre d'affichage des menus)
+ * - par item : trié par prix unitaire décroissant (meilleure offre en premier)
+ *
+ * Insertion et suppression sont en O(log n). Chaque modification marque l'id de l'ordre ;
+ * un flush sur l'exécuteur DB écrit uniquement les ordres marqués (INSERT/UPDATE ou DELETE
+ * par lots), sans jamais parcourir tout le carnet. Un ancien orders.yml est importé une fois
+ * puis renommé en orders.yml.migrated.
+ *
+ * Sans connexion MySQL au démarrage (ou si la lecture échoue), orders.yml reste le stockage :
+ * il est lu en entier et réécrit (fichier temporaire + renommage atomique) à chaque flush, comme
+ * avant la base. Il sera importé au prochain démarrage avec MySQL.
+ */
+public class OrderBook {
+
+    /** Ordre d'affichage d'une catégorie : item alphabétique, puis du plus cher au moins cher */
+    private static final Comparator<OrderListing> CATEGORY_ORDER = Comparator
+            .comparing(OrderListing::getItemId)
+            .thenComparing(Comparator.comparingDouble(OrderListing::getTotalPrice).reversed())
+            .thenComparing(OrderListing::getOrderId);
+
+    /** Meilleure offre d'abord pour un item donné */
+    private static final Comparator<OrderListing> PRICE_ORDER = Comparator
+            .comparingDouble(OrderListing::getPricePerUnit).reversed()
+            .thenComparing(OrderListing::getOrderId);
+
+    private static final String UPSERT_SQL = "INSERT INTO quantum_orders (order_id, category, type, orderer, "
+            + "orderer_uuid, item_id, quantity, price_per_unit, total_price, created_at, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE category = VALUES(category), "
+            + "type = VALUES(type), orderer = VALUES(orderer), orderer_uuid = VALUES(orderer_uuid), "
+            + "item_id = VALUES(item_id), quantity = VALUES(quantity), price_per_unit = VALUES(price_per_unit), "
+            + "total_price = VALUES(total_price), created_at = VALUES(created_at), status = VALUES(status)";
+    private static final String DELETE_SQL = "DELETE FROM quantum_orders WHERE order_id = ?";
+
+    private final Quantum plugin;
+    private final File ordersFile;
+
+    private final Map<String, OrderListing> byId = new HashMap<>();
+    private final Map<String, NavigableSet<OrderListing>> byCategory = new HashMap<>();
+    private final Map<String, NavigableSet<OrderListing>> byItem = new HashMap<>();
+    private final Map<String, Integer> activeByCategory = new HashMap<>();
+
+    // Ids des ordres modifiés depuis le dernier flush (écrits s'ils existent encore, supprimés sinon)
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    // Choisi au chargement : true = orders.yml est le stockage (MySQL indisponible)
+    private volatile boolean yamlStorage;
+
+    public OrderBook(Quantum plugin) {
+        this.plugin = plugin;
+        this.ordersFile = new File(plugin.getDataFolder(), "orders.yml");
+        load();
+    }
+
+    /**
+     * Charge quantum_orders en mémoire et importe un ancien orders.yml (démarrage uniquement)
+     */
+    private void load() {
+        synchronized (this) {
+            byId.clear();
+            byCategory.clear();
+            byItem.clear();
+            activeByCategory.clear();
+        }
+
+        if (!plugin.getDatabaseManager().isConnected()) {
+            loadYaml();
+            return;
+        }
+
+        try (Connection conn = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM quantum_orders");
+             ResultSet rs = stmt.executeQuery()) {
+            synchronized (this) {
+                while (rs.next()) {
+                    index(new OrderListing(
+                            rs.getString("order_id"),
+                            rs.getString("category"),
+                            rs.getString("type"),
+                            rs.getString("orderer"),
+                            rs.getString("orderer_uuid"),
+                            rs.getString("item_id"),
+                            rs.getInt("quantity"),
+                            rs.getDouble("price_per_unit"),
+                            rs.getDouble("total_price"),
+                            rs.getLong("created_at"),
+                            rs.getString("status")));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getQuantumLogger().error("Failed to load orders: " + e.getMessage());
+            synchronized (this) {
+                byId.clear();
+                byCategory.clear();
+                byItem.clear();
+                activeByCategory.clear();
+            }
+            loadYaml();
+            return;
+        }
+
+        migrateLegacyFile();
+        plugin.getQuantumLogger().success("✓ Order book loaded with " + size() + " orders");
+    }
+
+    /**
+     * Stockage de repli : charge orders.yml tel quel, sans l'importer ni le renommer
+     */
+    private void loadYaml() {
+        yamlStorage = true;
+        plugin.getQuantumLogger().warning("No database connection: orders are stored in orders.yml");
+        if (!ordersFile.exists()) {
+            return;
+        }
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(ordersFile);
+        synchronized (this) {
+            for (String category : config.getKeys(false)) {
+                ConfigurationSection categorySection = config.getConfigurationSection(category);
+                if (categorySection == null) continue;
+
+                for (String orderId : categorySection.getKeys(false)) {
+                    ConfigurationSection orderSection = categorySection.getConfigurationSection(orderId);
+                    if (orderSection == null) continue;
+                    index(OrderListing.fromSection(category, orderId, orderSection));
+                }
+            }
+        }
+        plugin.getQuantumLogger().success("✓ Order book loaded with " + size() + " orders from orders.yml");
+    }
+
+    /**
+     * Importe orders.yml (ancien stockage) dans quantum_orders puis le renomme,
+     * pour qu'il ne soit plus jamais relu. Les ordres déjà en base sont conservés.
+     */
+    private void migrateLegacyFile() {
+        if (!ordersFile.exists()) {
+            return;
+        }
+
+        int imported = 0;
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(ordersFile);
+        synchronized (this) {
+            for (String category : config.getKeys(false)) {
+                ConfigurationSection categorySection = config.getConfigurationSection(category);
+                if (categorySection == null) continue;
+
+                for (String orderId : categorySection.getKeys(false)) {
+                    ConfigurationSection orderSection = categorySection.getConfigurationSection(orderId);
+                    if (orderSection == null || byId.containsKey(orderId)) continue;
+                    index(OrderListing.fromSection(category, orderId, orderSection));
+                    dirty.add(orderId);
+                    imported++;
+                }
+            }
+        }
+
+        if (flushNow() < 0) {
+            plugin.getQuantumLogger().warning("orders.yml import failed, it will be retried on next start");
+            return;
+        }
+        File migrated = new File(ordersFile.getParentFile(), ordersFile.getName() + ".migrated");
+        if (!ordersFile.renameTo(migrated)) {
+            plugin.getQuantumLogger().warning("Could not rename orders.yml, it will be imported again on next start");
+        }
+        plugin.getQuantumLogger().success("✓ Imported " + imported + " orders from orders.yml");
+    }
+
+    // ===== Lecture =====
+
+    /**
+     * Récupère un ordre par son id
+     */
+    public synchronized OrderListing get(String orderId) {
+        return byId.get(orderId);
+    }
+
+    /**
+     * Récupère un ordre par son id, seulement s'il appartient à la catégorie
+     */
+    public synchronized OrderListing get(String category, String orderId) {
+        OrderListing order = byId.get(orderId);
+        return order != null && order.getCategory().equals(category) ? order : null;
+    }
+
+    /**
+     * Page d'ordres d'une catégorie, dans l'ordre d'affichage des menus
+     */
+    public synchronized List<OrderListing> getOrders(String category, int offset, int limit) {
+        return slice(byCategory.get(category), null, offset, limit);
+    }
+
+    /**
+     * Page d'ordres ACTIFS d'une catégorie, dans l'ordre d'affichage des menus
+     */
+    public synchronized List<OrderListing> getActiveOrders(String category, int offset, int limit) {
+        return slice(byCategory.get(category), OrderListing::isActive, offset, limit);
+    }
+
+    /**
+     * Meilleures offres actives pour un item (prix unitaire décroissant)
+     */
+    public synchronized List<OrderListing> getBestOrdersForItem(String itemId, int limit) {
+        return slice(byItem.get(itemId), OrderListing::isActive, 0, limit);
+    }
+
+    /**
+     * Premier ordre d'une catégorie (ordre d'affichage) qui satisfait le filtre
+     */
+    public synchronized OrderListing find(String category, Predicate<OrderListing> filter) {
+        NavigableSet<OrderListing> orders = byCategory.get(category);
+        if (orders == null) {
+            return null;
+        }
+        for (OrderListing order : orders) {
+            if (filter.test(order)) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    public synchronized int countOrders(String category) {
+        NavigableSet<OrderListing> orders = byCategory.get(category);
+        return orders == null ? 0 : orders.size();
+    }
+
+    public synchronized int countActiveOrders(String category) {
+        return activeByCategory.getOrDefault(category, 0);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private List<OrderListing> slice(NavigableSet<OrderListing> orders, Predicate<OrderListing> filter,
+                                     int offset, int limit) {
+        if (orders == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<OrderListing> result = new ArrayList<>(Math.min(limit, orders.size()));
+        int skipped = 0;
+        Iterator<OrderListing> it = orders.iterator();
+        while (it.hasNext() && result.size() < limit) {
+            OrderListing order = it.next();
+            if (filter != null && !filter.test(order)) continue;
+            if (skipped++ < offset) continue;
+            result.add(order);
+        }
+        return result;
+    }
+
+    // ===== Écriture =====
+
+    /**
+     * Ajoute (ou remplace) un ordre
+     */
+    public void add(OrderListing order) {
+        synchronized (this) {
+            OrderListing previous = byId.get(order.getOrderId());
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(order);
+        }
+        markDirty(order.getOrderId());
+    }
+
+    /**
+     * Supprime un ordre
+     *
+     * @return l'ordre supprimé, ou null s'il n'existait pas
+     */
+    public OrderListing remove(String orderId) {
+        OrderListing removed;
+        synchronized (this) {
+            removed = byId.get(orderId);
+            if (removed == null) {
+                return null;
+            }
+            unindex(removed);
+        }
+        markDirty(orderId);
+        return removed;
+    }
+
+    /**
+     * Change le statut d'un ordre (ex: INVALID)
+     */
+    public boolean setStatus(String orderId, String status) {
+        synchronized (this) {
+            OrderListing current = byId.get(orderId);
+            if (current == null) {
+                return false;
+            }
+            unindex(current);
+            index(current.withStatus(status));
+        }
+        markDirty(orderId);
+        return true;
+    }
+
+    private void index(OrderListing order) {
+        byId.put(order.getOrderId(), order);
+        byCategory.computeIfAbsent(order.getCategory(), k -> new TreeSet<>(CATEGORY_ORDER)).add(order);
+        byItem.computeIfAbsent(order.getItemId(), k -> new TreeSet<>(PRICE_ORDER)).add(order);
+        if (order.isActive()) {
+            activeByCategory.merge(order.getCategory(), 1, Integer::sum);
+        }
+    }
+
+    private void unindex(OrderListing order) {
+        byId.remove(order.getOrderId());
+        removeFrom(byCategory, order.getCategory(), order);
+        removeFrom(byItem, order.getItemId(), order);
+        if (order.isActive()) {
+            activeByCategory.computeIfPresent(order.getCategory(), (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static void removeFrom(Map<String, NavigableSet<OrderListing>> index, String key, OrderListing order) {
+        NavigableSet<OrderListing> set = index.get(key);
+        if (set != null && set.remove(order) && set.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // ===== Persistance =====
+
+    private void markDirty(String orderId) {
+        dirty.add(orderId);
+        requestFlush();
+    }
+
+    /**
+     * Planifie un flush sur l'exécuteur DB
+     * (un seul en file à la fois, il écrira l'état le plus récent des ordres marqués)
+     */
+    private void requestFlush() {
+        if (!flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        plugin.getDatabaseManager().runAsync(() -> {
+            flushQueued.set(false);
+            flushNow();
+        });
+    }
+
+    /**
+     * Écrit les ordres modifiés sur le thread appelant (arrêt du serveur)
+     */
+    public void save() {
+        flushNow();
+    }
+
+    /**
+     * Écrit les ordres marqués sur le thread appelant. Le carnet n'est verrouillé que le temps
+     * de copier les ordres concernés ; la sérialisation et le SQL se font hors du verrou.
+     * Sérialisé par un verrou pour qu'un flush plus ancien n'écrase jamais un état plus récent.
+     *
+     * @return nombre d'ordres écrits ou supprimés, -1 en cas d'échec
+     */
+    private int flushNow() {
+        synchronized (flushLock) {
+            if (dirty.isEmpty()) {
+                return 0;
+            }
+            if (yamlStorage) {
+                return saveYaml();
+            }
+            if (!plugin.getDatabaseManager().isConnected()) {
+                return 0;
+            }
+
+            // Les ids sont retirés avant lecture : une modification concurrente les re-marque
+            List<String> ids = new ArrayList<>(dirty.size());
+            for (String id : dirty) {
+                if (dirty.remove(id)) {
+                    ids.add(id);
+                }
+            }
+            List<OrderListing> current = new ArrayList<>(ids.size());
+            synchronized (this) {
+                for (String id : ids) {
+                    current.add(byId.get(id));
+                }
+            }
+
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL);
+                     PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+                    for (int i = 0; i < ids.size(); i++) {
+                        OrderListing order = current.get(i);
+                        if (order == null) {
+                            delete.setString(1, ids.get(i));
+                            delete.addBatch();
+                        } else {
+                            addToBatch(upsert, order);
+                        }
+                    }
+                    upsert.executeBatch();
+                    delete.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                return ids.size();
+            } catch (SQLException e) {
+                plugin.getQuantumLogger().error("Failed to flush " + ids.size() + " orders: " + e.getMessage());
+                // Rien n'a été commité : on remet les ids pour le prochain flush
+                dirty.addAll(ids);
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Réécrit orders.yml avec l'état courant du carnet (stockage de repli, sous le verrou du flush)
+     *
+     * @return nombre d'ordres marqués pris en compte, -1 en cas d'échec
+     */
+    private int saveYaml() {
+        List<String> ids = new ArrayList<>(dirty.size());
+        for (String id : dirty) {
+            if (dirty.remove(id)) {
+                ids.add(id);
+            }
+        }
+
+        YamlConfiguration config = new YamlConfiguration();
+        synchronized (this) {
+            for (OrderListing order : byId.values()) {
+                order.writeTo(config.createSection(order.getCategory() + "." + order.getOrderId()));
+            }
+        }
+
+        File tmpFile = new File(ordersFile.getParentFile(), ordersFile.getName() + ".tmp");
+        try {
+            Files.writeString(tmpFile.toPath(), config.saveToString(), StandardCharsets.UTF_8);
+            Files.move(tmpFile.toPath(), ordersFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return ids.size();
+        } catch (IOException e) {
+            plugin.getQuantumLogger().error("Failed to save orders.yml: " + e.getMessage());
+            dirty.addAll(ids);
+            return -1;
+        }
+    }
+
+    private static void addToBatch(PreparedStatement upsert, OrderListing order) throws SQLException {
+        upsert.setString(1, order.getOrderId());
+        upsert.setString(2, order.getCategory());
+        if (order.getType() != null) {
+            upsert.setString(3, order.getType());
+        } else {
+            upsert.setNull(3, Types.VARCHAR);
+        }
+        upsert.setString(4, order.getOrderer());
+        upsert.setString(5, order.getOrdererUuid());
+        upsert.setString(6, order.getItemId());
+        upsert.setInt(7, order.getQuantity());
+        upsert.setDouble(8, order.getPricePerUnit());
+        upsert.setDouble(9, order.getTotalPrice());
+        upsert.setLong(10, order.getCreatedAt());
+        upsert.setString(11, order.getStatus());
+        upsert.addBatch();
+    }
+}
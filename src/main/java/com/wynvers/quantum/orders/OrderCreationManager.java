@@ -112,40 +112,23 @@ public class OrderCreationManager {
             return false;
         }
         
-        // Sauvegarder l'offre dans orders.yml
-        File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-        YamlConfiguration ordersConfig;
-        
-        if (ordersFile.exists()) {
-            ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
-        } else {
-            ordersConfig = new YamlConfiguration();
-        }
+        // Publier l'offre dans le carnet d'ordres (persisté en asynchrone dans quantum_orders)
+        OrderBook orderBook = plugin.getOrderManager().getOrderBook();
         
         // PATCH: Générer un UUID unique et l'utiliser COMPLET comme clé
         UUID orderUUID = UUID.randomUUID();
         String orderId = orderUUID.toString(); // UUID complet pour éviter collisions
-        String path = category + "." + orderId;
         
-        // Stocker les infos de l'ordre
-        ordersConfig.set(path + ".orderer", player.getName());
-        ordersConfig.set(path + ".orderer_uuid", player.getUniqueId().toString());
-        ordersConfig.set(path + ".item", session.getItemId()); // Format: minecraft:stone ou nexo:custom_item
-        ordersConfig.set(path + ".quantity", session.getQuantity());
-        ordersConfig.set(path + ".price_per_unit", session.getPrice());
-        ordersConfig.set(path + ".total_price", totalPrice);
-        ordersConfig.set(path + ".created_at", System.currentTimeMillis());
-        ordersConfig.set(path + ".status", "ACTIVE"); // ACTIVE, COMPLETED, CANCELLED
+        // Stocker les infos de l'ordre (item au format minecraft:stone ou nexo:custom_item)
+        orderBook.add(OrderListing.create(orderUUID, category, null, player.getName(), player.getUniqueId(),
+                session.getItemId(), session.getQuantity(), session.getPrice(), totalPrice));
         
         try {
-            ordersConfig.save(ordersFile);
-            
             // === ÉTAPE 1: RETRAIT D'ARGENT ===
             if (!plugin.getVaultManager().withdraw(player, totalPrice)) {
                 // Le retrait a échoué, supprimer l'ordre créé
                 plugin.getMessageManager().sendMessage(player, "order-creation.withdrawal-error");
-                ordersConfig.set(path, null);
-                ordersConfig.save(ordersFile);
+                orderBook.remove(orderId);
                 cancelOrder(player);
                 return false;
             }
@@ -155,8 +138,7 @@ public class OrderCreationManager {
                 // Le dépôt a échoué, rembourser le joueur
                 plugin.getMessageManager().sendMessage(player, "order-creation.escrow-deposit-error");
                 plugin.getVaultManager().deposit(player, totalPrice);
-                ordersConfig.set(path, null);
-                ordersConfig.save(ordersFile);
+                orderBook.remove(orderId);
                 cancelOrder(player);
                 return false;
             }
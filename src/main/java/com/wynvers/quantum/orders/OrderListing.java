@@ -0,0 +1,142 @@
+package com.wynvers.quantum.orders;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.UUID;
+
+/**
+ * Ordre publié sur le marché (une ligne de quantum_orders)
+ *
+ * Immuable : un changement de statut produit une nouvelle instance,
+ * ce qui permet à l'OrderBook de la réindexer et de l'écrire hors du thread principal.
+ */
+public final class OrderListing {
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+
+    private final String orderId;
+    private final String category;
+    private final String type;
+    private final String orderer;
+    private final String ordererUuid;
+    private final String itemId;
+    private final int quantity;
+    private final double pricePerUnit;
+    private final double totalPrice;
+    private final long createdAt;
+    private final String status;
+
+    public OrderListing(String orderId, String category, String type, String orderer, String ordererUuid,
+                        String itemId, int quantity, double pricePerUnit, double totalPrice,
+                        long createdAt, String status) {
+        this.orderId = orderId;
+        this.category = category;
+        this.type = type;
+        this.orderer = orderer;
+        this.ordererUuid = ordererUuid;
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.pricePerUnit = pricePerUnit;
+        this.totalPrice = totalPrice;
+        this.createdAt = createdAt;
+        this.status = status;
+    }
+
+    /**
+     * Crée un nouvel ordre actif pour un joueur
+     */
+    public static OrderListing create(UUID orderUUID, String category, String type, String orderer, UUID ordererUuid,
+                                      String itemId, int quantity, double pricePerUnit, double totalPrice) {
+        return new OrderListing(orderUUID.toString(), category, type, orderer, ordererUuid.toString(),
+                itemId, quantity, pricePerUnit, totalPrice, System.currentTimeMillis(), STATUS_ACTIVE);
+    }
+
+    /**
+     * Lit un ordre depuis sa section dans orders.yml (category.orderId) : import, ou stockage de repli sans MySQL
+     */
+    static OrderListing fromSection(String category, String orderId, ConfigurationSection section) {
+        return new OrderListing(
+                orderId,
+                category,
+                section.getString("type"),
+                section.getString("orderer", "Unknown"),
+                section.getString("orderer_uuid"),
+                section.getString("item", "minecraft:stone"),
+                section.getInt("quantity", 0),
+                section.getDouble("price_per_unit", 0.0),
+                section.getDouble("total_price", 0.0),
+                section.getLong("created_at", System.currentTimeMillis()),
+                section.getString("status", STATUS_ACTIVE)
+        );
+    }
+
+    /**
+     * Écrit l'ordre dans sa section de orders.yml (stockage de repli sans MySQL)
+     */
+    void writeTo(ConfigurationSection section) {
+        if (type != null) {
+            section.set("type", type);
+        }
+        section.set("orderer", orderer);
+        section.set("orderer_uuid", ordererUuid);
+        section.set("item", itemId);
+        section.set("quantity", quantity);
+        section.set("price_per_unit", pricePerUnit);
+        section.set("total_price", totalPrice);
+        section.set("created_at", createdAt);
+        section.set("status", status);
+    }
+
+        public OrderListing withStatus(String newStatus) {
+        return new OrderListing(orderId, category, type, orderer, ordererUuid, itemId,
+                quantity, pricePerUnit, totalPrice, createdAt, newStatus);
+    }
+
+    public boolean isActive() {
+        return STATUS_ACTIVE.equals(status);
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getOrderer() {
+        return orderer;
+    }
+
+    public String getOrdererUuid() {
+        return ordererUuid;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getPricePerUnit() {
+        return pricePerUnit;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
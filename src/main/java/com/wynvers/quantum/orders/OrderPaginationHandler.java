@@ -1,10 +1,8 @@
 package com.wynvers.quantum.orders;
 
 import com.wynvers.quantum.Quantum;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
-import java.io.File;
 import java.util.*;
 
 /**
@@ -123,70 +121,23 @@ public class OrderPaginationHandler {
      * Compte le nombre total d'ordres ACTIFS dans une catégorie
      */
     private int getTotalOrders(String category) {
-        File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-        if (!ordersFile.exists()) return 0;
-        
-        YamlConfiguration ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
-        
-        if (!ordersConfig.contains(category)) return 0;
-        
-        Set<String> orderIds = ordersConfig.getConfigurationSection(category).getKeys(false);
-        
-        // Compter uniquement les ordres ACTIFS
-        int count = 0;
-        for (String orderId : orderIds) {
-            String status = ordersConfig.getString(category + "." + orderId + ".status", "ACTIVE");
-            if ("ACTIVE".equals(status)) {
-                count++;
-            }
-        }
-        
-        return count;
+        return plugin.getOrderManager().getOrderBook().countActiveOrders(category);
     }
     
     /**
      * Récupère les ordres ACTIFS pour une page spécifique
+     * (même ordre que l'affichage du menu : item, puis prix décroissant)
      * 
      * @param category Catégorie
      * @param page Numéro de page (démarre à 0)
      * @return Liste des orderIds pour cette page
      */
     public List<String> getOrdersForPage(String category, int page) {
-        File ordersFile = new File(plugin.getDataFolder(), "orders.yml");
-        if (!ordersFile.exists()) return new ArrayList<>();
-        
-        YamlConfiguration ordersConfig = YamlConfiguration.loadConfiguration(ordersFile);
-        
-        if (!ordersConfig.contains(category)) return new ArrayList<>();
-        
-        Set<String> orderIds = ordersConfig.getConfigurationSection(category).getKeys(false);
-        
-        // Filtrer les ordres ACTIFS et les trier par timestamp
-        List<OrderEntry> activeOrders = new ArrayList<>();
-        for (String orderId : orderIds) {
-            String path = category + "." + orderId;
-            String status = ordersConfig.getString(path + ".status", "ACTIVE");
-            
-            if ("ACTIVE".equals(status)) {
-                long timestamp = ordersConfig.getLong(path + ".timestamp", 0);
-                activeOrders.add(new OrderEntry(orderId, timestamp));
-            }
-        }
-        
-        // Trier par timestamp (plus récent en premier)
-        activeOrders.sort((a, b) -> Long.compare(b.timestamp, a.timestamp));
-        
-        // Pagination
-        int start = page * ORDERS_PER_PAGE;
-        int end = Math.min(start + ORDERS_PER_PAGE, activeOrders.size());
-        
-        if (start >= activeOrders.size()) return new ArrayList<>();
-        
         List<String> result = new ArrayList<>();
-        for (int i = start; i < end; i++) {
-            result.add(activeOrders.get(i).orderId);
+        for (OrderListing order : plugin.getOrderManager().getOrderBook()
+                .getActiveOrders(category, page * ORDERS_PER_PAGE, ORDERS_PER_PAGE)) {
+            result.add(order.getOrderId());
         }
-        
         return result;
     }
     
@@ -213,17 +164,4 @@ public class OrderPaginationHandler {
     public String getTotalOrdersPlaceholder(String category) {
         return String.valueOf(getTotalOrders(category));
     }
-    
-    /**
-     * Classe interne pour stocker un ordre avec son timestamp
-     */
-    private static class OrderEntry {
-        final String orderId;
-        final long timestamp;
-        
-        OrderEntry(String orderId, long timestamp) {
-            this.orderId = orderId;
-            this.timestamp = timestamp;
-        }
-    }
 }
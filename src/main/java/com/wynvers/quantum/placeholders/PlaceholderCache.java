@@ -0,0 +1,235 @@
+package com.wynvers.quantum.placeholders;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache des valeurs de placeholders, par joueur et par placeholder
+ *
+ * Chaque placeholder a sa durée de vie (config placeholders.cache.ttl-ms), par nom exact
+ * ou par préfixe le plus long ("eco_", "tower_storage_"...). Une durée de 0 désactive le cache.
+ *
+ * Les sous-systèmes invalident eux-mêmes une famille quand ils modifient l'état d'un joueur
+ * (solde, storage, progression de tour...). Une valeur calculée pendant une invalidation
+ * n'est pas mise en cache : chaque joueur porte un numéro de génération incrémenté à chaque invalidation.
+ *
+ * Les entrées par joueur ne sont créées qu'à la connexion et retirées à la déconnexion : une
+ * requête async arrivée après le départ d'un joueur n'est simplement pas mise en cache.
+ */
+public class PlaceholderCache implements Listener {
+
+    // Au-delà, les TTL ne sont plus mémorisés (noms de placeholders arbitraires, ex. par item)
+    private static final int MAX_RESOLVED_TTLS = 4096;
+    // Génération d'un joueur sans entrée (hors ligne) : put() l'ignore
+    private static final long NO_GENERATION = -1L;
+
+    private final Map<UUID, PlayerValues> players = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled = true;
+    private volatile long defaultTtlMs;
+    private volatile Map<String, Long> configuredTtls = Map.of();
+    // TTL résolu par nom de placeholder (évite de parcourir les préfixes à chaque appel)
+    private final Map<String, Long> resolvedTtls = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Lit la section placeholders.cache de config.yml
+     */
+    public void load(ConfigurationSection section) {
+        clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            players.put(player.getUniqueId(), new PlayerValues());
+        }
+        if (section == null) {
+            enabled = false;
+            return;
+        }
+
+        enabled = section.getBoolean("enabled", true);
+        defaultTtlMs = Math.max(0L, section.getLong("default-ttl-ms", 0L));
+
+        Map<String, Long> ttls = new HashMap<>();
+        ConfigurationSection ttlSection = section.getConfigurationSection("ttl-ms");
+        if (ttlSection != null) {
+            for (String key : ttlSection.getKeys(false)) {
+                ttls.put(key, Math.max(0L, ttlSection.getLong(key)));
+            }
+        }
+        configuredTtls = ttls;
+    }
+
+    /**
+     * Durée de vie d'un placeholder (0 = pas de cache)
+     */
+    public long getTtl(String params) {
+        if (!enabled) {
+            return 0L;
+        }
+        Long ttl = resolvedTtls.get(params);
+        if (ttl == null) {
+            ttl = computeTtl(params);
+            if (resolvedTtls.size() < MAX_RESOLVED_TTLS) {
+                resolvedTtls.put(params, ttl);
+            }
+        }
+        return ttl;
+    }
+
+    private long computeTtl(String params) {
+        Map<String, Long> ttls = configuredTtls;
+        Long exact = ttls.get(params);
+        if (exact != null) {
+            return exact;
+        }
+        String bestPrefix = null;
+        for (String key : ttls.keySet()) {
+            if (params.startsWith(key) && (bestPrefix == null || key.length() > bestPrefix.length())) {
+                bestPrefix = key;
+            }
+        }
+        return bestPrefix != null ? ttls.get(bestPrefix) : defaultTtlMs;
+    }
+
+    /**
+     * Numéro de génération à relever AVANT de calculer une valeur, puis à passer à {@link #put}
+     */
+    public long generation(UUID uuid) {
+        PlayerValues values = players.get(uuid);
+        return values != null ? values.generation.get() : NO_GENERATION;
+    }
+
+    /**
+     * @return la valeur en cache, ou null si absente ou expirée
+     */
+    public String get(UUID uuid, String params) {
+        PlayerValues values = players.get(uuid);
+        if (values != null) {
+            Entry entry = values.entries.get(params);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(UUID uuid, String params, String value, long ttlMs, long generation) {
+        PlayerValues values = players.get(uuid);
+        if (values == null || values.generation.get() != generation) {
+            // Invalidé pendant le calcul : la valeur est peut-être déjà périmée
+            return;
+        }
+        values.entries.put(params, new Entry(value, System.currentTimeMillis() + ttlMs));
+    }
+
+    // ===== Invalidation =====
+
+    /**
+     * Oublie les placeholders d'un joueur commençant par l'un des préfixes
+     */
+    public void invalidate(UUID uuid, String... prefixes) {
+        PlayerValues values = players.get(uuid);
+        if (values == null) {
+            return;
+        }
+        values.generation.incrementAndGet();
+        values.entries.keySet().removeIf(params -> startsWithAny(params, prefixes));
+        invalidations.increment();
+    }
+
+    /**
+     * Oublie une famille pour tous les joueurs (état global : classement, config...)
+     */
+    public void invalidateAll(String... prefixes) {
+        for (UUID uuid : players.keySet()) {
+            invalidate(uuid, prefixes);
+        }
+    }
+
+    public void clear() {
+        players.clear();
+        resolvedTtls.clear();
+    }
+
+    private static boolean startsWithAny(String params, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (params.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        players.putIfAbsent(event.getPlayer().getUniqueId(), new PlayerValues());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        players.remove(event.getPlayer().getUniqueId());
+    }
+
+    // ===== Statistiques =====
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (h * 100.0) / total;
+    }
+
+    public int getCachedValueCount() {
+        int count = 0;
+        for (PlayerValues values : players.values()) {
+            count += values.entries.size();
+        }
+        return count;
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        invalidations.reset();
+    }
+
+    private static final class PlayerValues {
+        final AtomicLong generation = new AtomicLong();
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    }
+
+    private record Entry(String value, long expiresAt) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.wynvers.quantum.placeholders;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Résout un placeholder interne pour un joueur
+ *
+ * Enregistré dans le {@link com.wynvers.quantum.managers.PlaceholderManager} soit pour
+ * un nom exact ("mode"), soit pour une famille ("tower_").
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+
+    /**
+     * @param player Joueur (jamais null)
+     * @param params Nom du placeholder sans les % ni le préfixe "quantum_"
+     * @return La valeur, ou null pour laisser le placeholder tel quel
+     */
+    String resolve(Player player, String params);
+}
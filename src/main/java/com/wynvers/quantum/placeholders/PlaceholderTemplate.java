@@ -0,0 +1,158 @@
+package com.wynvers.quantum.placeholders;
+
+import com.wynvers.quantum.managers.PlaceholderManager;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chaîne compilée une seule fois en segments littéraux et placeholders
+ *
+ * Les formats Java (%s, %d, %.2f...) restent du texte littéral, comme avant.
+ * Une chaîne sans placeholder est rendue telle quelle, sans allocation.
+ */
+public final class PlaceholderTemplate {
+
+    private static final String VANILLA_FORMAT_CHARS = "sdfnxoeghabc";
+
+    private final String source;
+    // literals.length == names.length + 1 : littéral, placeholder, littéral, ...
+    private final String[] literals;
+    private final String[] names;      // contenu brut entre les %, pour les placeholders personnalisés
+    private final String[] params;     // nom normalisé (sans "quantum_") pour le registre
+    private final String[] originals;  // "%nom%" restitué si le placeholder est inconnu
+
+    private PlaceholderTemplate(String source, String[] literals, String[] names, String[] params, String[] originals) {
+        this.source = source;
+        this.literals = literals;
+        this.names = names;
+        this.params = params;
+        this.originals = originals;
+    }
+
+    /**
+     * Découpe une chaîne en segments
+     */
+    public static PlaceholderTemplate compile(String text) {
+        int length = text.length();
+        boolean[] vanilla = findVanillaFormats(text);
+
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (i < length) {
+            if (text.charAt(i) != '%') {
+                i++;
+                continue;
+            }
+            if (vanilla[i]) {
+                i += 2;
+                continue;
+            }
+            int end = nextDelimiter(text, vanilla, i + 1);
+            if (end < 0) {
+                break;
+            }
+            if (end == i + 1) {
+                // "%%" : le second % peut ouvrir un placeholder
+                i = end;
+                continue;
+            }
+            literals.add(text.substring(literalStart, i));
+            names.add(text.substring(i + 1, end));
+            i = end + 1;
+            literalStart = i;
+        }
+        literals.add(text.substring(literalStart));
+
+        int count = names.size();
+        String[] params = new String[count];
+        String[] originals = new String[count];
+        for (int n = 0; n < count; n++) {
+            String name = names.get(n);
+            params[n] = name.startsWith("quantum_") ? name.substring(8) : name;
+            originals[n] = "%" + name + "%";
+        }
+        return new PlaceholderTemplate(text, literals.toArray(new String[0]), names.toArray(new String[0]),
+                params, originals);
+    }
+
+    /**
+     * Repère les % qui introduisent un format Java (%s, %d...) non suivi d'un caractère de mot
+     */
+    private static boolean[] findVanillaFormats(String text) {
+        int length = text.length();
+        boolean[] vanilla = new boolean[length];
+        int i = 0;
+        while (i < length - 1) {
+            if (text.charAt(i) == '%' && VANILLA_FORMAT_CHARS.indexOf(text.charAt(i + 1)) >= 0
+                    && (i + 2 >= length || !isWordChar(text.charAt(i + 2)))) {
+                vanilla[i] = true;
+                i += 2;
+            } else {
+                i++;
+            }
+        }
+        return vanilla;
+    }
+
+    private static int nextDelimiter(String text, boolean[] vanilla, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == '%' && !vanilla[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * true si la chaîne ne contient aucun placeholder
+     */
+    public boolean isConstant() {
+        return names.length == 0;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Rend la chaîne pour un joueur
+     *
+     * @param customPlaceholders Valeurs prioritaires indexées par nom brut (peut être null)
+     */
+    public String render(PlaceholderManager manager, Player player, Map<String, String> customPlaceholders) {
+        if (names.length == 0) {
+            return source;
+        }
+
+        StringBuilder result = new StringBuilder(source.length() + 16);
+        for (int n = 0; n < names.length; n++) {
+            result.append(literals[n]);
+
+            String value = null;
+            if (customPlaceholders != null && customPlaceholders.containsKey(names[n])) {
+                value = customPlaceholders.get(names[n]);
+                if (value == null) {
+                    value = "";
+                } else if (value.indexOf('%') >= 0) {
+                    // Une valeur personnalisée peut elle-même contenir des placeholders
+                    value = manager.parse(player, value);
+                }
+            }
+            if (value == null) {
+                value = manager.resolvePlaceholder(player, params[n]);
+            }
+            result.append(value != null ? value : originals[n]);
+        }
+        result.append(literals[names.length]);
+        return result.toString();
+    }
+}
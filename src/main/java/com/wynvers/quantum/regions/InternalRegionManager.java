@@ -4,17 +4,23 @@ import com.wynvers.quantum.Quantum;
 import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Manages internal regions (replaces WorldGuard dependency)
  * Loads and queries regions from configuration
+ * Point lookups go through a chunk-keyed {@link RegionIndex}
  */
 public class InternalRegionManager {
     
     private final Quantum plugin;
     private final Map<String, InternalRegion> regions;
+    private final RegionIndex index = new RegionIndex();
+    // Incrémenté à chaque modification : permet aux index externes de se savoir périmés
+    private int version;
     
     public InternalRegionManager(Quantum plugin) {
         this.plugin = plugin;
@@ -26,7 +32,12 @@ public class InternalRegionManager {
      * @param region Region to register
      */
     public void registerRegion(InternalRegion region) {
-        regions.put(region.getId().toLowerCase(), region);
+        InternalRegion previous = regions.put(region.getId().toLowerCase(), region);
+        if (previous != null) {
+            index.remove(previous);
+        }
+        index.add(region);
+        version++;
         plugin.getQuantumLogger().info("Registered region: " + region.getId());
     }
     
@@ -40,23 +51,25 @@ public class InternalRegionManager {
     }
     
     /**
-     * Get the first region that contains the given location
+     * Get all registered regions
+     * @return Unmodifiable view of the regions
+     */
+    public Collection<InternalRegion> getRegions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+    
+    /**
+     * Get the first registered region that contains the given location
      * @param loc Location to check
      * @return Region ID or null if no region contains the location
      */
     public String getRegionAt(Location loc) {
-        if (loc == null) {
+        if (loc == null || loc.getWorld() == null) {
             return null;
         }
         
-        // Check all regions and return the first one that contains the location
-        for (InternalRegion region : regions.values()) {
-            if (region.contains(loc)) {
-                return region.getId();
-            }
-        }
-        
-        return null;
+        InternalRegion region = index.find(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        return region != null ? region.getId() : null;
     }
     
     /**
@@ -120,6 +133,15 @@ public class InternalRegionManager {
      */
     public void clear() {
         regions.clear();
+        index.clear();
+        version++;
+    }
+    
+    /**
+     * Compteur de modifications (enregistrement, vidage) des régions
+     */
+    public int getVersion() {
+        return version;
     }
     
     /**
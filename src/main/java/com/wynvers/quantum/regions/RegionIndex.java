@@ -0,0 +1,142 @@
+package com.wynvers.quantum.regions;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spatial index of internal regions: per world, chunk key -> regions overlapping that chunk.
+ *
+ * A lookup only tests the few regions of one chunk instead of every region on the server.
+ * Regions covering more than {@link #MAX_INDEXED_CHUNKS} chunks are kept in a short
+ * per-world list checked on every lookup, so a huge region cannot blow up the map.
+ *
+ * When several regions contain the point, the first registered one wins.
+ */
+final class RegionIndex {
+
+    private static final int MAX_INDEXED_CHUNKS = 4096;
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private record Entry(InternalRegion region, long order) {
+    }
+
+    private static final class WorldBuckets {
+        final Map<Long, Entry[]> chunks = new HashMap<>();
+        Entry[] oversized = NO_ENTRIES;
+    }
+
+    private final Map<String, WorldBuckets> worlds = new HashMap<>();
+    private long nextOrder;
+
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    void add(InternalRegion region) {
+        Entry entry = new Entry(region, nextOrder++);
+        WorldBuckets buckets = worlds.computeIfAbsent(region.getWorldName(), k -> new WorldBuckets());
+
+        int minChunkX = region.getMinX() >> 4;
+        int maxChunkX = region.getMaxX() >> 4;
+        int minChunkZ = region.getMinZ() >> 4;
+        int maxChunkZ = region.getMaxZ() >> 4;
+        long chunkCount = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+
+        if (chunkCount > MAX_INDEXED_CHUNKS) {
+            buckets.oversized = append(buckets.oversized, entry);
+            return;
+        }
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                buckets.chunks.merge(chunkKey(cx, cz), new Entry[]{entry}, RegionIndex::concat);
+            }
+        }
+    }
+
+    void remove(InternalRegion region) {
+        WorldBuckets buckets = worlds.get(region.getWorldName());
+        if (buckets == null) {
+            return;
+        }
+        buckets.oversized = without(buckets.oversized, region);
+        buckets.chunks.replaceAll((key, entries) -> without(entries, region));
+        buckets.chunks.values().removeIf(entries -> entries.length == 0);
+        if (buckets.chunks.isEmpty() && buckets.oversized.length == 0) {
+            worlds.remove(region.getWorldName());
+        }
+    }
+
+    void clear() {
+        worlds.clear();
+        nextOrder = 0;
+    }
+
+    /**
+     * First registered region containing the block, or null
+     */
+    InternalRegion find(String worldName, int x, int y, int z) {
+        WorldBuckets buckets = worlds.get(worldName);
+        if (buckets == null) {
+            return null;
+        }
+
+        Entry best = firstMatch(buckets.chunks.get(chunkKey(x >> 4, z >> 4)), x, y, z);
+        Entry oversized = firstMatch(buckets.oversized, x, y, z);
+        if (oversized != null && (best == null || oversized.order < best.order)) {
+            best = oversized;
+        }
+        return best != null ? best.region : null;
+    }
+
+    // Arrays are kept in registration order: the first match is the oldest region
+    private static Entry firstMatch(Entry[] entries, int x, int y, int z) {
+        if (entries == null) {
+            return null;
+        }
+        for (Entry entry : entries) {
+            if (contains(entry.region, x, y, z)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static boolean contains(InternalRegion region, int x, int y, int z) {
+        return x >= region.getMinX() && x <= region.getMaxX()
+            && y >= region.getMinY() && y <= region.getMaxY()
+            && z >= region.getMinZ() && z <= region.getMaxZ();
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+        copy[entries.length] = entry;
+        return copy;
+    }
+
+    private static Entry[] concat(Entry[] first, Entry[] second) {
+        Entry[] copy = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, copy, first.length, second.length);
+        return copy;
+    }
+
+    private static Entry[] without(Entry[] entries, InternalRegion region) {
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.region != region) {
+                count++;
+            }
+        }
+        if (count == entries.length) {
+            return entries;
+        }
+        Entry[] copy = new Entry[count];
+        int i = 0;
+        for (Entry entry : entries) {
+            if (entry.region != region) {
+                copy[i++] = entry;
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,69 @@
+package com.wynvers.quantum.session;
+
+import com.wynvers.quantum.levels.PlayerLevelData;
+import com.wynvers.quantum.storage.PlayerStorage;
+import com.wynvers.quantum.storage.upgrades.StorageUpgradeManager;
+import com.wynvers.quantum.towers.storage.PlayerTowerStorage;
+
+import java.util.UUID;
+
+/**
+ * Données d'un joueur chargées avant son arrivée sur le serveur
+ *
+ * Construite entièrement sur le thread de pré-connexion puis publiée d'un bloc :
+ * tant qu'elle n'est pas publiée, aucun code ne la voit ; une fois publiée, ses
+ * références ne changent plus (les objets eux-mêmes restent ceux des managers).
+ */
+public final class PlayerSession {
+
+    private final UUID uuid;
+    private final PlayerStorage storage;
+    private final PlayerTowerStorage towerStorage;
+    private final StorageUpgradeManager.StorageState upgrades;
+    private final StorageUpgradeManager.StorageState towerUpgrades;
+    private final PlayerLevelData level;
+    private final long loadTimeMs;
+
+    PlayerSession(UUID uuid, PlayerStorage storage, PlayerTowerStorage towerStorage,
+                  StorageUpgradeManager.StorageState upgrades, StorageUpgradeManager.StorageState towerUpgrades,
+                  PlayerLevelData level, long loadTimeMs) {
+        this.uuid = uuid;
+        this.storage = storage;
+        this.towerStorage = towerStorage;
+        this.upgrades = upgrades;
+        this.towerUpgrades = towerUpgrades;
+        this.level = level;
+        this.loadTimeMs = loadTimeMs;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public PlayerStorage getStorage() {
+        return storage;
+    }
+
+    public PlayerTowerStorage getTowerStorage() {
+        return towerStorage;
+    }
+
+    public StorageUpgradeManager.StorageState getUpgrades() {
+        return upgrades;
+    }
+
+    public StorageUpgradeManager.StorageState getTowerUpgrades() {
+        return towerUpgrades;
+    }
+
+    public PlayerLevelData getLevel() {
+        return level;
+    }
+
+    /**
+     * Durée du préchargement (ms)
+     */
+    public long getLoadTimeMs() {
+        return loadTimeMs;
+    }
+}
@@ -0,0 +1,227 @@
+package com.wynvers.quantum.session;
+
+import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.economy.BalanceLedger;
+import com.wynvers.quantum.levels.PlayerLevelData;
+import com.wynvers.quantum.storage.PlayerStorage;
+import com.wynvers.quantum.storage.upgrades.StorageUpgradeManager;
+import com.wynvers.quantum.towers.storage.PlayerTowerStorage;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Charge toutes les données d'un joueur pendant la pré-connexion
+ *
+ * Upgrades (storage et tour), storages, niveau, progression des tours et soldes sont lus sur UNE connexion,
+ * à la suite, depuis le thread async de pré-connexion. Le résultat est publié dans les
+ * managers puis exposé comme {@link PlayerSession} : une fois le joueur connecté,
+ * aucun accès depuis le thread principal ne déclenche de requête.
+ *
+ * Une session dont le joueur ne se connecte jamais (connexion refusée après la pré-connexion,
+ * client parti avant de rejoindre) est abandonnée et ses données déchargées.
+ */
+public class PlayerSessionLoader implements Listener {
+
+    private final Quantum plugin;
+    private final Map<UUID, PlayerSession> sessions = new ConcurrentHashMap<>();
+    // Sessions en cours de chargement : leurs données ne doivent pas être déchargées entre-temps
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
+
+    public PlayerSessionLoader(Quantum plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * HIGHEST : les autres plugins (bans, whitelist) ont déjà statué, et on peut encore refuser
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        UUID uuid = event.getUniqueId();
+        try {
+            PlayerSession session = load(uuid);
+            // Filet de sécurité si ni la connexion ni son refus ne sont jamais vus
+            long timeout = Math.max(1L, plugin.getConfig().getLong("database.preload.session-timeout-seconds", 60L));
+            Bukkit.getScheduler().runTaskLater(plugin, () -> drop(uuid, session), timeout * 20L);
+        } catch (SQLException e) {
+            plugin.getQuantumLogger().error("Failed to preload data for " + event.getName() + ": " + e.getMessage());
+            if (plugin.getConfig().getBoolean("database.preload.deny-on-failure", true)) {
+                event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, plugin.getConfig().getString(
+                        "database.preload.deny-message", "§cImpossible de charger vos données."));
+            }
+        }
+    }
+
+    /**
+     * Connexion refusée après la pré-connexion (serveur plein, whitelist...) : pas de quit à venir
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            UUID uuid = event.getPlayer().getUniqueId();
+            PlayerSession session = sessions.get(uuid);
+            if (session != null) {
+                drop(uuid, session);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        sessions.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Abandonne une session dont le joueur n'est pas connecté et décharge ses données
+     * (thread principal). Sans effet si la session a été remplacée ou si le joueur est en ligne.
+     */
+    private void drop(UUID uuid, PlayerSession session) {
+        if (Bukkit.getPlayer(uuid) != null || loading.contains(uuid) || !sessions.remove(uuid, session)) {
+            return;
+        }
+
+        plugin.getStorageManager().unload(uuid);
+        plugin.getStorageUpgradeManager().unload(uuid);
+        plugin.getTowerStorageUpgradeManager().unload(uuid);
+        plugin.getPlayerLevelManager().saveAndUnloadAsync(uuid);
+        // Sauvegarde synchrone du storage de tour : hors du thread principal
+        plugin.getDatabaseManager().runAsync(() -> plugin.getTowerStorageManager().unload(uuid));
+        if (plugin.getTowerManager() != null) {
+            plugin.getTowerManager().unloadProgress(uuid);
+        }
+        if (plugin.getTowerInventoryManager() != null) {
+            plugin.getTowerInventoryManager().cleanup(uuid);
+        }
+        BalanceLedger ledger = plugin.getVaultManager() != null ? plugin.getVaultManager().getLedger() : null;
+        if (ledger != null) {
+            ledger.release(uuid);
+        }
+    }
+
+    /**
+     * Précharge les joueurs déjà connectés (rechargement du plugin), hors du thread principal
+     */
+    public void preloadOnlinePlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID uuid = player.getUniqueId();
+            plugin.getDatabaseManager().runAsync(() -> {
+                try {
+                    load(uuid);
+                } catch (SQLException e) {
+                    plugin.getQuantumLogger().error("Failed to preload data for " + player.getName() + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Charge et publie la session d'un joueur (thread async uniquement)
+     */
+    public PlayerSession load(UUID uuid) throws SQLException {
+        loading.add(uuid);
+        try {
+            return loadSession(uuid);
+        } finally {
+            loading.remove(uuid);
+        }
+    }
+
+    /**
+     * Chaque manager lit sous son propre verrou d'écriture et garde les données déjà en mémoire
+     * (reconnexion avant la fin des écritures du quit) : aucune lecture ne voit une base en retard.
+     */
+    private PlayerSession loadSession(UUID uuid) throws SQLException {
+        long start = System.currentTimeMillis();
+
+        StorageUpgradeManager upgradeManager = plugin.getStorageUpgradeManager();
+        StorageUpgradeManager towerUpgradeManager = plugin.getTowerStorageUpgradeManager();
+
+        StorageUpgradeManager.StorageState upgrades;
+        StorageUpgradeManager.StorageState towerUpgrades;
+        PlayerStorage storage;
+        PlayerTowerStorage towerStorage;
+        PlayerLevelData level;
+
+        if (plugin.getDatabaseManager().isConnected()) {
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                // Upgrades d'abord : le chargement des storages plafonne les quantités avec
+                upgrades = upgradeManager.preload(conn, uuid);
+                towerUpgrades = towerUpgradeManager.preload(conn, uuid);
+
+                storage = plugin.getStorageManager().preload(conn, uuid);
+                towerStorage = plugin.getTowerStorageManager().preload(conn, uuid);
+                level = plugin.getPlayerLevelManager().preload(conn, uuid);
+                if (plugin.getTowerManager() != null) {
+                    plugin.getTowerManager().loadProgress(conn, uuid);
+                }
+
+                BalanceLedger ledger = plugin.getVaultManager() != null ? plugin.getVaultManager().getLedger() : null;
+                if (ledger != null) {
+                    ledger.preload(conn, uuid);
+                }
+            }
+        } else {
+            // Sans base : données vides, mais jamais de tentative de chargement plus tard
+            upgrades = upgradeManager.install(uuid, new StorageUpgradeManager.StorageState());
+            towerUpgrades = towerUpgradeManager.install(uuid, new StorageUpgradeManager.StorageState());
+            storage = plugin.getStorageManager().install(new PlayerStorage(uuid));
+            towerStorage = plugin.getTowerStorageManager().install(new PlayerTowerStorage(uuid));
+            level = plugin.getPlayerLevelManager().install(new PlayerLevelData(uuid, 1, 0));
+        }
+
+        // Inventaires de tour sauvegardés sur disque (serveur arrêté pendant une tour)
+        if (plugin.getTowerInventoryManager() != null) {
+            plugin.getTowerInventoryManager().preload(uuid);
+        }
+
+        PlayerSession session = new PlayerSession(
+                uuid,
+                storage,
+                towerStorage,
+                upgrades,
+                towerUpgrades,
+                level,
+                System.currentTimeMillis() - start);
+        sessions.put(uuid, session);
+        return session;
+    }
+
+    /**
+     * Session publiée du joueur, ou null si elle n'est pas (encore) chargée
+     */
+    public PlayerSession getSession(UUID uuid) {
+        return sessions.get(uuid);
+    }
+
+    public boolean hasSession(UUID uuid) {
+        return sessions.containsKey(uuid);
+    }
+
+    /**
+     * true si la session du joueur est publiée ou en cours de chargement :
+     * ses données en mémoire ne doivent pas être déchargées
+     */
+    public boolean isActive(UUID uuid) {
+        return loading.contains(uuid) || sessions.containsKey(uuid);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+}
@@ -8,6 +8,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Gestionnaire des statistiques globales du storage
@@ -22,37 +23,31 @@ public class StorageStatsManager {
     }
     
     /**
-     * Incrémenter le nombre d'items ajoutés au storage
+     * Incrémenter le nombre d'items ajoutés au storage (asynchrone)
      * @param amount Quantité ajoutée
      */
     public void incrementItemsStored(long amount) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            String query = "UPDATE storage_stats SET stat_value = stat_value + ? WHERE stat_key = 'total_items_stored'";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setLong(1, amount);
-                stmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to increment items stored: " + e.getMessage());
-        }
+        incrementStat("total_items_stored", amount);
     }
     
     /**
-     * Incrémenter le nombre d'items vendus depuis le storage
+     * Incrémenter le nombre d'items vendus depuis le storage (asynchrone)
      * @param amount Quantité vendue
      */
     public void incrementItemsSold(long amount) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            String query = "UPDATE storage_stats SET stat_value = stat_value + ? WHERE stat_key = 'total_items_sold'";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+        incrementStat("total_items_sold", amount);
+    }
+    
+    private void incrementStat(String key, long amount) {
+        if (amount == 0) return;
+        plugin.getDatabaseManager().execute("increment " + key, conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE storage_stats SET stat_value = stat_value + ? WHERE stat_key = ?")) {
                 stmt.setLong(1, amount);
+                stmt.setString(2, key);
                 stmt.executeUpdate();
             }
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to increment items sold: " + e.getMessage());
-        }
+        });
     }
     
     /**
@@ -61,14 +56,7 @@ public class StorageStatsManager {
      */
     public long getTotalItemsStored() {
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            String query = "SELECT stat_value FROM storage_stats WHERE stat_key = 'total_items_stored'";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    return rs.getLong("stat_value");
-                }
-            }
+            return readStat(conn, "total_items_stored");
         } catch (SQLException e) {
             plugin.getQuantumLogger().error("Failed to get total items stored: " + e.getMessage());
         }
@@ -81,14 +69,7 @@ public class StorageStatsManager {
      */
     public long getTotalItemsSold() {
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            String query = "SELECT stat_value FROM storage_stats WHERE stat_key = 'total_items_sold'";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    return rs.getLong("stat_value");
-                }
-            }
+            return readStat(conn, "total_items_sold");
         } catch (SQLException e) {
             plugin.getQuantumLogger().error("Failed to get total items sold: " + e.getMessage());
         }
@@ -101,14 +82,7 @@ public class StorageStatsManager {
      */
     public long getCurrentStoredItems() {
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            String query = "SELECT SUM(amount) as total FROM player_storage";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    return rs.getLong("total");
-                }
-            }
+            return readLong(conn, "SELECT SUM(amount) as total FROM player_storage");
         } catch (SQLException e) {
             plugin.getQuantumLogger().error("Failed to get current stored items: " + e.getMessage());
         }
@@ -121,20 +95,30 @@ public class StorageStatsManager {
      */
     public long getTotalPlayers() {
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            String query = "SELECT COUNT(DISTINCT player_uuid) as total FROM player_storage";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    return rs.getLong("total");
-                }
-            }
+            return readLong(conn, "SELECT COUNT(DISTINCT player_uuid) as total FROM player_storage");
         } catch (SQLException e) {
             plugin.getQuantumLogger().error("Failed to get total players: " + e.getMessage());
         }
         return 0;
     }
     
+    private long readStat(Connection conn, String key) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT stat_value FROM storage_stats WHERE stat_key = ?")) {
+            stmt.setString(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+    
+    private long readLong(Connection conn, String query) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+    
     /**
      * Calculer le nombre d'items stockés pour un joueur spécifique
      * @param uuid UUID du joueur
@@ -161,22 +145,32 @@ public class StorageStatsManager {
         );
     }
     
+    /**
+     * Récupérer toutes les statistiques du storage sur l'exécuteur DB,
+     * avec une seule connexion empruntée au pool
+     * @return Future contenant toutes les stats
+     */
+    public CompletableFuture<StorageStats> getStorageStatsAsync() {
+        return plugin.getDatabaseManager().query(conn -> new StorageStats(
+            readStat(conn, "total_items_stored"),
+            readStat(conn, "total_items_sold"),
+            readLong(conn, "SELECT SUM(amount) as total FROM player_storage"),
+            readLong(conn, "SELECT COUNT(DISTINCT player_uuid) as total FROM player_storage")
+        ));
+    }
+    
     /**
      * Reset toutes les statistiques (ADMIN SEULEMENT)
      * @param resetHistorical Si true, reset aussi les stats historiques (items stockés/vendus)
      */
     public void resetStats(boolean resetHistorical) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            if (resetHistorical) {
-                String query = "UPDATE storage_stats SET stat_value = 0";
-                try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                    stmt.executeUpdate();
-                }
-                plugin.getQuantumLogger().success("✓ Toutes les statistiques de storage ont été réinitialisées");
+        if (!resetHistorical) return;
+        plugin.getDatabaseManager().execute("reset storage stats", conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE storage_stats SET stat_value = 0")) {
+                stmt.executeUpdate();
             }
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to reset storage stats: " + e.getMessage());
-        }
+            plugin.getQuantumLogger().success("✓ Toutes les statistiques de storage ont été réinitialisées");
+        });
     }
     
     /**
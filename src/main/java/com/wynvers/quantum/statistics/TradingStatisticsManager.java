@@ -37,33 +37,19 @@ public class TradingStatisticsManager {
      * Récupère les statistiques globales d'un joueur
      */
     public PlayerStatistics getGlobalStatistics(Player player) {
-        List<Transaction> allTransactions = historyManager.getPlayerHistory(player, null, 0);
-        
-        double totalBuy = 0;
-        double totalSell = 0;
-        int buyCount = 0;
-        int sellCount = 0;
-        
-        for (Transaction transaction : allTransactions) {
-            if (transaction.playerRole == TransactionHistoryManager.TransactionRole.BUYER) {
-                totalBuy += transaction.totalPrice;
-                buyCount++;
-            } else {
-                totalSell += transaction.totalPrice;
-                sellCount++;
-            }
-        }
-        
-        double netProfit = totalSell - totalBuy;
-        int totalTransactions = allTransactions.size();
+        // Agrégats maintenus par l'historique : pas de parcours des transactions
+        double totalBuy = historyManager.getTotalBuyAmount(player);
+        double totalSell = historyManager.getTotalSellAmount(player);
+        int buyCount = historyManager.getBuyCount(player);
+        int sellCount = historyManager.getSellCount(player);
         
         return new PlayerStatistics(
             totalBuy,
             totalSell,
-            netProfit,
+            totalSell - totalBuy,
             buyCount,
             sellCount,
-            totalTransactions
+            buyCount + sellCount
         );
     }
     
@@ -74,12 +60,9 @@ public class TradingStatisticsManager {
      */
     public PlayerStatistics getPeriodStatistics(Player player, TimePeriod period) {
         long periodStart = getPeriodStartTimestamp(period);
-        List<Transaction> allTransactions = historyManager.getPlayerHistory(player, null, 0);
         
-        // Filtrer les transactions de la période
-        List<Transaction> periodTransactions = allTransactions.stream()
-            .filter(t -> t.timestamp >= periodStart)
-            .collect(Collectors.toList());
+        // Seules les transactions de la période sont parcourues
+        List<Transaction> periodTransactions = historyManager.getPlayerHistorySince(player, periodStart);
         
         double totalBuy = 0;
         double totalSell = 0;
@@ -88,7 +71,10 @@ public class TradingStatisticsManager {
         
         for (Transaction transaction : periodTransactions) {
             if (transaction.playerRole == TransactionHistoryManager.TransactionRole.BUYER) {
-                totalBuy += transaction.totalPrice;
+                // Transaction avec soi-même : comptée, mais le solde du joueur n'a pas bougé
+                if (!transaction.selfTrade) {
+                    totalBuy += transaction.totalPrice;
+                }
                 buyCount++;
             } else {
                 totalSell += transaction.totalPrice;
@@ -135,28 +121,21 @@ public class TradingStatisticsManager {
     
     /**
      * Récupère les items les plus échangés (achats + ventes)
+     * Lu sur les agrégats de l'historique : couvre toutes les transactions, pas seulement les récentes
      * 
      * @param limit Nombre maximum d'items à retourner
      */
     public List<ItemStatistic> getMostTradedItems(Player player, int limit) {
-        List<Transaction> allTransactions = historyManager.getPlayerHistory(player, null, 0);
-        
-        Map<String, ItemStatistic> itemStats = new HashMap<>();
+        List<ItemStatistic> itemStats = new ArrayList<>();
         
-        for (Transaction transaction : allTransactions) {
-            ItemStatistic stat = itemStats.computeIfAbsent(
-                transaction.itemId,
-                k -> new ItemStatistic(transaction.itemId)
-            );
-            
-            if (transaction.playerRole == TransactionHistoryManager.TransactionRole.BUYER) {
-                stat.addBuy(transaction.quantity, transaction.totalPrice);
-            } else {
-                stat.addSell(transaction.quantity, transaction.totalPrice);
-            }
+        for (TransactionHistoryManager.ItemTotals totals : historyManager.getItemTotals(player)) {
+            ItemStatistic stat = new ItemStatistic(totals.itemId());
+            stat.addBuy(totals.boughtQuantity(), totals.boughtTotal());
+            stat.addSell(totals.soldQuantity(), totals.soldTotal());
+            itemStats.add(stat);
         }
         
-        return itemStats.values().stream()
+        return itemStats.stream()
             .sorted((a, b) -> Integer.compare(b.totalQuantity, a.totalQuantity))
             .limit(limit)
             .collect(Collectors.toList());
@@ -168,24 +147,16 @@ public class TradingStatisticsManager {
      * @param limit Nombre maximum de partenaires à retourner
      */
     public List<PartnerStatistic> getTopTradingPartners(Player player, int limit) {
-        List<Transaction> allTransactions = historyManager.getPlayerHistory(player, null, 0);
+        List<PartnerStatistic> partnerStats = new ArrayList<>();
         
-        Map<String, PartnerStatistic> partnerStats = new HashMap<>();
-        
-        for (Transaction transaction : allTransactions) {
-            String partnerName = transaction.playerRole == TransactionHistoryManager.TransactionRole.BUYER
-                ? transaction.seller
-                : transaction.buyer;
-            
-            PartnerStatistic stat = partnerStats.computeIfAbsent(
-                partnerName,
-                k -> new PartnerStatistic(partnerName)
-            );
-            
-            stat.addTransaction(transaction.totalPrice);
+        for (TransactionHistoryManager.PartnerTotals totals : historyManager.getPartnerTotals(player)) {
+            PartnerStatistic stat = new PartnerStatistic(totals.partnerName());
+            stat.transactionCount = totals.transactionCount();
+            stat.totalAmount = totals.totalAmount();
+            partnerStats.add(stat);
         }
         
-        return partnerStats.values().stream()
+        return partnerStats.stream()
             .sorted((a, b) -> Integer.compare(b.transactionCount, a.transactionCount))
             .limit(limit)
             .collect(Collectors.toList());
@@ -195,32 +166,20 @@ public class TradingStatisticsManager {
      * Calcule le prix moyen d'achat pour un item
      */
     public double getAverageBuyPrice(Player player, String itemId) {
-        List<Transaction> buyTransactions = historyManager.getPlayerHistory(player, "BUY", 0).stream()
-            .filter(t -> t.itemId.equals(itemId))
-            .collect(Collectors.toList());
-        
-        if (buyTransactions.isEmpty()) return 0.0;
-        
-        double totalPrice = buyTransactions.stream().mapToDouble(t -> t.totalPrice).sum();
-        int totalQuantity = buyTransactions.stream().mapToInt(t -> t.quantity).sum();
+        TransactionHistoryManager.ItemTotals totals = historyManager.getItemTotals(player, itemId);
+        if (totals == null || totals.boughtQuantity() <= 0) return 0.0;
         
-        return totalQuantity > 0 ? totalPrice / totalQuantity : 0.0;
+        return totals.boughtTotal() / totals.boughtQuantity();
     }
     
     /**
      * Calcule le prix moyen de vente pour un item
      */
     public double getAverageSellPrice(Player player, String itemId) {
-        List<Transaction> sellTransactions = historyManager.getPlayerHistory(player, "SELL", 0).stream()
-            .filter(t -> t.itemId.equals(itemId))
-            .collect(Collectors.toList());
-        
-        if (sellTransactions.isEmpty()) return 0.0;
-        
-        double totalPrice = sellTransactions.stream().mapToDouble(t -> t.totalPrice).sum();
-        int totalQuantity = sellTransactions.stream().mapToInt(t -> t.quantity).sum();
+        TransactionHistoryManager.ItemTotals totals = historyManager.getItemTotals(player, itemId);
+        if (totals == null || totals.soldQuantity() <= 0) return 0.0;
         
-        return totalQuantity > 0 ? totalPrice / totalQuantity : 0.0;
+        return totals.soldTotal() / totals.soldQuantity();
     }
     
     /**
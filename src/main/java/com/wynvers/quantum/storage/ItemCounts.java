@@ -0,0 +1,156 @@
+package com.wynvers.quantum.storage;
+
+import java.util.Arrays;
+
+/**
+ * Quantités par clé d'item ({@link ItemKeys}) : map int -> long à adressage ouvert
+ *
+ * - Deux tableaux primitifs, aucune allocation par item ni par mise à jour.
+ * - Une quantité tombée à 0 retire la clé (suppression par décalage arrière,
+ *   sans marqueur de tombe).
+ * - La somme de toutes les quantités est tenue à jour à chaque écriture.
+ *
+ * Non thread-safe : PlayerStorage synchronise tous les accès.
+ */
+final class ItemCounts {
+
+    interface Visitor {
+        void accept(int key, long amount);
+    }
+
+    private static final int FREE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] keys;
+    private long[] amounts;
+    private int size;
+    private long total;
+
+    ItemCounts() {
+        keys = new int[INITIAL_CAPACITY];
+        amounts = new long[INITIAL_CAPACITY];
+        Arrays.fill(keys, FREE);
+    }
+
+    long get(int key) {
+        int slot = find(key);
+        return slot >= 0 ? amounts[slot] : 0L;
+    }
+
+    /**
+     * Ajoute delta (négatif pour retirer) ; la quantité ne descend pas sous 0
+     *
+     * @return la nouvelle quantité
+     */
+    long add(int key, long delta) {
+        return set(key, Math.max(0L, get(key) + delta));
+    }
+
+    /**
+     * Fixe la quantité (0 retire la clé)
+     *
+     * @return la nouvelle quantité
+     */
+    long set(int key, long amount) {
+        int slot = find(key);
+        if (slot >= 0) {
+            if (amount <= 0) {
+                total -= amounts[slot];
+                removeSlot(slot);
+                return 0L;
+            }
+            total += amount - amounts[slot];
+            amounts[slot] = amount;
+            return amount;
+        }
+        if (amount <= 0) {
+            return 0L;
+        }
+
+        if ((size + 1) * 4 > keys.length * 3) {
+            // Le tableau est agrandi : la place libre trouvée n'est plus valable
+            resize(keys.length * 2);
+            slot = find(key);
+        }
+        slot = -slot - 1;
+        keys[slot] = key;
+        amounts[slot] = amount;
+        size++;
+        total += amount;
+        return amount;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long total() {
+        return total;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.accept(keys[i], amounts[i]);
+            }
+        }
+    }
+
+    /**
+     * @return l'index de la clé, ou -(place libre) - 1 si elle est absente
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            int current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == FREE) {
+                return -slot - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        size--;
+        // Ramener les clés suivantes du même groupe pour ne pas casser les chaînes de sondage
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = mix(keys[next]) & mask;
+            boolean movable = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+            if (movable) {
+                keys[gap] = keys[next];
+                amounts[gap] = amounts[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+        amounts[gap] = 0L;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldAmounts = amounts;
+        keys = new int[capacity];
+        amounts = new long[capacity];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = -find(oldKeys[i]) - 1;
+                keys[slot] = oldKeys[i];
+                amounts[slot] = oldAmounts[i];
+            }
+        }
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
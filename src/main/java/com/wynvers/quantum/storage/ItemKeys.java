@@ -0,0 +1,131 @@
+package com.wynvers.quantum.storage;
+
+import org.bukkit.Material;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des ids d'items du storage vers des clés int denses
+ *
+ * - Chaque matériau vanilla a une clé fixe égale à son ordinal : aucune recherche.
+ * - Un id Nexo reçoit la clé libre suivante à sa première écriture dans un storage.
+ *   Une clé n'est jamais réattribuée : les ids sont internés pour la durée du serveur.
+ * - Les recherches par id unifié ("minecraft:stone", "nexo:ruby") sont une seule lecture
+ *   de map, sans substring, toUpperCase ni Material.valueOf.
+ * - Les lectures ne prennent pas de verrou : un id Nexo est écrit dans son tableau avant
+ *   que sa clé ne soit publiée dans les maps, qui donnent la relation happens-before.
+ */
+public final class ItemKeys {
+
+    /** Clé renvoyée pour un id inconnu */
+    public static final int NONE = -1;
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final String[] MATERIAL_IDS = new String[MATERIALS.length];
+
+    // Ids unifiés ("minecraft:..." et "nexo:...") et ids Nexo seuls
+    private static final Map<String, Integer> BY_ITEM_ID = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> BY_NEXO_ID = new ConcurrentHashMap<>();
+
+    // Indexés par clé - MATERIALS.length
+    private static volatile String[] nexoIds = new String[64];
+    private static volatile String[] nexoItemIds = new String[64];
+    private static int nexoCount;
+
+    static {
+        for (Material material : MATERIALS) {
+            String itemId = "minecraft:" + material.name().toLowerCase();
+            MATERIAL_IDS[material.ordinal()] = itemId;
+            BY_ITEM_ID.put(itemId, material.ordinal());
+        }
+    }
+
+    private ItemKeys() {
+    }
+
+    public static int of(Material material) {
+        return material.ordinal();
+    }
+
+    /**
+     * Clé d'un item Nexo, créée si l'id n'a encore jamais été vu
+     */
+    public static int ofNexo(String nexoId) {
+        Integer key = BY_NEXO_ID.get(nexoId);
+        return key != null ? key : register(nexoId);
+    }
+
+    /**
+     * Clé d'un item Nexo déjà connu, ou {@link #NONE}
+     */
+    public static int findNexo(String nexoId) {
+        return BY_NEXO_ID.getOrDefault(nexoId, NONE);
+    }
+
+    /**
+     * Clé d'un id unifié ("minecraft:stone", "nexo:ruby"), ou {@link #NONE} si inconnu.
+     * Les ids vanilla sont acceptés quelle que soit leur casse.
+     */
+    public static int find(String itemId) {
+        if (itemId == null) {
+            return NONE;
+        }
+        Integer key = BY_ITEM_ID.get(itemId);
+        if (key == null && itemId.startsWith("minecraft:")) {
+            key = BY_ITEM_ID.get(itemId.toLowerCase());
+        }
+        return key != null ? key : NONE;
+    }
+
+    public static boolean isVanilla(int key) {
+        return key >= 0 && key < MATERIALS.length;
+    }
+
+    /**
+     * Matériau d'une clé vanilla, null pour une clé Nexo
+     */
+    public static Material material(int key) {
+        return isVanilla(key) ? MATERIALS[key] : null;
+    }
+
+    /**
+     * Id Nexo d'une clé Nexo, null pour une clé vanilla
+     */
+    public static String nexoId(int key) {
+        return isVanilla(key) ? null : nexoIds[key - MATERIALS.length];
+    }
+
+    /**
+     * Id unifié ("minecraft:stone" ou "nexo:ruby")
+     */
+    public static String itemId(int key) {
+        return isVanilla(key) ? MATERIAL_IDS[key] : nexoItemIds[key - MATERIALS.length];
+    }
+
+    private static synchronized int register(String nexoId) {
+        Integer existing = BY_NEXO_ID.get(nexoId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int index = nexoCount;
+        String[] ids = nexoIds;
+        String[] itemIds = nexoItemIds;
+        if (index == ids.length) {
+            ids = Arrays.copyOf(ids, index * 2);
+            itemIds = Arrays.copyOf(itemIds, index * 2);
+        }
+        ids[index] = nexoId;
+        itemIds[index] = "nexo:" + nexoId;
+        nexoIds = ids;
+        nexoItemIds = itemIds;
+        nexoCount++;
+
+        int key = MATERIALS.length + index;
+        BY_ITEM_ID.put(itemIds[index], key);
+        BY_NEXO_ID.put(nexoId, key);
+        return key;
+    }
+}
@@ -3,26 +3,111 @@ package com.wynvers.quantum.storage;
 import com.wynvers.quantum.Quantum;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Contenu du storage d'un joueur
+ *
+ * Les quantités sont rangées par clé d'item ({@link ItemKeys}) dans une map primitive
+ * int -> long ; le total est tenu à jour à chaque écriture. Tous les accès aux quantités
+ * sont synchronisés sur le storage (thread principal, préchargement et flush DB).
+ */
 public class PlayerStorage {
     
     private final UUID uuid;
-    private final Map<Material, Integer> vanillaItems;
-    private final Map<String, Integer> nexoItems;
+    private final ItemCounts counts;
+    
+    // Clés modifiées depuis la dernière écriture en base (write-behind, voir StorageManager)
+    private final BitSet dirty;
+    
+    // Vue triée pour l'affichage, créée au premier usage (voir StorageView)
+    private StorageView view;
+    
+    // Storage de remplacement pendant un chargement : jamais persisté, reporté sur le vrai storage une fois chargé
+    private final boolean detached;
     
     public PlayerStorage(UUID uuid) {
+        this(uuid, false);
+    }
+    
+    private PlayerStorage(UUID uuid, boolean detached) {
         this.uuid = uuid;
-        this.vanillaItems = new ConcurrentHashMap<>();
-        this.nexoItems = new ConcurrentHashMap<>();
+        this.counts = new ItemCounts();
+        this.dirty = new BitSet();
+        this.detached = detached;
+    }
+    
+    /**
+     * Storage vide renvoyé tant que le vrai storage d'un joueur connecté n'est pas chargé.
+     * Il n'est jamais écrit : les dépôts du joueur sont refusés, les retraits ne trouvent rien,
+     * et les ajouts internes (livraison d'ordre, restitution) sont reportés par {@link #transferTo}.
+     */
+    public static PlayerStorage unavailable(UUID uuid) {
+        return new PlayerStorage(uuid, true);
+    }
+    
+    /**
+     * @return false pour un storage de remplacement (chargement en cours)
+     */
+    public boolean isAvailable() {
+        return !detached;
+    }
+    
+    /**
+     * Reporte les quantités ajoutées à ce storage de remplacement sur le storage chargé, puis le vide
+     */
+    public synchronized void transferTo(PlayerStorage target) {
+        ItemCounts added = new ItemCounts();
+        counts.forEach(added::set);
+        added.forEach((key, amount) -> {
+            target.change(key, amount);
+            change(key, -amount);
+        });
+        dirty.clear();
+    }
+    
+    /**
+     * Refuse une modification tant que le storage n'est pas chargé
+     */
+    private boolean rejectWhileLoading(Player player) {
+        if (!detached) {
+            return false;
+        }
+        player.sendMessage("§cVotre storage est en cours de chargement, réessayez dans un instant.");
+        return true;
+    }
+    
+    /**
+     * Ajoute delta à la quantité d'une clé (négatif pour retirer, plancher à 0)
+     */
+    private synchronized long change(int key, long delta) {
+        long newAmount = counts.add(key, delta);
+        dirty.set(key);
+        if (view != null) view.set(key, newAmount);
+        return newAmount;
+    }
+    
+    private synchronized long amount(int key) {
+        return key == ItemKeys.NONE ? 0L : counts.get(key);
+    }
+    
+    /**
+     * Quantité ramenée dans un int (les quantités par item sont bornées par la limite de stack)
+     */
+    private static int toInt(long amount) {
+        return (int) Math.min(Integer.MAX_VALUE, amount);
     }
     
     // === VANILLA ITEMS ===
@@ -31,7 +116,7 @@ public class PlayerStorage {
      * Add item without limit checking (for internal use)
      */
     private void addItemInternal(Material material, int amount) {
-        vanillaItems.merge(material, amount, Integer::sum);
+        change(ItemKeys.of(material), amount);
     }
     
     /**
@@ -43,8 +128,10 @@ public class PlayerStorage {
      * @return true if successful, false if limit reached
      */
     public boolean addItem(Quantum plugin, Player player, Material material, int amount) {
-        int currentAmount = getAmount(material);
-        int newAmount = currentAmount + amount;
+        if (rejectWhileLoading(player)) {
+            return false;
+        }
+        long newAmount = amount(ItemKeys.of(material)) + amount;
         int limit = plugin.getStorageUpgradeManager().getMaxStacks(
             plugin.getStorageUpgradeManager().getState(player)
         );
@@ -73,22 +160,26 @@ public class PlayerStorage {
     }
     
     public void removeItem(Material material, int amount) {
-        vanillaItems.computeIfPresent(material, (m, current) -> {
-            int newAmount = current - amount;
-            return newAmount <= 0 ? null : newAmount;
-        });
+        change(ItemKeys.of(material), -amount);
     }
     
     public int getAmount(Material material) {
-        return vanillaItems.getOrDefault(material, 0);
+        return toInt(amount(ItemKeys.of(material)));
     }
     
     public boolean hasItem(Material material, int amount) {
         return getAmount(material) >= amount;
     }
     
-    public Map<Material, Integer> getVanillaItems() {
-        return vanillaItems;
+    /**
+     * Copie en lecture seule : passer par addItem/removeItem pour que la modification soit persistée
+     */
+    public synchronized Map<Material, Integer> getVanillaItems() {
+        Map<Material, Integer> items = new EnumMap<>(Material.class);
+        counts.forEach((key, amount) -> {
+            if (ItemKeys.isVanilla(key)) items.put(ItemKeys.material(key), toInt(amount));
+        });
+        return Collections.unmodifiableMap(items);
     }
     
     // === NEXO ITEMS ===
@@ -97,7 +188,7 @@ public class PlayerStorage {
      * Add Nexo item without limit checking (for internal use)
      */
     private void addNexoItemInternal(String nexoId, int amount) {
-        nexoItems.merge(nexoId, amount, Integer::sum);
+        change(ItemKeys.ofNexo(nexoId), amount);
     }
     
     /**
@@ -109,8 +200,10 @@ public class PlayerStorage {
      * @return true if successful, false if limit reached
      */
     public boolean addNexoItem(Quantum plugin, Player player, String nexoId, int amount) {
-        int currentAmount = getNexoAmount(nexoId);
-        int newAmount = currentAmount + amount;
+        if (rejectWhileLoading(player)) {
+            return false;
+        }
+        long newAmount = amount(ItemKeys.findNexo(nexoId)) + amount;
         int limit = plugin.getStorageUpgradeManager().getMaxStacks(
             plugin.getStorageUpgradeManager().getState(player)
         );
@@ -153,45 +246,55 @@ public class PlayerStorage {
     }
     
     public void removeNexoItem(String nexoId, int amount) {
-        nexoItems.computeIfPresent(nexoId, (id, current) -> {
-            int newAmount = current - amount;
-            return newAmount <= 0 ? null : newAmount;
-        });
+        int key = ItemKeys.findNexo(nexoId);
+        if (key != ItemKeys.NONE) {
+            change(key, -amount);
+        }
     }
     
     public int getNexoAmount(String nexoId) {
-        return nexoItems.getOrDefault(nexoId, 0);
+        return toInt(amount(ItemKeys.findNexo(nexoId)));
     }
     
     public boolean hasNexoItem(String nexoId, int amount) {
         return getNexoAmount(nexoId) >= amount;
     }
     
-    public Map<String, Integer> getNexoItems() {
-        return nexoItems;
+    /**
+     * Copie en lecture seule : passer par addNexoItem/removeNexoItem pour que la modification soit persistée
+     */
+    public synchronized Map<String, Integer> getNexoItems() {
+        Map<String, Integer> items = new HashMap<>();
+        counts.forEach((key, amount) -> {
+            if (!ItemKeys.isVanilla(key)) items.put(ItemKeys.nexoId(key), toInt(amount));
+        });
+        return Collections.unmodifiableMap(items);
     }
     
     // === COMBINED ITEMS ACCESS ===
     
+    /**
+     * Vue triée et filtrable du storage, tenue à jour par les méthodes d'ajout et de retrait
+     */
+    public synchronized StorageView getView() {
+        if (view == null) {
+            StorageView v = new StorageView();
+            counts.forEach(v::set);
+            view = v;
+        }
+        return view;
+    }
+    
     /**
      * Récupère tous les items (Minecraft + Nexo) sous forme unifiée
      * Format des clés: "minecraft:material" ou "nexo:id"
      * 
      * @return Map avec tous les items et leurs quantités
      */
-    public Map<String, Integer> getAllStorageItems() {
+    public synchronized Map<String, Integer> getAllStorageItems() {
         Map<String, Integer> allItems = new HashMap<>();
-        
-        // Ajouter items vanilla avec préfixe minecraft:
-        for (Map.Entry<Material, Integer> entry : vanillaItems.entrySet()) {
-            allItems.put("minecraft:" + entry.getKey().name().toLowerCase(), entry.getValue());
-        }
-        
-        // Ajouter items Nexo avec préfixe nexo:
-        for (Map.Entry<String, Integer> entry : nexoItems.entrySet()) {
-            allItems.put("nexo:" + entry.getKey(), entry.getValue());
-        }
-        
+        // Les ids unifiés sont internés par ItemKeys : pas de concaténation
+        counts.forEach((key, amount) -> allItems.put(ItemKeys.itemId(key), toInt(amount)));
         return allItems;
     }
     
@@ -201,28 +304,122 @@ public class PlayerStorage {
      * Obtenir le nombre d'items uniques (types différents)
      * @return Nombre de types d'items différents en stock
      */
-    public int getUniqueItemCount() {
-        return vanillaItems.size() + nexoItems.size();
+    public synchronized int getUniqueItemCount() {
+        return counts.size();
     }
     
     /**
      * Obtenir le nombre total d'items (toutes quantités)
-     * @return Somme de toutes les quantités
+     * @return Somme de toutes les quantités, tenue à jour à chaque dépôt/retrait
      */
-    public int getTotalItemCount() {
-        int total = 0;
+    public synchronized long getTotalItemCount() {
+        return counts.total();
+    }
+    
+    // === BULK DEPOSIT ===
+    
+    /**
+     * Résultat d'un dépôt groupé, pour un seul message au joueur
+     *
+     * @param deposited    nombre total d'items déposés
+     * @param itemTypes    nombre d'items différents déposés
+     * @param limitedTypes nombre d'items différents restés (en partie) dans l'inventaire, limite atteinte
+     */
+    public record DepositResult(long deposited, int itemTypes, int limitedTypes) {
+        public boolean isEmpty() {
+            return deposited == 0;
+        }
+    }
+    
+    /**
+     * Dépose tout l'inventaire principal du joueur (hors armure et main secondaire)
+     *
+     * - L'inventaire est parcouru une fois et les quantités sont regroupées par clé d'item.
+     * - La limite de stack est résolue une seule fois ; un item qui la dépasse est déposé
+     *   jusqu'à la limite, le surplus reste dans l'inventaire.
+     * - Toutes les quantités sont appliquées sous un seul verrou, puis les statistiques
+     *   reçoivent un delta par catégorie et le storage est marqué une seule fois pour le flush.
+     *
+     * Doit être appelé sur le thread principal (modifie l'inventaire du joueur).
+     */
+    public DepositResult depositAll(Quantum plugin, Player player) {
+        if (rejectWhileLoading(player)) {
+            return new DepositResult(0, 0, 0);
+        }
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getStorageContents();
         
-        // Somme des items vanilla
-        for (int amount : vanillaItems.values()) {
-            total += amount;
+        // 1. Regrouper par clé d'item
+        int[] slotKeys = new int[contents.length];
+        ItemCounts requested = new ItemCounts();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            slotKeys[slot] = ItemKeys.NONE;
+            if (item == null || item.getType() == Material.AIR) {
+                continue;
+            }
+            String nexoId = com.nexomc.nexo.api.NexoItems.idFromItem(item);
+            int key = nexoId != null ? ItemKeys.ofNexo(nexoId) : ItemKeys.of(item.getType());
+            slotKeys[slot] = key;
+            requested.add(key, item.getAmount());
+        }
+        if (requested.size() == 0) {
+            return new DepositResult(0, 0, 0);
         }
         
-        // Somme des items Nexo
-        for (int amount : nexoItems.values()) {
-            total += amount;
+        // 2. Limite résolue une fois, toutes les quantités appliquées ensemble
+        long limit = plugin.getStorageUpgradeManager().getMaxStacks(
+            plugin.getStorageUpgradeManager().getState(player)
+        );
+        ItemCounts accepted = new ItemCounts();
+        int[] limitedTypes = new int[1];
+        synchronized (this) {
+            requested.forEach((key, amount) -> {
+                long taken = Math.min(Math.max(0L, limit - counts.get(key)), amount);
+                if (taken < amount) {
+                    limitedTypes[0]++;
+                }
+                if (taken > 0) {
+                    accepted.set(key, taken);
+                    change(key, taken);
+                }
+            });
         }
+        DepositResult result = new DepositResult(accepted.total(), accepted.size(), limitedTypes[0]);
+        if (result.isEmpty()) {
+            return result;
+        }
+        
+        // 3. Un delta de statistiques par catégorie, un seul marquage pour le flush
+        Map<String, Long> byCategory = new HashMap<>();
+        accepted.forEach((key, amount) ->
+            byCategory.merge(determineCategoryFromItemId(ItemKeys.itemId(key)), amount, Long::sum));
+        if (plugin.getStatisticsManager() != null) {
+            byCategory.forEach(plugin.getStatisticsManager()::updateItemsStored);
+        }
+        if (plugin.getStorageStatsManager() != null) {
+            plugin.getStorageStatsManager().incrementItemsStored(result.deposited());
+        }
+        save(plugin);
+        
+        // 4. Retirer de l'inventaire ce qui a été accepté
+        for (int slot = 0; slot < contents.length; slot++) {
+            int key = slotKeys[slot];
+            long budget = key == ItemKeys.NONE ? 0L : accepted.get(key);
+            if (budget <= 0) {
+                continue;
+            }
+            ItemStack item = contents[slot];
+            int taken = (int) Math.min(budget, item.getAmount());
+            accepted.add(key, -taken);
+            item.setAmount(item.getAmount() - taken);
+            if (item.getAmount() <= 0) {
+                contents[slot] = null;
+            }
+        }
+        inventory.setStorageContents(contents);
         
-        return total;
+        return result;
     }
     
     // === UNIFIED ITEM ID ===
@@ -237,26 +434,7 @@ public class PlayerStorage {
      * @return La quantité en stock, ou 0 si aucun
      */
     public int getAmountByItemId(String itemId) {
-        if (itemId == null || itemId.isEmpty()) {
-            return 0;
-        }
-        
-        if (itemId.startsWith("minecraft:")) {
-            // Item Minecraft vanilla
-            String materialName = itemId.substring(10).toUpperCase();
-            try {
-                Material material = Material.valueOf(materialName);
-                return getAmount(material);
-            } catch (IllegalArgumentException e) {
-                return 0;
-            }
-        } else if (itemId.startsWith("nexo:")) {
-            // Item Nexo
-            String nexoId = itemId.substring(5);
-            return getNexoAmount(nexoId);
-        }
-        
-        return 0;
+        return toInt(amount(ItemKeys.find(itemId)));
     }
     
     /**
@@ -277,21 +455,10 @@ public class PlayerStorage {
      * @param amount La quantité à retirer
      */
     public void removeItemById(String itemId, int amount) {
-        if (itemId == null || itemId.isEmpty()) {
-            return;
-        }
-        
-        if (itemId.startsWith("minecraft:")) {
-            String materialName = itemId.substring(10).toUpperCase();
-            try {
-                Material material = Material.valueOf(materialName);
-                removeItem(material, amount);
-            } catch (IllegalArgumentException e) {
-                // Material invalide, ignorer
-            }
-        } else if (itemId.startsWith("nexo:")) {
-            String nexoId = itemId.substring(5);
-            removeNexoItem(nexoId, amount);
+        // Id inconnu (material invalide, item Nexo jamais stocké) : rien à retirer
+        int key = ItemKeys.find(itemId);
+        if (key != ItemKeys.NONE) {
+            change(key, -amount);
         }
     }
     
@@ -429,89 +596,140 @@ public class PlayerStorage {
      */
     public void load(Quantum plugin) {
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+            load(conn, plugin);
+        } catch (SQLException e) {
+            plugin.getQuantumLogger().error("Failed to load storage for " + uuid + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Load storage on an existing connection (session preload)
+     * Les upgrades du joueur doivent déjà être en mémoire pour le plafonnement
+     */
+    public void load(Connection conn, Quantum plugin) throws SQLException {
+        String query = "SELECT material, nexo_id, amount FROM player_storage WHERE player_uuid = ?";
+        
+        // Cap items at the upgrade stack limit (200 by default, more with stack upgrades)
+        long maxStack = plugin.getStorageUpgradeManager() != null
+                ? plugin.getStorageUpgradeManager().getUpgradeStackMax(uuid)
+                : Long.MAX_VALUE;
+        
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, uuid.toString());
+            ResultSet rs = stmt.executeQuery();
             
-            String query = "SELECT material, nexo_id, amount FROM player_storage WHERE player_uuid = ?";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setString(1, uuid.toString());
-                ResultSet rs = stmt.executeQuery();
-                
+            synchronized (this) {
                 while (rs.next()) {
                     String materialStr = rs.getString("material");
                     String nexoId = rs.getString("nexo_id");
-                    int amount = rs.getInt("amount");
+                    long amount = rs.getLong("amount");
                     
+                    int key;
                     if (materialStr != null && !materialStr.isEmpty()) {
                         try {
-                            Material material = Material.valueOf(materialStr);
-                            vanillaItems.put(material, amount);
+                            key = ItemKeys.of(Material.valueOf(materialStr));
                         } catch (IllegalArgumentException e) {
                             plugin.getQuantumLogger().warning("Invalid material: " + materialStr);
+                            continue;
                         }
                     } else if (nexoId != null && !nexoId.isEmpty()) {
-                        nexoItems.put(nexoId, amount);
+                        key = ItemKeys.ofNexo(nexoId);
+                    } else {
+                        continue;
+                    }
+                    
+                    // Les quantités plafonnées sont marquées pour être réécrites au prochain flush
+                    if (amount > maxStack) {
+                        amount = maxStack;
+                        dirty.set(key);
                     }
+                    counts.set(key, amount);
                 }
+                
+                // Contenu remplacé en bloc : la vue sera reconstruite au prochain accès
+                view = null;
             }
-
-            // Cap items at the upgrade stack limit (200 by default, more with stack upgrades)
-            if (plugin.getStorageUpgradeManager() != null) {
-                int maxStack = plugin.getStorageUpgradeManager().getUpgradeStackMax(uuid);
-                vanillaItems.replaceAll((mat, amt) -> Math.min(amt, maxStack));
-                nexoItems.replaceAll((id, amt) -> Math.min(amt, maxStack));
-            }
-            
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to load storage for " + uuid + ": " + e.getMessage());
         }
     }
     
     /**
-     * Save storage to database
+     * Demande la persistance des modifications.
+     * L'écriture est différée : StorageManager regroupe les clés modifiées et les
+     * écrit par lots sur l'exécuteur DB (voir {@link com.wynvers.quantum.managers.StorageManager#markDirty}).
      */
     public void save(Quantum plugin) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            
-            // Delete old entries
-            try (PreparedStatement delete = conn.prepareStatement(
-                "DELETE FROM player_storage WHERE player_uuid = ?"
-            )) {
-                delete.setString(1, uuid.toString());
-                delete.executeUpdate();
-            }
-            
-            // Insert vanilla items
-            if (!vanillaItems.isEmpty()) {
-                try (PreparedStatement insert = conn.prepareStatement(
-                    "INSERT INTO player_storage (player_uuid, material, nexo_id, amount) VALUES (?, ?, '', ?)"
-                )) {
-                    for (Map.Entry<Material, Integer> entry : vanillaItems.entrySet()) {
-                        insert.setString(1, uuid.toString());
-                        insert.setString(2, entry.getKey().name());
-                        insert.setInt(3, entry.getValue());
-                        insert.addBatch();
-                    }
-                    insert.executeBatch();
-                }
-            }
-            
-            // Insert Nexo items
-            if (!nexoItems.isEmpty()) {
-                try (PreparedStatement insert = conn.prepareStatement(
-                    "INSERT INTO player_storage (player_uuid, material, nexo_id, amount) VALUES (?, '', ?, ?)"
-                )) {
-                    for (Map.Entry<String, Integer> entry : nexoItems.entrySet()) {
-                        insert.setString(1, uuid.toString());
-                        insert.setString(2, entry.getKey());
-                        insert.setInt(3, entry.getValue());
-                        insert.addBatch();
-                    }
-                    insert.executeBatch();
-                }
-            }
-            
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to save storage for " + uuid + ": " + e.getMessage());
+        if (!detached && hasPendingChanges()) {
+            plugin.getStorageManager().markDirty(this);
+        }
+    }
+    
+    /**
+     * @return true si des quantités ont changé depuis la dernière écriture
+     */
+    public synchronized boolean hasPendingChanges() {
+        return !dirty.isEmpty();
+    }
+    
+    /**
+     * Clés d'items ({@link ItemKeys}) retirées du suivi par {@link #drainDirtyKeys()}, en attente d'écriture.
+     */
+    public record DirtyKeys(int[] keys) {
+        public boolean isEmpty() {
+            return keys.length == 0;
+        }
+        
+        public int size() {
+            return keys.length;
+        }
+    }
+    
+    /**
+     * Retire et renvoie les clés modifiées. Les clés sont retirées avant lecture
+     * des quantités : une modification concurrente les re-marque pour le flush suivant.
+     */
+    public synchronized DirtyKeys drainDirtyKeys() {
+        int[] keys = dirty.stream().toArray();
+        dirty.clear();
+        return new DirtyKeys(keys);
+    }
+    
+    /**
+     * Ajoute aux lots les lignes correspondant aux clés drainées :
+     * upsert de la quantité courante, suppression si elle est tombée à 0.
+     */
+    public void addToBatch(DirtyKeys keys, PreparedStatement upsert, PreparedStatement delete) throws SQLException {
+        String uuidStr = uuid.toString();
+        for (int key : keys.keys()) {
+            Material material = ItemKeys.material(key);
+            addRowToBatch(upsert, delete, uuidStr,
+                    material != null ? material.name() : "",
+                    material != null ? "" : ItemKeys.nexoId(key),
+                    amount(key));
+        }
+    }
+    
+    /**
+     * Re-marque des clés drainées dont l'écriture a échoué
+     */
+    public synchronized void restoreDirtyKeys(DirtyKeys keys) {
+        for (int key : keys.keys()) {
+            dirty.set(key);
+        }
+    }
+    
+    private static void addRowToBatch(PreparedStatement upsert, PreparedStatement delete, String uuid,
+                                      String material, String nexoId, long amount) throws SQLException {
+        if (amount <= 0) {
+            delete.setString(1, uuid);
+            delete.setString(2, material);
+            delete.setString(3, nexoId);
+            delete.addBatch();
+        } else {
+            upsert.setString(1, uuid);
+            upsert.setString(2, material);
+            upsert.setString(3, nexoId);
+            upsert.setInt(4, toInt(amount));
+            upsert.addBatch();
         }
     }
     
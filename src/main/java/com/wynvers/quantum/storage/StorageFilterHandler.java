@@ -1,10 +1,11 @@
 package com.wynvers.quantum.storage;
 
 import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.storage.upgrades.StorageUpgradeManager;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Gère les filtres et la recherche dans le storage
@@ -14,8 +15,12 @@ import java.util.stream.Collectors;
  * - Filtrage par type (Nexo / Minecraft)
  * - Tri par quantité (croissant / décroissant)
  * - Tri alphabétique
+ * - Pagination (jusqu'à {@link StorageUpgradeManager#MAX_PAGES} pages selon les upgrades du joueur)
  * - Cache des filtres actifs par joueur
  * 
+ * Le tri et la recherche s'appuient sur la {@link StorageView} du storage, tenue à jour
+ * à chaque dépôt/retrait : rien n'est retrié ni recopié à chaque rendu.
+ * 
  * @author Kazotaruu_
  * @version 1.0
  */
@@ -43,20 +48,25 @@ public class StorageFilterHandler {
     public void setSearchQuery(Player player, String query) {
         FilterSettings settings = getFilterSettings(player);
         settings.searchQuery = query == null ? "" : query.toLowerCase();
+        settings.page = 0;
     }
     
     /**
      * Définit le filtre de type
      */
     public void setTypeFilter(Player player, ItemTypeFilter filter) {
-        getFilterSettings(player).typeFilter = filter;
+        FilterSettings settings = getFilterSettings(player);
+        settings.typeFilter = filter;
+        settings.page = 0;
     }
     
     /**
      * Définit le mode de tri
      */
     public void setSortMode(Player player, SortMode mode) {
-        getFilterSettings(player).sortMode = mode;
+        FilterSettings settings = getFilterSettings(player);
+        settings.sortMode = mode;
+        settings.page = 0;
     }
     
     /**
@@ -82,83 +92,59 @@ public class StorageFilterHandler {
      */
     public List<StorageEntry> applyFilters(PlayerStorage storage, Player player) {
         FilterSettings settings = getFilterSettings(player);
-        
-        // Récupérer tous les items avec la nouvelle méthode getAllStorageItems()
-        Map<String, Integer> items = storage.getAllStorageItems();
-        List<StorageEntry> entries = new ArrayList<>();
-        
-        for (Map.Entry<String, Integer> entry : items.entrySet()) {
-            entries.add(new StorageEntry(entry.getKey(), entry.getValue()));
-        }
-        
-        // Appliquer les filtres
-        List<StorageEntry> filtered = entries.stream()
-            .filter(entry -> matchesSearch(entry, settings.searchQuery))
-            .filter(entry -> matchesTypeFilter(entry, settings.typeFilter))
-            .collect(Collectors.toList());
-        
-        // Appliquer le tri
-        sortEntries(filtered, settings.sortMode);
-        
-        return filtered;
+        return storage.getView().getEntries(settings.sortMode, settings.searchQuery, settings.typeFilter,
+                0, Integer.MAX_VALUE);
     }
     
     /**
-     * Vérifie si un item correspond à la recherche
+     * Entrées de la page courante du joueur, filtrées et triées
+     * 
+     * @param storage Storage du joueur
+     * @param player Joueur (filtres et page courante)
+     * @param pageSize Nombre de slots de storage du menu
+     * @return Au plus pageSize entrées
      */
-    private boolean matchesSearch(StorageEntry entry, String query) {
-        if (query == null || query.isEmpty()) return true;
+    public List<StorageEntry> getPage(PlayerStorage storage, Player player, int pageSize) {
+        FilterSettings settings = getFilterSettings(player);
+        StorageView view = storage.getView();
         
-        String itemName = formatItemName(entry.itemId).toLowerCase();
-        return itemName.contains(query);
-    }
-    
-    /**
-     * Vérifie si un item correspond au filtre de type
-     */
-    private boolean matchesTypeFilter(StorageEntry entry, ItemTypeFilter filter) {
-        switch (filter) {
-            case ALL:
-                return true;
-            case NEXO_ONLY:
-                return entry.itemId.startsWith("nexo:");
-            case MINECRAFT_ONLY:
-                return entry.itemId.startsWith("minecraft:");
-            default:
-                return true;
+        // La page a pu devenir hors limites (items retirés, filtre changé ailleurs)
+        int pageCount = getPageCount(view, player, settings, pageSize);
+        if (settings.page >= pageCount) {
+            settings.page = pageCount - 1;
         }
+        
+        return view.getEntries(settings.sortMode, settings.searchQuery, settings.typeFilter,
+                settings.page * pageSize, pageSize);
     }
     
     /**
-     * Trie la liste d'entrées selon le mode de tri
+     * Passe à la page suivante (ou précédente si delta est négatif)
+     * 
+     * @return true si la page a changé
      */
-    private void sortEntries(List<StorageEntry> entries, SortMode mode) {
-        switch (mode) {
-            case QUANTITY_DESC:
-                entries.sort((a, b) -> Integer.compare(b.quantity, a.quantity));
-                break;
-            case QUANTITY_ASC:
-                entries.sort(Comparator.comparingInt(e -> e.quantity));
-                break;
-            case ALPHABETICAL:
-                entries.sort(Comparator.comparing(e -> formatItemName(e.itemId)));
-                break;
-            case RECENT:
-                // Par défaut, garde l'ordre d'insertion
-                break;
+    public boolean changePage(PlayerStorage storage, Player player, int pageSize, int delta) {
+        FilterSettings settings = getFilterSettings(player);
+        int pageCount = getPageCount(storage.getView(), player, settings, pageSize);
+        int page = Math.max(0, Math.min(settings.page + delta, pageCount - 1));
+        if (page == settings.page) {
+            return false;
         }
+        settings.page = page;
+        return true;
     }
     
     /**
-     * Formate le nom d'un item pour l'affichage
+     * Nombre de pages affichables : pages débloquées par les upgrades, et pas plus
+     * que nécessaire pour les items correspondant aux filtres (au moins une)
      */
-    private String formatItemName(String itemId) {
-        if (itemId.startsWith("nexo:")) {
-            return itemId.substring(5).replace("_", " ");
-        } else if (itemId.startsWith("minecraft:")) {
-            return itemId.substring(10).replace("_", " ");
+    private int getPageCount(StorageView view, Player player, FilterSettings settings, int pageSize) {
+        if (pageSize <= 0) {
+            return 1;
         }
-        return itemId.replace("_", " ");
+        int unlocked = plugin.getStorageUpgradeManager().getPages(player);
+        int needed = (view.count(settings.searchQuery, settings.typeFilter) + pageSize - 1) / pageSize;
+        return Math.max(1, Math.min(unlocked, needed));
     }
     
     /**
@@ -193,14 +179,23 @@ public class StorageFilterHandler {
     
     /**
      * Entrée de storage (itemId + quantité)
+     * material est renseigné pour un item vanilla, nexoId pour un item Nexo
      */
     public static class StorageEntry {
         public final String itemId;
-        public final int quantity;
+        public final long quantity;
+        public final Material material;
+        public final String nexoId;
+        
+        public StorageEntry(String itemId, long quantity) {
+            this(itemId, quantity, null, null);
+        }
         
-        public StorageEntry(String itemId, int quantity) {
+        public StorageEntry(String itemId, long quantity, Material material, String nexoId) {
             this.itemId = itemId;
             this.quantity = quantity;
+            this.material = material;
+            this.nexoId = nexoId;
         }
     }
     
@@ -211,6 +206,7 @@ public class StorageFilterHandler {
         public String searchQuery = "";
         public ItemTypeFilter typeFilter = ItemTypeFilter.ALL;
         public SortMode sortMode = SortMode.RECENT;
+        public int page = 0;
     }
     
     /**
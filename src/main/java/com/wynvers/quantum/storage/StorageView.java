@@ -0,0 +1,239 @@
+package com.wynvers.quantum.storage;
+
+import com.wynvers.quantum.storage.StorageFilterHandler.ItemTypeFilter;
+import com.wynvers.quantum.storage.StorageFilterHandler.SortMode;
+import com.wynvers.quantum.storage.StorageFilterHandler.StorageEntry;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vue triée du contenu d'un PlayerStorage, tenue à jour à chaque modification
+ *
+ * - Une entrée par item avec son id unifié et son nom de recherche en minuscules,
+ *   calculés une seule fois à l'apparition de l'item.
+ * - Les entrées sont rangées dans une liste triée selon le mode de tri courant : un
+ *   changement de quantité ne déplace que l'entrée concernée (recherche dichotomique),
+ *   et une page sans filtre est une simple tranche de la liste.
+ * - Changer de mode de tri retrie la liste une fois.
+ */
+public final class StorageView {
+
+    private static final class Entry {
+        private final Material material;
+        private final String nexoId;
+        private final String itemId;
+        private final String displayName;
+        private final String searchName;
+        private final long sequence;
+        private long quantity;
+
+        Entry(Material material, String nexoId, String itemId, long sequence, long quantity) {
+            this.material = material;
+            this.nexoId = nexoId;
+            this.itemId = itemId;
+            this.displayName = formatItemName(itemId);
+            this.searchName = displayName.toLowerCase();
+            this.sequence = sequence;
+            this.quantity = quantity;
+        }
+
+        StorageEntry snapshot() {
+            return new StorageEntry(itemId, quantity, material, nexoId);
+        }
+    }
+
+    // Tous les comparateurs départagent par ordre d'apparition : l'ordre est total,
+    // une recherche dichotomique retrouve donc exactement l'entrée
+    private static final Comparator<Entry> BY_SEQUENCE = Comparator.comparingLong(e -> e.sequence);
+
+    private final Map<Material, Entry> vanilla = new EnumMap<>(Material.class);
+    private final Map<String, Entry> nexo = new HashMap<>();
+    private final List<Entry> sorted = new ArrayList<>();
+    private SortMode sortMode = SortMode.RECENT;
+    private Comparator<Entry> comparator = comparator(SortMode.RECENT);
+    private long nextSequence;
+
+    StorageView() {
+    }
+
+    /**
+     * Formate un itemId pour l'affichage et la recherche ("minecraft:oak_log" -> "oak log")
+     */
+    static String formatItemName(String itemId) {
+        if (itemId.startsWith("nexo:")) {
+            return itemId.substring(5).replace("_", " ");
+        } else if (itemId.startsWith("minecraft:")) {
+            return itemId.substring(10).replace("_", " ");
+        }
+        return itemId.replace("_", " ");
+    }
+
+    /**
+     * Met à jour la quantité d'une clé d'item ({@link ItemKeys}) ; 0 retire l'entrée
+     */
+    void set(int key, long quantity) {
+        Material material = ItemKeys.material(key);
+        if (material != null) {
+            setVanilla(material, key, quantity);
+        } else {
+            setNexo(ItemKeys.nexoId(key), key, quantity);
+        }
+    }
+
+    private synchronized void setVanilla(Material material, int key, long quantity) {
+        Entry entry = vanilla.get(material);
+        if (entry == null) {
+            if (quantity > 0) {
+                entry = new Entry(material, null, ItemKeys.itemId(key), nextSequence++, quantity);
+                vanilla.put(material, entry);
+                insert(entry);
+            }
+        } else if (quantity <= 0) {
+            vanilla.remove(material);
+            remove(entry);
+        } else {
+            setQuantity(entry, quantity);
+        }
+    }
+
+    private synchronized void setNexo(String nexoId, int key, long quantity) {
+        Entry entry = nexo.get(nexoId);
+        if (entry == null) {
+            if (quantity > 0) {
+                entry = new Entry(null, nexoId, ItemKeys.itemId(key), nextSequence++, quantity);
+                nexo.put(nexoId, entry);
+                insert(entry);
+            }
+        } else if (quantity <= 0) {
+            nexo.remove(nexoId);
+            remove(entry);
+        } else {
+            setQuantity(entry, quantity);
+        }
+    }
+
+    /**
+     * Entrées d'une page, dans l'ordre du mode de tri (copies : la vue continue d'évoluer)
+     *
+     * @param offset nombre d'entrées correspondant aux filtres à sauter
+     * @param limit  nombre maximum d'entrées à renvoyer
+     */
+    public synchronized List<StorageEntry> getEntries(SortMode mode, String query, ItemTypeFilter typeFilter,
+                                                      int offset, int limit) {
+        sortBy(mode);
+        int start = Math.max(0, offset);
+        List<StorageEntry> page = new ArrayList<>(Math.max(0, Math.min(limit, sorted.size() - start)));
+        if (limit <= 0) {
+            return page;
+        }
+
+        if (!isFiltered(query, typeFilter)) {
+            int end = (int) Math.min(sorted.size(), (long) start + limit);
+            for (int i = start; i < end; i++) {
+                page.add(sorted.get(i).snapshot());
+            }
+            return page;
+        }
+
+        int skipped = 0;
+        for (Entry entry : sorted) {
+            if (!matches(entry, query, typeFilter)) {
+                continue;
+            }
+            if (skipped < start) {
+                skipped++;
+                continue;
+            }
+            page.add(entry.snapshot());
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Nombre d'entrées correspondant aux filtres
+     */
+    public synchronized int count(String query, ItemTypeFilter typeFilter) {
+        if (!isFiltered(query, typeFilter)) {
+            return sorted.size();
+        }
+        int count = 0;
+        for (Entry entry : sorted) {
+            if (matches(entry, query, typeFilter)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized int size() {
+        return sorted.size();
+    }
+
+    private static boolean isFiltered(String query, ItemTypeFilter typeFilter) {
+        return (query != null && !query.isEmpty()) || (typeFilter != null && typeFilter != ItemTypeFilter.ALL);
+    }
+
+    private static boolean matches(Entry entry, String query, ItemTypeFilter typeFilter) {
+        if (typeFilter == ItemTypeFilter.NEXO_ONLY && entry.nexoId == null) {
+            return false;
+        }
+        if (typeFilter == ItemTypeFilter.MINECRAFT_ONLY && entry.material == null) {
+            return false;
+        }
+        return query == null || query.isEmpty() || entry.searchName.contains(query);
+    }
+
+    private void setQuantity(Entry entry, long quantity) {
+        if (entry.quantity == quantity) {
+            return;
+        }
+        if (sortMode == SortMode.QUANTITY_ASC || sortMode == SortMode.QUANTITY_DESC) {
+            // La clé de tri change : retirer avec l'ancienne quantité, réinsérer avec la nouvelle
+            remove(entry);
+            entry.quantity = quantity;
+            insert(entry);
+        } else {
+            entry.quantity = quantity;
+        }
+    }
+
+    private void insert(Entry entry) {
+        int index = Collections.binarySearch(sorted, entry, comparator);
+        sorted.add(index < 0 ? -index - 1 : index, entry);
+    }
+
+    private void remove(Entry entry) {
+        int index = Collections.binarySearch(sorted, entry, comparator);
+        if (index >= 0) {
+            sorted.remove(index);
+        }
+    }
+
+    private void sortBy(SortMode mode) {
+        if (mode == null || mode == sortMode) {
+            return;
+        }
+        sortMode = mode;
+        comparator = comparator(mode);
+        sorted.sort(comparator);
+    }
+
+    private static Comparator<Entry> comparator(SortMode mode) {
+        return switch (mode) {
+            case QUANTITY_DESC -> Comparator.<Entry>comparingLong(e -> e.quantity).reversed().thenComparing(BY_SEQUENCE);
+            case QUANTITY_ASC -> Comparator.<Entry>comparingLong(e -> e.quantity).thenComparing(BY_SEQUENCE);
+            case ALPHABETICAL -> Comparator.<Entry, String>comparing(e -> e.displayName).thenComparing(BY_SEQUENCE);
+            case RECENT -> BY_SEQUENCE;
+        };
+    }
+}
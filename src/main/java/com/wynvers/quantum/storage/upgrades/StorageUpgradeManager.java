@@ -1,15 +1,16 @@
 package com.wynvers.quantum.storage.upgrades;
 
 import com.wynvers.quantum.Quantum;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Gère l'état des upgrades par stockage Quantum.
@@ -44,8 +45,12 @@ public class StorageUpgradeManager {
     }
 
     // Ici on fait simple : 1 storage par joueur => key = UUID du joueur
-    private final Map<UUID, StorageState> states = new HashMap<>();
-    private final java.util.Set<UUID> loaded = new java.util.HashSet<>();
+    // Lus depuis le thread de pré-connexion (préchargement) comme depuis le thread principal
+    private final Map<UUID, StorageState> states = new ConcurrentHashMap<>();
+    // Joueurs connectés dont l'état est chargé en arrière-plan
+    private final java.util.Set<UUID> loading = ConcurrentHashMap.newKeySet();
+    // Sauvegardes en file par joueur : l'état reste en mémoire (source de vérité) tant qu'il en reste
+    private final Map<UUID, Integer> pendingSaves = new ConcurrentHashMap<>();
     private volatile com.wynvers.quantum.Quantum plugin;
     private final String tableName;
 
@@ -65,32 +70,73 @@ public class StorageUpgradeManager {
     }
 
     public StorageState getState(Player player) {
-        UUID uuid = player.getUniqueId();
-        if (!loaded.contains(uuid) && plugin != null) {
-            loaded.add(uuid);
-            load(uuid, plugin);
-        }
-        return states.computeIfAbsent(uuid, id -> {
-            StorageState s = new StorageState();
-            s.autoSellLimit = 0;
-            s.multiplier = 1.0;
-            return s;
-        });
+        return getState(player.getUniqueId());
     }
 
+    /**
+     * État des upgrades. Pour un joueur connecté il a été préchargé par la session ;
+     * sinon (joueur hors ligne) il est chargé depuis la base au premier accès.
+     * Un joueur connecté non préchargé n'est jamais lu depuis le thread principal :
+     * son état est chargé en arrière-plan et un état par défaut, non conservé, est renvoyé.
+     */
     public StorageState getState(UUID uuid) {
-        if (!loaded.contains(uuid) && plugin != null) {
-            loaded.add(uuid);
-            load(uuid, plugin);
+        StorageState state = states.get(uuid);
+        if (state != null) {
+            return state;
+        }
+        if (plugin == null) {
+            return states.computeIfAbsent(uuid, id -> newState());
+        }
+
+        if (Bukkit.getPlayer(uuid) != null) {
+            loadAsync(uuid);
+            return newState();
+        }
+
+        load(uuid, plugin);
+        state = states.get(uuid);
+        return state != null ? state : newState();
+    }
+
+    /**
+     * true si l'état du joueur est en mémoire (et donc sauvegardable)
+     */
+    public boolean isLoaded(UUID uuid) {
+        return states.containsKey(uuid);
+    }
+
+    private void loadAsync(UUID uuid) {
+        if (!loading.add(uuid)) {
+            return;
         }
-        return states.computeIfAbsent(uuid, id -> {
-            StorageState s = new StorageState();
-            s.autoSellLimit = 0;
-            s.multiplier = 1.0;
-            return s;
+        plugin.getDatabaseManager().runAsync(() -> {
+            try {
+                load(uuid, plugin);
+            } finally {
+                loading.remove(uuid);
+            }
         });
     }
 
+    /**
+     * Refuse un upgrade tant que l'état du joueur n'est pas chargé : il ne pourrait pas être sauvegardé
+     */
+    private boolean rejectWhileLoading(Player player) {
+        if (isLoaded(player.getUniqueId())) {
+            return false;
+        }
+        getState(player);
+        player.sendMessage("§cVos upgrades sont en cours de chargement, réessayez dans un instant.");
+        return true;
+    }
+
+    private static StorageState newState() {
+        StorageState s = new StorageState();
+        s.autoSellLimit = 0;
+        s.multiplier = 1.0;
+        return s;
+    }
+
     // ===== Capacité =====
 
     public int getMaxStacks(StorageState state) {
@@ -156,6 +202,7 @@ public class StorageUpgradeManager {
     // ===== Nouveaux upgrades =====
 
     public void upgradeMultiplier(Player player, Quantum plugin) {
+        if (rejectWhileLoading(player)) return;
         StorageState state = getState(player);
         state.multiplierLevel++;
         save(player.getUniqueId(), plugin);
@@ -164,6 +211,7 @@ public class StorageUpgradeManager {
     }
 
     public void upgradeStack(Player player, Quantum plugin) {
+        if (rejectWhileLoading(player)) return;
         StorageState state = getState(player);
         state.stackLevel++;
         save(player.getUniqueId(), plugin);
@@ -172,6 +220,7 @@ public class StorageUpgradeManager {
     }
 
     public void upgradePage(Player player, Quantum plugin) {
+        if (rejectWhileLoading(player)) return;
         StorageState state = getState(player);
         if (1 + state.pageLevel >= MAX_PAGES) {
             player.sendMessage("§c§l✗ §cNombre de pages maximum atteint! §7(max §f" + MAX_PAGES + " §7pages)");
@@ -207,40 +256,98 @@ public class StorageUpgradeManager {
 
     public void load(UUID uuid, Quantum plugin) {
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            String query = "SELECT multiplier_level, stack_level, page_level FROM " + tableName + " WHERE player_uuid = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setString(1, uuid.toString());
-                ResultSet rs = stmt.executeQuery();
+            preload(conn, uuid);
+        } catch (SQLException e) {
+            plugin.getQuantumLogger().error("Failed to load storage upgrades for " + uuid + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Charge et publie l'état d'un joueur (session de connexion, thread async).
+     *
+     * Un état en mémoire n'est pas relu : il reste la source de vérité, et il n'est retiré
+     * ({@link #unload}) qu'une fois toutes ses sauvegardes écrites. Un état absent n'a donc
+     * aucune écriture en attente, et la lecture voit la dernière valeur sauvegardée.
+     *
+     * @return l'état effectivement utilisé
+     */
+    public StorageState preload(Connection conn, UUID uuid) throws SQLException {
+        StorageState current = states.get(uuid);
+        if (current != null) {
+            return current;
+        }
+        return install(uuid, loadState(conn, uuid));
+    }
+
+    /**
+     * Lit les niveaux d'upgrade sur une connexion existante, sans toucher au cache
+     */
+    public StorageState loadState(Connection conn, UUID uuid) throws SQLException {
+        StorageState state = newState();
+        String query = "SELECT multiplier_level, stack_level, page_level FROM " + tableName + " WHERE player_uuid = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, uuid.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    StorageState state = getState(uuid);
                     state.multiplierLevel = rs.getInt("multiplier_level");
                     state.stackLevel = rs.getInt("stack_level");
                     state.pageLevel = rs.getInt("page_level");
                 }
             }
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to load storage upgrades for " + uuid + ": " + e.getMessage());
+        }
+        return state;
+    }
+
+    /**
+     * Publie un état préchargé. Un état déjà en mémoire (reconnexion rapide) reste prioritaire.
+     * @return l'état effectivement utilisé
+     */
+    public StorageState install(UUID uuid, StorageState state) {
+        StorageState current = states.putIfAbsent(uuid, state);
+        return current != null ? current : state;
+    }
+
+    /**
+     * Retire l'état d'un joueur déconnecté. Gardé tant qu'une sauvegarde est en file :
+     * la dernière sauvegarde écrite le retire (voir {@link #save}).
+     */
+    public void unload(UUID uuid) {
+        if (!pendingSaves.containsKey(uuid)) {
+            states.remove(uuid);
         }
     }
 
     public void save(UUID uuid, Quantum plugin) {
         StorageState state = states.get(uuid);
         if (state == null) return;
-        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            String upsert = "INSERT INTO " + tableName + " (player_uuid, multiplier_level, stack_level, page_level) "
-                    + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
-                    + "multiplier_level = VALUES(multiplier_level), "
-                    + "stack_level = VALUES(stack_level), "
-                    + "page_level = VALUES(page_level)";
+        // Snapshot des niveaux : l'écriture part sur l'exécuteur DB
+        int multiplierLevel = state.multiplierLevel;
+        int stackLevel = state.stackLevel;
+        int pageLevel = state.pageLevel;
+        String upsert = "INSERT INTO " + tableName + " (player_uuid, multiplier_level, stack_level, page_level) "
+                + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+                + "multiplier_level = VALUES(multiplier_level), "
+                + "stack_level = VALUES(stack_level), "
+                + "page_level = VALUES(page_level)";
+        pendingSaves.merge(uuid, 1, Integer::sum);
+        plugin.getDatabaseManager().execute("save storage upgrades for " + uuid, conn -> {
             try (PreparedStatement stmt = conn.prepareStatement(upsert)) {
                 stmt.setString(1, uuid.toString());
-                stmt.setInt(2, state.multiplierLevel);
-                stmt.setInt(3, state.stackLevel);
-                stmt.setInt(4, state.pageLevel);
+                stmt.setInt(2, multiplierLevel);
+                stmt.setInt(3, stackLevel);
+                stmt.setInt(4, pageLevel);
                 stmt.executeUpdate();
             }
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to save storage upgrades for " + uuid + ": " + e.getMessage());
-        }
+        }).whenComplete((ignored, error) -> {
+            if (pendingSaves.computeIfPresent(uuid, (id, count) -> count > 1 ? count - 1 : null) == null
+                    && Bukkit.getPlayer(uuid) == null && !isSessionActive(uuid)) {
+                // Le joueur est parti pendant l'écriture : l'éviction différée se fait ici
+                states.remove(uuid);
+            }
+        });
+    }
+
+    private boolean isSessionActive(UUID uuid) {
+        return plugin.getSessionLoader() != null && plugin.getSessionLoader().isActive(uuid);
     }
 }
@@ -63,6 +63,8 @@ public class QuantumTabCompleter implements TabCompleter {
             // Ajouter storages si admin
             if (sender.hasPermission("quantum.admin")) {
                 subcommands.add("storages");
+                subcommands.add("db");
+                subcommands.add("placeholders");
             }
             
             // Filtrer les suggestions basées sur ce que l'utilisateur a tapé
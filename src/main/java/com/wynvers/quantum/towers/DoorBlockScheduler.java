@@ -0,0 +1,195 @@
+package com.wynvers.quantum.towers;
+
+import com.wynvers.quantum.Quantum;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Retire et remet les blocs des portes de tour sur plusieurs ticks
+ *
+ * - Chaque tick traite au plus {@code towers.door-blocks-per-tick} positions, toutes portes
+ *   confondues, dans l'ordre où les portes ont été demandées.
+ * - Une porte garde un seul tableau de BlockData, indexé dans l'ordre de parcours de sa boîte :
+ *   les blocs [0, removed) sont retirés et sauvegardés. Ouvrir avance ce curseur, fermer le
+ *   recule ; une porte refermée pendant son ouverture (ou l'inverse) repart donc de là où
+ *   elle en est, sans jamais relire l'air qu'elle a elle-même posé.
+ */
+final class DoorBlockScheduler {
+
+    private static final int DEFAULT_BLOCKS_PER_TICK = 256;
+
+    private static final class DoorBlocks {
+        final World world;
+        final int minX, minY, minZ;
+        final int sizeY, sizeZ;
+        final BlockData[] data;
+        int removed;
+        boolean opening;
+
+        DoorBlocks(TowerDoorManager.DoorConfig config) {
+            this.world = config.getPos1().getWorld();
+            this.minX = config.getMinX();
+            this.minY = config.getMinY();
+            this.minZ = config.getMinZ();
+            this.sizeY = config.getMaxY() - minY + 1;
+            this.sizeZ = config.getMaxZ() - minZ + 1;
+            this.data = new BlockData[config.getBlockCount()];
+        }
+
+        /**
+         * Même monde et même boîte : un nombre de blocs identique ne suffit pas
+         */
+        boolean matches(TowerDoorManager.DoorConfig config) {
+            return world.equals(config.getPos1().getWorld())
+                && minX == config.getMinX() && minY == config.getMinY() && minZ == config.getMinZ()
+                && sizeY == config.getMaxY() - config.getMinY() + 1
+                && sizeZ == config.getMaxZ() - config.getMinZ() + 1
+                && data.length == config.getBlockCount();
+        }
+
+        Block blockAt(int index) {
+            int z = index % sizeZ;
+            int y = (index / sizeZ) % sizeY;
+            int x = index / (sizeZ * sizeY);
+            return world.getBlockAt(minX + x, minY + y, minZ + z);
+        }
+
+        boolean isDone() {
+            return opening ? removed == data.length : removed == 0;
+        }
+    }
+
+    private final Quantum plugin;
+    private final Map<String, DoorBlocks> doors = new LinkedHashMap<>();
+    private BukkitTask task;
+
+    DoorBlockScheduler(Quantum plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Planifie le retrait des blocs de la porte
+     */
+    void open(String doorId, TowerDoorManager.DoorConfig config) {
+        DoorBlocks door = doors.get(doorId);
+        if (door == null || !door.matches(config)) {
+            if (door != null) {
+                // Porte redéfinie pendant une fermeture : finir de remettre l'ancienne boîte
+                run(door, Integer.MAX_VALUE, false);
+            }
+            door = new DoorBlocks(config);
+            doors.put(doorId, door);
+        }
+        door.opening = true;
+        ensureRunning();
+    }
+
+    /**
+     * Planifie la remise des blocs de la porte
+     */
+    void close(String doorId) {
+        DoorBlocks door = doors.get(doorId);
+        if (door == null) return;
+        door.opening = false;
+        ensureRunning();
+    }
+
+    /**
+     * Remet immédiatement tous les blocs retirés (arrêt du plugin)
+     */
+    void restoreAll() {
+        for (DoorBlocks door : doors.values()) {
+            run(door, Integer.MAX_VALUE, false);
+        }
+        doors.clear();
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Nombre de positions encore à traiter, toutes portes confondues
+     */
+    int getPendingBlocks() {
+        int pending = 0;
+        for (DoorBlocks door : doors.values()) {
+            pending += door.opening ? door.data.length - door.removed : door.removed;
+        }
+        return pending;
+    }
+
+    private void ensureRunning() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        int budget = Math.max(1, plugin.getConfig().getInt("towers.door-blocks-per-tick", DEFAULT_BLOCKS_PER_TICK));
+
+        Iterator<DoorBlocks> it = doors.values().iterator();
+        while (it.hasNext() && budget > 0) {
+            DoorBlocks door = it.next();
+            if (!door.isDone()) {
+                budget -= run(door, budget, door.opening);
+            }
+            // Une porte refermée n'a plus rien à garder
+            if (!door.opening && door.removed == 0) {
+                it.remove();
+            }
+        }
+
+        boolean idle = true;
+        for (DoorBlocks door : doors.values()) {
+            if (!door.isDone()) {
+                idle = false;
+                break;
+            }
+        }
+        if (idle && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * @return nombre de positions traitées
+     */
+    private static int run(DoorBlocks door, int budget, boolean opening) {
+        int processed = 0;
+        if (opening) {
+            while (door.removed < door.data.length && processed < budget) {
+                Block block = door.blockAt(door.removed);
+                if (block.getType() == Material.AIR) {
+                    door.data[door.removed] = null;
+                } else {
+                    // getBlockData() renvoie déjà une copie : pas de clone
+                    door.data[door.removed] = block.getBlockData();
+                    block.setType(Material.AIR, false);
+                }
+                door.removed++;
+                processed++;
+            }
+        } else {
+            while (door.removed > 0 && processed < budget) {
+                door.removed--;
+                BlockData data = door.data[door.removed];
+                if (data != null) {
+                    door.blockAt(door.removed).setBlockData(data, false);
+                    door.data[door.removed] = null;
+                }
+                processed++;
+            }
+        }
+        return processed;
+    }
+}
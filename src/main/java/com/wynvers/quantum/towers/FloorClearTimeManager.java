@@ -90,7 +90,7 @@ public class FloorClearTimeManager {
         }
 
         // Persist asynchronously
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> saveRecord(uuid, name, towerId, floor, timeMs));
+        saveRecord(uuid, name, towerId, floor, timeMs);
     }
 
     /**
@@ -132,10 +132,7 @@ public class FloorClearTimeManager {
     // ------------------------------------------------------------------
 
     private void loadAll() {
-        try {
-            Connection conn = plugin.getDatabaseManager().getConnection();
-            if (conn == null) return;
-
+        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
             String sql = "SELECT uuid, tower_id, floor, clear_time_ms, player_name FROM quantum_floor_clear_times ORDER BY clear_time_ms ASC";
             try (PreparedStatement ps = conn.prepareStatement(sql);
                  ResultSet rs = ps.executeQuery()) {
@@ -169,16 +166,13 @@ public class FloorClearTimeManager {
     }
 
     private void saveRecord(UUID uuid, String playerName, String towerId, int floor, long timeMs) {
-        try {
-            Connection conn = plugin.getDatabaseManager().getConnection();
-            if (conn == null) return;
-
-            // INSERT or UPDATE only if new time is better
-            String sql = "INSERT INTO quantum_floor_clear_times (uuid, tower_id, floor, clear_time_ms, player_name) "
-                    + "VALUES (?, ?, ?, ?, ?) "
-                    + "ON DUPLICATE KEY UPDATE clear_time_ms = LEAST(clear_time_ms, VALUES(clear_time_ms)), "
-                    + "player_name = IF(VALUES(clear_time_ms) < clear_time_ms, VALUES(player_name), player_name)";
+        // INSERT or UPDATE only if new time is better
+        String sql = "INSERT INTO quantum_floor_clear_times (uuid, tower_id, floor, clear_time_ms, player_name) "
+                + "VALUES (?, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE clear_time_ms = LEAST(clear_time_ms, VALUES(clear_time_ms)), "
+                + "player_name = IF(VALUES(clear_time_ms) < clear_time_ms, VALUES(player_name), player_name)";
 
+        plugin.getDatabaseManager().execute("save floor clear time", conn -> {
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setString(1, uuid.toString());
                 ps.setString(2, towerId);
@@ -187,9 +181,7 @@ public class FloorClearTimeManager {
                 ps.setString(5, playerName);
                 ps.executeUpdate();
             }
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to save floor clear time: " + e.getMessage());
-        }
+        });
     }
 
     // ------------------------------------------------------------------
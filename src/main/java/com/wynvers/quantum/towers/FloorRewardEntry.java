@@ -1,5 +1,7 @@
 package com.wynvers.quantum.towers;
 
+import org.bukkit.inventory.ItemStack;
+
 /**
  * Represents a single selectable reward entry shown in the floor reward selection menu.
  *
@@ -9,6 +11,10 @@ package com.wynvers.quantum.towers;
  *   <li>{@link Type#MYTHIC} – an item delivered via the MythicMobs API</li>
  *   <li>{@link Type#COMMAND} – a console command (auto-executed, not user-selectable)</li>
  * </ul>
+ *
+ * <p>The Nexo / MythicMobs {@link ItemStack} is resolved once and kept as a template;
+ * {@link #createItem()} only clones it. If the item API is not ready yet when towers.yml is
+ * compiled (Nexo loads its items after us), resolution is retried on the next use.
  */
 public class FloorRewardEntry {
 
@@ -20,6 +26,9 @@ public class FloorRewardEntry {
     private final double chance;
     private final String message;  // optional message shown on claim (may be null)
 
+    /** Resolved item with the configured amount, or null until the item API returns it. */
+    private ItemStack template;
+
     public FloorRewardEntry(Type type, String id, int amount, double chance, String message) {
         this.type = type;
         this.id = id;
@@ -33,4 +42,47 @@ public class FloorRewardEntry {
     public int getAmount() { return amount; }
     public double getChance() { return chance; }
     public String getMessage() { return message; }
+
+    /**
+     * Resolve the item template now (called when towers.yml is compiled).
+     *
+     * @return true if the template is available
+     */
+    public boolean prepare() {
+        if (template == null) {
+            template = resolve();
+        }
+        return template != null;
+    }
+
+    /**
+     * @return a fresh copy of the reward item, or null if the item does not exist
+     */
+    public ItemStack createItem() {
+        return prepare() ? template.clone() : null;
+    }
+
+    private ItemStack resolve() {
+        ItemStack item = null;
+        try {
+            if (type == Type.NEXO) {
+                com.nexomc.nexo.items.ItemBuilder builder = com.nexomc.nexo.api.NexoItems.itemFromId(id);
+                if (builder != null) {
+                    item = builder.build();
+                }
+            } else if (type == Type.MYTHIC) {
+                ItemStack mythicItem = io.lumine.mythic.bukkit.MythicBukkit.inst()
+                        .getItemManager().getItemStack(id);
+                if (mythicItem != null) {
+                    item = mythicItem.clone();
+                }
+            }
+        } catch (Exception | LinkageError ignored) {
+            // API not available (plugin missing or not loaded yet)
+        }
+        if (item != null) {
+            item.setAmount(amount);
+        }
+        return item;
+    }
 }
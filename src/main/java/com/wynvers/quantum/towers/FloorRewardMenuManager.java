@@ -46,6 +46,7 @@ public class FloorRewardMenuManager implements Listener {
 
     private static final class RewardSession {
         final Inventory inventory;
+        final FloorRewards rewards;
         final List<FloorRewardEntry> entries;
         /** Inventory slots that contain reward items (parallel to entries list). */
         final int[] rewardSlots;
@@ -57,10 +58,11 @@ public class FloorRewardMenuManager implements Listener {
         /** Guards against duplicate command-reward execution. */
         boolean commandsExecuted = false;
 
-        RewardSession(Inventory inventory, List<FloorRewardEntry> entries,
+        RewardSession(Inventory inventory, FloorRewards rewards,
                       int[] rewardSlots, int maxChoices, String towerId, int floor) {
             this.inventory = inventory;
-            this.entries = entries;
+            this.rewards = rewards;
+            this.entries = rewards.getItems();
             this.rewardSlots = rewardSlots;
             this.maxChoices = maxChoices;
             this.towerId = towerId;
@@ -69,12 +71,131 @@ public class FloorRewardMenuManager implements Listener {
         }
     }
 
+    // ------------------------------------------------------------------ //
+    // Menu layout (compiled from menus/floor_rewards.yml)
+    // ------------------------------------------------------------------ //
+
+    private static final List<Integer> DEFAULT_REWARD_SLOTS = List.of(11, 13, 15, 20, 22, 24, 29, 31, 33);
+
+    private static final class Layout {
+        /** Title with colour codes translated, {choices} still to replace. */
+        final String title;
+        final int size;
+        final int maxChoices;
+        final int[] rewardSlots;
+        final ItemStack background;
+        /** -1 when the file has no info section. */
+        final int infoSlot;
+        final Material infoMaterial;
+        final String infoName;
+        /** Lore with colour codes translated, {choices}/{remaining} still to replace. */
+        final List<String> infoLore;
+        final int closeSlot;
+        final ItemStack closeItem;
+
+        Layout(String title, int size, int maxChoices, int[] rewardSlots, ItemStack background,
+               int infoSlot, Material infoMaterial, String infoName, List<String> infoLore,
+               int closeSlot, ItemStack closeItem) {
+            this.title = title;
+            this.size = size;
+            this.maxChoices = maxChoices;
+            this.rewardSlots = rewardSlots;
+            this.background = background;
+            this.infoSlot = infoSlot;
+            this.infoMaterial = infoMaterial;
+            this.infoName = infoName;
+            this.infoLore = infoLore;
+            this.closeSlot = closeSlot;
+            this.closeItem = closeItem;
+        }
+    }
+
+    /** Replaced as a whole on reload; open sessions keep the layout they were built with. */
+    private volatile Layout layout;
+
     // ------------------------------------------------------------------ //
     // Constructor
     // ------------------------------------------------------------------ //
 
     public FloorRewardMenuManager(Quantum plugin) {
         this.plugin = plugin;
+        this.layout = loadLayout();
+    }
+
+    /**
+     * Re-read {@code menus/floor_rewards.yml}. Called by {@link TowerManager#reload()}.
+     */
+    public void reload() {
+        this.layout = loadLayout();
+    }
+
+    private Layout loadLayout() {
+        File configFile = new File(plugin.getDataFolder(), "menus/floor_rewards.yml");
+        FileConfiguration cfg = configFile.exists()
+                ? YamlConfiguration.loadConfiguration(configFile)
+                : new YamlConfiguration();
+
+        String title = color(cfg.getString("title",
+                "&6\u2756 R\u00e9compenses &e- Choisissez &6{choices} r\u00e9compenses"));
+        int size = cfg.getInt("size", 54);
+        int maxChoices = cfg.getInt("choices", 3);
+
+        List<Integer> rewardSlotsList = cfg.getIntegerList("reward_slots");
+        if (rewardSlotsList.isEmpty()) {
+            rewardSlotsList = DEFAULT_REWARD_SLOTS;
+        }
+        int[] rewardSlots = rewardSlotsList.stream().mapToInt(Integer::intValue).toArray();
+
+        ItemStack background = makeSimpleItem(
+                material(cfg.getString("background.material"), Material.BLACK_STAINED_GLASS_PANE),
+                color(cfg.getString("background.display_name", " ")), null);
+
+        int infoSlot = -1;
+        Material infoMaterial = Material.NETHER_STAR;
+        String infoName = null;
+        List<String> infoLore = List.of();
+        ConfigurationSection infoSec = cfg.getConfigurationSection("info");
+        if (infoSec != null) {
+            infoSlot = infoSec.getInt("slot", 4);
+            infoMaterial = material(infoSec.getString("material"), Material.NETHER_STAR);
+            infoName = color(infoSec.getString("display_name", "&6\u2756 R\u00e9compenses d'\u00c9tage"));
+            infoLore = colorLines(infoSec.getStringList("lore"));
+        }
+
+        int closeSlot = cfg.getInt("close_button.slot", 49);
+        ItemStack closeItem;
+        ConfigurationSection closeSec = cfg.getConfigurationSection("close_button");
+        if (closeSec != null) {
+            closeItem = makeSimpleItem(material(closeSec.getString("material"), Material.BARRIER),
+                    color(closeSec.getString("display_name", "&cFermer")), colorLines(closeSec.getStringList("lore")));
+        } else {
+            closeItem = makeSimpleItem(Material.BARRIER, ChatColor.RED + "Fermer", null);
+        }
+
+        return new Layout(title, size, maxChoices, rewardSlots, background,
+                infoSlot, infoMaterial, infoName, infoLore, closeSlot, closeItem);
+    }
+
+    private Material material(String name, Material def) {
+        if (name == null) return def;
+        Material material = Material.matchMaterial(name);
+        if (material == null) {
+            plugin.getQuantumLogger().warning("[FloorReward] Invalid material in floor_rewards.yml: " + name);
+            return def;
+        }
+        return material;
+    }
+
+    private static String color(String text) {
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+
+    private static List<String> colorLines(List<String> lines) {
+        List<String> result = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            result.add(color(line));
+        }
+        return result;
     }
 
     // ------------------------------------------------------------------ //
@@ -93,88 +214,43 @@ public class FloorRewardMenuManager implements Listener {
      */
     public void openForPlayer(Player player, String towerId, int floor) {
         TowerRewardManager rewardManager = plugin.getTowerManager().getRewardManager();
-        List<FloorRewardEntry> entries = rewardManager.buildRewardEntries(towerId, floor);
+        FloorRewards rewards = rewardManager.getFloorRewards(towerId, floor);
+        List<FloorRewardEntry> entries = rewards.getItems();
 
         if (entries.isEmpty()) {
             // No visual rewards – execute command rewards immediately and return
-            rewardManager.executeCommandRewardsOnly(player, towerId, floor);
-            sendRewardMessage(player, towerId, floor);
+            rewardManager.executeCommandRewards(player, rewards);
+            sendRewardMessage(player, rewards);
             return;
         }
 
-        // ---- Load menu layout config ----
-        File configFile = new File(plugin.getDataFolder(), "menus/floor_rewards.yml");
-        FileConfiguration cfg = configFile.exists()
-                ? YamlConfiguration.loadConfiguration(configFile)
-                : new YamlConfiguration();
-
-        String rawTitle = cfg.getString("title",
-                "&6\u2756 R\u00e9compenses &e- Choisissez &6{choices} r\u00e9compenses");
-        int size = cfg.getInt("size", 54);
-        int maxChoices = cfg.getInt("choices", 3);
-
-        List<Integer> rewardSlotsList = cfg.getIntegerList("reward_slots");
-        if (rewardSlotsList.isEmpty()) {
-            rewardSlotsList = Arrays.asList(11, 13, 15, 20, 22, 24, 29, 31, 33);
-        }
-
-        int actualChoices = Math.min(maxChoices, entries.size());
-        // Replace {choices} placeholder before translating color codes
-        String title = ChatColor.translateAlternateColorCodes('&',
-                rawTitle.replace("{choices}", String.valueOf(actualChoices)));
+        Layout layout = this.layout;
+        int actualChoices = Math.min(layout.maxChoices, entries.size());
+        String title = layout.title.replace("{choices}", String.valueOf(actualChoices));
 
-        Inventory inv = Bukkit.createInventory(null, size, title);
+        Inventory inv = Bukkit.createInventory(null, layout.size, title);
 
         // ---- Background ----
-        String bgMat = cfg.getString("background.material", "BLACK_STAINED_GLASS_PANE");
-        String bgName = cfg.getString("background.display_name", " ");
-        ItemStack bgItem = makeSimpleItem(Material.valueOf(bgMat.toUpperCase()),
-                ChatColor.translateAlternateColorCodes('&', bgName), null);
-        for (int i = 0; i < size; i++) {
-            inv.setItem(i, bgItem.clone());
+        for (int i = 0; i < layout.size; i++) {
+            inv.setItem(i, layout.background.clone());
         }
 
         // ---- Info item ----
-        ConfigurationSection infoSec = cfg.getConfigurationSection("info");
-        int infoSlot = 4;
-        if (infoSec != null) {
-            infoSlot = infoSec.getInt("slot", 4);
-            String infoMat = infoSec.getString("material", "NETHER_STAR");
-            String infoName = infoSec.getString("display_name", "&6\u2756 R\u00e9compenses d'\u00c9tage");
-            List<String> infoLore = infoSec.getStringList("lore");
-            List<String> parsedLore = parseLore(infoLore, actualChoices, actualChoices);
-            inv.setItem(infoSlot, makeSimpleItem(Material.valueOf(infoMat.toUpperCase()),
-                    ChatColor.translateAlternateColorCodes('&', infoName), parsedLore));
+        if (layout.infoSlot >= 0) {
+            inv.setItem(layout.infoSlot, buildInfoItem(layout, actualChoices, actualChoices));
         }
 
         // ---- Close button ----
-        int closeSlot = cfg.getInt("close_button.slot", 49);
-        ConfigurationSection closeSec = cfg.getConfigurationSection("close_button");
-        if (closeSec != null) {
-            String closeMat = closeSec.getString("material", "BARRIER");
-            String closeName = closeSec.getString("display_name", "&cFermer");
-            List<String> closeLore = new ArrayList<>();
-            for (String line : closeSec.getStringList("lore")) {
-                closeLore.add(ChatColor.translateAlternateColorCodes('&', line));
-            }
-            inv.setItem(closeSlot, makeSimpleItem(Material.valueOf(closeMat.toUpperCase()),
-                    ChatColor.translateAlternateColorCodes('&', closeName), closeLore));
-        } else {
-            inv.setItem(closeSlot, makeSimpleItem(Material.BARRIER, ChatColor.RED + "Fermer", null));
-        }
+        inv.setItem(layout.closeSlot, layout.closeItem.clone());
 
         // ---- Reward items ----
-        int[] slotsArray = new int[Math.min(entries.size(), rewardSlotsList.size())];
+        int[] slotsArray = Arrays.copyOf(layout.rewardSlots, Math.min(entries.size(), layout.rewardSlots.length));
         for (int i = 0; i < slotsArray.length; i++) {
-            slotsArray[i] = rewardSlotsList.get(i);
-            ItemStack display = buildDisplayItem(entries.get(i));
-            if (display != null) {
-                inv.setItem(slotsArray[i], display);
-            }
+            inv.setItem(slotsArray[i], buildDisplayItem(entries.get(i)));
         }
 
         // ---- Open inventory and create session ----
-        RewardSession session = new RewardSession(inv, entries, slotsArray, actualChoices, towerId, floor);
+        RewardSession session = new RewardSession(inv, rewards, slotsArray, actualChoices, towerId, floor);
         sessions.put(player.getUniqueId(), session);
         player.openInventory(inv);
         player.playSound(player.getLocation(), Sound.BLOCK_CHEST_OPEN, 1.0f, 1.0f);
@@ -239,7 +315,7 @@ public class FloorRewardMenuManager implements Listener {
                 ChatColor.GREEN + "\u2713 R\u00e9compense r\u00e9clam\u00e9e!", null));
 
         session.remainingChoices--;
-        updateInfoSlot(session, plugin.getDataFolder());
+        updateInfoSlot(session);
 
         player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.5f);
 
@@ -265,9 +341,8 @@ public class FloorRewardMenuManager implements Listener {
         // Execute command rewards exactly once when the menu is closed
         if (!session.commandsExecuted) {
             session.commandsExecuted = true;
-            plugin.getTowerManager().getRewardManager()
-                    .executeCommandRewardsOnly(player, session.towerId, session.floor);
-            sendRewardMessage(player, session.towerId, session.floor);
+            plugin.getTowerManager().getRewardManager().executeCommandRewards(player, session.rewards);
+            sendRewardMessage(player, session.rewards);
         }
     }
 
@@ -277,31 +352,11 @@ public class FloorRewardMenuManager implements Listener {
 
     /** Give a single reward item to the player. */
     private void giveReward(Player player, FloorRewardEntry entry) {
-        try {
-            if (entry.getType() == FloorRewardEntry.Type.NEXO) {
-                com.nexomc.nexo.items.ItemBuilder builder =
-                        com.nexomc.nexo.api.NexoItems.itemFromId(entry.getId());
-                if (builder != null) {
-                    ItemStack item = builder.build();
-                    item.setAmount(entry.getAmount());
-                    player.getInventory().addItem(item);
-                } else {
-                    plugin.getQuantumLogger().warning("[FloorReward] Nexo item not found: " + entry.getId());
-                }
-            } else if (entry.getType() == FloorRewardEntry.Type.MYTHIC) {
-                ItemStack item = io.lumine.mythic.bukkit.MythicBukkit.inst()
-                        .getItemManager().getItemStack(entry.getId());
-                if (item != null) {
-                    item = item.clone();
-                    item.setAmount(entry.getAmount());
-                    player.getInventory().addItem(item);
-                } else {
-                    plugin.getQuantumLogger().warning("[FloorReward] MythicMobs item not found: " + entry.getId());
-                }
-            }
-        } catch (Exception e) {
-            plugin.getQuantumLogger().warning("[FloorReward] Failed to give reward '"
-                    + entry.getId() + "': " + e.getMessage());
+        ItemStack item = entry.createItem();
+        if (item != null) {
+            player.getInventory().addItem(item);
+        } else {
+            plugin.getQuantumLogger().warning("[FloorReward] " + entry.getType() + " item not found: " + entry.getId());
         }
 
         if (entry.getMessage() != null && !entry.getMessage().isEmpty()) {
@@ -311,29 +366,9 @@ public class FloorRewardMenuManager implements Listener {
 
     /** Build the ItemStack displayed in the selection GUI for a reward entry. */
     private ItemStack buildDisplayItem(FloorRewardEntry entry) {
-        ItemStack item = null;
-
-        try {
-            if (entry.getType() == FloorRewardEntry.Type.NEXO) {
-                com.nexomc.nexo.items.ItemBuilder builder =
-                        com.nexomc.nexo.api.NexoItems.itemFromId(entry.getId());
-                if (builder != null) {
-                    item = builder.build();
-                    item.setAmount(entry.getAmount());
-                }
-            } else if (entry.getType() == FloorRewardEntry.Type.MYTHIC) {
-                ItemStack mythicItem = io.lumine.mythic.bukkit.MythicBukkit.inst()
-                        .getItemManager().getItemStack(entry.getId());
-                if (mythicItem != null) {
-                    item = mythicItem.clone();
-                    item.setAmount(entry.getAmount());
-                }
-            }
-        } catch (Exception ignored) {
-            // API not available – fall through to fallback
-        }
-
+        ItemStack item = entry.createItem();
         if (item == null) {
+            // API not available – fall back to a chest
             item = new ItemStack(Material.CHEST);
         }
 
@@ -355,35 +390,21 @@ public class FloorRewardMenuManager implements Listener {
     }
 
     /** Refresh the info item in the inventory to reflect remaining choices. */
-    private void updateInfoSlot(RewardSession session, File dataFolder) {
-        File configFile = new File(dataFolder, "menus/floor_rewards.yml");
-        FileConfiguration cfg = configFile.exists()
-                ? YamlConfiguration.loadConfiguration(configFile)
-                : new YamlConfiguration();
-
-        ConfigurationSection infoSec = cfg.getConfigurationSection("info");
-        if (infoSec == null) return;
-
-        int infoSlot = infoSec.getInt("slot", 4);
-        String infoMat = infoSec.getString("material", "NETHER_STAR");
-        String infoName = infoSec.getString("display_name", "&6\u2756 R\u00e9compenses d'\u00c9tage");
-        List<String> parsedLore = parseLore(infoSec.getStringList("lore"),
-                session.maxChoices, session.remainingChoices);
-
-        session.inventory.setItem(infoSlot,
-                makeSimpleItem(Material.valueOf(infoMat.toUpperCase()),
-                        ChatColor.translateAlternateColorCodes('&', infoName), parsedLore));
+    private void updateInfoSlot(RewardSession session) {
+        Layout layout = this.layout;
+        if (layout.infoSlot < 0) return;
+        session.inventory.setItem(layout.infoSlot,
+                buildInfoItem(layout, session.maxChoices, session.remainingChoices));
     }
 
-    /** Parse lore lines, replacing {choices} and {remaining} placeholders. */
-    private List<String> parseLore(List<String> raw, int choices, int remaining) {
-        List<String> result = new ArrayList<>();
-        for (String line : raw) {
-            result.add(ChatColor.translateAlternateColorCodes('&',
-                    line.replace("{choices}", String.valueOf(choices))
-                        .replace("{remaining}", String.valueOf(remaining))));
+    /** Build the info item, replacing {choices} and {remaining} in its lore. */
+    private ItemStack buildInfoItem(Layout layout, int choices, int remaining) {
+        List<String> lore = new ArrayList<>(layout.infoLore.size());
+        for (String line : layout.infoLore) {
+            lore.add(line.replace("{choices}", String.valueOf(choices))
+                    .replace("{remaining}", String.valueOf(remaining)));
         }
-        return result;
+        return makeSimpleItem(layout.infoMaterial, layout.infoName, lore);
     }
 
     /** Create a simple ItemStack with display name, lore, and hidden attributes. */
@@ -401,13 +422,9 @@ public class FloorRewardMenuManager implements Listener {
     }
 
     /** Send the floor's completion message to the player if one is configured. */
-    private void sendRewardMessage(Player player, String towerId, int floor) {
-        File towersFile = new File(plugin.getDataFolder(), "towers.yml");
-        if (!towersFile.exists()) return;
-        FileConfiguration cfg = YamlConfiguration.loadConfiguration(towersFile);
-        String msg = cfg.getString("towers." + towerId + ".floors." + floor + ".rewards.message");
-        if (msg != null && !msg.isEmpty()) {
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', msg));
+    private void sendRewardMessage(Player player, FloorRewards rewards) {
+        if (rewards.getMessage() != null) {
+            player.sendMessage(rewards.getMessage());
         }
     }
 }
@@ -0,0 +1,135 @@
+package com.wynvers.quantum.towers;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compiled {@code rewards} section of a tower floor.
+ *
+ * <p>Built once when towers.yml is loaded and never modified afterwards: a reload builds
+ * new instances and swaps the whole tower map, so a reward menu that is already open keeps
+ * the rewards it was opened with.
+ *
+ * <p>Both YAML layouts are accepted for {@code nexo} / {@code mythic}: a list of maps
+ * (the layout of the default towers.yml) or a section of named sub-sections.
+ */
+public final class FloorRewards {
+
+    public static final FloorRewards EMPTY = new FloorRewards(List.of(), List.of(), null);
+
+    /** A console command executed with the given probability. */
+    public record CommandReward(String command, double chance) {
+    }
+
+    private final List<FloorRewardEntry> items;
+    private final List<CommandReward> commands;
+    private final String message;
+
+    private FloorRewards(List<FloorRewardEntry> items, List<CommandReward> commands, String message) {
+        this.items = items;
+        this.commands = commands;
+        this.message = message;
+    }
+
+    /**
+     * Compile a floor's {@code rewards} section.
+     *
+     * @param section the rewards section (may be null)
+     */
+    public static FloorRewards compile(ConfigurationSection section) {
+        if (section == null) return EMPTY;
+
+        List<FloorRewardEntry> items = new ArrayList<>();
+        compileItems(section, "nexo", FloorRewardEntry.Type.NEXO, items);
+        compileItems(section, "mythic", FloorRewardEntry.Type.MYTHIC, items);
+        for (FloorRewardEntry entry : items) {
+            entry.prepare();
+        }
+
+        List<CommandReward> commands = new ArrayList<>();
+        List<?> commandsList = section.getList("commands");
+        if (commandsList != null) {
+            for (Object obj : commandsList) {
+                if (obj instanceof String cmd) {
+                    commands.add(new CommandReward(cmd, 100.0));
+                } else if (obj instanceof Map<?, ?> cmdMap && cmdMap.get("cmd") instanceof String cmd) {
+                    commands.add(new CommandReward(cmd, toDouble(cmdMap.get("chance"), 100.0)));
+                }
+            }
+        }
+
+        String message = section.getString("message");
+        if (message != null && !message.isEmpty()) {
+            message = ChatColor.translateAlternateColorCodes('&', message);
+        } else {
+            message = null;
+        }
+
+        if (items.isEmpty() && commands.isEmpty() && message == null) return EMPTY;
+        return new FloorRewards(Collections.unmodifiableList(items), Collections.unmodifiableList(commands), message);
+    }
+
+    private static void compileItems(ConfigurationSection section, String key, FloorRewardEntry.Type type,
+                                     List<FloorRewardEntry> out) {
+        List<?> list = section.getList(key);
+        if (list != null) {
+            for (Object obj : list) {
+                if (obj instanceof Map<?, ?> map) {
+                    addItem(type, map.get("id"), map.get("amount"), map.get("chance"), map.get("message"), out);
+                }
+            }
+            return;
+        }
+
+        ConfigurationSection itemsSection = section.getConfigurationSection(key);
+        if (itemsSection == null) return;
+        for (String itemKey : itemsSection.getKeys(false)) {
+            ConfigurationSection itemSection = itemsSection.getConfigurationSection(itemKey);
+            if (itemSection == null) continue;
+            addItem(type, itemSection.get("id"), itemSection.get("amount"), itemSection.get("chance"),
+                    itemSection.get("message"), out);
+        }
+    }
+
+    private static void addItem(FloorRewardEntry.Type type, Object id, Object amount, Object chance, Object message,
+                                List<FloorRewardEntry> out) {
+        if (id == null || String.valueOf(id).isEmpty()) return;
+        out.add(new FloorRewardEntry(type, String.valueOf(id),
+                amount instanceof Number n ? n.intValue() : 1,
+                toDouble(chance, 100.0),
+                message != null ? String.valueOf(message) : null));
+    }
+
+    private static double toDouble(Object value, double def) {
+        return value instanceof Number n ? n.doubleValue() : def;
+    }
+
+    /** @return true if a random roll falls within the given percentage [0, 100]; values >= 100 always succeed */
+    static boolean roll(Random random, double chance) {
+        return chance >= 100.0 || random.nextDouble() * 100.0 < chance;
+    }
+
+    /** Selectable Nexo / MythicMobs rewards, in configuration order. */
+    public List<FloorRewardEntry> getItems() {
+        return items;
+    }
+
+    public List<CommandReward> getCommands() {
+        return commands;
+    }
+
+    /** Floor completion message, colour codes already translated (may be null). */
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+}
@@ -72,10 +72,7 @@ public class MobKillRewardListener implements Listener {
             if (dungeonUtils != null) {
                 ItemStack mainHand = killer.getInventory().getItemInMainHand();
                 if (mainHand != null && dungeonUtils.isDungeonUtil(mainHand)) {
-                    int weaponExp = reward.getWeaponExp();
-                    for (int i = 0; i < weaponExp; i++) {
-                        dungeonUtils.addKillExperience(mainHand);
-                    }
+                    dungeonUtils.addKillExperience(mainHand, reward.getWeaponExp());
                 }
             }
         });
@@ -107,10 +104,7 @@ public class MobKillRewardListener implements Listener {
                                MobConfig.MobReward reward, String piece, ItemStack armor) {
         if (armor == null || !dungeonArmor.isDungeonArmor(armor)) return;
 
-        int armorExp = reward.getArmorExp(piece);
-        for (int i = 0; i < armorExp; i++) {
-            dungeonArmor.addKillExperience(armor);
-        }
+        dungeonArmor.addKillExperience(armor, reward.getArmorExp(piece));
     }
 
     /**
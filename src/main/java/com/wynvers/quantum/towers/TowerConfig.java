@@ -27,6 +27,8 @@ public class TowerConfig {
     private final Map<Integer, String> floorRegions;
     // Map floor number -> list of mob-kill requirements to open door
     private final Map<Integer, List<FloorMobRequirement>> floorMobRequirements;
+    // Map floor number -> compiled rewards
+    private final Map<Integer, FloorRewards> floorRewards;
     
     public TowerConfig(String id, String name, String world, int totalFloors, List<Integer> bossFloors, int finalBossFloor, int minLevel, int maxLevel) {
         this.id = id;
@@ -39,6 +41,7 @@ public class TowerConfig {
         this.maxLevel = maxLevel;
         this.floorRegions = new HashMap<>();
         this.floorMobRequirements = new HashMap<>();
+        this.floorRewards = new HashMap<>();
     }
     
     public int getMinLevel() { 
@@ -165,6 +168,21 @@ public class TowerConfig {
         return getFloorMobRequirements(floor).stream().mapToInt(FloorMobRequirement::getAmount).sum();
     }
 
+    /**
+     * Set the compiled rewards of a specific floor.
+     */
+    public void setFloorRewards(int floor, FloorRewards rewards) {
+        floorRewards.put(floor, rewards);
+    }
+
+    /**
+     * Get the compiled rewards of a specific floor.
+     * Returns {@link FloorRewards#EMPTY} if the floor has no rewards section.
+     */
+    public FloorRewards getFloorRewards(int floor) {
+        return floorRewards.getOrDefault(floor, FloorRewards.EMPTY);
+    }
+
     /**
      * Set the WorldGuard region name for a specific floor
      */
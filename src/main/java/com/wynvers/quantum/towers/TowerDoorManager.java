@@ -1,6 +1,7 @@
 package com.wynvers.quantum.towers;
 
 import com.wynvers.quantum.Quantum;
+import io.papermc.paper.math.Position;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
 import net.luckperms.api.model.user.User;
@@ -8,7 +9,7 @@ import net.luckperms.api.node.Node;
 import net.md_5.bungee.api.ChatMessageType;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.*;
-import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -37,9 +38,14 @@ public class TowerDoorManager {
     // Configuration des portes sauvegardées
     private final Map<String, DoorConfig> doorConfigs = new HashMap<>();
 
-    // Portes actuellement ouvertes (dépop)
-    private final Map<String, Set<BlockSnapshot>> openedDoors = new HashMap<>();
+    // Portes actuellement ouvertes (dépop) ; les blocs sont retirés/remis par le scheduler
+    private final Set<String> openedDoors = new HashSet<>();
     private final Map<String, BukkitTask> doorCloseTasks = new HashMap<>();
+    private final DoorBlockScheduler blockScheduler;
+
+    // Vues client (air / barrière) par porte, envoyées en un paquet multi-blocs
+    private final Map<String, Map<Position, BlockData>> airViews = new HashMap<>();
+    private final Map<String, Map<Position, BlockData>> barrierViews = new HashMap<>();
 
     // Permissions temporaires pour les joueurs qui ont ouvert les portes
     private final Map<String, UUID> doorOpeners = new HashMap<>(); // doorId -> playerId
@@ -54,6 +60,7 @@ public class TowerDoorManager {
     public TowerDoorManager(Quantum plugin) {
         this.plugin = plugin;
         this.doorsFile = new File(plugin.getDataFolder(), "doors.yml");
+        this.blockScheduler = new DoorBlockScheduler(plugin);
         initLuckPerms();
         loadDoors();
     }
@@ -93,6 +100,8 @@ public class TowerDoorManager {
         
         doorsConfig = YamlConfiguration.loadConfiguration(doorsFile);
         doorConfigs.clear();
+        airViews.clear();
+        barrierViews.clear();
         
         ConfigurationSection doorsSection = doorsConfig.getConfigurationSection("doors");
         if (doorsSection == null) return;
@@ -171,6 +180,8 @@ public class TowerDoorManager {
         String doorId = towerId + "_" + floor;
         DoorConfig config = new DoorConfig(doorId, towerId, floor, pos1, pos2);
         doorConfigs.put(doorId, config);
+        airViews.remove(doorId);
+        barrierViews.remove(doorId);
         
         // Sauvegarder dans doors.yml
         config.saveToConfig(doorsConfig, "doors." + doorId);
@@ -220,28 +231,10 @@ public class TowerDoorManager {
             }
         }
 
-        // Sauvegarder et retirer les blocks
-        Set<BlockSnapshot> snapshots = new HashSet<>();
-        World world = config.getPos1().getWorld();
-
-        for (int x = config.getMinX(); x <= config.getMaxX(); x++) {
-            for (int y = config.getMinY(); y <= config.getMaxY(); y++) {
-                for (int z = config.getMinZ(); z <= config.getMaxZ(); z++) {
-                    Block block = world.getBlockAt(x, y, z);
-
-                    // Ignorer l'air
-                    if (block.getType() == Material.AIR) continue;
-
-                    BlockSnapshot snapshot = new BlockSnapshot(block);
-                    snapshots.add(snapshot);
-
-                    // Retirer le block (remplacer par air)
-                    block.setType(Material.AIR, false);
-                }
-            }
-        }
-
-        openedDoors.put(doorId, snapshots);
+        // Retirer les blocks sur les prochains ticks (sauvegardés au fur et à mesure).
+        // Si la porte est encore en train de se refermer, le retrait reprend là où elle en est.
+        openedDoors.add(doorId);
+        blockScheduler.open(doorId, config);
 
         // Enregistrer le joueur qui a ouvert la porte
         if (player != null) {
@@ -302,20 +295,17 @@ public class TowerDoorManager {
             playerCountdownTasks.put(playerId, countdownTask);
         }
 
-        plugin.getQuantumLogger().info("Door opened: " + doorId + " (" + snapshots.size() + " blocks)");
+        plugin.getQuantumLogger().info("Door opened: " + doorId + " (" + config.getBlockCount() + " blocks queued)");
     }
     
     /**
      * Ferme une porte (remet les blocks)
      */
     private void closeDoor(String doorId, boolean timeout) {
-        Set<BlockSnapshot> snapshots = openedDoors.remove(doorId);
-        if (snapshots == null) return;
+        if (!openedDoors.remove(doorId)) return;
 
-        // Remettre tous les blocks
-        for (BlockSnapshot snapshot : snapshots) {
-            snapshot.restore();
-        }
+        // Remettre les blocks sur les prochains ticks
+        blockScheduler.close(doorId);
 
         // Révoquer la permission du joueur qui avait ouvert la porte
         UUID opener = doorOpeners.remove(doorId);
@@ -365,7 +355,7 @@ public class TowerDoorManager {
      */
     public boolean isDoorOpen(String towerId, int floor) {
         String doorId = towerId + "_" + floor;
-        return openedDoors.containsKey(doorId);
+        return openedDoors.contains(doorId);
     }
     
     /**
@@ -387,11 +377,13 @@ public class TowerDoorManager {
         }
         
         // Fermer la porte si elle est ouverte
-        if (openedDoors.containsKey(doorId)) {
+        if (openedDoors.contains(doorId)) {
             closeDoor(doorId, false);
         }
         
         doorConfigs.remove(doorId);
+        airViews.remove(doorId);
+        barrierViews.remove(doorId);
         doorsConfig.set("doors." + doorId, null);
         saveDoors();
         
@@ -474,7 +466,7 @@ public class TowerDoorManager {
      * making the passage appear open to that player only.
      */
     public void showAirView(Player player, String towerId, int floor) {
-        sendFakeBlocks(player, towerId, floor, Material.AIR);
+        sendFakeBlocks(player, towerId, floor, Material.AIR, airViews);
     }
 
     /**
@@ -482,22 +474,46 @@ public class TowerDoorManager {
      * making the passage appear blocked to that player only.
      */
     public void showBarrierView(Player player, String towerId, int floor) {
-        sendFakeBlocks(player, towerId, floor, Material.BARRIER);
+        sendFakeBlocks(player, towerId, floor, Material.BARRIER, barrierViews);
     }
 
-    private void sendFakeBlocks(Player player, String towerId, int floor, Material material) {
+    /**
+     * Envoie toute la zone de la porte en une fois : le serveur la découpe en un paquet
+     * multi-blocs par section de chunk au lieu d'un paquet par bloc.
+     */
+    private void sendFakeBlocks(Player player, String towerId, int floor, Material material,
+                                Map<String, Map<Position, BlockData>> views) {
         String doorId = towerId + "_" + floor;
         DoorConfig config = doorConfigs.get(doorId);
         if (config == null) return;
-        World world = config.getPos1().getWorld();
-        org.bukkit.block.data.BlockData blockData = material.createBlockData();
+        if (!player.getWorld().equals(config.getPos1().getWorld())) return;
+
+        Map<Position, BlockData> view = views.computeIfAbsent(doorId, id -> buildView(config, material));
+        player.sendMultiBlockChange(view);
+    }
+
+    private static Map<Position, BlockData> buildView(DoorConfig config, Material material) {
+        BlockData blockData = material.createBlockData();
+        Map<Position, BlockData> view = new HashMap<>(config.getBlockCount() * 4 / 3 + 1);
         for (int x = config.getMinX(); x <= config.getMaxX(); x++) {
             for (int y = config.getMinY(); y <= config.getMaxY(); y++) {
                 for (int z = config.getMinZ(); z <= config.getMaxZ(); z++) {
-                    player.sendBlockChange(new Location(world, x, y, z), blockData);
+                    view.put(Position.block(x, y, z), blockData);
                 }
             }
         }
+        return Collections.unmodifiableMap(view);
+    }
+
+    /**
+     * Referme immédiatement toutes les portes ouvertes (arrêt du plugin), pour ne laisser
+     * aucun bloc retiré dans le monde
+     */
+    public void shutdown() {
+        for (String doorId : new ArrayList<>(openedDoors)) {
+            closeDoor(doorId, false);
+        }
+        blockScheduler.restoreAll();
     }
 
     /**
@@ -615,19 +631,4 @@ public class TowerDoorManager {
             return new DoorConfig(id, towerId, floor, pos1, pos2);
         }
     }
-    
-    private static class BlockSnapshot {
-        private final Location location;
-        private final org.bukkit.block.data.BlockData blockData;
-        
-        public BlockSnapshot(Block block) {
-            this.location = block.getLocation();
-            this.blockData = block.getBlockData().clone();
-        }
-        
-        public void restore() {
-            Block block = location.getBlock();
-            block.setBlockData(blockData, false);
-        }
-    }
 }
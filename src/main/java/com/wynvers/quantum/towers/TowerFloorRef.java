@@ -0,0 +1,17 @@
+package com.wynvers.quantum.towers;
+
+/**
+ * Tower and floor a region belongs to.
+ *
+ * @param towerId the tower ID
+ * @param floor   the floor number, or 0 for the tower's main region
+ */
+public record TowerFloorRef(String towerId, int floor) {
+
+    /**
+     * @return true if the region is a floor region (not the tower's main region)
+     */
+    public boolean isFloor() {
+        return floor > 0;
+    }
+}
@@ -7,32 +7,57 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 import java.util.UUID;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages per-world inventories for tower system.
  * When entering a tower world, saves the player's current inventory
  * and loads their tower inventory. When leaving, restores original inventory.
  * Preserves dungeon armor and weapons when entering tower zones.
+ *
+ * <p>Both maps are also written to {@code tower_inventories/<uuid>.dat} whenever they change
+ * (tower enter / leave), so a crash while a player is inside a tower does not lose their
+ * main inventory. Only the changed player's file is rewritten, off the main thread, and each
+ * saved inventory is encoded once with Paper's compressed item format. Files are read back
+ * during pre-login by {@link com.wynvers.quantum.session.PlayerSessionLoader}.
  */
 public class TowerInventoryManager {
 
+    private static final int FILE_VERSION = 1;
+
     private final Quantum plugin;
+    private final File dataFolder;
     private YamlConfiguration dungeonItemsConfig;
 
     // Saved main world inventories (contents + armor)
-    private final Map<UUID, SavedInventory> savedInventories = new HashMap<>();
+    private final Map<UUID, SavedInventory> savedInventories = new ConcurrentHashMap<>();
+
+    // Tower the player was in when their main inventory was saved
+    private final Map<UUID, String> activeTowers = new ConcurrentHashMap<>();
 
     // Saved tower inventories (per tower ID)
-    private final Map<UUID, Map<String, SavedInventory>> towerInventories = new HashMap<>();
+    private final Map<UUID, Map<String, SavedInventory>> towerInventories = new ConcurrentHashMap<>();
+
+    // Latest state waiting to be written, per player (one queued write per player at a time)
+    private final Map<UUID, PlayerRecord> pendingWrites = new ConcurrentHashMap<>();
+    private final Object saveLock = new Object();
 
     public TowerInventoryManager(Quantum plugin) {
         this.plugin = plugin;
+        this.dataFolder = new File(plugin.getDataFolder(), "tower_inventories");
         loadDungeonItemsConfig();
     }
 
@@ -68,12 +93,25 @@ public class TowerInventoryManager {
         UUID uuid = player.getUniqueId();
         PlayerInventory inv = player.getInventory();
 
+        // Rejoining inside a tower after a crash: the main inventory is the one on disk and the
+        // live inventory is already the tower one, so neither may be replaced by a fresh entry
+        recover(uuid);
+        if (savedInventories.containsKey(uuid)) {
+            if (activeTowers.putIfAbsent(uuid, towerId) == null) {
+                requestSave(uuid);
+            }
+            plugin.getQuantumLogger().info("Recovered main inventory kept for " + player.getName() + " (tower: " + towerId + ")");
+            return;
+        }
+
         // Extract dungeon armor and weapons before saving
         List<ItemStack> dungeonItems = extractDungeonItems(inv);
 
         // Save current (main world) inventory if not already saved
         if (!savedInventories.containsKey(uuid)) {
             savedInventories.put(uuid, new SavedInventory(inv));
+            activeTowers.put(uuid, towerId);
+            requestSave(uuid);
         }
 
         // Load tower inventory if one exists
@@ -108,12 +146,14 @@ public class TowerInventoryManager {
         // Save current tower inventory
         if (towerId != null) {
             towerInventories
-                    .computeIfAbsent(uuid, k -> new HashMap<>())
+                    .computeIfAbsent(uuid, k -> new ConcurrentHashMap<>())
                     .put(towerId, new SavedInventory(inv));
         }
 
         // Restore saved main world inventory
         SavedInventory saved = savedInventories.remove(uuid);
+        activeTowers.remove(uuid);
+        requestSave(uuid);
         if (saved != null) {
             saved.restoreTo(inv);
         } else {
@@ -127,10 +167,12 @@ public class TowerInventoryManager {
     }
 
     /**
-     * Cleanup when a player disconnects
+     * Cleanup when a player disconnects.
+     * The saved file is kept: it is read again on the player's next login.
      */
     public void cleanup(UUID uuid) {
         savedInventories.remove(uuid);
+        activeTowers.remove(uuid);
         towerInventories.remove(uuid);
     }
 
@@ -141,6 +183,148 @@ public class TowerInventoryManager {
         return savedInventories.containsKey(uuid);
     }
 
+    /**
+     * Tower the player was in when their main inventory was saved, or null
+     */
+    public String getActiveTower(UUID uuid) {
+        return activeTowers.get(uuid);
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    /**
+     * Read the player's saved inventories from disk (async pre-login thread only).
+     * State already in memory is kept, so a preload never overrides a live session.
+     * A write still queued from the player's last quit is written first, under the same
+     * lock as the writer, so the file read is never older than the last saved state.
+     */
+    public void preload(UUID uuid) {
+        synchronized (saveLock) {
+            writePending(uuid);
+            read(uuid);
+        }
+    }
+
+    /**
+     * Read the player's file on the calling thread if nothing of it is in memory yet, i.e. the
+     * pre-login preload failed or has not finished (plugin reload). Main thread, before any
+     * tower entry or exit is handled for the player.
+     */
+    public void recover(UUID uuid) {
+        if (savedInventories.containsKey(uuid) || towerInventories.containsKey(uuid)) return;
+        if (!pendingWrites.containsKey(uuid) && !getFile(uuid).exists()) return;
+        preload(uuid);
+    }
+
+    private void read(UUID uuid) {
+        File file = getFile(uuid);
+        if (!file.exists()) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            int version = in.readInt();
+            if (version != FILE_VERSION) {
+                plugin.getQuantumLogger().warning("Unknown tower inventory file version " + version + " for " + uuid);
+                return;
+            }
+
+            if (in.readBoolean()) {
+                String towerId = in.readUTF();
+                SavedInventory main = SavedInventory.read(in);
+                if (savedInventories.putIfAbsent(uuid, main) == null && !towerId.isEmpty()) {
+                    activeTowers.put(uuid, towerId);
+                }
+            }
+
+            int towerCount = in.readInt();
+            Map<String, SavedInventory> towers = new ConcurrentHashMap<>();
+            for (int i = 0; i < towerCount; i++) {
+                String towerId = in.readUTF();
+                towers.put(towerId, SavedInventory.read(in));
+            }
+            if (!towers.isEmpty()) {
+                towerInventories.putIfAbsent(uuid, towers);
+            }
+        } catch (IOException | RuntimeException e) {
+            plugin.getQuantumLogger().error("Failed to load tower inventories for " + uuid + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue a write of the player's current state (main thread).
+     * If a write is already queued for this player, it will simply pick up the newer state.
+     */
+    private void requestSave(UUID uuid) {
+        Map<String, SavedInventory> towers = towerInventories.get(uuid);
+        PlayerRecord record = new PlayerRecord(
+                activeTowers.get(uuid),
+                savedInventories.get(uuid),
+                towers != null ? Map.copyOf(towers) : Map.of());
+
+        if (pendingWrites.put(uuid, record) == null) {
+            plugin.getDatabaseManager().runAsync(() -> writePending(uuid));
+        }
+    }
+
+    /**
+     * Write every queued state now, on the calling thread (plugin shutdown)
+     */
+    public void flush() {
+        for (UUID uuid : new ArrayList<>(pendingWrites.keySet())) {
+            writePending(uuid);
+        }
+    }
+
+    private void writePending(UUID uuid) {
+        synchronized (saveLock) {
+            PlayerRecord record = pendingWrites.remove(uuid);
+            if (record == null) return;
+
+            File file = getFile(uuid);
+            try {
+                if (record.isEmpty()) {
+                    Files.deleteIfExists(file.toPath());
+                    return;
+                }
+
+                if (!dataFolder.exists()) {
+                    dataFolder.mkdirs();
+                }
+                File tmpFile = new File(dataFolder, file.getName() + ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+                    out.writeInt(FILE_VERSION);
+                    out.writeBoolean(record.main != null);
+                    if (record.main != null) {
+                        out.writeUTF(record.towerId != null ? record.towerId : "");
+                        out.write(record.main.encoded());
+                    }
+                    out.writeInt(record.towers.size());
+                    for (Map.Entry<String, SavedInventory> entry : record.towers.entrySet()) {
+                        out.writeUTF(entry.getKey());
+                        out.write(entry.getValue().encoded());
+                    }
+                }
+                Files.move(tmpFile.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                plugin.getQuantumLogger().error("Failed to save tower inventories for " + uuid + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private File getFile(UUID uuid) {
+        return new File(dataFolder, uuid + ".dat");
+    }
+
+    /**
+     * Immutable view of a player's state, written by the async writer
+     */
+    private record PlayerRecord(String towerId, SavedInventory main, Map<String, SavedInventory> towers) {
+
+        boolean isEmpty() {
+            return main == null && towers.isEmpty();
+        }
+    }
+
     /**
      * Extracts and removes dungeon armor and weapons from inventory
      */
@@ -358,12 +542,14 @@ public class TowerInventoryManager {
     }
 
     /**
-     * Simple inventory snapshot class
+     * Simple inventory snapshot class.
+     * Never modified once created, so its encoded form is computed at most once.
      */
     private static class SavedInventory {
         private final ItemStack[] contents;
         private final ItemStack[] armor;
         private final ItemStack offhand;
+        private byte[] encoded;
 
         SavedInventory(PlayerInventory inv) {
             this.contents = cloneArray(inv.getContents());
@@ -372,6 +558,60 @@ public class TowerInventoryManager {
             this.offhand = offhandItem != null ? offhandItem.clone() : null;
         }
 
+        private SavedInventory(ItemStack[] contents, ItemStack[] armor, ItemStack offhand) {
+            this.contents = contents;
+            this.armor = armor;
+            this.offhand = offhand;
+        }
+
+        /**
+         * Contents, armor and offhand, each item in Paper's byte format (already compressed)
+         */
+        synchronized byte[] encoded() throws IOException {
+            if (encoded == null) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                writeItems(out, contents);
+                writeItems(out, armor);
+                writeItems(out, new ItemStack[]{offhand});
+                out.flush();
+                encoded = bytes.toByteArray();
+            }
+            return encoded;
+        }
+
+        static SavedInventory read(DataInputStream in) throws IOException {
+            ItemStack[] contents = readItems(in);
+            ItemStack[] armor = readItems(in);
+            ItemStack[] offhand = readItems(in);
+            return new SavedInventory(contents, armor, offhand.length > 0 ? offhand[0] : null);
+        }
+
+        private static void writeItems(DataOutputStream out, ItemStack[] items) throws IOException {
+            out.writeInt(items.length);
+            for (ItemStack item : items) {
+                if (item == null || item.getType().isAir()) {
+                    out.writeInt(-1);
+                    continue;
+                }
+                byte[] data = item.serializeAsBytes();
+                out.writeInt(data.length);
+                out.write(data);
+            }
+        }
+
+        private static ItemStack[] readItems(DataInputStream in) throws IOException {
+            ItemStack[] items = new ItemStack[in.readInt()];
+            for (int i = 0; i < items.length; i++) {
+                int length = in.readInt();
+                if (length < 0) continue;
+                byte[] data = new byte[length];
+                in.readFully(data);
+                items[i] = ItemStack.deserializeBytes(data);
+            }
+            return items;
+        }
+
         void restoreTo(PlayerInventory inv) {
             inv.setContents(cloneArray(contents));
             inv.setArmorContents(cloneArray(armor));
@@ -1,6 +1,7 @@
 package com.wynvers.quantum.towers;
 
 import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.managers.PlaceholderManager;
 import com.wynvers.quantum.towers.events.TowerCompleteEvent;
 import com.wynvers.quantum.towers.events.TowerFloorCompleteEvent;
 import org.bukkit.Bukkit;
@@ -10,7 +11,8 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
-import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.*;
 
 /**
@@ -19,29 +21,32 @@ import java.util.*;
 public class TowerManager {
     
     private final Quantum plugin;
-    private final Map<String, TowerConfig> towers;
-    private final Map<UUID, TowerProgress> playerProgress;
-    private File progressFile;
+    // Remplacée d'un bloc au reload : les lecteurs voient l'ancienne ou la nouvelle config, jamais un mélange
+    private volatile Map<String, TowerConfig> towers;
+    // Region (en minuscules) -> (tour, étage), reconstruit avec la map des tours
+    private volatile Map<String, TowerFloorRef> regionIndex = Map.of();
+    // Progression des joueurs connectés, persistée dans quantum_tower_progress
+    private final TowerProgressStore progressStore;
     private TowerRewardManager rewardManager;
     
     public TowerManager(Quantum plugin) {
         this.plugin = plugin;
-        this.towers = new HashMap<>();
-        this.playerProgress = new HashMap<>();
-        this.rewardManager = new TowerRewardManager(plugin);
+        this.rewardManager = new TowerRewardManager(plugin, this);
 
-        loadTowers();
-        loadProgress();
+        setTowers(loadTowers());
+        this.progressStore = new TowerProgressStore(plugin);
     }
 
     /**
-     * Load tower configurations from towers.yml
+     * Load tower configurations (and compile floor rewards) from towers.yml
+     * @return New tower map, never modified afterwards
      */
-    private void loadTowers() {
+    private Map<String, TowerConfig> loadTowers() {
+        Map<String, TowerConfig> loaded = new HashMap<>();
         File towersFile = new File(plugin.getDataFolder(), "towers.yml");
         if (!towersFile.exists()) {
             plugin.getQuantumLogger().warning("towers.yml not found - tower system disabled");
-            return;
+            return loaded;
         }
     
         FileConfiguration config = YamlConfiguration.loadConfiguration(towersFile);
@@ -49,7 +54,7 @@ public class TowerManager {
     
         if (towersSection == null) {
             plugin.getQuantumLogger().warning("No 'towers' section in towers.yml");
-            return;
+            return loaded;
         }
     
         for (String towerId : towersSection.getKeys(false)) {
@@ -122,101 +127,123 @@ public class TowerManager {
                                         + "Please migrate to the list format: [\"mm:MobId:" + legacy + "\"] or [\"zombie:" + legacy + "\"]");
                             }
                         }
+
+                        FloorRewards rewards = FloorRewards.compile(floorSection.getConfigurationSection("rewards"));
+                        if (!rewards.isEmpty()) {
+                            tower.setFloorRewards(floorNum, rewards);
+                        }
                     }
                 } catch (NumberFormatException e) {
                     plugin.getQuantumLogger().warning("Invalid floor number: " + floorKey + " in tower " + towerId);
                 }
             }
             
-            towers.put(towerId, tower);
+            loaded.put(towerId, tower);
     
             plugin.getQuantumLogger().success("✓ Loaded tower: " + name + " (" + totalFloors + " floors)");
         }
+        return loaded;
     }
 
-    
+
     /**
-     * Load player progress from tower_progress.yml
+     * Install a new tower map and its region index
      */
-    private void loadProgress() {
-        progressFile = new File(plugin.getDataFolder(), "tower_progress.yml");
-        
-        if (!progressFile.exists()) {
-            try {
-                progressFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getQuantumLogger().error("Failed to create tower_progress.yml");
-                e.printStackTrace();
-                return;
+    private void setTowers(Map<String, TowerConfig> loaded) {
+        Map<String, TowerFloorRef> index = new HashMap<>();
+        for (TowerConfig tower : loaded.values()) {
+            if (tower.getWorldGuardRegion() != null) {
+                indexRegion(index, tower.getWorldGuardRegion(), new TowerFloorRef(tower.getId(), 0));
             }
-        }
-        
-        FileConfiguration config = YamlConfiguration.loadConfiguration(progressFile);
-        ConfigurationSection playersSection = config.getConfigurationSection("players");
-        
-        if (playersSection == null) {
-            return;
-        }
-        
-        for (String uuidStr : playersSection.getKeys(false)) {
-            try {
-                UUID uuid = UUID.fromString(uuidStr);
-                ConfigurationSection playerSection = playersSection.getConfigurationSection(uuidStr);
-                
-                TowerProgress progress = new TowerProgress(uuid);
-                
-                // Load tower progress
-                ConfigurationSection progressSection = playerSection.getConfigurationSection("progress");
-                if (progressSection != null) {
-                    for (String towerId : progressSection.getKeys(false)) {
-                        int floor = progressSection.getInt(towerId);
-                        progress.setFloorProgress(towerId, floor);
-                    }
-                }
-                
-                playerProgress.put(uuid, progress);
-                
-            } catch (IllegalArgumentException e) {
-                plugin.getQuantumLogger().warning("Invalid UUID in tower_progress.yml: " + uuidStr);
+            for (Map.Entry<Integer, String> entry : tower.getAllFloorRegions().entrySet()) {
+                indexRegion(index, entry.getValue(), new TowerFloorRef(tower.getId(), entry.getKey()));
             }
         }
-        
-        plugin.getQuantumLogger().success("✓ Loaded progress for " + playerProgress.size() + " players");
+        this.regionIndex = Map.copyOf(index);
+        this.towers = loaded;
+    }
+
+    private void indexRegion(Map<String, TowerFloorRef> index, String regionName, TowerFloorRef ref) {
+        TowerFloorRef existing = index.putIfAbsent(regionName.toLowerCase(), ref);
+        if (existing != null && !existing.equals(ref)) {
+            plugin.getQuantumLogger().warning("Region " + regionName + " is used by " + existing.towerId()
+                    + " floor " + existing.floor() + " and " + ref.towerId() + " floor " + ref.floor()
+                    + " - keeping the first one");
+        }
+    }
+    
+    /**
+     * Load a player's progress on an existing connection and publish it (async pre-login thread only)
+     * @param conn Pooled connection
+     * @param uuid Player UUID
+     * @return The progress actually in use
+     */
+    public TowerProgress loadProgress(Connection conn, UUID uuid) throws SQLException {
+        return progressStore.load(conn, uuid);
     }
 
     /**
-     * Save all player progress
+     * Unload a player's progress (pre-loaded session that never joined); pending changes go to the next flush
+     * @param uuid Player UUID
+     */
+    public void unloadProgress(UUID uuid) {
+        progressStore.unload(uuid);
+    }
+
+    /**
+     * Write the pending progress of every loaded player now, on the calling thread
      */
     public void saveProgress() {
-        FileConfiguration config = new YamlConfiguration();
-        
-        for (Map.Entry<UUID, TowerProgress> entry : playerProgress.entrySet()) {
-            UUID uuid = entry.getKey();
-            TowerProgress progress = entry.getValue();
-            
-            String path = "players." + uuid.toString();
-            
-            // Save tower progress
-            for (Map.Entry<String, Integer> towerEntry : progress.getAllProgress().entrySet()) {
-                config.set(path + ".progress." + towerEntry.getKey(), towerEntry.getValue());
-            }
-        }
-        
-        try {
-            config.save(progressFile);
-        } catch (IOException e) {
-            plugin.getQuantumLogger().error("Failed to save tower_progress.yml");
-            e.printStackTrace();
-        }
+        progressStore.saveAll();
+    }
+
+    /**
+     * Stop the periodic flush and write everything left (plugin shutdown)
+     */
+    public void shutdown() {
+        progressStore.shutdown();
     }
     
     /**
-     * Get or create player progress
+     * Get player progress.
+     * Online players get their loaded progress (created if missing); offline players get an
+     * empty progress that is not kept in memory.
      * @param uuid Player UUID
      * @return TowerProgress instance
      */
     public TowerProgress getProgress(UUID uuid) {
-        return playerProgress.computeIfAbsent(uuid, TowerProgress::new);
+        TowerProgress progress = progressStore.get(uuid);
+        if (progress != null) {
+            return progress;
+        }
+        if (Bukkit.getPlayer(uuid) == null) {
+            return new TowerProgress(uuid);
+        }
+        return progressStore.getOrCreate(uuid);
+    }
+
+    /**
+     * Invalide les placeholders de tour en cache après une modification de progression
+     * @param uuid Player UUID
+     * @param ranking true si le classement global peut avoir changé
+     */
+    public void invalidatePlaceholders(UUID uuid, boolean ranking) {
+        PlaceholderManager placeholders = plugin.getPlaceholderManager();
+        if (placeholders == null) return;
+        placeholders.invalidate(uuid, "tower_", "towers_");
+        if (ranking) {
+            placeholders.invalidateAll("tower_top_");
+        }
+    }
+
+    /**
+     * Invalide les placeholders du classement après un rafraîchissement depuis la base
+     */
+    void invalidateTopPlaceholders() {
+        PlaceholderManager placeholders = plugin.getPlaceholderManager();
+        if (placeholders != null) {
+            placeholders.invalidateAll("tower_top_");
+        }
     }
     
     /**
@@ -244,46 +271,33 @@ public class TowerManager {
         return new ArrayList<>(towers.keySet());
     }
     
+    /**
+     * Get the tower and floor a region belongs to
+     * @param regionName Region name (case-insensitive)
+     * @return TowerFloorRef (floor 0 for a tower's main region) or null
+     */
+    public TowerFloorRef getFloorRef(String regionName) {
+        return regionName != null ? regionIndex.get(regionName.toLowerCase()) : null;
+    }
+    
     /**
      * Get tower by region name
      * @param regionName Region name
      * @return Tower ID or null
      */
     public String getTowerByRegion(String regionName) {
-        for (Map.Entry<String, TowerConfig> entry : towers.entrySet()) {
-            TowerConfig tower = entry.getValue();
-            
-            // Vérifier d'abord si c'est la région principale de la tour
-            if (regionName.equals(tower.getWorldGuardRegion())) {
-                return entry.getKey();
-            }
-            
-            // Sinon chercher dans les floors
-            if (tower.getFloorByRegion(regionName) != -1) {
-                return entry.getKey();
-            }
-        }
-        return null;
+        TowerFloorRef ref = getFloorRef(regionName);
+        return ref != null ? ref.towerId() : null;
     }
     
     /**
      * Get floor number from region name
      * @param regionName Region name
-     * @return Floor number or -1
+     * @return Floor number, 0 for a tower's main region, or -1
      */
     public int getFloorByRegion(String regionName) {
-        for (TowerConfig tower : towers.values()) {
-            // Si c'est la région principale, retourner l'étage 0 (entrée)
-            if (regionName.equals(tower.getWorldGuardRegion())) {
-                return 0;  // ou 1 selon ta logique
-            }
-            
-            int floor = tower.getFloorByRegion(regionName);
-            if (floor != -1) {
-                return floor;
-            }
-        }
-        return -1;
+        TowerFloorRef ref = getFloorRef(regionName);
+        return ref != null ? ref.floor() : -1;
     }
     
     /**
@@ -303,6 +317,7 @@ public class TowerManager {
 
         TowerProgress progress = getProgress(player.getUniqueId());
         progress.setFloorProgress(towerId, floor);
+        invalidatePlaceholders(player.getUniqueId(), true);
 
         // Distribute rewards for this floor
         rewardManager.giveFloorRewards(player, towerId, floor);
@@ -310,7 +325,7 @@ public class TowerManager {
         // Si final boss, incrementer les runs et broadcast
         if (tower.isFinalBoss(floor)) {
             progress.incrementRuns(towerId);
-            saveProgress();
+            progressStore.markDirty(progress);
 
             int runs = progress.getRuns(towerId);
             TowerCompleteEvent completeEvent = new TowerCompleteEvent(player, tower, runs);
@@ -320,7 +335,7 @@ public class TowerManager {
             player.sendMessage("§7Vous avez termine: §f" + tower.getName());
             Bukkit.broadcastMessage("§6§l[TOURS] §f" + player.getName() + " §7a complete §f" + tower.getName() + "§7!");
         } else {
-            saveProgress();
+            progressStore.markDirty(progress);
             if (tower.isBossFloor(floor)) {
                 player.sendMessage("§a§l✓ BOSS VAINCU!");
                 player.sendMessage("§7Etage §f" + floor + " §7termine!");
@@ -340,6 +355,7 @@ public class TowerManager {
         TowerProgress progress = getProgress(player.getUniqueId());
         progress.setCurrentTower(towerId);
         progress.setCurrentFloor(floor);
+        invalidatePlaceholders(player.getUniqueId(), false);
         
         plugin.getQuantumLogger().info("Player " + player.getName() + " entered " + towerId + " floor " + floor);
     }
@@ -352,6 +368,7 @@ public class TowerManager {
         TowerProgress progress = getProgress(player.getUniqueId());
         progress.setCurrentTower(null);
         progress.setCurrentFloor(0);
+        invalidatePlaceholders(player.getUniqueId(), false);
     }
     
     /**
@@ -361,7 +378,8 @@ public class TowerManager {
     public void resetProgress(UUID uuid) {
         TowerProgress progress = getProgress(uuid);
         progress.reset();
-        saveProgress();
+        invalidatePlaceholders(uuid, true);
+        progressStore.markDirty(progress);
     }
     
     /**
@@ -372,38 +390,37 @@ public class TowerManager {
     public void resetTowerProgress(UUID uuid, String towerId) {
         TowerProgress progress = getProgress(uuid);
         progress.resetTower(towerId);
-        saveProgress();
+        invalidatePlaceholders(uuid, true);
+        progressStore.markDirty(progress);
     }
     
     /**
      * Reload tower configurations and spawners
      */
     public void reload() {
-        // Clear old data
-        towers.clear();
-        
-        // Reload tower configs
-        loadTowers();
+        // Build the new configs before swapping them in
+        setTowers(loadTowers());
+
+        if (plugin.getFloorRewardMenuManager() != null) {
+            plugin.getFloorRewardMenuManager().reload();
+        }
+        if (plugin.getZoneManager() != null) {
+            plugin.getZoneManager().rebuildZoneIndex();
+        }
         
         plugin.getQuantumLogger().success("Towers reloaded from towers.yml");
     }
     
     /**
-     * Get top players sorted by total floors completed across all towers
+     * Get top players sorted by total floors completed across all towers.
+     * Read from the database and refreshed after each progress flush (top 100 only).
      * @param limit Maximum number of players to return
      * @return List of entries (UUID -> total floors completed), sorted descending
      */
     public List<Map.Entry<UUID, Integer>> getTopPlayers(int limit) {
         if (limit <= 0) return new ArrayList<>();
-        List<Map.Entry<UUID, Integer>> entries = new ArrayList<>();
-        for (Map.Entry<UUID, TowerProgress> entry : playerProgress.entrySet()) {
-            entries.add(Map.entry(entry.getKey(), entry.getValue().getTotalFloorsCompleted()));
-        }
-        entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
-        if (entries.size() > limit) {
-            entries = entries.subList(0, limit);
-        }
-        return entries;
+        List<Map.Entry<UUID, Integer>> entries = progressStore.getTopPlayers();
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
     }
 
     /**
@@ -118,6 +118,7 @@ public class TowerMobKillListener implements Listener {
 
         // Increment this mob's counter
         progress.incrementFloorMobKills(towerId, floor, mobKey);
+        towerManager.invalidatePlaceholders(player.getUniqueId(), false);
 
         // Check whether ALL requirements are now satisfied
         if (areAllRequirementsMet(progress, towerId, floor, requirements)) {
@@ -1,11 +1,20 @@
 package com.wynvers.quantum.towers;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Tracks a player's progress through towers
+ *
+ * <p>Highest floor and runs per tower are persisted in {@code quantum_tower_progress}; the towers
+ * whose row changed are tracked so a flush only writes those rows. Everything else (current
+ * tower, kill counters, floor timers) is session state and never saved. Persisted fields are
+ * guarded by this object's monitor because the flush reads them from the DB executor.
  */
 public class TowerProgress {
     
@@ -14,17 +23,57 @@ public class TowerProgress {
     private String currentTower;
     private int currentFloor;
     private final Map<String, Integer> runsByTower = new HashMap<>();
+    // towerId whose row must be written (or deleted) on the next flush
+    private final Set<String> dirtyTowers = new HashSet<>();
     // towerId -> (floor -> (mobKey -> kills this session))
     private final Map<String, Map<Integer, Map<String, Integer>>> floorMobKills = new HashMap<>();
     // towerId -> (floor -> start time in millis) for clear-time tracking
     private final Map<String, Map<Integer, Long>> floorStartTime = new HashMap<>();
 
-    public int getRuns(String towerId) {
+    /** A persisted row: highest floor and runs for one tower (both 0 = row to delete). */
+    public record Row(String towerId, int floor, int runs) {
+    }
+
+    public synchronized int getRuns(String towerId) {
         return runsByTower.getOrDefault(towerId, 0);
     }
     
-    public void incrementRuns(String towerId) {
+    public synchronized void incrementRuns(String towerId) {
         runsByTower.put(towerId, getRuns(towerId) + 1);
+        dirtyTowers.add(towerId);
+    }
+
+    /**
+     * Set a row read from the database (does not mark it dirty)
+     */
+    synchronized void loadRow(String towerId, int floor, int runs) {
+        if (floor > 0) towerProgress.put(towerId, floor);
+        if (runs > 0) runsByTower.put(towerId, runs);
+    }
+
+    /**
+     * Current values of every changed row, and clear the change set
+     */
+    synchronized List<Row> drainDirtyRows() {
+        List<Row> rows = new ArrayList<>(dirtyTowers.size());
+        for (String towerId : dirtyTowers) {
+            rows.add(new Row(towerId, towerProgress.getOrDefault(towerId, 0), runsByTower.getOrDefault(towerId, 0)));
+        }
+        dirtyTowers.clear();
+        return rows;
+    }
+
+    /**
+     * Put back rows whose write failed (rows changed again since then are already dirty)
+     */
+    synchronized void restoreDirtyRows(List<Row> rows) {
+        for (Row row : rows) {
+            dirtyTowers.add(row.towerId());
+        }
+    }
+
+    public synchronized boolean hasPendingChanges() {
+        return !dirtyTowers.isEmpty();
     }
 
     /**
@@ -119,7 +168,7 @@ public class TowerProgress {
      * @param towerId Tower ID
      * @return Highest floor completed (0 if never entered)
      */
-    public int getFloorProgress(String towerId) {
+    public synchronized int getFloorProgress(String towerId) {
         return towerProgress.getOrDefault(towerId, 0);
     }
     
@@ -128,10 +177,11 @@ public class TowerProgress {
      * @param towerId Tower ID
      * @param floor Floor number
      */
-    public void setFloorProgress(String towerId, int floor) {
+    public synchronized void setFloorProgress(String towerId, int floor) {
         int current = getFloorProgress(towerId);
         if (floor > current) {
             towerProgress.put(towerId, floor);
+            dirtyTowers.add(towerId);
         }
     }
     
@@ -139,7 +189,7 @@ public class TowerProgress {
      * Get all tower progress
      * @return Map of tower ID to highest floor
      */
-    public Map<String, Integer> getAllProgress() {
+    public synchronized Map<String, Integer> getAllProgress() {
         return new HashMap<>(towerProgress);
     }
     
@@ -190,7 +240,7 @@ public class TowerProgress {
      * @param towers Map of tower configs
      * @return Number of completed towers
      */
-    public int getCompletedTowersCount(Map<String, TowerConfig> towers) {
+    public synchronized int getCompletedTowersCount(Map<String, TowerConfig> towers) {
         int count = 0;
         for (Map.Entry<String, TowerConfig> entry : towers.entrySet()) {
             String towerId = entry.getKey();
@@ -206,14 +256,15 @@ public class TowerProgress {
      * Get total floors completed across all towers
      * @return Total floor count
      */
-    public int getTotalFloorsCompleted() {
+    public synchronized int getTotalFloorsCompleted() {
         return towerProgress.values().stream().mapToInt(Integer::intValue).sum();
     }
     
     /**
      * Reset all progress
      */
-    public void reset() {
+    public synchronized void reset() {
+        dirtyTowers.addAll(towerProgress.keySet());
         towerProgress.clear();
         currentTower = null;
         currentFloor = 0;
@@ -223,8 +274,10 @@ public class TowerProgress {
      * Reset progress for a specific tower
      * @param towerId Tower ID
      */
-    public void resetTower(String towerId) {
-        towerProgress.remove(towerId);
+    public synchronized void resetTower(String towerId) {
+        if (towerProgress.remove(towerId) != null) {
+            dirtyTowers.add(towerId);
+        }
         if (towerId.equals(currentTower)) {
             currentTower = null;
             currentFloor = 0;
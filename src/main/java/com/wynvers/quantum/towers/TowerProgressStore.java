@@ -0,0 +1,377 @@
+package com.wynvers.quantum.towers;
+
+import com.wynvers.quantum.Quantum;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Progression des tours des joueurs connectés + persistance write-behind dans quantum_tower_progress.
+ *
+ * <p>La progression est lue à la pré-connexion ({@link com.wynvers.quantum.session.PlayerSessionLoader})
+ * et retirée de la mémoire au quit. Les modifications marquent la progression comme modifiée ;
+ * un flush périodique (et au quit / à l'arrêt) upsert par lots uniquement les lignes
+ * {@code (uuid, tower_id)} qui ont changé, sur l'exécuteur DB.</p>
+ *
+ * <p>Le classement global est lu en base (top {@value #TOP_SIZE}) et rafraîchi après chaque flush.</p>
+ */
+final class TowerProgressStore implements Listener {
+
+    private static final int TOP_SIZE = 100;
+
+    private static final String UPSERT_SQL = "INSERT INTO quantum_tower_progress (uuid, tower_id, floor, runs) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE floor = VALUES(floor), runs = VALUES(runs)";
+    private static final String DELETE_SQL = "DELETE FROM quantum_tower_progress WHERE uuid = ? AND tower_id = ?";
+    private static final String TOP_SQL = "SELECT uuid, SUM(floor) AS total FROM quantum_tower_progress "
+            + "GROUP BY uuid HAVING total > 0 ORDER BY total DESC LIMIT " + TOP_SIZE;
+
+    private final Quantum plugin;
+    private final Map<UUID, TowerProgress> loaded = new ConcurrentHashMap<>();
+
+    // Progressions avec des modifications non écrites (y compris celles déjà déchargées)
+    private final Map<UUID, TowerProgress> dirty = new ConcurrentHashMap<>();
+    // Progressions en cours d'écriture : un rechargement depuis la base les verrait périmées
+    private final Map<UUID, TowerProgress> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private BukkitTask flushTask;
+    // Import de l'ancien tower_progress.yml : les préchargements l'attendent avant de lire la base
+    private final CompletableFuture<Void> migration;
+
+    private volatile List<Map.Entry<UUID, Integer>> topPlayers = List.of();
+
+    TowerProgressStore(Quantum plugin) {
+        this.plugin = plugin;
+        long interval = Math.max(1L, plugin.getConfig().getLong("towers.progress-flush-interval-ticks", 100L));
+        this.flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::requestFlush, interval, interval);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+        if (isDatabaseAvailable()) {
+            this.migration = plugin.getDatabaseManager().runAsync(this::migrateLegacyFile);
+            migration.whenComplete((ignored, error) -> plugin.getDatabaseManager().runAsync(this::refreshTopPlayers));
+        } else {
+            this.migration = CompletableFuture.completedFuture(null);
+            plugin.getQuantumLogger().warning("MySQL not available - tower progress will not be saved");
+        }
+    }
+
+    // ===== Lecture =====
+
+    /**
+     * Progression en mémoire, ou null si le joueur n'est pas chargé
+     */
+    TowerProgress get(UUID uuid) {
+        return loaded.get(uuid);
+    }
+
+    /**
+     * Progression en mémoire, créée vide si besoin (joueur connecté sans préchargement)
+     */
+    TowerProgress getOrCreate(UUID uuid) {
+        return loaded.computeIfAbsent(uuid, this::pendingOrNew);
+    }
+
+    private TowerProgress pendingOrNew(UUID uuid) {
+        // Une progression déchargée mais pas encore écrite reste la source de vérité
+        TowerProgress pending = dirty.get(uuid);
+        if (pending == null) {
+            pending = inFlight.get(uuid);
+        }
+        return pending != null ? pending : new TowerProgress(uuid);
+    }
+
+    /**
+     * Lit la progression d'un joueur sur une connexion existante et la publie (thread async uniquement).
+     *
+     * Une progression encore en mémoire ou pas encore écrite reste prioritaire et n'est pas relue.
+     * La vérification et la lecture se font sous le verrou du flush : aucun flush ne peut commiter
+     * entre les deux. La lecture attend aussi la fin de l'import de tower_progress.yml.
+     */
+    TowerProgress load(Connection conn, UUID uuid) throws SQLException {
+        awaitMigration();
+        synchronized (flushLock) {
+            TowerProgress current = loaded.get(uuid);
+            if (current != null) {
+                return current;
+            }
+            TowerProgress pending = dirty.get(uuid);
+            if (pending == null) {
+                pending = inFlight.get(uuid);
+            }
+            if (pending != null) {
+                return loaded.computeIfAbsent(uuid, id -> pending);
+            }
+
+            TowerProgress progress = new TowerProgress(uuid);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT tower_id, floor, runs FROM quantum_tower_progress WHERE uuid = ?")) {
+                ps.setString(1, uuid.toString());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        progress.loadRow(rs.getString("tower_id"), rs.getInt("floor"), rs.getInt("runs"));
+                    }
+                }
+            }
+            return loaded.computeIfAbsent(uuid, id -> progress);
+        }
+    }
+
+    private void awaitMigration() {
+        try {
+            migration.join();
+        } catch (CompletionException e) {
+            // Échec déjà journalisé ou exécuteur refusé : la progression de la base reste lisible
+            plugin.getQuantumLogger().warning("Tower progress migration did not complete: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Classement global (total d'étages terminés, décroissant), limité au top {@value #TOP_SIZE}
+     */
+    List<Map.Entry<UUID, Integer>> getTopPlayers() {
+        return topPlayers;
+    }
+
+    // ===== Écriture =====
+
+    /**
+     * Marque une progression pour le prochain flush
+     */
+    void markDirty(TowerProgress progress) {
+        // Sans base, rien ne sera jamais écrit : ne pas retenir les progressions déchargées
+        if (progress.hasPendingChanges() && isDatabaseAvailable()) {
+            dirty.put(progress.getPlayerUuid(), progress);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        unload(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Décharge la progression d'un joueur ; ses modifications partent au prochain flush
+     */
+    void unload(UUID uuid) {
+        TowerProgress progress = loaded.get(uuid);
+        if (progress == null) {
+            return;
+        }
+        // Marquée avant d'être retirée : un préchargement concurrent la trouve toujours quelque part
+        if (progress.hasPendingChanges()) {
+            markDirty(progress);
+            requestFlush();
+        }
+        loaded.remove(uuid, progress);
+    }
+
+    /**
+     * Arrête le flush périodique et écrit tout ce qui reste (thread appelant)
+     */
+    void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        saveAll();
+    }
+
+    /**
+     * Écrit immédiatement les modifications de tous les joueurs chargés (thread appelant)
+     */
+    void saveAll() {
+        for (TowerProgress progress : loaded.values()) {
+            markDirty(progress);
+        }
+        flushNow();
+    }
+
+    // ===== Write-behind =====
+
+    private boolean isDatabaseAvailable() {
+        return plugin.getDatabaseManager() != null && plugin.getDatabaseManager().isConnected();
+    }
+
+    /**
+     * Planifie un flush sur l'exécuteur DB s'il y a des modifications
+     * et qu'aucun flush n'est déjà en file.
+     */
+    private void requestFlush() {
+        if (dirty.isEmpty() || !flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        plugin.getDatabaseManager().runAsync(() -> {
+            flushQueued.set(false);
+            if (flushNow() > 0) {
+                refreshTopPlayers();
+            }
+        });
+    }
+
+    /**
+     * Écrit les modifications en attente sur le thread appelant.
+     * Sérialisé par un verrou pour qu'un flush plus ancien n'écrase jamais une valeur plus récente.
+     *
+     * @return nombre de lignes écrites ou supprimées
+     */
+    private int flushNow() {
+        synchronized (flushLock) {
+            if (dirty.isEmpty() || !isDatabaseAvailable()) {
+                return 0;
+            }
+
+            List<TowerProgress> batch = new ArrayList<>(dirty.size());
+            for (Map.Entry<UUID, TowerProgress> entry : new ArrayList<>(dirty.entrySet())) {
+                inFlight.put(entry.getKey(), entry.getValue());
+                if (dirty.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                }
+            }
+
+            List<List<TowerProgress.Row>> drained = new ArrayList<>(batch.size());
+            int rows = 0;
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL);
+                     PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+                    for (TowerProgress progress : batch) {
+                        List<TowerProgress.Row> changed = progress.drainDirtyRows();
+                        drained.add(changed);
+                        String uuid = progress.getPlayerUuid().toString();
+                        for (TowerProgress.Row row : changed) {
+                            if (row.floor() == 0 && row.runs() == 0) {
+                                delete.setString(1, uuid);
+                                delete.setString(2, row.towerId());
+                                delete.addBatch();
+                            } else {
+                                upsert.setString(1, uuid);
+                                upsert.setString(2, row.towerId());
+                                upsert.setInt(3, row.floor());
+                                upsert.setInt(4, row.runs());
+                                upsert.addBatch();
+                            }
+                            rows++;
+                        }
+                    }
+                    upsert.executeBatch();
+                    delete.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                return rows;
+            } catch (SQLException e) {
+                plugin.getQuantumLogger().error("Failed to flush tower progress of " + batch.size() + " players: " + e.getMessage());
+                // Rien n'a été commité : on remet les lignes pour le prochain flush
+                for (int i = 0; i < batch.size(); i++) {
+                    TowerProgress progress = batch.get(i);
+                    if (i < drained.size()) {
+                        progress.restoreDirtyRows(drained.get(i));
+                    }
+                    if (progress.hasPendingChanges()) {
+                        dirty.putIfAbsent(progress.getPlayerUuid(), progress);
+                    }
+                }
+                return 0;
+            } finally {
+                for (TowerProgress progress : batch) {
+                    inFlight.remove(progress.getPlayerUuid(), progress);
+                }
+            }
+        }
+    }
+
+    private void refreshTopPlayers() {
+        if (!isDatabaseAvailable()) return;
+        List<Map.Entry<UUID, Integer>> top = new ArrayList<>(TOP_SIZE);
+        try (Connection conn = plugin.getDatabaseManager().getConnection();
+             PreparedStatement ps = conn.prepareStatement(TOP_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                top.add(Map.entry(UUID.fromString(rs.getString("uuid")), rs.getInt("total")));
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getQuantumLogger().error("Failed to load tower leaderboard: " + e.getMessage());
+            return;
+        }
+        topPlayers = List.copyOf(top);
+        plugin.getTowerManager().invalidateTopPlaceholders();
+    }
+
+    // ===== Migration =====
+
+    /**
+     * Importe l'ancien tower_progress.yml dans la base, une seule fois (le fichier est ensuite renommé)
+     */
+    private void migrateLegacyFile() {
+        File legacyFile = new File(plugin.getDataFolder(), "tower_progress.yml");
+        if (!legacyFile.exists()) return;
+
+        ConfigurationSection players = YamlConfiguration.loadConfiguration(legacyFile).getConfigurationSection("players");
+        int rows = 0;
+        if (players != null) {
+            try (Connection conn = plugin.getDatabaseManager().getConnection();
+                 PreparedStatement ps = conn.prepareStatement(
+                         "INSERT INTO quantum_tower_progress (uuid, tower_id, floor) VALUES (?, ?, ?) "
+                                 + "ON DUPLICATE KEY UPDATE floor = GREATEST(floor, VALUES(floor))")) {
+                conn.setAutoCommit(false);
+                try {
+                    for (String uuidStr : players.getKeys(false)) {
+                        ConfigurationSection progress = players.getConfigurationSection(uuidStr + ".progress");
+                        if (progress == null) continue;
+                        for (String towerId : progress.getKeys(false)) {
+                            ps.setString(1, uuidStr);
+                            ps.setString(2, towerId);
+                            ps.setInt(3, progress.getInt(towerId));
+                            ps.addBatch();
+                            rows++;
+                        }
+                    }
+                    ps.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                plugin.getQuantumLogger().error("Failed to migrate tower_progress.yml: " + e.getMessage());
+                return;
+            }
+        }
+
+        try {
+            Files.move(legacyFile.toPath(), new File(plugin.getDataFolder(), "tower_progress.yml.migrated").toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            plugin.getQuantumLogger().warning("Could not rename tower_progress.yml: " + e.getMessage());
+        }
+        plugin.getQuantumLogger().success("✓ Migrated " + rows + " tower progress rows from tower_progress.yml");
+    }
+}
@@ -2,16 +2,10 @@ package com.wynvers.quantum.towers;
 
 import com.wynvers.quantum.Quantum;
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 /**
@@ -24,14 +18,29 @@ import java.util.Random;
  *   <li><b>commands</b> – console commands; entries may be plain strings (100% chance)
  *       or maps with {@code cmd} + {@code chance} keys.</li>
  * </ul>
+ *
+ * <p>Rewards are read from the {@link FloorRewards} compiled with each {@link TowerConfig};
+ * towers.yml is never parsed when a floor is cleared.
  */
 public class TowerRewardManager {
 
     private final Quantum plugin;
+    private final TowerManager towerManager;
     private final Random random = new Random();
 
-    public TowerRewardManager(Quantum plugin) {
+    public TowerRewardManager(Quantum plugin, TowerManager towerManager) {
         this.plugin = plugin;
+        this.towerManager = towerManager;
+    }
+
+    /**
+     * Compiled rewards of a tower floor.
+     *
+     * @return the floor rewards, or {@link FloorRewards#EMPTY} if the tower or floor has none
+     */
+    public FloorRewards getFloorRewards(String towerId, int floor) {
+        TowerConfig tower = towerManager.getTower(towerId);
+        return tower != null ? tower.getFloorRewards(floor) : FloorRewards.EMPTY;
     }
 
     /**
@@ -42,130 +51,46 @@ public class TowerRewardManager {
      * @param floor   the floor number that was completed
      */
     public void giveFloorRewards(Player player, String towerId, int floor) {
-        File towersFile = new File(plugin.getDataFolder(), "towers.yml");
-        if (!towersFile.exists()) return;
+        FloorRewards rewards = getFloorRewards(towerId, floor);
+        if (rewards.isEmpty()) return;
 
-        FileConfiguration config = YamlConfiguration.loadConfiguration(towersFile);
-        String rewardPath = "towers." + towerId + ".floors." + floor + ".rewards";
-        ConfigurationSection rewardsSection = config.getConfigurationSection(rewardPath);
-        if (rewardsSection == null) return;
-
-        giveNexoRewards(player, rewardsSection.getConfigurationSection("nexo"));
-        giveMythicRewards(player, rewardsSection.getConfigurationSection("mythic"));
-        executeCommandRewards(player, rewardsSection);
-
-        String message = rewardsSection.getString("message");
-        if (message != null && !message.isEmpty()) {
-            player.sendMessage(message.replace("&", "§"));
+        for (FloorRewardEntry entry : rewards.getItems()) {
+            if (FloorRewards.roll(random, entry.getChance())) {
+                giveItem(player, entry);
+            }
         }
-    }
-
-    // ==================== NEXO ====================
+        executeCommandRewards(player, rewards);
 
-    private void giveNexoRewards(Player player, ConfigurationSection nexoSection) {
-        if (nexoSection == null) return;
-
-        for (String key : nexoSection.getKeys(false)) {
-            ConfigurationSection itemSection = nexoSection.getConfigurationSection(key);
-            if (itemSection == null) continue;
-
-            String itemId = itemSection.getString("id");
-            int amount = itemSection.getInt("amount", 1);
-            double chance = itemSection.getDouble("chance", 100.0);
-
-            if (itemId == null || itemId.isEmpty()) continue;
-
-            if (rollChance(chance)) {
-                try {
-                    com.nexomc.nexo.items.ItemBuilder builder = com.nexomc.nexo.api.NexoItems.itemFromId(itemId);
-                    if (builder != null) {
-                        ItemStack item = builder.build();
-                        item.setAmount(amount);
-                        player.getInventory().addItem(item);
-
-                        String msg = itemSection.getString("message");
-                        if (msg != null && !msg.isEmpty()) {
-                            player.sendMessage(msg.replace("&", "§"));
-                        }
-                    } else {
-                        plugin.getQuantumLogger().warning("[TowerRewards] Nexo item not found: " + itemId);
-                    }
-                } catch (Exception e) {
-                    plugin.getQuantumLogger().warning("[TowerRewards] Failed to give Nexo item " + itemId + ": " + e.getMessage());
-                }
-            }
+        if (rewards.getMessage() != null) {
+            player.sendMessage(rewards.getMessage());
         }
     }
 
-    // ==================== MYTHICMOBS ====================
-
-    private void giveMythicRewards(Player player, ConfigurationSection mythicSection) {
-        if (mythicSection == null) return;
-
-        for (String key : mythicSection.getKeys(false)) {
-            ConfigurationSection dropSection = mythicSection.getConfigurationSection(key);
-            if (dropSection == null) continue;
+    // ==================== ITEMS ====================
 
-            String dropId = dropSection.getString("id");
-            int amount = dropSection.getInt("amount", 1);
-            double chance = dropSection.getDouble("chance", 100.0);
-
-            if (dropId == null || dropId.isEmpty()) continue;
+    private void giveItem(Player player, FloorRewardEntry entry) {
+        ItemStack item = entry.createItem();
+        if (item == null) {
+            plugin.getQuantumLogger().warning("[TowerRewards] " + entry.getType() + " item not found: " + entry.getId());
+            return;
+        }
+        player.getInventory().addItem(item);
 
-            if (rollChance(chance)) {
-                try {
-                    ItemStack item = io.lumine.mythic.bukkit.MythicBukkit.inst()
-                            .getItemManager()
-                            .getItemStack(dropId);
-                    if (item != null) {
-                        item = item.clone();
-                        item.setAmount(amount);
-                        player.getInventory().addItem(item);
-                    } else {
-                        plugin.getQuantumLogger().warning("[TowerRewards] MythicMobs item not found: " + dropId);
-                    }
-                } catch (Exception e) {
-                    plugin.getQuantumLogger().warning("[TowerRewards] Failed to give MythicMobs item " + dropId + ": " + e.getMessage());
-                }
-            }
+        String msg = entry.getMessage();
+        if (msg != null && !msg.isEmpty()) {
+            player.sendMessage(msg.replace("&", "§"));
         }
     }
 
     // ==================== COMMANDS ====================
 
     /**
-     * Execute command rewards.
-     *
-     * <p>YAML list entries may be:
-     * <ul>
-     *   <li>A plain {@link String} → executed with 100% probability.</li>
-     *   <li>A {@link Map} with keys {@code cmd} (String) and {@code chance} (double) →
-     *       executed with the given probability.</li>
-     * </ul>
+     * Execute command rewards, each rolled against its own chance.
      */
-    private void executeCommandRewards(Player player, ConfigurationSection rewardsSection) {
-        List<?> commandsList = rewardsSection.getList("commands");
-        if (commandsList == null) return;
-
-        for (Object obj : commandsList) {
-            if (obj instanceof String) {
-                executeCommand(player, (String) obj);
-            } else if (obj instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> cmdMap = (Map<String, Object>) obj;
-                Object cmdObj = cmdMap.get("cmd");
-                if (!(cmdObj instanceof String)) continue;
-
-                String cmd = (String) cmdObj;
-                double chance = 100.0;
-                Object chanceObj = cmdMap.get("chance");
-                if (chanceObj instanceof Number) {
-                    chance = ((Number) chanceObj).doubleValue();
-                }
-
-                if (rollChance(chance)) {
-                    executeCommand(player, cmd);
-                }
+    public void executeCommandRewards(Player player, FloorRewards rewards) {
+        for (FloorRewards.CommandReward command : rewards.getCommands()) {
+            if (FloorRewards.roll(random, command.chance())) {
+                executeCommand(player, command.command());
             }
         }
     }
@@ -181,70 +106,19 @@ public class TowerRewardManager {
         Bukkit.dispatchCommand(Bukkit.getConsoleSender(), processed);
     }
 
-    // ==================== UTIL ====================
-
-    /** @return true if a random roll falls within the given percentage [0, 100]; values > 100 always succeed */
-    private boolean rollChance(double chance) {
-        return chance >= 100.0 || random.nextDouble() * 100.0 < chance;
-    }
-
     // ==================== REWARD ENTRIES ====================
 
     /**
-     * Build a list of selectable {@link FloorRewardEntry} objects (Nexo + MythicMobs items)
-     * for the given tower floor from {@code towers.yml}.
+     * Selectable {@link FloorRewardEntry} objects (Nexo + MythicMobs items) for the given
+     * tower floor.
      *
      * <p>Command rewards are intentionally excluded here – they are handled separately by
      * {@link #executeCommandRewardsOnly(Player, String, int)}.
+     *
+     * @return an unmodifiable list, shared by every caller
      */
     public List<FloorRewardEntry> buildRewardEntries(String towerId, int floor) {
-        List<FloorRewardEntry> entries = new ArrayList<>();
-
-        File towersFile = new File(plugin.getDataFolder(), "towers.yml");
-        if (!towersFile.exists()) return entries;
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(towersFile);
-        String rewardPath = "towers." + towerId + ".floors." + floor + ".rewards";
-        ConfigurationSection rewardsSection = config.getConfigurationSection(rewardPath);
-        if (rewardsSection == null) return entries;
-
-        // Nexo items
-        List<?> nexoList = rewardsSection.getList("nexo");
-        if (nexoList != null) {
-            for (Object obj : nexoList) {
-                if (obj instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> map = (Map<String, Object>) obj;
-                    String id = String.valueOf(map.getOrDefault("id", ""));
-                    int amount = ((Number) map.getOrDefault("amount", 1)).intValue();
-                    double chance = ((Number) map.getOrDefault("chance", 100.0)).doubleValue();
-                    String message = map.containsKey("message") ? String.valueOf(map.get("message")) : null;
-                    if (!id.isEmpty()) {
-                        entries.add(new FloorRewardEntry(FloorRewardEntry.Type.NEXO, id, amount, chance, message));
-                    }
-                }
-            }
-        }
-
-        // MythicMobs items
-        List<?> mythicList = rewardsSection.getList("mythic");
-        if (mythicList != null) {
-            for (Object obj : mythicList) {
-                if (obj instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> map = (Map<String, Object>) obj;
-                    String id = String.valueOf(map.getOrDefault("id", ""));
-                    int amount = ((Number) map.getOrDefault("amount", 1)).intValue();
-                    double chance = ((Number) map.getOrDefault("chance", 100.0)).doubleValue();
-                    String message = map.containsKey("message") ? String.valueOf(map.get("message")) : null;
-                    if (!id.isEmpty()) {
-                        entries.add(new FloorRewardEntry(FloorRewardEntry.Type.MYTHIC, id, amount, chance, message));
-                    }
-                }
-            }
-        }
-
-        return entries;
+        return getFloorRewards(towerId, floor).getItems();
     }
 
     /**
@@ -252,14 +126,6 @@ public class TowerRewardManager {
      * Command rewards are never shown in the selection GUI; they are always auto-executed.
      */
     public void executeCommandRewardsOnly(Player player, String towerId, int floor) {
-        File towersFile = new File(plugin.getDataFolder(), "towers.yml");
-        if (!towersFile.exists()) return;
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(towersFile);
-        String rewardPath = "towers." + towerId + ".floors." + floor + ".rewards";
-        ConfigurationSection rewardsSection = config.getConfigurationSection(rewardPath);
-        if (rewardsSection == null) return;
-
-        executeCommandRewards(player, rewardsSection);
+        executeCommandRewards(player, getFloorRewards(towerId, floor));
     }
 }
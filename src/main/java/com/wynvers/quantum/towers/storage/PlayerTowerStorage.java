@@ -19,10 +19,56 @@ public class PlayerTowerStorage {
     private final Map<Material, Integer> vanillaItems;
     private final Map<String, Integer> nexoItems;
 
+    // Storage de remplacement pendant un chargement : jamais sauvegardé, reporté sur le vrai storage une fois chargé
+    private final boolean detached;
+
     public PlayerTowerStorage(UUID uuid) {
+        this(uuid, false);
+    }
+
+    private PlayerTowerStorage(UUID uuid, boolean detached) {
         this.uuid = uuid;
         this.vanillaItems = new ConcurrentHashMap<>();
         this.nexoItems = new ConcurrentHashMap<>();
+        this.detached = detached;
+    }
+
+    /**
+     * Storage vide renvoyé tant que le vrai storage d'un joueur connecté n'est pas chargé
+     * (voir {@link com.wynvers.quantum.storage.PlayerStorage#unavailable})
+     */
+    public static PlayerTowerStorage unavailable(UUID uuid) {
+        return new PlayerTowerStorage(uuid, true);
+    }
+
+    public boolean isAvailable() {
+        return !detached;
+    }
+
+    /**
+     * Reporte les quantités ajoutées à ce storage de remplacement sur le storage chargé, puis le vide
+     */
+    public void transferTo(PlayerTowerStorage target) {
+        for (Material material : vanillaItems.keySet()) {
+            Integer amount = vanillaItems.remove(material);
+            if (amount != null) {
+                target.addItemInternal(material, amount);
+            }
+        }
+        for (String nexoId : nexoItems.keySet()) {
+            Integer amount = nexoItems.remove(nexoId);
+            if (amount != null) {
+                target.addNexoItemInternal(nexoId, amount);
+            }
+        }
+    }
+
+    private boolean rejectWhileLoading(Player player) {
+        if (!detached) {
+            return false;
+        }
+        player.sendMessage("§cVotre storage est en cours de chargement, réessayez dans un instant.");
+        return true;
     }
 
     // === VANILLA ITEMS ===
@@ -32,6 +78,9 @@ public class PlayerTowerStorage {
     }
 
     public boolean addItem(Quantum plugin, Player player, Material material, int amount) {
+        if (rejectWhileLoading(player)) {
+            return false;
+        }
         int currentAmount = getAmount(material);
         int newAmount = currentAmount + amount;
         int limit = plugin.getTowerStorageUpgradeManager().getMaxStacks(
@@ -83,6 +132,9 @@ public class PlayerTowerStorage {
     }
 
     public boolean addNexoItem(Quantum plugin, Player player, String nexoId, int amount) {
+        if (rejectWhileLoading(player)) {
+            return false;
+        }
         int currentAmount = getNexoAmount(nexoId);
         int newAmount = currentAmount + amount;
         int limit = plugin.getTowerStorageUpgradeManager().getMaxStacks(
@@ -241,44 +293,53 @@ public class PlayerTowerStorage {
 
     public void load(Quantum plugin) {
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+            load(conn, plugin);
+        } catch (SQLException e) {
+            plugin.getQuantumLogger().error("Failed to load tower storage for " + uuid + ": " + e.getMessage());
+        }
+    }
 
-            String query = "SELECT material, nexo_id, amount FROM tower_storage WHERE player_uuid = ?";
-
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setString(1, uuid.toString());
-                ResultSet rs = stmt.executeQuery();
-
-                while (rs.next()) {
-                    String materialStr = rs.getString("material");
-                    String nexoId = rs.getString("nexo_id");
-                    int amount = rs.getInt("amount");
-
-                    if (materialStr != null && !materialStr.isEmpty()) {
-                        try {
-                            Material material = Material.valueOf(materialStr);
-                            vanillaItems.put(material, amount);
-                        } catch (IllegalArgumentException e) {
-                            plugin.getQuantumLogger().warning("Invalid material in tower_storage: " + materialStr);
-                        }
-                    } else if (nexoId != null && !nexoId.isEmpty()) {
-                        nexoItems.put(nexoId, amount);
+    /**
+     * Load tower storage on an existing connection (session preload)
+     */
+    public void load(Connection conn, Quantum plugin) throws SQLException {
+        String query = "SELECT material, nexo_id, amount FROM tower_storage WHERE player_uuid = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, uuid.toString());
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                String materialStr = rs.getString("material");
+                String nexoId = rs.getString("nexo_id");
+                int amount = rs.getInt("amount");
+
+                if (materialStr != null && !materialStr.isEmpty()) {
+                    try {
+                        Material material = Material.valueOf(materialStr);
+                        vanillaItems.put(material, amount);
+                    } catch (IllegalArgumentException e) {
+                        plugin.getQuantumLogger().warning("Invalid material in tower_storage: " + materialStr);
                     }
+                } else if (nexoId != null && !nexoId.isEmpty()) {
+                    nexoItems.put(nexoId, amount);
                 }
             }
+        }
 
-            // Cap items at the upgrade stack limit (200 by default, more with stack upgrades)
-            if (plugin.getTowerStorageUpgradeManager() != null) {
-                int maxStack = plugin.getTowerStorageUpgradeManager().getUpgradeStackMax(uuid);
-                vanillaItems.replaceAll((mat, amt) -> Math.min(amt, maxStack));
-                nexoItems.replaceAll((id, amt) -> Math.min(amt, maxStack));
-            }
-
-        } catch (SQLException e) {
-            plugin.getQuantumLogger().error("Failed to load tower storage for " + uuid + ": " + e.getMessage());
+        // Cap items at the upgrade stack limit (200 by default, more with stack upgrades)
+        if (plugin.getTowerStorageUpgradeManager() != null) {
+            int maxStack = plugin.getTowerStorageUpgradeManager().getUpgradeStackMax(uuid);
+            vanillaItems.replaceAll((mat, amt) -> Math.min(amt, maxStack));
+            nexoItems.replaceAll((id, amt) -> Math.min(amt, maxStack));
         }
     }
 
     public void save(Quantum plugin) {
+        // Un storage de remplacement vide effacerait les lignes du joueur
+        if (detached) {
+            return;
+        }
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
 
             // Delete old entries
@@ -1,63 +1,75 @@
 package com.wynvers.quantum.transactions;
 
 import com.wynvers.quantum.Quantum;
+import com.wynvers.quantum.managers.PlaceholderManager;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Gère l'historique des transactions (achats et ventes)
  * 
  * Fonctionnalités:
- * - Enregistrement de toutes les transactions dans transactions.yml
+ * - Enregistrement de toutes les transactions dans transactions.log (append-only)
  * - Consultation de l'historique par joueur
  * - Filtrage par type (achat / vente)
  * - Statistiques sur les transactions
  * 
- * Structure YAML:
- * transactions:
- *   [transactionId]:
- *     type: "BUY" ou "SELL"
- *     buyer: "PlayerName"
- *     buyer_uuid: "UUID"
- *     seller: "PlayerName"
- *     seller_uuid: "UUID"
- *     item: "nexo:item_id"
- *     quantity: 64
- *     price_per_unit: 10.50
- *     total_price: 672.00
- *     timestamp: 1234567890
- *     date: "2026-02-03 10:22:00"
+ * Stockage:
+ * Une ligne par transaction, champs séparés par des tabulations :
+ *   id, buyer, buyer_uuid, seller, seller_uuid, item, quantity, price_per_unit, total_price, timestamp
+ * Le fichier est relu une seule fois au démarrage pour construire un index par joueur
+ * et des agrégats (totaux et compteurs achat/vente, par item, par partenaire). Enregistrer
+ * une transaction est un ajout O(1) en mémoire, écrit en fin de fichier sur l'exécuteur DB.
+ * Seules les orders.history-retained transactions les plus récentes de chaque joueur restent
+ * en mémoire ; les agrégats couvrent tout l'historique.
+ * Une transaction avec soi-même n'est comptée qu'une fois, comme achat, sans entrer dans
+ * les montants achetés/vendus (le solde du joueur n'a pas changé).
+ * L'ancien transactions.yml est migré automatiquement au premier démarrage.
  * 
  * @author Kazotaruu_
- * @version 1.0
+ * @version 2.0
  */
 public class TransactionHistoryManager {
     
+    private static final String SEPARATOR = "\t";
+    private static final int FIELD_COUNT = 10;
+    private static final int DEFAULT_RETAINED = 1000;
+    
     private final Quantum plugin;
-    private final File transactionsFile;
+    private final File logFile;
+    private final int retained;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     
+    // Index par joueur : historique (ordre chronologique) + agrégats
+    private final Map<UUID, PlayerHistory> histories = new ConcurrentHashMap<>();
+    
+    // Lignes en attente d'écriture (ordre d'enregistrement)
+    private final Queue<String> pendingLines = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final Object writeLock = new Object();
+    
     public TransactionHistoryManager(Quantum plugin) {
         this.plugin = plugin;
-        this.transactionsFile = new File(plugin.getDataFolder(), "transactions.yml");
+        this.logFile = new File(plugin.getDataFolder(), "transactions.log");
+        this.retained = Math.max(1, plugin.getConfig().getInt("orders.history-retained", DEFAULT_RETAINED));
         
-        // Créer le fichier s'il n'existe pas
-        if (!transactionsFile.exists()) {
-            try {
-                transactionsFile.createNewFile();
-                YamlConfiguration config = new YamlConfiguration();
-                config.set("transactions", new HashMap<>());
-                config.save(transactionsFile);
-                plugin.getLogger().info("[TRANSACTIONS] Created transactions.yml");
-            } catch (IOException e) {
-                plugin.getLogger().severe("[TRANSACTIONS] Failed to create transactions.yml: " + e.getMessage());
-            }
-        }
+        migrateLegacyYaml();
+        loadLog();
     }
     
     /**
@@ -71,32 +83,32 @@ public class TransactionHistoryManager {
      * @param totalPrice Prix total
      */
     public void recordTransaction(Player buyer, Player seller, String itemId, int quantity, double pricePerUnit, double totalPrice) {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(transactionsFile);
-        
-        // Générer un ID unique pour la transaction
         String transactionId = UUID.randomUUID().toString();
-        String path = "transactions." + transactionId;
-        
-        // Enregistrer les données
         long timestamp = System.currentTimeMillis();
-        config.set(path + ".type", "TRADE");
-        config.set(path + ".buyer", buyer.getName());
-        config.set(path + ".buyer_uuid", buyer.getUniqueId().toString());
-        config.set(path + ".seller", seller.getName());
-        config.set(path + ".seller_uuid", seller.getUniqueId().toString());
-        config.set(path + ".item", itemId);
-        config.set(path + ".quantity", quantity);
-        config.set(path + ".price_per_unit", pricePerUnit);
-        config.set(path + ".total_price", totalPrice);
-        config.set(path + ".timestamp", timestamp);
-        config.set(path + ".date", dateFormat.format(new Date(timestamp)));
         
-        try {
-            config.save(transactionsFile);
-            plugin.getLogger().info("[TRANSACTIONS] Recorded transaction: " + buyer.getName() + " <- " + seller.getName() + " (" + quantity + "x " + itemId + ")");
-        } catch (IOException e) {
-            plugin.getLogger().severe("[TRANSACTIONS] Failed to save transaction: " + e.getMessage());
+        String line = String.join(SEPARATOR,
+            transactionId,
+            buyer.getName(), buyer.getUniqueId().toString(),
+            seller.getName(), seller.getUniqueId().toString(),
+            itemId,
+            String.valueOf(quantity),
+            String.valueOf(pricePerUnit),
+            String.valueOf(totalPrice),
+            String.valueOf(timestamp));
+        
+        index(transactionId, buyer.getName(), buyer.getUniqueId(), seller.getName(), seller.getUniqueId(),
+            itemId, quantity, pricePerUnit, totalPrice, timestamp);
+        
+        pendingLines.add(line);
+        requestFlush();
+
+        PlaceholderManager placeholders = plugin.getPlaceholderManager();
+        if (placeholders != null) {
+            placeholders.invalidate(buyer.getUniqueId(), "history_", "eco_");
+            placeholders.invalidate(seller.getUniqueId(), "history_", "eco_");
         }
+        
+        plugin.getLogger().info("[TRANSACTIONS] Recorded transaction: " + buyer.getName() + " <- " + seller.getName() + " (" + quantity + "x " + itemId + ")");
     }
     
     /**
@@ -108,74 +120,43 @@ public class TransactionHistoryManager {
      * @return Liste des transactions triées par date (plus récent en premier)
      */
     public List<Transaction> getPlayerHistory(Player player, String type, int limit) {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(transactionsFile);
-        
-        if (!config.contains("transactions")) {
+        PlayerHistory history = histories.get(player.getUniqueId());
+        if (history == null) {
             return new ArrayList<>();
         }
         
-        Set<String> transactionIds = config.getConfigurationSection("transactions").getKeys(false);
-        List<Transaction> transactions = new ArrayList<>();
-        
-        for (String transactionId : transactionIds) {
-            String path = "transactions." + transactionId;
-            
-            String buyerUUID = config.getString(path + ".buyer_uuid");
-            String sellerUUID = config.getString(path + ".seller_uuid");
-            
-            boolean isBuyer = buyerUUID != null && buyerUUID.equals(player.getUniqueId().toString());
-            boolean isSeller = sellerUUID != null && sellerUUID.equals(player.getUniqueId().toString());
-            
-            // Filtrer par type si spécifié
-            if (type != null) {
-                if (type.equalsIgnoreCase("BUY") && !isBuyer) continue;
-                if (type.equalsIgnoreCase("SELL") && !isSeller) continue;
-            }
-            
-            // Le joueur doit être impliqué dans la transaction
-            if (!isBuyer && !isSeller) continue;
-            
-            Transaction transaction = new Transaction(
-                transactionId,
-                config.getString(path + ".buyer"),
-                config.getString(path + ".seller"),
-                config.getString(path + ".item"),
-                config.getInt(path + ".quantity"),
-                config.getDouble(path + ".price_per_unit"),
-                config.getDouble(path + ".total_price"),
-                config.getLong(path + ".timestamp"),
-                config.getString(path + ".date"),
-                isBuyer ? TransactionRole.BUYER : TransactionRole.SELLER
-            );
-            
-            transactions.add(transaction);
-        }
-        
-        // Trier par timestamp (plus récent en premier)
-        transactions.sort((a, b) -> Long.compare(b.timestamp, a.timestamp));
-        
-        // Limiter les résultats si nécessaire
-        if (limit > 0 && transactions.size() > limit) {
-            return transactions.subList(0, limit);
+        TransactionRole role = null;
+        if (type != null) {
+            if (type.equalsIgnoreCase("BUY")) role = TransactionRole.BUYER;
+            else if (type.equalsIgnoreCase("SELL")) role = TransactionRole.SELLER;
         }
         
-        return transactions;
+        return history.recent(role, limit);
+    }
+    
+    /**
+     * Récupère les transactions d'un joueur depuis un instant donné (plus récent en premier)
+     * Ne parcourt que la fin de l'historique.
+     */
+    public List<Transaction> getPlayerHistorySince(Player player, long since) {
+        PlayerHistory history = histories.get(player.getUniqueId());
+        return history == null ? new ArrayList<>() : history.since(since);
     }
     
     /**
      * Calcule le total des achats d'un joueur
      */
     public double getTotalBuyAmount(Player player) {
-        List<Transaction> buyTransactions = getPlayerHistory(player, "BUY", 0);
-        return buyTransactions.stream().mapToDouble(t -> t.totalPrice).sum();
+        PlayerHistory history = histories.get(player.getUniqueId());
+        return history == null ? 0.0 : history.getBuyTotal();
     }
     
     /**
      * Calcule le total des ventes d'un joueur
      */
     public double getTotalSellAmount(Player player) {
-        List<Transaction> sellTransactions = getPlayerHistory(player, "SELL", 0);
-        return sellTransactions.stream().mapToDouble(t -> t.totalPrice).sum();
+        PlayerHistory history = histories.get(player.getUniqueId());
+        return history == null ? 0.0 : history.getSellTotal();
     }
     
     /**
@@ -185,53 +166,242 @@ public class TransactionHistoryManager {
         return getTotalSellAmount(player) - getTotalBuyAmount(player);
     }
     
+    /**
+     * Compte le nombre d'achats d'un joueur
+     */
+    public int getBuyCount(Player player) {
+        PlayerHistory history = histories.get(player.getUniqueId());
+        return history == null ? 0 : history.getBuyCount();
+    }
+    
+    /**
+     * Compte le nombre de ventes d'un joueur
+     */
+    public int getSellCount(Player player) {
+        PlayerHistory history = histories.get(player.getUniqueId());
+        return history == null ? 0 : history.getSellCount();
+    }
+    
     /**
      * Compte le nombre total de transactions pour un joueur
      */
     public int getTotalTransactionCount(Player player) {
-        return getPlayerHistory(player, null, 0).size();
+        return getBuyCount(player) + getSellCount(player);
     }
     
     /**
      * Récupère l'item le plus vendu par un joueur
      */
     public String getMostSoldItem(Player player) {
-        List<Transaction> sellTransactions = getPlayerHistory(player, "SELL", 0);
+        PlayerHistory history = histories.get(player.getUniqueId());
+        String item = history == null ? null : history.getMostSoldItem();
+        return item != null ? item : "Aucun";
+    }
+    
+    /**
+     * Récupère l'item le plus acheté par un joueur
+     */
+    public String getMostBoughtItem(Player player) {
+        PlayerHistory history = histories.get(player.getUniqueId());
+        String item = history == null ? null : history.getMostBoughtItem();
+        return item != null ? item : "Aucun";
+    }
+    
+    /**
+     * Totaux par item sur tout l'historique du joueur
+     */
+    public List<ItemTotals> getItemTotals(Player player) {
+        PlayerHistory history = histories.get(player.getUniqueId());
+        return history == null ? new ArrayList<>() : history.getItemTotals();
+    }
+    
+    /**
+     * Totaux d'un item sur tout l'historique du joueur, ou null s'il ne l'a jamais échangé
+     */
+    public ItemTotals getItemTotals(Player player, String itemId) {
+        PlayerHistory history = histories.get(player.getUniqueId());
+        return history == null ? null : history.getItemTotals(itemId);
+    }
+    
+    /**
+     * Totaux par partenaire commercial sur tout l'historique du joueur
+     */
+    public List<PartnerTotals> getPartnerTotals(Player player) {
+        PlayerHistory history = histories.get(player.getUniqueId());
+        return history == null ? new ArrayList<>() : history.getPartnerTotals();
+    }
+    
+    /**
+     * Écrit les transactions en attente avant l'arrêt
+     */
+    public void shutdown() {
+        flushNow();
+    }
+    
+    // ============================================================
+    // INDEX
+    // ============================================================
+    
+    private void index(String transactionId, String buyer, UUID buyerUuid, String seller, UUID sellerUuid,
+                       String itemId, int quantity, double pricePerUnit, double totalPrice, long timestamp) {
+        String date = formatDate(timestamp);
+        // Acheteur et vendeur confondus : une seule entrée, côté achat
+        boolean selfTrade = buyerUuid != null && buyerUuid.equals(sellerUuid);
+        
+        if (buyerUuid != null) {
+            histories.computeIfAbsent(buyerUuid, k -> new PlayerHistory(retained)).add(new Transaction(
+                transactionId, buyer, seller, itemId, quantity, pricePerUnit, totalPrice, timestamp, date,
+                TransactionRole.BUYER, selfTrade));
+        }
+        if (sellerUuid != null && !selfTrade) {
+            histories.computeIfAbsent(sellerUuid, k -> new PlayerHistory(retained)).add(new Transaction(
+                transactionId, buyer, seller, itemId, quantity, pricePerUnit, totalPrice, timestamp, date,
+                TransactionRole.SELLER));
+        }
+    }
+    
+    private String formatDate(long timestamp) {
+        synchronized (dateFormat) {
+            return dateFormat.format(new Date(timestamp));
+        }
+    }
+    
+    private static UUID parseUuid(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    // ============================================================
+    // PERSISTANCE
+    // ============================================================
+    
+    /**
+     * Relit transactions.log et reconstruit l'index (démarrage uniquement)
+     */
+    private void loadLog() {
+        if (!logFile.exists()) {
+            return;
+        }
         
-        if (sellTransactions.isEmpty()) {
-            return "Aucun";
+        int loaded = 0;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(logFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] f = line.split(SEPARATOR, -1);
+                if (f.length < FIELD_COUNT) {
+                    // Ligne tronquée (arrêt brutal pendant une écriture)
+                    skipped++;
+                    continue;
+                }
+                try {
+                    index(f[0], f[1], parseUuid(f[2]), f[3], parseUuid(f[4]), f[5],
+                        Integer.parseInt(f[6]), Double.parseDouble(f[7]), Double.parseDouble(f[8]),
+                        Long.parseLong(f[9]));
+                    loaded++;
+                } catch (NumberFormatException e) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("[TRANSACTIONS] Failed to read transactions.log: " + e.getMessage());
         }
         
-        Map<String, Integer> itemCounts = new HashMap<>();
-        for (Transaction transaction : sellTransactions) {
-            itemCounts.put(transaction.itemId, itemCounts.getOrDefault(transaction.itemId, 0) + transaction.quantity);
+        for (PlayerHistory history : histories.values()) {
+            history.sortChronologically();
         }
         
-        return itemCounts.entrySet().stream()
-            .max(Map.Entry.comparingByValue())
-            .map(Map.Entry::getKey)
-            .orElse("Aucun");
+        plugin.getLogger().info("[TRANSACTIONS] Loaded " + loaded + " transactions for " + histories.size() + " players"
+            + (skipped > 0 ? " (" + skipped + " invalid lines skipped)" : ""));
     }
     
     /**
-     * Récupère l'item le plus acheté par un joueur
+     * Convertit l'ancien transactions.yml en transactions.log (une seule fois)
      */
-    public String getMostBoughtItem(Player player) {
-        List<Transaction> buyTransactions = getPlayerHistory(player, "BUY", 0);
-        
-        if (buyTransactions.isEmpty()) {
-            return "Aucun";
+    private void migrateLegacyYaml() {
+        File legacyFile = new File(plugin.getDataFolder(), "transactions.yml");
+        if (!legacyFile.exists() || logFile.exists()) {
+            return;
         }
         
-        Map<String, Integer> itemCounts = new HashMap<>();
-        for (Transaction transaction : buyTransactions) {
-            itemCounts.put(transaction.itemId, itemCounts.getOrDefault(transaction.itemId, 0) + transaction.quantity);
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(legacyFile);
+        ConfigurationSection section = config.getConfigurationSection("transactions");
+        List<String> lines = new ArrayList<>();
+        
+        if (section != null) {
+            for (String transactionId : section.getKeys(false)) {
+                String path = transactionId + ".";
+                lines.add(String.join(SEPARATOR,
+                    transactionId,
+                    section.getString(path + "buyer", ""), section.getString(path + "buyer_uuid", ""),
+                    section.getString(path + "seller", ""), section.getString(path + "seller_uuid", ""),
+                    section.getString(path + "item", ""),
+                    String.valueOf(section.getInt(path + "quantity")),
+                    String.valueOf(section.getDouble(path + "price_per_unit")),
+                    String.valueOf(section.getDouble(path + "total_price")),
+                    String.valueOf(section.getLong(path + "timestamp"))));
+            }
         }
         
-        return itemCounts.entrySet().stream()
-            .max(Map.Entry.comparingByValue())
-            .map(Map.Entry::getKey)
-            .orElse("Aucun");
+        try {
+            Files.write(logFile.toPath(), lines, StandardCharsets.UTF_8);
+            Files.move(legacyFile.toPath(), new File(plugin.getDataFolder(), "transactions.yml.migrated").toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+            plugin.getLogger().info("[TRANSACTIONS] Migrated " + lines.size() + " transactions from transactions.yml");
+        } catch (IOException e) {
+            plugin.getLogger().severe("[TRANSACTIONS] Failed to migrate transactions.yml: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Planifie l'écriture des lignes en attente sur l'exécuteur DB
+     */
+    private void requestFlush() {
+        if (!flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        plugin.getDatabaseManager().runAsync(() -> {
+            flushQueued.set(false);
+            flushNow();
+        });
+    }
+    
+    /**
+     * Ajoute les lignes en attente à la fin de transactions.log, dans l'ordre d'enregistrement
+     */
+    private void flushNow() {
+        synchronized (writeLock) {
+            if (pendingLines.isEmpty()) {
+                return;
+            }
+            
+            List<String> batch = new ArrayList<>();
+            String line;
+            while ((line = pendingLines.poll()) != null) {
+                batch.add(line);
+            }
+            
+            try (BufferedWriter writer = Files.newBufferedWriter(logFile.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String entry : batch) {
+                    writer.write(entry);
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("[TRANSACTIONS] Failed to append " + batch.size() + " transactions: " + e.getMessage());
+                // Rien n'est perdu : on les remettra au prochain flush, avant les nouvelles
+                List<String> retry = new ArrayList<>(batch);
+                while ((line = pendingLines.poll()) != null) {
+                    retry.add(line);
+                }
+                pendingLines.addAll(retry);
+            }
+        }
     }
     
     // ============================================================
@@ -252,9 +422,17 @@ public class TransactionHistoryManager {
         public final long timestamp;
         public final String date;
         public final TransactionRole playerRole;
+        // Acheteur et vendeur sont le même joueur : aucun argent n'a réellement changé de main
+        public final boolean selfTrade;
         
         public Transaction(String transactionId, String buyer, String seller, String itemId, int quantity,
                          double pricePerUnit, double totalPrice, long timestamp, String date, TransactionRole playerRole) {
+            this(transactionId, buyer, seller, itemId, quantity, pricePerUnit, totalPrice, timestamp, date, playerRole, false);
+        }
+        
+        public Transaction(String transactionId, String buyer, String seller, String itemId, int quantity,
+                         double pricePerUnit, double totalPrice, long timestamp, String date, TransactionRole playerRole,
+                         boolean selfTrade) {
             this.transactionId = transactionId;
             this.buyer = buyer;
             this.seller = seller;
@@ -265,6 +443,7 @@ public class TransactionHistoryManager {
             this.timestamp = timestamp;
             this.date = date;
             this.playerRole = playerRole;
+            this.selfTrade = selfTrade;
         }
         
         /**
@@ -280,6 +459,123 @@ public class TransactionHistoryManager {
         }
     }
     
+    /**
+     * Quantités et montants échangés d'un item (prix moyens)
+     */
+    public record ItemTotals(String itemId, int boughtQuantity, double boughtTotal, int soldQuantity, double soldTotal) {
+        
+        ItemTotals plus(ItemTotals other) {
+            return new ItemTotals(itemId, boughtQuantity + other.boughtQuantity, boughtTotal + other.boughtTotal,
+                soldQuantity + other.soldQuantity, soldTotal + other.soldTotal);
+        }
+    }
+    
+    /**
+     * Nombre de transactions et montant total échangé avec un partenaire
+     */
+    public record PartnerTotals(String partnerName, int transactionCount, double totalAmount) {
+        
+        PartnerTotals plus(PartnerTotals other) {
+            return new PartnerTotals(partnerName, transactionCount + other.transactionCount,
+                totalAmount + other.totalAmount);
+        }
+    }
+    
+    /**
+     * Transactions récentes d'un joueur + agrégats sur tout son historique, maintenus à chaque ajout
+     *
+     * La liste garde au moins {@code retained} transactions et au plus le double : au-delà,
+     * les plus anciennes sont retirées en une fois (coût amorti constant par ajout).
+     */
+    private static final class PlayerHistory {
+        private final int retained;
+        private final List<Transaction> transactions = new ArrayList<>();
+        private final Map<String, ItemTotals> items = new HashMap<>();
+        private final Map<String, PartnerTotals> partners = new HashMap<>();
+        private double buyTotal;
+        private double sellTotal;
+        private int buyCount;
+        private int sellCount;
+        private String mostBoughtItem;
+        private String mostSoldItem;
+        
+        PlayerHistory(int retained) {
+            this.retained = retained;
+        }
+        
+        synchronized void add(Transaction transaction) {
+            transactions.add(transaction);
+            if (transactions.size() >= retained * 2) {
+                sortChronologically();
+            }
+            
+            // Montants achetés/vendus : effet sur le solde, nul pour une transaction avec soi-même
+            double amount = transaction.selfTrade ? 0.0 : transaction.totalPrice;
+            if (transaction.playerRole == TransactionRole.BUYER) {
+                buyTotal += amount;
+                buyCount++;
+                ItemTotals item = items.merge(transaction.itemId,
+                    new ItemTotals(transaction.itemId, transaction.quantity, transaction.totalPrice, 0, 0.0), ItemTotals::plus);
+                if (mostBoughtItem == null || item.boughtQuantity() > items.get(mostBoughtItem).boughtQuantity()) {
+                    mostBoughtItem = transaction.itemId;
+                }
+            } else {
+                sellTotal += amount;
+                sellCount++;
+                ItemTotals item = items.merge(transaction.itemId,
+                    new ItemTotals(transaction.itemId, 0, 0.0, transaction.quantity, transaction.totalPrice), ItemTotals::plus);
+                if (mostSoldItem == null || item.soldQuantity() > items.get(mostSoldItem).soldQuantity()) {
+                    mostSoldItem = transaction.itemId;
+                }
+            }
+            
+            String partner = transaction.playerRole == TransactionRole.BUYER ? transaction.seller : transaction.buyer;
+            partners.merge(partner, new PartnerTotals(partner, 1, transaction.totalPrice), PartnerTotals::plus);
+        }
+        
+        /**
+         * Trie par date et ne garde que les {@code retained} plus récentes
+         */
+        synchronized void sortChronologically() {
+            transactions.sort(Comparator.comparingLong(t -> t.timestamp));
+            if (transactions.size() > retained) {
+                transactions.subList(0, transactions.size() - retained).clear();
+            }
+        }
+        
+        /**
+         * Transactions les plus récentes d'abord, filtrées par rôle (null = toutes)
+         */
+        synchronized List<Transaction> recent(TransactionRole role, int limit) {
+            List<Transaction> result = new ArrayList<>();
+            for (int i = transactions.size() - 1; i >= 0; i--) {
+                Transaction transaction = transactions.get(i);
+                if (role != null && transaction.playerRole != role) continue;
+                result.add(transaction);
+                if (limit > 0 && result.size() >= limit) break;
+            }
+            return result;
+        }
+        
+        synchronized List<Transaction> since(long timestamp) {
+            List<Transaction> result = new ArrayList<>();
+            for (int i = transactions.size() - 1; i >= 0 && transactions.get(i).timestamp >= timestamp; i--) {
+                result.add(transactions.get(i));
+            }
+            return result;
+        }
+        
+        synchronized List<ItemTotals> getItemTotals() { return new ArrayList<>(items.values()); }
+        synchronized ItemTotals getItemTotals(String itemId) { return items.get(itemId); }
+        synchronized List<PartnerTotals> getPartnerTotals() { return new ArrayList<>(partners.values()); }
+        synchronized double getBuyTotal() { return buyTotal; }
+        synchronized double getSellTotal() { return sellTotal; }
+        synchronized int getBuyCount() { return buyCount; }
+        synchronized int getSellCount() { return sellCount; }
+        synchronized String getMostBoughtItem() { return mostBoughtItem; }
+        synchronized String getMostSoldItem() { return mostSoldItem; }
+    }
+    
     /**
      * Rôle du joueur dans une transaction
      */
@@ -2,7 +2,6 @@ package com.wynvers.quantum.wheads;
 
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.menu.Menu;
-import com.wynvers.quantum.menu.MenuItem;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
@@ -66,14 +65,9 @@ public class WheadsHeadsRenderer {
         List<WheadsPlayerHead> heads = wheadsAPI.getAllPlayerHeads();
 
         // Find slots designated for wheads heads
-        List<Integer> wheadsSlots = new ArrayList<>();
-        for (MenuItem menuItem : menu.getItems().values()) {
-            if (menuItem.isWheadsPlayerHead()) {
-                wheadsSlots.addAll(menuItem.getSlots());
-            }
-        }
+        int[] wheadsSlots = menu.getWheadsHeadSlots();
 
-        if (wheadsSlots.isEmpty()) {
+        if (wheadsSlots.length == 0) {
             return;
         }
 
@@ -0,0 +1,141 @@
+package com.wynvers.quantum.worldguard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index des zones de tour, reconstruit au chargement des tours
+ *
+ * - Chunks contenant au moins une région de tour : hors de ces chunks, un déplacement
+ *   ne coûte qu'une recherche dans un Set de clés long.
+ * - Boîtes "stables" : régions cuboïdes qu'aucune région concurrente ne recoupe. Tant
+ *   qu'un joueur reste dans la boîte, la région à sa position ne peut pas changer.
+ */
+final class TowerZoneIndex {
+
+    // Au-delà, on n'indexe pas la région par chunk : le monde entier est considéré comme "tour"
+    private static final long MAX_INDEXED_CHUNKS = 65536;
+
+    record Box(String world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+
+        boolean contains(String world, int x, int y, int z) {
+            return x >= minX && x <= maxX
+                && y >= minY && y <= maxY
+                && z >= minZ && z <= maxZ
+                && this.world.equals(world);
+        }
+
+        boolean intersects(Box other) {
+            return world.equals(other.world)
+                && minX <= other.maxX && maxX >= other.minX
+                && minY <= other.maxY && maxY >= other.minY
+                && minZ <= other.maxZ && maxZ >= other.minZ;
+        }
+    }
+
+    /**
+     * @param regionId région de tour, ou null pour une région qui peut seulement en masquer une autre
+     * @param exact    true si la boîte est exactement la région (cuboïde)
+     * @param rank     une région n'est masquée que par les régions de rang supérieur ou égal
+     */
+    private record Zone(String regionId, Box box, boolean exact, int rank) {
+    }
+
+    private final List<Zone> zones = new ArrayList<>();
+    private final Map<String, Set<Long>> towerChunks = new HashMap<>();
+    private final Set<String> unindexedWorlds = new HashSet<>();
+    private final Map<String, Box> stableBoxes = new HashMap<>();
+
+    void addTowerRegion(String regionId, Box box, boolean exact, int rank) {
+        zones.add(new Zone(regionId, box, exact, rank));
+    }
+
+    void addOtherRegion(Box box, int rank) {
+        zones.add(new Zone(null, box, false, rank));
+    }
+
+    /**
+     * Calcule les chunks de tour et les boîtes stables (à appeler une fois, après les add)
+     */
+    TowerZoneIndex build() {
+        for (Zone zone : zones) {
+            if (zone.regionId == null) {
+                continue;
+            }
+            indexChunks(zone.box);
+            if (zone.exact && !isShadowed(zone)) {
+                stableBoxes.put(zone.regionId, zone.box);
+            }
+        }
+        zones.clear();
+        return this;
+    }
+
+    private void indexChunks(Box box) {
+        if (unindexedWorlds.contains(box.world)) {
+            return;
+        }
+        int minChunkX = box.minX >> 4;
+        int maxChunkX = box.maxX >> 4;
+        int minChunkZ = box.minZ >> 4;
+        int maxChunkZ = box.maxZ >> 4;
+        if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) > MAX_INDEXED_CHUNKS) {
+            unindexedWorlds.add(box.world);
+            towerChunks.remove(box.world);
+            return;
+        }
+        Set<Long> chunks = towerChunks.computeIfAbsent(box.world, k -> new HashSet<>());
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                chunks.add(chunkKey(cx, cz));
+            }
+        }
+    }
+
+    private boolean isShadowed(Zone zone) {
+        for (Zone other : zones) {
+            if (other != zone && other.rank >= zone.rank && other.box.intersects(zone.box)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * false si aucune région de tour ne touche ce chunk
+     */
+    boolean mayContainTower(String world, int chunkX, int chunkZ) {
+        if (unindexedWorlds.contains(world)) {
+            return true;
+        }
+        Set<Long> chunks = towerChunks.get(world);
+        return chunks != null && chunks.contains(chunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Boîte dans laquelle la région trouvée ne peut pas changer, ou null
+     */
+    Box getStableBox(String regionId) {
+        return stableBoxes.get(regionId);
+    }
+
+    int getTowerChunkCount() {
+        int count = 0;
+        for (Set<Long> chunks : towerChunks.values()) {
+            count += chunks.size();
+        }
+        return count;
+    }
+
+    int getStableRegionCount() {
+        return stableBoxes.size();
+    }
+}
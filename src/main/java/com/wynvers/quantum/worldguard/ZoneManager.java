@@ -4,17 +4,22 @@ import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionContainer;
 import com.wynvers.quantum.Quantum;
 import com.wynvers.quantum.levels.PlayerLevelManager;
+import com.wynvers.quantum.regions.InternalRegion;
 import com.wynvers.quantum.regions.InternalRegionManager;
 import com.wynvers.quantum.towers.TowerConfig;
+import com.wynvers.quantum.towers.TowerFloorRef;
 import com.wynvers.quantum.towers.TowerInventoryManager;
 import com.wynvers.quantum.towers.TowerManager;
 import com.wynvers.quantum.towers.events.TowerEnterEvent;
 import com.wynvers.quantum.towers.events.TowerLeaveEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -24,10 +29,10 @@ import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.WorldLoadEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
@@ -39,6 +44,9 @@ import java.util.UUID;
  * - Detecte quand un joueur entre / sort d'un etage de tour (region)
  * - Verifie les niveaux min/max de la tour (PlayerLevelManager)
  * - Met a jour TowerManager (currentTower/currentFloor)
+ *
+ * Les deplacements passent d'abord par un {@link TowerZoneIndex} : hors des chunks de tour,
+ * ou tant que le joueur reste dans la boite de sa region actuelle, aucune recherche n'est faite.
  */
 public class ZoneManager implements Listener {
 
@@ -50,13 +58,24 @@ public class ZoneManager implements Listener {
     private final com.wynvers.quantum.towers.TowerDoorManager doorManager;
 
     private final Map<UUID, String> currentRegion = new HashMap<>();
-    private static final int REGION_CACHE_SIZE = 100;
-    private final Map<String, Boolean> regionIsTowerCache = new LinkedHashMap<String, Boolean>(REGION_CACHE_SIZE, 0.75f, true) {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
-            return size() > REGION_CACHE_SIZE;
-        }
-    };
+    // null tant que l'index n'est pas construit : recherche complete a chaque bloc
+    private TowerZoneIndex zoneIndex;
+    // Derniere region de tour trouvee par joueur, avec la boite ou elle reste valable
+    private final Map<UUID, CachedZone> cachedZones = new HashMap<>();
+
+    private record CachedZone(TowerZoneIndex.Box box, String region) {
+    }
+
+    /**
+     * Region WorldGuard de tour telle qu'indexee : /rg define et /rg redefine remplacent l'instance
+     */
+    private record IndexedRegion(ProtectedRegion region, TowerZoneIndex.Box box, int rank) {
+    }
+
+    // Verification periodique que l'index correspond encore aux regions (modifiees en jeu)
+    private static final long INDEX_CHECK_INTERVAL_TICKS = 100L;
+    private Map<String, IndexedRegion> indexedWorldGuardRegions = new HashMap<>();
+    private int indexedInternalVersion = -1;
     private static final String BYPASS_PERMISSION = "quantum.tower.bypass";
     // true when WorldGuard is detected and has not thrown an error yet
     private boolean worldGuardWorking;
@@ -73,6 +92,139 @@ public class ZoneManager implements Listener {
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
         String regionBackend = worldGuardWorking ? "WorldGuard" : "internal region system";
         plugin.getQuantumLogger().success("ZoneManager (tours) initialized - using " + regionBackend);
+
+        // Au tick suivant : WorldGuard a alors charge les regions de tous les mondes
+        Bukkit.getScheduler().runTask(plugin, this::rebuildZoneIndex);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::checkZoneIndex,
+                INDEX_CHECK_INTERVAL_TICKS, INDEX_CHECK_INTERVAL_TICKS);
+    }
+
+    /**
+     * Reconstruit l'index des zones de tour (chargement des tours, nouveau monde)
+     */
+    public void rebuildZoneIndex() {
+        cachedZones.clear();
+
+        TowerZoneIndex index = new TowerZoneIndex();
+        try {
+            if (worldGuardWorking) {
+                indexWorldGuardRegions(index);
+            } else {
+                indexInternalRegions(index);
+            }
+        } catch (Exception | LinkageError e) {
+            // Sans index, chaque deplacement refait la recherche complete
+            zoneIndex = null;
+            plugin.getQuantumLogger().warning("[ZoneManager] Failed to index tower regions: " + e.getMessage());
+            return;
+        }
+        zoneIndex = index.build();
+        plugin.getQuantumLogger().info("[ZoneManager] Tower zone index: " + zoneIndex.getTowerChunkCount()
+                + " chunks, " + zoneIndex.getStableRegionCount() + " cached regions");
+    }
+
+    /**
+     * Reconstruit l'index si une region de tour a ete creee, supprimee ou redefinie depuis
+     * (/rg define, /rg redefine, /rg remove) : sans cela elle resterait ignoree jusqu'au reload
+     */
+    private void checkZoneIndex() {
+        if (zoneIndex == null) return;
+        boolean stale;
+        try {
+            stale = worldGuardWorking
+                    ? isWorldGuardIndexStale()
+                    : regionManager.getVersion() != indexedInternalVersion;
+        } catch (Exception | LinkageError e) {
+            return;
+        }
+        if (stale) {
+            rebuildZoneIndex();
+        }
+    }
+
+    private boolean isWorldGuardIndexStale() {
+        Map<String, IndexedRegion> current = collectWorldGuardRegions();
+        Map<String, IndexedRegion> indexed = indexedWorldGuardRegions;
+        if (current.size() != indexed.size()) return true;
+        for (Map.Entry<String, IndexedRegion> entry : current.entrySet()) {
+            IndexedRegion previous = indexed.get(entry.getKey());
+            if (previous == null
+                    || previous.region() != entry.getValue().region()
+                    || !previous.box().equals(entry.getValue().box())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * WorldGuard : seules les regions de tour comptent. Un etage n'est masque que par un autre
+     * etage (rang 1), la region principale par n'importe quelle region de tour (rang 0).
+     */
+    private void indexWorldGuardRegions(TowerZoneIndex index) {
+        Map<String, IndexedRegion> regions = collectWorldGuardRegions();
+        for (IndexedRegion indexed : regions.values()) {
+            // getRegionAt renvoie l'id WorldGuard tel quel
+            index.addTowerRegion(indexed.region().getId(), indexed.box(),
+                    indexed.region() instanceof ProtectedCuboidRegion, indexed.rank());
+        }
+        indexedWorldGuardRegions = regions;
+    }
+
+    /**
+     * Regions WorldGuard des tours configurees, par monde:rang:nom
+     */
+    private Map<String, IndexedRegion> collectWorldGuardRegions() {
+        Map<String, IndexedRegion> regions = new HashMap<>();
+        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+        for (World world : Bukkit.getWorlds()) {
+            RegionManager wgManager = container.get(BukkitAdapter.adapt(world));
+            if (wgManager == null) continue;
+
+            for (TowerConfig tower : towerManager.getAllTowers().values()) {
+                for (String regionName : tower.getAllFloorRegions().values()) {
+                    collectWorldGuardRegion(regions, world, wgManager.getRegion(regionName), 1);
+                }
+                if (tower.getWorldGuardRegion() != null) {
+                    collectWorldGuardRegion(regions, world, wgManager.getRegion(tower.getWorldGuardRegion()), 0);
+                }
+            }
+        }
+        return regions;
+    }
+
+    private void collectWorldGuardRegion(Map<String, IndexedRegion> regions, World world, ProtectedRegion region, int rank) {
+        if (region == null) return;
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        TowerZoneIndex.Box box = new TowerZoneIndex.Box(world.getName(),
+                min.x(), min.y(), min.z(), max.x(), max.y(), max.z());
+        regions.put(world.getName() + ":" + rank + ":" + region.getId(), new IndexedRegion(region, box, rank));
+    }
+
+    /**
+     * Regions internes : la premiere region enregistree l'emporte, donc toute region
+     * (de tour ou non) peut en masquer une autre.
+     */
+    private void indexInternalRegions(TowerZoneIndex index) {
+        indexedInternalVersion = regionManager.getVersion();
+        for (InternalRegion region : regionManager.getRegions()) {
+            TowerZoneIndex.Box box = new TowerZoneIndex.Box(region.getWorldName(),
+                    region.getMinX(), region.getMinY(), region.getMinZ(),
+                    region.getMaxX(), region.getMaxY(), region.getMaxZ());
+            if (isTowerRegion(region.getId())) {
+                index.addTowerRegion(region.getId(), box, true, 0);
+            } else {
+                index.addOtherRegion(box, 0);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        if (worldGuardWorking) {
+            rebuildZoneIndex();
+        }
     }
 
     @EventHandler
@@ -118,8 +270,22 @@ public class ZoneManager implements Listener {
             @Override
             public void run() {
                 if (player.isOnline()) {
+                    // Inventaires sur disque pas encore en mémoire (préchargement en échec) : lus avant
+                    // que l'entrée dans une tour ne remplace l'inventaire principal sauvegardé
+                    UUID uuid = player.getUniqueId();
+                    if (towerInventoryManager != null) {
+                        towerInventoryManager.recover(uuid);
+                    }
+
                     Location loc = player.getLocation();
                     checkRegionChange(player, loc, loc, null);
+
+                    // Inventaire principal sauvegardé lors d'une tour (arrêt du serveur) mais le
+                    // joueur n'est plus dans la tour : on le lui rend
+                    if (towerInventoryManager != null && !currentRegion.containsKey(uuid)
+                            && towerInventoryManager.isInTower(uuid)) {
+                        towerInventoryManager.onLeaveTower(player, towerInventoryManager.getActiveTower(uuid));
+                    }
                 }
             }
         }.runTaskLater(plugin, 1L);
@@ -134,6 +300,7 @@ public class ZoneManager implements Listener {
             handleLeaveTower(player);
             currentRegion.remove(uuid);
         }
+        cachedZones.remove(uuid);
         // Cleanup tower inventory data
         if (towerInventoryManager != null) {
             towerInventoryManager.cleanup(uuid);
@@ -174,7 +341,7 @@ public class ZoneManager implements Listener {
     private void checkRegionChange(Player player, Location from, Location to, PlayerMoveEvent moveEvent) {
         UUID uuid = player.getUniqueId();
         String previousRegion = currentRegion.get(uuid);
-        String newRegion = getRegionAt(to);
+        String newRegion = getTowerRegionAt(uuid, to);
 
         // Pas de changement de region
         if (Objects.equals(previousRegion, newRegion)) {
@@ -228,6 +395,47 @@ public class ZoneManager implements Listener {
         }
     }
 
+    /**
+     * Region de tour a la position d'un joueur, ou null (une region qui n'est pas une tour compte comme null)
+     * - dans la boite de la derniere region trouvee : aucune recherche
+     * - dans un chunk sans region de tour : une seule recherche par cle long
+     */
+    private String getTowerRegionAt(UUID uuid, Location loc) {
+        if (loc.getWorld() == null) return null;
+        TowerZoneIndex index = zoneIndex;
+        if (index == null) {
+            String region = getRegionAt(loc);
+            return isTowerRegion(region) ? region : null;
+        }
+
+        String world = loc.getWorld().getName();
+        int x = loc.getBlockX();
+        int y = loc.getBlockY();
+        int z = loc.getBlockZ();
+
+        CachedZone cached = cachedZones.get(uuid);
+        if (cached != null && cached.box().contains(world, x, y, z)) {
+            return cached.region();
+        }
+        if (!index.mayContainTower(world, x >> 4, z >> 4)) {
+            cachedZones.remove(uuid);
+            return null;
+        }
+
+        String region = getRegionAt(loc);
+        if (!isTowerRegion(region)) {
+            cachedZones.remove(uuid);
+            return null;
+        }
+        TowerZoneIndex.Box box = index.getStableBox(region);
+        if (box != null) {
+            cachedZones.put(uuid, new CachedZone(box, region));
+        } else {
+            cachedZones.remove(uuid);
+        }
+        return region;
+    }
+
     /**
      * Retourne le nom d'une région de tour a cette location.
      * Uses WorldGuard when available, otherwise falls back to the internal system.
@@ -261,8 +469,9 @@ public class ZoneManager implements Listener {
             String fallback = null;
             for (ProtectedRegion region : regions) {
                 String id = region.getId();
-                if (towerManager.getTowerByRegion(id) != null) {
-                    if (towerManager.getFloorByRegion(id) > 0) {
+                TowerFloorRef ref = towerManager.getFloorRef(id);
+                if (ref != null) {
+                    if (ref.isFloor()) {
                         // This is a floor-specific region – return it immediately
                         return id;
                     }
@@ -276,33 +485,17 @@ public class ZoneManager implements Listener {
             // WorldGuard threw an unexpected error – switch to internal system and log once
             worldGuardWorking = false;
             plugin.getQuantumLogger().warning("[ZoneManager] WorldGuard lookup failed, switching to internal regions: " + e.getMessage());
+            rebuildZoneIndex();
             return regionManager.getRegionAt(loc);
         }
     }
 
     /**
      * Verifie si le nom de region correspond a une region de tour
-     * via TowerManager.getTowerByRegion(...)
-     * Uses caching to avoid repeated lookups
+     * via l'index region -> (tour, etage) de TowerManager
      */
     private boolean isTowerRegion(String regionName) {
-        if (regionName == null) return false;
-        
-        // Check cache first
-        Boolean cached = regionIsTowerCache.get(regionName);
-        if (cached != null) {
-            return cached;
-        }
-        
-        // Not in cache, perform lookup
-        String towerId = towerManager.getTowerByRegion(regionName);
-        int floor = towerManager.getFloorByRegion(regionName);
-        boolean result = towerId != null && floor >= 0;
-        
-        // Cache the result
-        regionIsTowerCache.put(regionName, result);
-        
-        return result;
+        return towerManager.getFloorRef(regionName) != null;
     }
 
     /**
@@ -314,10 +507,10 @@ public class ZoneManager implements Listener {
             return enterWithoutLevelCheck(player, regionName);
         }
 
-        String towerId = towerManager.getTowerByRegion(regionName);
-        int floor = towerManager.getFloorByRegion(regionName);
-
-        if (towerId == null || floor <= 0) return true; // pas une tour
+        TowerFloorRef ref = towerManager.getFloorRef(regionName);
+        if (ref == null || !ref.isFloor()) return true; // pas une tour
+        String towerId = ref.towerId();
+        int floor = ref.floor();
 
         TowerConfig tower = towerManager.getTower(towerId);
         if (tower == null) return true;
@@ -380,10 +573,10 @@ public class ZoneManager implements Listener {
      * Entree sans check de niveau (bypass)
      */
     private boolean enterWithoutLevelCheck(Player player, String regionName) {
-        String towerId = towerManager.getTowerByRegion(regionName);
-        int floor = towerManager.getFloorByRegion(regionName);
-
-        if (towerId == null || floor <= 0) return true;
+        TowerFloorRef ref = towerManager.getFloorRef(regionName);
+        if (ref == null || !ref.isFloor()) return true;
+        String towerId = ref.towerId();
+        int floor = ref.floor();
 
         TowerConfig tower = towerManager.getTower(towerId);
         if (tower == null) return true;
@@ -407,9 +600,9 @@ public class ZoneManager implements Listener {
      */
     private void handleLeaveTower(Player player) {
         // Restore main inventory and unequip dungeon armor
-        String regionName = currentRegion.get(player.getUniqueId());
-        String towerId = regionName != null ? towerManager.getTowerByRegion(regionName) : null;
-        int floor = regionName != null ? towerManager.getFloorByRegion(regionName) : 0;
+        TowerFloorRef ref = towerManager.getFloorRef(currentRegion.get(player.getUniqueId()));
+        String towerId = ref != null ? ref.towerId() : null;
+        int floor = ref != null ? ref.floor() : 0;
 
         if (towerInventoryManager != null) {
             towerInventoryManager.onLeaveTower(player, towerId);
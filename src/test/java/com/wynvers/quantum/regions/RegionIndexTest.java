@@ -0,0 +1,157 @@
+package com.wynvers.quantum.regions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * RegionIndex must answer exactly like the linear scan it replaced:
+ * first registered region containing the block, boundaries inclusive.
+ */
+class RegionIndexTest {
+
+    private final RegionIndex index = new RegionIndex();
+    private final List<InternalRegion> registered = new ArrayList<>();
+
+    private InternalRegion add(String id, String world, int x1, int y1, int z1, int x2, int y2, int z2) {
+        InternalRegion region = new InternalRegion(id, world, x1, y1, z1, x2, y2, z2);
+        index.add(region);
+        registered.add(region);
+        return region;
+    }
+
+    private void remove(InternalRegion region) {
+        index.remove(region);
+        registered.remove(region);
+    }
+
+    private InternalRegion linearScan(String world, int x, int y, int z) {
+        for (InternalRegion region : registered) {
+            if (region.getWorldName().equals(world)
+                    && x >= region.getMinX() && x <= region.getMaxX()
+                    && y >= region.getMinY() && y <= region.getMaxY()
+                    && z >= region.getMinZ() && z <= region.getMaxZ()) {
+                return region;
+            }
+        }
+        return null;
+    }
+
+    private void assertSameAsLinearScan(String world, int x, int y, int z) {
+        assertSame(linearScan(world, x, y, z), index.find(world, x, y, z),
+                () -> "lookup mismatch at " + world + " " + x + "," + y + "," + z);
+    }
+
+    /**
+     * Every corner and face of every region, one block inside and one block outside
+     */
+    private void assertBoundariesMatch() {
+        for (InternalRegion region : new ArrayList<>(registered)) {
+            int[] xs = {region.getMinX() - 1, region.getMinX(), region.getMaxX(), region.getMaxX() + 1};
+            int[] ys = {region.getMinY() - 1, region.getMinY(), region.getMaxY(), region.getMaxY() + 1};
+            int[] zs = {region.getMinZ() - 1, region.getMinZ(), region.getMaxZ(), region.getMaxZ() + 1};
+            for (int x : xs) {
+                for (int y : ys) {
+                    for (int z : zs) {
+                        assertSameAsLinearScan(region.getWorldName(), x, y, z);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void boundariesAreInclusiveAcrossChunkEdges() {
+        // 15/16 et -1/0 : la région chevauche deux chunks sur chaque axe
+        InternalRegion edge = add("edge", "world", 15, 0, -1, 16, 10, 0);
+
+        assertSame(edge, index.find("world", 15, 0, -1));
+        assertSame(edge, index.find("world", 16, 10, 0));
+        assertNull(index.find("world", 14, 5, 0));
+        assertNull(index.find("world", 17, 5, 0));
+        assertNull(index.find("world", 15, 11, 0));
+        assertNull(index.find("world", 15, 5, -2));
+        assertNull(index.find("world_nether", 15, 5, 0));
+        assertBoundariesMatch();
+    }
+
+    @Test
+    void overlappingRegionsReturnFirstRegistered() {
+        InternalRegion outer = add("outer", "world", -40, 0, -40, 40, 100, 40);
+        InternalRegion inner = add("inner", "world", -5, 10, -5, 5, 20, 5);
+        InternalRegion shifted = add("shifted", "world", 30, 0, 30, 70, 100, 70);
+
+        assertSame(outer, index.find("world", 0, 15, 0));
+        assertSame(outer, index.find("world", 35, 50, 35));
+        assertSame(shifted, index.find("world", 41, 50, 41));
+        assertBoundariesMatch();
+
+        remove(outer);
+        assertSame(inner, index.find("world", 0, 15, 0));
+        assertSame(shifted, index.find("world", 35, 50, 35));
+        assertBoundariesMatch();
+    }
+
+    @Test
+    void oversizedRegionKeepsRegistrationOrder() {
+        InternalRegion small = add("small", "world", 0, 0, 0, 31, 255, 31);
+        // Plus de 4096 chunks : rangée dans la liste parcourue à chaque recherche
+        InternalRegion huge = add("huge", "world", -2000, 0, -2000, 2000, 255, 2000);
+        InternalRegion later = add("later", "world", 100, 0, 100, 120, 255, 120);
+
+        assertSame(small, index.find("world", 10, 64, 10));
+        assertSame(huge, index.find("world", 110, 64, 110));
+        assertSame(huge, index.find("world", -2000, 0, 2000));
+        assertNull(index.find("world", -2001, 0, 0));
+        assertBoundariesMatch();
+
+        remove(huge);
+        assertSame(later, index.find("world", 110, 64, 110));
+        assertBoundariesMatch();
+    }
+
+    @Test
+    void randomRegionsMatchLinearScan() {
+        Random random = new Random(42);
+        String[] worlds = {"world", "world_nether"};
+        for (int i = 0; i < 200; i++) {
+            int x = random.nextInt(1024) - 512;
+            int y = random.nextInt(256) - 64;
+            int z = random.nextInt(1024) - 512;
+            add("r" + i, worlds[random.nextInt(worlds.length)],
+                    x, y, z, x + random.nextInt(80), y + random.nextInt(40), z + random.nextInt(80));
+        }
+        add("oversized", "world", -3000, -64, -3000, 3000, 320, 3000);
+
+        for (int i = 0; i < 20000; i++) {
+            assertSameAsLinearScan(worlds[random.nextInt(worlds.length)],
+                    random.nextInt(1200) - 600, random.nextInt(320) - 64, random.nextInt(1200) - 600);
+        }
+        assertBoundariesMatch();
+
+        for (int i = 0; i < 50; i++) {
+            remove(registered.get(random.nextInt(registered.size())));
+        }
+        for (int i = 0; i < 20000; i++) {
+            assertSameAsLinearScan(worlds[random.nextInt(worlds.length)],
+                    random.nextInt(1200) - 600, random.nextInt(320) - 64, random.nextInt(1200) - 600);
+        }
+        assertBoundariesMatch();
+    }
+
+    @Test
+    void clearEmptiesEveryWorld() {
+        add("a", "world", 0, 0, 0, 10, 10, 10);
+        add("b", "world_nether", 0, 0, 0, 10, 10, 10);
+        index.clear();
+        registered.clear();
+
+        assertNull(index.find("world", 5, 5, 5));
+        assertNull(index.find("world_nether", 5, 5, 5));
+    }
+}
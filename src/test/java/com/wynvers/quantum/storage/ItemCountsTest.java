@@ -0,0 +1,148 @@
+package com.wynvers.quantum.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ItemCounts doit se comporter comme une Map&lt;Integer, Long&gt; sans valeurs nulles :
+ * chaînes de sondage intactes après suppression, agrandissement et total tenu à jour.
+ */
+class ItemCountsTest {
+
+    /**
+     * Clés dont la place d'origine est la même dans un tableau de 16 cases
+     */
+    private static int[] collidingKeys(int home, int count) {
+        int[] keys = new int[count];
+        int found = 0;
+        for (int key = 0; found < count; key++) {
+            if ((ItemCounts.mix(key) & 15) == home) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    private static void assertMatches(Map<Integer, Long> expected, ItemCounts counts) {
+        long total = 0;
+        for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+            assertEquals((long) entry.getValue(), counts.get(entry.getKey()), "amount of key " + entry.getKey());
+            total += entry.getValue();
+        }
+        assertEquals(expected.size(), counts.size(), "size");
+        assertEquals(total, counts.total(), "total");
+
+        Map<Integer, Long> visited = new HashMap<>();
+        counts.forEach((key, amount) -> assertEquals(null, visited.put(key, amount), "key visited twice: " + key));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void removingAnyMemberOfACollisionChainKeepsTheOthers() {
+        // Place d'origine 15 : la chaîne fait le tour du tableau, ce qui couvre le cas gap > next
+        int[] chain = collidingKeys(15, 5);
+        int[] neighbours = collidingKeys(0, 2);
+
+        for (int removed = 0; removed < chain.length; removed++) {
+            ItemCounts counts = new ItemCounts();
+            Map<Integer, Long> expected = new HashMap<>();
+            for (int i = 0; i < chain.length; i++) {
+                counts.set(chain[i], i + 1);
+                expected.put(chain[i], (long) i + 1);
+                if (i < neighbours.length) {
+                    // Intercalées avec la chaîne : occupent les cases où elle déborde
+                    counts.set(neighbours[i], 100 + i);
+                    expected.put(neighbours[i], 100L + i);
+                }
+            }
+            assertMatches(expected, counts);
+
+            counts.set(chain[removed], 0);
+            expected.remove(chain[removed]);
+            assertMatches(expected, counts);
+
+            counts.add(chain[removed], 42);
+            expected.put(chain[removed], 42L);
+            assertMatches(expected, counts);
+        }
+    }
+
+    @Test
+    void addNeverGoesBelowZeroAndZeroRemovesTheKey() {
+        ItemCounts counts = new ItemCounts();
+
+        assertEquals(5L, counts.add(7, 5));
+        assertEquals(0L, counts.add(7, -10));
+        assertEquals(0, counts.size());
+        assertEquals(0L, counts.total());
+
+        assertEquals(0L, counts.set(7, 0));
+        assertEquals(0L, counts.add(8, -3));
+        assertEquals(0, counts.size());
+    }
+
+    @Test
+    void resizingKeepsEveryKey() {
+        ItemCounts counts = new ItemCounts();
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int key = 0; key < 2000; key++) {
+            counts.set(key, key + 1L);
+            expected.put(key, key + 1L);
+        }
+        assertMatches(expected, counts);
+
+        for (int key = 0; key < 2000; key += 2) {
+            counts.add(key, -(key + 1L));
+            expected.remove(key);
+        }
+        assertMatches(expected, counts);
+
+        for (int key = 0; key < 2000; key += 4) {
+            counts.set(key, 3);
+            expected.put(key, 3L);
+        }
+        assertMatches(expected, counts);
+    }
+
+    @Test
+    void randomOperationsMatchAHashMap() {
+        Random random = new Random(7);
+        ItemCounts counts = new ItemCounts();
+        Map<Integer, Long> expected = new HashMap<>();
+        List<Integer> pool = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // Clés vanilla denses et clés Nexo au-delà
+            pool.add(random.nextBoolean() ? random.nextInt(1500) : 5000 + random.nextInt(300));
+        }
+
+        for (int step = 0; step < 50000; step++) {
+            int key = pool.get(random.nextInt(pool.size()));
+            long previous = expected.getOrDefault(key, 0L);
+            long result;
+            if (random.nextInt(3) == 0) {
+                long amount = random.nextInt(4) == 0 ? 0 : random.nextInt(1000);
+                result = counts.set(key, amount);
+            } else {
+                long delta = random.nextInt(600) - 300;
+                result = counts.add(key, delta);
+                assertEquals(Math.max(0L, previous + delta), result);
+            }
+            if (result > 0) {
+                expected.put(key, result);
+            } else {
+                expected.remove(key);
+            }
+            if (step % 5000 == 0) {
+                assertMatches(expected, counts);
+            }
+        }
+        assertMatches(expected, counts);
+    }
+}
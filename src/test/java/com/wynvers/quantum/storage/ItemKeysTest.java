@@ -0,0 +1,115 @@
+package com.wynvers.quantum.storage;
+
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Le registre est statique : chaque test utilise ses propres ids Nexo
+ */
+class ItemKeysTest {
+
+    private static String uniqueId(String name) {
+        return name + "_" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Test
+    void vanillaKeysRoundTrip() {
+        int key = ItemKeys.of(Material.STONE);
+
+        assertEquals(Material.STONE.ordinal(), key);
+        assertTrue(ItemKeys.isVanilla(key));
+        assertSame(Material.STONE, ItemKeys.material(key));
+        assertNull(ItemKeys.nexoId(key));
+        assertEquals("minecraft:stone", ItemKeys.itemId(key));
+        assertEquals(key, ItemKeys.find("minecraft:stone"));
+        assertEquals(key, ItemKeys.find("minecraft:STONE"));
+    }
+
+    @Test
+    void nexoIdsAreInternedOnce() {
+        String nexoId = uniqueId("ruby");
+        assertEquals(ItemKeys.NONE, ItemKeys.findNexo(nexoId));
+        assertEquals(ItemKeys.NONE, ItemKeys.find("nexo:" + nexoId));
+
+        int key = ItemKeys.ofNexo(nexoId);
+
+        assertEquals(key, ItemKeys.ofNexo(nexoId));
+        assertEquals(key, ItemKeys.findNexo(nexoId));
+        assertEquals(key, ItemKeys.find("nexo:" + nexoId));
+        assertFalse(ItemKeys.isVanilla(key));
+        assertNull(ItemKeys.material(key));
+        assertEquals(nexoId, ItemKeys.nexoId(key));
+        assertEquals("nexo:" + nexoId, ItemKeys.itemId(key));
+    }
+
+    @Test
+    void unknownIdsAreNone() {
+        assertEquals(ItemKeys.NONE, ItemKeys.find(null));
+        assertEquals(ItemKeys.NONE, ItemKeys.find("minecraft:not_a_material"));
+        assertEquals(ItemKeys.NONE, ItemKeys.find(uniqueId("nexo:missing")));
+        assertEquals(ItemKeys.NONE, ItemKeys.find("stone"));
+    }
+
+    @Test
+    void registryGrowsPastItsInitialCapacity() {
+        List<String> ids = new ArrayList<>();
+        Set<Integer> keys = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            String nexoId = uniqueId("item" + i);
+            ids.add(nexoId);
+            assertTrue(keys.add(ItemKeys.ofNexo(nexoId)), "key reused for " + nexoId);
+        }
+        for (String nexoId : ids) {
+            int key = ItemKeys.findNexo(nexoId);
+            assertEquals(nexoId, ItemKeys.nexoId(key));
+            assertEquals("nexo:" + nexoId, ItemKeys.itemId(key));
+        }
+    }
+
+    @Test
+    void concurrentRegistrationGivesOneKeyPerId() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(uniqueId("shared" + i));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    int[] keys = new int[ids.size()];
+                    for (int i = 0; i < ids.size(); i++) {
+                        keys[i] = ItemKeys.ofNexo(ids.get(i));
+                    }
+                    return keys;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                int[] keys = result.get();
+                for (int i = 0; i < ids.size(); i++) {
+                    assertEquals(first[i], keys[i], "key of " + ids.get(i));
+                    assertEquals(ids.get(i), ItemKeys.nexoId(keys[i]));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.wynvers.quantum.storage;
+
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Suivi des clés modifiées (write-behind) : drain, restauration après échec, report d'un storage détaché
+ */
+class PlayerStorageTest {
+
+    private final PlayerStorage storage = new PlayerStorage(UUID.randomUUID());
+
+    private static int[] sorted(int... keys) {
+        int[] copy = keys.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    /**
+     * PreparedStatement qui retient les paramètres de chaque ligne ajoutée au lot
+     */
+    private static PreparedStatement recorder(List<List<Object>> rows) {
+        List<Object> current = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(PlayerStorageTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setString", "setInt" -> current.add(args[1]);
+                        case "addBatch" -> {
+                            rows.add(new ArrayList<>(current));
+                            current.clear();
+                        }
+                        default -> {
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    void drainReturnsEachModifiedKeyOnce() {
+        storage.addItem(Material.STONE, 10);
+        storage.addItem(Material.STONE, 5);
+        storage.addItem(Material.DIRT, 3);
+        assertTrue(storage.hasPendingChanges());
+
+        PlayerStorage.DirtyKeys keys = storage.drainDirtyKeys();
+
+        assertArrayEquals(sorted(ItemKeys.of(Material.STONE), ItemKeys.of(Material.DIRT)), sorted(keys.keys()));
+        assertFalse(storage.hasPendingChanges());
+        assertTrue(storage.drainDirtyKeys().isEmpty());
+    }
+
+    @Test
+    void failedWriteRestoresTheDrainedKeys() {
+        storage.addItem(Material.STONE, 10);
+        storage.addNexoItem("test_ruby", 2);
+        PlayerStorage.DirtyKeys drained = storage.drainDirtyKeys();
+
+        storage.restoreDirtyKeys(drained);
+
+        assertTrue(storage.hasPendingChanges());
+        assertArrayEquals(sorted(drained.keys()), sorted(storage.drainDirtyKeys().keys()));
+        assertEquals(10, storage.getAmount(Material.STONE));
+        assertEquals(2, storage.getNexoAmount("test_ruby"));
+    }
+
+    @Test
+    void changeAfterDrainIsTrackedForTheNextFlush() {
+        storage.addItem(Material.STONE, 10);
+        storage.drainDirtyKeys();
+
+        storage.removeItem(Material.STONE, 4);
+
+        assertArrayEquals(new int[]{ItemKeys.of(Material.STONE)}, storage.drainDirtyKeys().keys());
+        assertEquals(6, storage.getAmount(Material.STONE));
+    }
+
+    @Test
+    void batchUpsertsCurrentAmountsAndDeletesEmptiedKeys() throws Exception {
+        storage.addItem(Material.STONE, 10);
+        storage.addItem(Material.DIRT, 3);
+        storage.addNexoItem("test_sapphire", 7);
+        storage.drainDirtyKeys();
+        storage.removeItem(Material.DIRT, 3);
+        storage.addItem(Material.STONE, 1);
+        storage.addNexoItem("test_sapphire", 1);
+
+        List<List<Object>> upserts = new ArrayList<>();
+        List<List<Object>> deletes = new ArrayList<>();
+        storage.addToBatch(storage.drainDirtyKeys(), recorder(upserts), recorder(deletes));
+
+        String uuid = storage.getUuid().toString();
+        assertEquals(2, upserts.size());
+        assertTrue(upserts.contains(List.of(uuid, "STONE", "", 11)));
+        assertTrue(upserts.contains(List.of(uuid, "", "test_sapphire", 8)));
+        assertEquals(List.of(List.of(uuid, "DIRT", "")), deletes);
+    }
+
+    @Test
+    void detachedStorageTransfersItsAdditions() {
+        PlayerStorage detached = PlayerStorage.unavailable(storage.getUuid());
+        storage.addItem(Material.STONE, 5);
+        storage.drainDirtyKeys();
+
+        detached.addItem(Material.STONE, 3);
+        detached.addNexoItem("test_emerald", 4);
+        detached.transferTo(storage);
+
+        assertFalse(detached.isAvailable());
+        assertFalse(detached.hasPendingChanges());
+        assertEquals(0, detached.getUniqueItemCount());
+        assertEquals(8, storage.getAmount(Material.STONE));
+        assertEquals(4, storage.getNexoAmount("test_emerald"));
+        assertArrayEquals(sorted(ItemKeys.of(Material.STONE), ItemKeys.findNexo("test_emerald")),
+                sorted(storage.drainDirtyKeys().keys()));
+    }
+}